@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.benchmark;
+
+import prm4j.indexing.binding.ArrayBasedBindingFactory;
+import prm4j.indexing.binding.BindingFactory;
+import prm4j.indexing.binding.LinkedListBindingFactory;
+
+/**
+ * The {@link BindingFactory} implementations under benchmark.
+ */
+public enum BindingFactoryType {
+
+    ARRAY_BASED {
+	@Override
+	BindingFactory create() {
+	    return new ArrayBasedBindingFactory();
+	}
+    },
+
+    LINKED_LIST {
+	@Override
+	BindingFactory create() {
+	    return new LinkedListBindingFactory();
+	}
+    };
+
+    abstract BindingFactory create();
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.benchmark;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import prm4j.api.Alphabet;
+import prm4j.api.Parameter;
+import prm4j.indexing.binding.Binding;
+import prm4j.indexing.binding.BindingStore;
+
+/**
+ * Measures binding lookups in a {@link BindingStore} holding a large number of live bindings of a single parameter.
+ * The default sizes need a heap of about 4 GB (<code>-jvmArgs -Xmx4g</code>); larger sizes can be given by
+ * <code>-p liveBindings=30000000</code> with a correspondingly larger heap.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BindingStoreBenchmark {
+
+    @Param({ "1000000", "10000000" })
+    public int liveBindings;
+
+    @Param({ "DEFAULT", "STEP_CLEANING", "OPEN_ADDRESSING" })
+    public BindingStoreType bindingStore;
+
+    @Param({ "ARRAY_BASED", "LINKED_LIST" })
+    public BindingFactoryType bindingFactory;
+
+    private BindingStore store;
+    private Object[] liveObjects;
+    private final Object[] boundObjects = new Object[1];
+    private long seed = 42L;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+	final Alphabet alphabet = new Alphabet();
+	final Set<Parameter<?>> fullParameterSet = Collections
+		.<Parameter<?>> singleton(alphabet.createParameter("p", Object.class));
+	store = bindingStore.create(bindingFactory.create(), fullParameterSet);
+	liveObjects = new Object[liveBindings];
+	for (int i = 0; i < liveObjects.length; i++) {
+	    liveObjects[i] = new Object();
+	    store.getOrCreateBinding(liveObjects[i]);
+	}
+    }
+
+    /**
+     * Retrieves the binding of a random live object, like the engine does for each event.
+     */
+    @Benchmark
+    public Binding[] getBindings() {
+	boundObjects[0] = liveObjects[nextInt(liveObjects.length)];
+	return store.getBindings(boundObjects);
+    }
+
+    /**
+     * Looks up an object which has no binding, which probes until the end of the collision chain or probe sequence.
+     */
+    @Benchmark
+    public Binding getBinding_unknownObject() {
+	return store.getBinding(new Object());
+    }
+
+    /**
+     * xorshift64*
+     */
+    private int nextInt(int bound) {
+	seed ^= seed >>> 12;
+	seed ^= seed << 25;
+	seed ^= seed >>> 27;
+	return (int) (((seed * 2685821657736338717L) >>> 1) % bound);
+    }
+
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.benchmark;
+
+import java.util.Set;
+
+import prm4j.api.Parameter;
+import prm4j.indexing.binding.BindingFactory;
+import prm4j.indexing.binding.BindingStore;
+import prm4j.indexing.binding.DefaultBindingStore;
+import prm4j.indexing.binding.OpenAddressingBindingStore;
+import prm4j.indexing.binding.StepCleaningBindingStore;
+
+/**
+ * The {@link BindingStore} implementations under benchmark.
+ */
+public enum BindingStoreType {
+
+    DEFAULT {
+	@Override
+	BindingStore create(BindingFactory bindingFactory, Set<Parameter<?>> fullParameterSet) {
+	    return new DefaultBindingStore(bindingFactory, fullParameterSet);
+	}
+    },
+
+    STEP_CLEANING {
+	@Override
+	BindingStore create(BindingFactory bindingFactory, Set<Parameter<?>> fullParameterSet) {
+	    return new StepCleaningBindingStore(bindingFactory, fullParameterSet);
+	}
+    },
+
+    OPEN_ADDRESSING {
+	@Override
+	BindingStore create(BindingFactory bindingFactory, Set<Parameter<?>> fullParameterSet) {
+	    return new OpenAddressingBindingStore(bindingFactory, fullParameterSet);
+	}
+    };
+
+    abstract BindingStore create(BindingFactory bindingFactory, Set<Parameter<?>> fullParameterSet);
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import prm4j.api.ParametricMonitor;
+import prm4j.benchmark.Property.Definition;
+import prm4j.indexing.DefaultParametricMonitor;
+import prm4j.indexing.binding.BindingStore;
+import prm4j.indexing.model.ParametricPropertyProcessor;
+import prm4j.indexing.node.DefaultNodeStore;
+import prm4j.indexing.node.NodeManager;
+import prm4j.spec.finite.FiniteParametricProperty;
+
+/**
+ * Measures {@link DefaultParametricMonitor#processEvent} for a single event. Throughput mode reports events per
+ * microsecond, sample time mode reports the per-event latency distribution (p50, p90, p99, p99.9, ...). Run with
+ * <code>-prof gc</code> to get the allocation rate per event (<code>gc.alloc.rate.norm</code>).
+ * <p>
+ * The creation of the event (one {@link prm4j.api.Event} and its array of bound objects) is part of each measured
+ * operation, just like in an instrumented application. The symbol-based variant shows the cost without this
+ * allocation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProcessEventBenchmark {
+
+    @Param({ "SafeMapIterator", "HasNext", "SafeSyncCollection", "a_ab_a_b", "ab_bc_c", "ab_bc_ac", "ab_bc_cd_ad" })
+    public Property property;
+
+    /**
+     * Number of live objects per parameter.
+     */
+    @Param({ "1000", "100000" })
+    public int liveObjects;
+
+    /**
+     * Probability that an event is preceded by the death of the objects it binds.
+     */
+    @Param({ "0.0", "0.01" })
+    public double churn;
+
+    @Param({ "DEFAULT", "STEP_CLEANING", "OPEN_ADDRESSING" })
+    public BindingStoreType bindingStore;
+
+    @Param({ "ARRAY_BASED", "LINKED_LIST" })
+    public BindingFactoryType bindingFactory;
+
+    private Definition definition;
+    private Workload workload;
+    private ParametricMonitor parametricMonitor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+	definition = property.create();
+	workload = new Workload(definition.alphabet, liveObjects, churn, 42L);
+	parametricMonitor = createParametricMonitor(definition, bindingStore, bindingFactory);
+    }
+
+    /**
+     * Matches are recorded by the match handlers of the test tree; we drop them to keep the heap stable.
+     */
+    @Setup(Level.Iteration)
+    public void clearMatches() {
+	definition.handledMatches.clear();
+    }
+
+    @Benchmark
+    public void processEvent() {
+	parametricMonitor.processEvent(workload.nextEvent());
+    }
+
+    /**
+     * Same stream of events, passed by the symbol-based methods which do not need an {@link prm4j.api.Event}.
+     */
+    @Benchmark
+    public void processSymbolEvent() {
+	workload.processNextEvent(parametricMonitor);
+    }
+
+    /**
+     * Builds the object graph like {@link prm4j.api.ParametricMonitorFactory}, but with the given store and factory.
+     */
+    static ParametricMonitor createParametricMonitor(Definition definition, BindingStoreType bindingStoreType,
+	    BindingFactoryType bindingFactoryType) {
+	final ParametricPropertyProcessor processor = new ParametricPropertyProcessor(new FiniteParametricProperty(
+		definition.spec));
+	final BindingStore bindingStore = bindingStoreType.create(bindingFactoryType.create(),
+		definition.spec.getFullParameterSet());
+	final NodeManager nodeManager = new NodeManager();
+	return new DefaultParametricMonitor(bindingStore, new DefaultNodeStore(processor.getParameterTree(),
+		nodeManager), definition.spec.getMonitorPrototype(), processor.getEventContext(), nodeManager, false);
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import prm4j.api.Event;
+import prm4j.api.ParametricMonitor;
+import prm4j.benchmark.Property.Definition;
+
+/**
+ * Compares {@link ParametricMonitor#processEvents} with calling {@link ParametricMonitor#processEvent} for each event
+ * of the same batch. Both report events per microsecond.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProcessEventsBenchmark {
+
+    private final static int BATCH_SIZE = 256;
+
+    @Param({ "SafeMapIterator", "HasNext", "SafeSyncCollection", "a_ab_a_b", "ab_bc_c", "ab_bc_ac", "ab_bc_cd_ad" })
+    public Property property;
+
+    /**
+     * Number of live objects per parameter.
+     */
+    @Param({ "1000", "100000" })
+    public int liveObjects;
+
+    /**
+     * Probability that an event is preceded by the death of the objects it binds.
+     */
+    @Param({ "0.0", "0.01" })
+    public double churn;
+
+    private Definition definition;
+    private Workload workload;
+    private ParametricMonitor parametricMonitor;
+    private final Event[] batch = new Event[BATCH_SIZE];
+
+    @Setup(Level.Trial)
+    public void setUp() {
+	definition = property.create();
+	workload = new Workload(definition.alphabet, liveObjects, churn, 42L);
+	parametricMonitor = ProcessEventBenchmark.createParametricMonitor(definition, BindingStoreType.DEFAULT,
+		BindingFactoryType.LINKED_LIST);
+    }
+
+    @Setup(Level.Iteration)
+    public void clearMatches() {
+	definition.handledMatches.clear();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void processEvents() {
+	fillBatch();
+	parametricMonitor.processEvents(batch, 0, BATCH_SIZE);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void processEventsOneByOne() {
+	fillBatch();
+	for (int i = 0; i < BATCH_SIZE; i++) {
+	    parametricMonitor.processEvent(batch[i]);
+	}
+    }
+
+    private void fillBatch() {
+	for (int i = 0; i < BATCH_SIZE; i++) {
+	    batch[i] = workload.nextEvent();
+	}
+    }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.benchmark;
+
+import java.util.List;
+
+import prm4j.api.Alphabet;
+import prm4j.api.fsm.FSM;
+import prm4j.api.fsm.FSMSpec;
+import prm4j.spec.finite.FiniteSpec;
+import prm4j.util.FSMDefinitions;
+import prm4j.util.FSMDefinitions.FSM_HasNext;
+import prm4j.util.FSMDefinitions.FSM_SafeMapIterator;
+import prm4j.util.FSMDefinitions.FSM_SafeSyncCollection;
+import prm4j.util.FSMDefinitions.FSM_a_ab_a_b;
+import prm4j.util.FSMDefinitions.FSM_ab_bc_ac;
+import prm4j.util.FSMDefinitions.FSM_ab_bc_c;
+import prm4j.util.FSMDefinitions.FSM_ab_bc_cd_ad;
+
+/**
+ * The canonical properties of the test tree ({@link FSMDefinitions}) which are driven by the benchmarks.
+ */
+public enum Property {
+
+    SafeMapIterator {
+	@Override
+	Definition create() {
+	    final FSM_SafeMapIterator fsm = new FSM_SafeMapIterator();
+	    return new Definition(fsm.alphabet, fsm.fsm, fsm.matchHandler.getHandledMatches());
+	}
+    },
+
+    HasNext {
+	@Override
+	Definition create() {
+	    final FSM_HasNext fsm = new FSMDefinitions() {
+	    }.new FSM_HasNext();
+	    return new Definition(fsm.alphabet, fsm.fsm, fsm.matchHandler.getHandledMatches());
+	}
+    },
+
+    SafeSyncCollection {
+	@Override
+	Definition create() {
+	    final FSM_SafeSyncCollection fsm = new FSM_SafeSyncCollection();
+	    return new Definition(fsm.alphabet, fsm.fsm, fsm.matchHandler.getHandledMatches());
+	}
+    },
+
+    a_ab_a_b {
+	@Override
+	Definition create() {
+	    final FSM_a_ab_a_b fsm = new FSM_a_ab_a_b();
+	    return new Definition(fsm.alphabet, fsm.fsm, fsm.matchHandler.getHandledMatches());
+	}
+    },
+
+    ab_bc_c {
+	@Override
+	Definition create() {
+	    final FSM_ab_bc_c fsm = new FSM_ab_bc_c();
+	    return new Definition(fsm.alphabet, fsm.fsm, fsm.matchHandler.getHandledMatches());
+	}
+    },
+
+    ab_bc_ac {
+	@Override
+	Definition create() {
+	    final FSM_ab_bc_ac fsm = new FSM_ab_bc_ac();
+	    return new Definition(fsm.alphabet, fsm.fsm, fsm.matchHandler.getHandledMatches());
+	}
+    },
+
+    ab_bc_cd_ad {
+	@Override
+	Definition create() {
+	    final FSM_ab_bc_cd_ad fsm = new FSM_ab_bc_cd_ad();
+	    return new Definition(fsm.alphabet, fsm.fsm, fsm.matchHandler.getHandledMatches());
+	}
+    };
+
+    /**
+     * @return a fresh instance of the property, not shared with any other monitor
+     */
+    abstract Definition create();
+
+    /**
+     * A property instance together with the list its match handler records matches in.
+     */
+    static class Definition {
+
+	final Alphabet alphabet;
+	final FiniteSpec spec;
+	final List<Object> handledMatches;
+
+	Definition(Alphabet alphabet, FSM fsm, List<Object> handledMatches) {
+	    this.alphabet = alphabet;
+	    spec = new FSMSpec(fsm);
+	    this.handledMatches = handledMatches;
+	}
+
+    }
+
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.benchmark;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import prm4j.api.Alphabet;
+import prm4j.api.Event;
+import prm4j.api.ParametricMonitor;
+import prm4j.api.Symbol;
+import prm4j.api.Symbol0;
+import prm4j.api.Symbol1;
+import prm4j.api.Symbol2;
+import prm4j.api.Symbol3;
+
+/**
+ * Generates an endless stream of events over a fixed number of slots. Each slot holds one live object per parameter,
+ * events bind the objects of a single slot, so each slot forms a small family of related parametric instances (e.g. a
+ * map, its collection and an iterator). With probability <code>churn</code>, the objects of the selected slot are
+ * replaced by fresh ones before the event is created; the old objects become garbage and their bindings, nodes and
+ * monitors have to be reclaimed.
+ */
+public class Workload {
+
+    private final Symbol[] symbols;
+    /**
+     * For each symbol, the parameter indices of its arguments in declaration order.
+     */
+    private final int[][] argumentIndices;
+    private final int parameterCount;
+    private final Object[][] slots;
+    private final double churn;
+    private long seed;
+
+    /**
+     * @param alphabet
+     *            symbols are selected uniformly from this alphabet
+     * @param liveObjects
+     *            number of live objects per parameter
+     * @param churn
+     *            probability in [0, 1] that the objects of a slot are replaced before an event is created
+     * @param seed
+     *            makes the stream repeatable
+     */
+    public Workload(Alphabet alphabet, int liveObjects, double churn, long seed) {
+	symbols = alphabet.getSymbols().toArray(new Symbol[0]);
+	Arrays.sort(symbols, new Comparator<Symbol>() {
+	    @Override
+	    public int compare(Symbol s1, Symbol s2) {
+		return s1.getIndex() - s2.getIndex();
+	    }
+	});
+	parameterCount = alphabet.getParameterCount();
+	argumentIndices = new int[symbols.length][];
+	for (int i = 0; i < symbols.length; i++) {
+	    argumentIndices[i] = getArgumentIndices(symbols[i]);
+	}
+	slots = new Object[liveObjects][];
+	for (int i = 0; i < slots.length; i++) {
+	    slots[i] = createObjects();
+	}
+	this.churn = churn;
+	this.seed = seed != 0L ? seed : 1L;
+    }
+
+    private Object[] createObjects() {
+	final Object[] objects = new Object[parameterCount];
+	for (int i = 0; i < objects.length; i++) {
+	    objects[i] = new Object();
+	}
+	return objects;
+    }
+
+    /**
+     * @return the next event of the stream
+     */
+    public Event nextEvent() {
+	final int slot = nextInt(slots.length);
+	if (churn > 0.0 && nextDouble() < churn) {
+	    slots[slot] = createObjects();
+	}
+	final Symbol symbol = symbols[nextInt(symbols.length)];
+	final Object[] boundObjects = new Object[parameterCount];
+	for (int parameterIndex : symbol.getParameterMask()) {
+	    boundObjects[parameterIndex] = slots[slot][parameterIndex];
+	}
+	return new Event(symbol, boundObjects);
+    }
+
+    /**
+     * Processes the next event of the stream by the symbol-based methods of the parametric monitor, which do not
+     * require an {@link Event}.
+     * 
+     * @param parametricMonitor
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public void processNextEvent(ParametricMonitor parametricMonitor) {
+	final int slot = nextInt(slots.length);
+	if (churn > 0.0 && nextDouble() < churn) {
+	    slots[slot] = createObjects();
+	}
+	final int symbolIndex = nextInt(symbols.length);
+	final Symbol symbol = symbols[symbolIndex];
+	final int[] arguments = argumentIndices[symbolIndex];
+	final Object[] objects = slots[slot];
+	switch (arguments.length) {
+	case 0:
+	    parametricMonitor.processEvent((Symbol0) symbol);
+	    break;
+	case 1:
+	    parametricMonitor.processEvent((Symbol1) symbol, objects[arguments[0]]);
+	    break;
+	case 2:
+	    parametricMonitor.processEvent((Symbol2) symbol, objects[arguments[0]], objects[arguments[1]]);
+	    break;
+	default:
+	    parametricMonitor.processEvent((Symbol3) symbol, objects[arguments[0]], objects[arguments[1]],
+		    objects[arguments[2]]);
+	}
+    }
+
+    /**
+     * Binds distinct markers to find out which argument is bound to which parameter.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private int[] getArgumentIndices(Symbol symbol) {
+	final Object[] markers = new Object[] { new Object(), new Object(), new Object() };
+	final Object[] boundObjects = symbol.createObjectArray();
+	if (symbol instanceof Symbol1) {
+	    ((Symbol1) symbol).bindObjects(boundObjects, markers[0]);
+	} else if (symbol instanceof Symbol2) {
+	    ((Symbol2) symbol).bindObjects(boundObjects, markers[0], markers[1]);
+	} else if (symbol instanceof Symbol3) {
+	    ((Symbol3) symbol).bindObjects(boundObjects, markers[0], markers[1], markers[2]);
+	}
+	final int[] result = new int[symbol.getParameterCount()];
+	for (int i = 0; i < result.length; i++) {
+	    for (int parameterIndex = 0; parameterIndex < boundObjects.length; parameterIndex++) {
+		if (boundObjects[parameterIndex] == markers[i]) {
+		    result[i] = parameterIndex;
+		}
+	    }
+	}
+	return result;
+    }
+
+    /**
+     * xorshift64*; cheap enough not to dominate the measured event processing.
+     */
+    private long nextLong() {
+	seed ^= seed >>> 12;
+	seed ^= seed << 25;
+	seed ^= seed >>> 27;
+	return seed * 2685821657736338717L;
+    }
+
+    private int nextInt(int bound) {
+	return (int) ((nextLong() >>> 1) % bound);
+    }
+
+    private double nextDouble() {
+	return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+}
@@ -34,6 +34,82 @@ public class Globals {
     public final static int BINDING_CLEANING_INTERVAL = Integer.parseInt(getSystemProperty(
 	    "prm4j.bindingCleaningInterval", "10000"));
 
+    /**
+     * Specifies the {@link prm4j.indexing.binding.BindingStore} implementation: <code>default</code> (chained hash
+     * table), <code>stepCleaning</code> or <code>openAddressing</code> (linear probing).
+     */
+    public final static String BINDING_STORE = getSystemProperty("prm4j.bindingStore", "default");
+
+    /**
+     * Removes expired bindings and monitors in a background thread instead of the event processing threads, see
+     * {@link prm4j.indexing.BackgroundReclaimer}.
+     */
+    public final static boolean BACKGROUND_RECLAMATION = getBooleanSystemProperty("prm4j.backgroundReclamation",
+	    false);
+
+    /**
+     * Specifies the maximal number of expired bindings and monitors the background reclamation removes while holding the
+     * lock of the parametric monitor.
+     */
+    public final static int RECLAMATION_CHUNK_SIZE = Integer.parseInt(getSystemProperty("prm4j.reclamationChunkSize",
+	    "256"));
+
+    /**
+     * Exports the metrics of each created parametric monitor as MBean via JMX, until the monitor is shut down.
+     */
+    public final static boolean JMX_METRICS = getBooleanSystemProperty("prm4j.jmxMetrics", false);
+
+    /**
+     * Counts the updates and matches of the monitors in the {@link prm4j.indexing.monitor.ParametricMonitorMetrics} of
+     * their parametric monitor. Disabling removes the counting from each monitor update, the counts stay zero then.
+     */
+    public final static boolean MONITOR_UPDATE_METRICS = getBooleanSystemProperty("prm4j.monitorUpdateMetrics", true);
+
+    /**
+     * Records latency histograms for each phase of the event processing, see
+     * {@link prm4j.indexing.monitor.PhaseProfiler}. Profiling can also be switched at runtime.
+     */
+    public final static boolean PHASE_PROFILING = getBooleanSystemProperty("prm4j.phaseProfiling", false);
+
+    /**
+     * Lets the {@link prm4j.api.fsm.FSMSpec} create {@link prm4j.indexing.monitor.TransitionTableMonitor}s, which
+     * store their state as index into a flattened transition table.
+     */
+    public final static boolean TRANSITION_TABLE_MONITORS = getBooleanSystemProperty("prm4j.transitionTableMonitors",
+	    false);
+
+    /**
+     * Lets the {@link prm4j.api.fsm.FSMSpec} create {@link prm4j.indexing.monitor.ArenaTransitionTableMonitor}s and
+     * the nodes create {@link prm4j.indexing.monitor.ColumnarMonitorSet}s, which update the monitor states without
+     * dereferencing the monitors. Only effective if {@link #CHECK_MONITOR_VALIDITY_ON_EACH_UPDATE} is disabled.
+     */
+    public final static boolean COLUMNAR_MONITOR_SETS = getBooleanSystemProperty("prm4j.columnarMonitorSets", false);
+
+    /**
+     * Skips updating monitors with events which loop in every state of the finite spec, and the processing of events
+     * which additionally can not create or join monitors, see {@link prm4j.indexing.model.EventContext}.
+     */
+    public final static boolean SKIP_SELF_LOOP_EVENTS = getBooleanSystemProperty("prm4j.skipSelfLoopEvents", false);
+
+    /**
+     * Lets the {@link prm4j.api.ParametricMonitorFactory} decorate the monitor with a
+     * {@link prm4j.indexing.CoalescingParametricMonitor}, which elides repetitions of idempotent events.
+     */
+    public final static boolean COALESCE_REPEATED_EVENTS = getBooleanSystemProperty("prm4j.coalesceRepeatedEvents",
+	    false);
+
+    /**
+     * Fraction of the elapsed time which may be spent processing events, e.g. 0.05. If positive, the monitor admits
+     * only as many new parametric instances as the budget allows, see {@link prm4j.indexing.AdmissionController}.
+     */
+    public final static double OVERHEAD_BUDGET = Double.parseDouble(getSystemProperty("prm4j.overheadBudget", "0"));
+
+    /**
+     * Maximal number of live monitors of each parametric monitor. If positive, the least recently active monitors are
+     * evicted, see {@link prm4j.indexing.node.MonitorEvictor}.
+     */
+    public final static int MAX_MONITORS = Integer.parseInt(getSystemProperty("prm4j.maxMonitors", "0"));
+
     public final static boolean CHECK_MONITOR_VALIDITY_ON_EACH_UPDATE = getBooleanSystemProperty(
 	    "prm4j.checkMonitorValidityOnEachUpdate", true);
 
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.api;
+
+/**
+ * Implements the symbol-based methods of {@link ParametricMonitor} by creating an {@link Event}, which is passed to
+ * {@link #processEvent(Event)}.
+ */
+public abstract class AbstractParametricMonitor implements ParametricMonitor {
+
+    @Override
+    public void processEvent(Symbol0 symbol) {
+	processEvent(symbol.createEvent());
+    }
+
+    @Override
+    public void processEvent(Symbol0 symbol, Object auxiliaryData) {
+	processEvent(symbol.createConditionalEvent(auxiliaryData));
+    }
+
+    @Override
+    public <P1> void processEvent(Symbol1<P1> symbol, P1 obj1) {
+	processEvent(symbol.createEvent(obj1));
+    }
+
+    @Override
+    public <P1> void processEvent(Symbol1<P1> symbol, P1 obj1, Object auxiliaryData) {
+	processEvent(symbol.createEvent(obj1, auxiliaryData));
+    }
+
+    @Override
+    public <P1, P2> void processEvent(Symbol2<P1, P2> symbol, P1 obj1, P2 obj2) {
+	processEvent(symbol.createEvent(obj1, obj2));
+    }
+
+    @Override
+    public <P1, P2> void processEvent(Symbol2<P1, P2> symbol, P1 obj1, P2 obj2, Object auxiliaryData) {
+	processEvent(symbol.createEvent(obj1, obj2, auxiliaryData));
+    }
+
+    @Override
+    public <P1, P2, P3> void processEvent(Symbol3<P1, P2, P3> symbol, P1 obj1, P2 obj2, P3 obj3) {
+	processEvent(symbol.createEvent(obj1, obj2, obj3));
+    }
+
+    @Override
+    public <P1, P2, P3> void processEvent(Symbol3<P1, P2, P3> symbol, P1 obj1, P2 obj2, P3 obj3,
+	    Object auxiliaryData) {
+	processEvent(symbol.createConditionalEvent(obj1, obj2, obj3, auxiliaryData));
+    }
+
+    @Override
+    public void shutdown() throws InterruptedException {
+	// no threads to stop
+    }
+
+}
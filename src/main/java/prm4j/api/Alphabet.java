@@ -67,6 +67,24 @@ public class Alphabet {
 	return parameter;
     }
 
+    /**
+     * Creates a value-typed parameter of given type and optional name, whose bound objects are identified by
+     * {@link Object#equals(Object)}, see {@link Parameter#setValueTyped(boolean)}.
+     *
+     * @param optionalName
+     * @param parameterObjectType
+     * @param timeToLive
+     *            number of events after which an unused binding expires, or <code>0</code> if bindings only expire
+     *            explicitly
+     * @return the parameter
+     */
+    public <P> Parameter<P> createValueParameter(String optionalName, Class<P> parameterObjectType, long timeToLive) {
+	Parameter<P> parameter = createParameter(optionalName, parameterObjectType);
+	parameter.setValueTyped(true);
+	parameter.setTimeToLive(timeToLive);
+	return parameter;
+    }
+
     /**
      * Adds an existing parameter to the alphabet. Use this for fully type-safe specifications.
      *
@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.api;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import prm4j.indexing.binding.Binding;
+import prm4j.indexing.concurrent.AsyncQueue;
+import prm4j.indexing.concurrent.OverflowPolicy;
+import prm4j.indexing.monitor.LatencyHistogram;
+
+/**
+ * Decorates a {@link MatchHandler} so that matches are only enqueued into a bounded lock-free ring buffer by the
+ * monitoring threads. A dedicated handler thread drains the buffer in batches and passes the matches to the decorated
+ * handler in the order they were enqueued, so that slow handlers do not stall the parametric monitor.
+ * <p>
+ * The bound objects of a match are either captured strongly until the match is handled, or only referenced weakly by
+ * the bindings, in which case {@link MatchHandler#getBoundObject(Parameter, Binding[])} may return <code>null</code>
+ * for objects collected in the meantime.
+ */
+public class AsyncMatchHandler extends MatchHandler {
+
+    private final static int DEFAULT_BATCH_SIZE = 64;
+
+    private final MatchHandler matchHandler;
+    private final boolean captureStrongly;
+    private final MatchQueue queue;
+
+    /**
+     * DIAGNOSTIC: Maximal number of matches observed in the buffer.
+     */
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+
+    /**
+     * DIAGNOSTIC: Time spent by the decorated handler per match. Guarded by itself.
+     */
+    private final LatencyHistogram handlerLatency = new LatencyHistogram();
+
+    /**
+     * Creates the decorator and starts its handler thread.
+     * 
+     * @param matchHandler
+     *            the decorated handler
+     * @param capacity
+     *            of the ring buffer, rounded up to the next power of two
+     * @param overflowPolicy
+     *            behavior of monitoring threads if the ring buffer is full
+     * @param captureStrongly
+     *            if <code>true</code>, the bound objects are kept alive until the match is handled
+     */
+    public AsyncMatchHandler(MatchHandler matchHandler, int capacity, OverflowPolicy overflowPolicy,
+	    boolean captureStrongly) {
+	this.matchHandler = matchHandler;
+	this.captureStrongly = captureStrongly;
+	queue = new MatchQueue(capacity, overflowPolicy);
+	queue.start();
+    }
+
+    @Override
+    public void handleMatch(Binding[] bindings, Object auxiliaryData) {
+	final Match match = new Match(bindings, captureStrongly ? capture(bindings) : null, auxiliaryData);
+	// after the shutdown, the match is handled synchronously
+	if (queue.offer(match)) {
+	    updateMaxQueueDepth();
+	}
+    }
+
+    private static Object[] capture(Binding[] bindings) {
+	final Object[] boundObjects = new Object[bindings.length];
+	for (int i = 0; i < bindings.length; i++) {
+	    if (bindings[i] != null) {
+		boundObjects[i] = bindings[i].get();
+	    }
+	}
+	return boundObjects;
+    }
+
+    private void updateMaxQueueDepth() {
+	final int queueDepth = queue.size();
+	int max;
+	while (queueDepth > (max = maxQueueDepth.get())) {
+	    if (maxQueueDepth.compareAndSet(max, queueDepth)) {
+		return;
+	    }
+	}
+    }
+
+    /**
+     * Waits until all matches which were enqueued before this call are handled. Dropped matches are not waited for,
+     * matches run inline are handled when they are reported.
+     */
+    public void flush() {
+	queue.flush();
+    }
+
+    /**
+     * Handles all enqueued matches and stops the handler thread. Subsequent matches are handled synchronously by the
+     * monitoring thread.
+     * 
+     * @throws InterruptedException
+     *             if interrupted while waiting for the handler thread
+     */
+    public void shutdown() throws InterruptedException {
+	queue.shutdown();
+    }
+
+    /**
+     * @return the decorated handler
+     */
+    public MatchHandler getMatchHandler() {
+	return matchHandler;
+    }
+
+    /**
+     * DIAGNOSTIC
+     * 
+     * @return the estimated number of matches waiting in the buffer
+     */
+    public int getQueueDepth() {
+	return queue.size();
+    }
+
+    /**
+     * DIAGNOSTIC
+     * 
+     * @return the maximal number of matches observed in the buffer
+     */
+    public int getMaxQueueDepth() {
+	return maxQueueDepth.get();
+    }
+
+    /**
+     * DIAGNOSTIC
+     * 
+     * @return the number of matches which were taken from the buffer and handled
+     */
+    public long getHandledMatchesCount() {
+	return queue.getConsumedCount();
+    }
+
+    /**
+     * DIAGNOSTIC
+     * 
+     * @return the number of matches dropped because the buffer was full
+     */
+    public long getDroppedMatchesCount() {
+	return queue.getDroppedCount();
+    }
+
+    /**
+     * DIAGNOSTIC
+     * 
+     * @return the number of matches handled by monitoring threads because the buffer was full
+     */
+    public long getInlinedMatchesCount() {
+	return queue.getInlinedCount();
+    }
+
+    /**
+     * DIAGNOSTIC
+     * 
+     * @return a snapshot of the time spent by the decorated handler per match taken from the buffer
+     */
+    public LatencyHistogram getHandlerLatency() {
+	final LatencyHistogram snapshot = new LatencyHistogram();
+	synchronized (handlerLatency) {
+	    snapshot.add(handlerLatency);
+	}
+	return snapshot;
+    }
+
+    private static class Match {
+
+	final Binding[] bindings;
+	/**
+	 * Keeps the bound objects strongly reachable, if configured.
+	 */
+	@SuppressWarnings("unused")
+	final Object[] boundObjects;
+	final Object auxiliaryData;
+
+	Match(Binding[] bindings, Object[] boundObjects, Object auxiliaryData) {
+	    this.bindings = bindings;
+	    this.boundObjects = boundObjects;
+	    this.auxiliaryData = auxiliaryData;
+	}
+
+    }
+
+    private class MatchQueue extends AsyncQueue<Match> {
+
+	public MatchQueue(int capacity, OverflowPolicy overflowPolicy) {
+	    super(capacity, DEFAULT_BATCH_SIZE, overflowPolicy, "prm4j-match-dispatcher");
+	}
+
+	@Override
+	protected Match[] createBatch(int size) {
+	    return new Match[size];
+	}
+
+	@Override
+	protected void consume(Match[] matches, int count) {
+	    for (int i = 0; i < count; i++) {
+		final Match match = matches[i];
+		final long start = System.nanoTime();
+		try {
+		    matchHandler.handleMatch(match.bindings, match.auxiliaryData);
+		} catch (RuntimeException e) {
+		    // a failing handler must not stop the handling of all other matches
+		    final Thread thread = Thread.currentThread();
+		    thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+		}
+		final long latency = System.nanoTime() - start;
+		synchronized (handlerLatency) {
+		    handlerLatency.record(latency);
+		}
+	    }
+	}
+
+	@Override
+	protected void consumeInline(Match match) {
+	    matchHandler.handleMatch(match.bindings, match.auxiliaryData);
+	}
+
+    }
+
+}
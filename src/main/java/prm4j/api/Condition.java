@@ -12,34 +12,40 @@ package prm4j.api;
 
 import prm4j.indexing.monitor.Monitor;
 
+/**
+ * A condition decides for each monitor reached by an {@link Event}, if the monitor takes the transition of the event.
+ * The bindings of the monitor are accessible with {@link #getParameterValue(Parameter, Monitor)}. Conditions which do
+ * not depend on the bindings of the monitor should extend {@link EventCondition}, which is evaluated once per event.
+ * Conditions implementing {@link ImplicitMonitorCondition#eval()} instead extend {@link ImplicitMonitorCondition}.
+ */
 public abstract class Condition {
 
-    private transient Monitor monitor;
-
     /**
      * Evaluate this condition based on the state of the base monitor and its attached parametric instance with
      * bindings.
      * 
      * @param monitor
-     * @return
+     *            the monitor reached by the event, <code>null</code> for event-scoped conditions
+     * @return <code>true</code> if the monitor takes the transition
+     */
+    protected abstract boolean eval(Monitor monitor);
+
+    /**
+     * @return <code>true</code> if the result does not depend on the monitor and is computed once per event
      */
-    protected boolean eval(Monitor monitor) {
-	this.monitor = monitor;
-	boolean result = false;
-	// protects from condition specification which try to access non-existing parameter values or similar
-	try {
-	    result = eval();
-	} finally {
-	    // do nothing
-	}
-	this.monitor = null;
-	return result;
+    public boolean isEventScoped() {
+	return false;
     }
 
-    protected <T> T getParameterValue(Parameter<T> parameter) {
+    /**
+     * Returns the object bound to the parameter by the given monitor.
+     * 
+     * @param parameter
+     * @param monitor
+     * @return the bound object
+     */
+    protected <T> T getParameterValue(Parameter<T> parameter, Monitor monitor) {
 	return monitor.getParameterNode().getParameterValue(parameter, monitor.getCompressedBindings());
     }
 
-    public abstract boolean eval();
-
 }
@@ -19,10 +19,10 @@ import prm4j.indexing.monitor.Monitor;
  */
 public class Event {
 
-    private final BaseEvent baseEvent;
-    private final Object[] boundObjects;
-    private final Object auxiliaryData;
-    private final Condition condition;
+    private BaseEvent baseEvent;
+    private Object[] boundObjects;
+    private Object auxiliaryData;
+    private Condition condition;
 
     public Event(BaseEvent baseEvent, Object[] parameterValues) {
 	this(baseEvent, parameterValues, null, null);
@@ -35,6 +35,25 @@ public class Event {
 	this.condition = condition;
     }
 
+    /**
+     * Allows subclasses to reuse an event instance for a sequence of events, as long as the previous event is not
+     * referenced anymore.
+     */
+    protected void reinitialize(BaseEvent baseEvent, Object[] parameterValues, Condition condition,
+	    Object auxiliaryData) {
+	this.baseEvent = baseEvent;
+	boundObjects = parameterValues;
+	this.auxiliaryData = auxiliaryData;
+	this.condition = condition;
+    }
+
+    /**
+     * Returns the base event if the monitor satisfies the condition of this event. The event does not store the result
+     * of the condition, so that it may be processed repeatedly and by several parametric monitors concurrently.
+     * 
+     * @param baseMonitor
+     * @return the base event, or <code>null</code> if the condition is not satisfied
+     */
     public BaseEvent getEvaluatedBaseEvent(Monitor baseMonitor) {
 	if (condition == null) {
 	    return baseEvent;
@@ -42,6 +61,34 @@ public class Event {
 	return condition.eval(baseMonitor) ? baseEvent : null;
     }
 
+    /**
+     * Returns the base event if the event-scoped condition of this event is satisfied. May only be called if the event
+     * has no monitor-scoped condition.
+     * 
+     * @return the base event, or <code>null</code> if the condition is not satisfied
+     */
+    public BaseEvent getEvaluatedBaseEvent() {
+	return getEvaluatedBaseEvent(null);
+    }
+
+    /**
+     * @return <code>true</code> if the base event is only taken by monitors satisfying a condition
+     */
+    public boolean hasCondition() {
+	return condition != null;
+    }
+
+    /**
+     * @return <code>true</code> if the condition of this event has to be evaluated for each monitor
+     */
+    public boolean hasMonitorCondition() {
+	return condition != null && !condition.isEventScoped();
+    }
+
+    public Condition getCondition() {
+	return condition;
+    }
+
     public BaseEvent getBaseEvent() {
 	return baseEvent;
     }
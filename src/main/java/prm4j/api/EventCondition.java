@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.api;
+
+import prm4j.indexing.monitor.Monitor;
+
+/**
+ * A condition which depends only on the objects of the event or on global state, but not on the bindings of the
+ * monitors. It is evaluated at most once per processing of an {@link Event}, regardless of the number of monitors the
+ * event reaches.
+ */
+public abstract class EventCondition extends Condition {
+
+    @Override
+    protected final boolean eval(Monitor monitor) {
+	return eval();
+    }
+
+    @Override
+    public final boolean isEventScoped() {
+	return true;
+    }
+
+    /**
+     * Evaluate this condition for the current event.
+     * 
+     * @return <code>true</code> if the monitors reached by the event take the transition
+     */
+    public abstract boolean eval();
+
+}
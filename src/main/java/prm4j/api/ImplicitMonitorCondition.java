@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.api;
+
+import prm4j.indexing.monitor.Monitor;
+
+/**
+ * A condition implementing {@link #eval()}, which accesses the bindings of the monitor under evaluation with
+ * {@link #getParameterValue(Parameter)}. The monitor under evaluation is maintained for each calling thread.
+ */
+public abstract class ImplicitMonitorCondition extends Condition {
+
+    /**
+     * The monitor under evaluation of the calling thread. Restored after each evaluation, so that conditions may be
+     * evaluated concurrently and reentrantly.
+     */
+    private final ThreadLocal<Monitor> monitor = new ThreadLocal<Monitor>();
+
+    /**
+     * Makes the monitor accessible to {@link #getParameterValue(Parameter)} and delegates to {@link #eval()}.
+     */
+    @Override
+    protected final boolean eval(Monitor monitor) {
+	final Monitor outerMonitor = this.monitor.get();
+	this.monitor.set(monitor);
+	try {
+	    return eval();
+	} finally {
+	    this.monitor.set(outerMonitor);
+	}
+    }
+
+    /**
+     * Returns the object bound to the parameter by the monitor under evaluation. May only be called by {@link #eval()}.
+     * 
+     * @param parameter
+     * @return the bound object
+     */
+    protected <T> T getParameterValue(Parameter<T> parameter) {
+	return getParameterValue(parameter, monitor.get());
+    }
+
+    /**
+     * Evaluate this condition for the monitor accessible by {@link #getParameterValue(Parameter)}.
+     * 
+     * @return <code>true</code> if the monitor takes the transition
+     */
+    public abstract boolean eval();
+
+}
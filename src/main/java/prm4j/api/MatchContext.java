@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.api;
+
+import prm4j.indexing.binding.Binding;
+import prm4j.indexing.model.ParameterNode;
+
+/**
+ * Read-only view of the bindings of a monitor reporting a match, which gives typed access to the bound objects without
+ * copying the bindings. The view is reused for subsequent matches and is only valid while the {@link MatchHandler}
+ * handles the match. Handlers which need the bindings afterwards have to copy them with
+ * {@link #getUncompressedBindings()}.
+ */
+public class MatchContext {
+
+    private final ParameterNode parameterNode;
+    private Binding[] compressedBindings;
+    private Object auxiliaryData;
+
+    /**
+     * @param parameterNode
+     *            of the monitors reporting their matches through this view, or <code>null</code> if the bindings are
+     *            not compressed
+     */
+    protected MatchContext(ParameterNode parameterNode) {
+	this.parameterNode = parameterNode;
+    }
+
+    /**
+     * Lets the view show the next match.
+     */
+    protected void reinitialize(Binding[] compressedBindings, Object auxiliaryData) {
+	this.compressedBindings = compressedBindings;
+	this.auxiliaryData = auxiliaryData;
+    }
+
+    /**
+     * Retrieves the object bound to the parameter.
+     * 
+     * @param parameter
+     * @return the bound object, or <code>null</code> if the parameter is not bound or the object was already garbage
+     *         collected
+     */
+    @SuppressWarnings("unchecked")
+    public <P> P getBoundObject(Parameter<P> parameter) {
+	final Binding binding = getBinding(parameter);
+	return binding != null ? (P) binding.get() : null;
+    }
+
+    /**
+     * @param parameter
+     * @return the binding of the parameter, or <code>null</code> if the parameter is not bound
+     */
+    public Binding getBinding(Parameter<?> parameter) {
+	if (parameterNode == null) {
+	    return compressedBindings[parameter.getIndex()];
+	}
+	return parameterNode.getBinding(parameter, compressedBindings);
+    }
+
+    /**
+     * Copies the bindings into a new array indexed by the parameter indices.
+     * 
+     * @return the bindings, <code>null</code> for each parameter which is not bound
+     */
+    public Binding[] getUncompressedBindings() {
+	if (parameterNode == null) {
+	    return compressedBindings.clone();
+	}
+	return parameterNode.uncompressBindings(compressedBindings);
+    }
+
+    public Object getAuxiliaryData() {
+	return auxiliaryData;
+    }
+
+}
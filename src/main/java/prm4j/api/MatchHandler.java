@@ -14,8 +14,6 @@ import prm4j.indexing.binding.Binding;
 
 public abstract class MatchHandler {
 
-    private static long matchCounter = 0L;
-
     /**
      * This {@link MatchHandler} does nothing.
      */
@@ -37,17 +35,38 @@ public abstract class MatchHandler {
     };
 
     /**
-     * Retrieve bound objects with getBoundObject(...) TODO doc method.
+     * Retrieve bound objects with getBoundObject(...) TODO doc method. Matches are counted by the metrics of the
+     * parametric monitor, see {@link prm4j.indexing.monitor.ParametricMonitorMetrics#getMatchesCount()}.
      * 
      * @param bindings
      */
     public void handleAndCountMatch(Binding[] bindings, Object auxiliaryData) {
-	matchCounter++;
 	handleMatch(bindings, auxiliaryData);
     }
 
+    /**
+     * Handles a match reported through a reused view of the bindings of the monitor.
+     * 
+     * @param matchContext
+     *            only valid during this call
+     */
+    public void handleAndCountMatch(MatchContext matchContext) {
+	handleMatch(matchContext);
+    }
+
     public abstract void handleMatch(Binding[] bindings, Object auxiliaryData);
 
+    /**
+     * Handles a match reported through a reused view of the bindings of the monitor. Copies the bindings for
+     * {@link #handleMatch(Binding[], Object)}, so handlers which do not need all bindings should override this method.
+     * 
+     * @param matchContext
+     *            only valid during this call
+     */
+    public void handleMatch(MatchContext matchContext) {
+	handleMatch(matchContext.getUncompressedBindings(), matchContext.getAuxiliaryData());
+    }
+
     /**
      * Retrieves the object which was stored in the monitor bindings. The object may be <code>null</code> if selected
      * object was already garbage collected in the monitored application.
@@ -61,14 +80,8 @@ public abstract class MatchHandler {
      */
     @SuppressWarnings("unchecked")
     protected <P> P getBoundObject(Parameter<P> param, Binding[] bindings) {
-	return (P) bindings[param.getIndex()];
+	final Binding binding = bindings[param.getIndex()];
+	return binding != null ? (P) binding.get() : null;
     }
 
-    public static long getMatchCount() {
-	return matchCounter;
-    }
-
-    public static void reset() {
-	MatchHandler.matchCounter = 0L;
-    }
 }
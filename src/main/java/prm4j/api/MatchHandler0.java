@@ -23,6 +23,11 @@ public abstract class MatchHandler0 extends MatchHandler {
 	handleMatch(auxiliaryData);
     }
 
+    @Override
+    public void handleMatch(MatchContext matchContext) {
+	handleMatch(matchContext.getAuxiliaryData());
+    }
+
     public abstract void handleMatch(Object auxiliaryData);
 
 }
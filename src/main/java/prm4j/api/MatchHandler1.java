@@ -27,6 +27,11 @@ public abstract class MatchHandler1<P1> extends MatchHandler {
 	handleMatch(getBoundObject(this.param1, bindings), auxiliaryData);
     }
 
+    @Override
+    public void handleMatch(MatchContext matchContext) {
+	handleMatch(matchContext.getBoundObject(param1), matchContext.getAuxiliaryData());
+    }
+
     public abstract void handleMatch(P1 obj1, Object auxiliaryData);
 
 }
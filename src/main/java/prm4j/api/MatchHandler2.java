@@ -30,6 +30,12 @@ public abstract class MatchHandler2<P1, P2> extends MatchHandler {
 	handleMatch(getBoundObject(this.param1, bindings), getBoundObject(this.param2, bindings), auxiliaryData);
     }
 
+    @Override
+    public void handleMatch(MatchContext matchContext) {
+	handleMatch(matchContext.getBoundObject(param1), matchContext.getBoundObject(param2),
+		matchContext.getAuxiliaryData());
+    }
+
     public abstract void handleMatch(P1 obj1, P2 obj2, Object auxiliaryData);
 
 }
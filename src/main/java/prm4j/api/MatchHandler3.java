@@ -34,6 +34,12 @@ public abstract class MatchHandler3<P1, P2, P3> extends MatchHandler {
 		getBoundObject(this.param3, bindings), auxiliaryData);
     }
 
+    @Override
+    public void handleMatch(MatchContext matchContext) {
+	handleMatch(matchContext.getBoundObject(param1), matchContext.getBoundObject(param2),
+		matchContext.getBoundObject(param3), matchContext.getAuxiliaryData());
+    }
+
     public abstract void handleMatch(P1 obj1, P2 obj2, P3 obj3, Object auxiliaryData);
 
 }
@@ -21,6 +21,8 @@ public class Parameter<T> implements Comparable<Parameter<?>> {
     private int parameterIndex = -1;
     private final String uniqueName;
     private boolean isPersistent = false;
+    private boolean isValueTyped = false;
+    private long timeToLive = 0L;
 
     public Parameter(String uniqueName) {
 	this.uniqueName = uniqueName;
@@ -58,6 +60,47 @@ public class Parameter<T> implements Comparable<Parameter<?>> {
 	this.isPersistent = isPersistent;
     }
 
+    /**
+     * @return <code>true</code>, if bound objects are values like strings, boxed ids or enums, which are identified by
+     *         {@link Object#equals(Object)} and strongly referenced by their bindings
+     */
+    public boolean isValueTyped() {
+	return isValueTyped;
+    }
+
+    /**
+     * Declares bound objects as values, which are identified by {@link Object#equals(Object)} and
+     * {@link Object#hashCode()} instead of their identity. Their bindings reference them strongly and expire only
+     * explicitly or after the time to live.
+     * 
+     * @param isValueTyped
+     */
+    public void setValueTyped(boolean isValueTyped) {
+	this.isValueTyped = isValueTyped;
+    }
+
+    /**
+     * @return the number of events after which an unused value binding expires, or <code>0</code>, if it only
+     *         expires explicitly
+     */
+    public long getTimeToLive() {
+	return timeToLive;
+    }
+
+    /**
+     * Sets the number of events after which the binding of a value expires, if the value was not bound by any of them.
+     * Only effective for value-typed parameters.
+     * 
+     * @param timeToLive
+     *            number of events, or <code>0</code> if bindings only expire explicitly
+     */
+    public void setTimeToLive(long timeToLive) {
+	if (timeToLive < 0L) {
+	    throw new IllegalArgumentException("Time to live must not be negative: " + timeToLive);
+	}
+	this.timeToLive = timeToLive;
+    }
+
     @Override
     public String toString() {
 	return this.uniqueName;
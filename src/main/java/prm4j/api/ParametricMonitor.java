@@ -17,6 +17,80 @@ public interface ParametricMonitor {
 
     void processEvent(Event event);
 
+    /**
+     * Processes the events <code>events[from]</code> to <code>events[to - 1]</code> in the given order. Equivalent to
+     * calling {@link #processEvent(Event)} for each event, but implementations may amortize their per-event overhead
+     * over the whole batch. If processing an event throws a {@link RuntimeException}, the remaining events are still
+     * processed and the first exception is rethrown afterwards.
+     * 
+     * @param events
+     * @param from
+     *            index of the first event to process (inclusive)
+     * @param to
+     *            index of the last event to process (exclusive)
+     */
+    void processEvents(Event[] events, int from, int to);
+
+    /**
+     * Processes an event of the given symbol without requiring the caller to create an {@link Event}. Implementations
+     * may process it without allocating any objects.
+     */
+    void processEvent(Symbol0 symbol);
+
+    /**
+     * @see #processEvent(Symbol0)
+     */
+    void processEvent(Symbol0 symbol, Object auxiliaryData);
+
+    /**
+     * @see #processEvent(Symbol0)
+     */
+    <P1> void processEvent(Symbol1<P1> symbol, P1 obj1);
+
+    /**
+     * @see #processEvent(Symbol0)
+     */
+    <P1> void processEvent(Symbol1<P1> symbol, P1 obj1, Object auxiliaryData);
+
+    /**
+     * @see #processEvent(Symbol0)
+     */
+    <P1, P2> void processEvent(Symbol2<P1, P2> symbol, P1 obj1, P2 obj2);
+
+    /**
+     * @see #processEvent(Symbol0)
+     */
+    <P1, P2> void processEvent(Symbol2<P1, P2> symbol, P1 obj1, P2 obj2, Object auxiliaryData);
+
+    /**
+     * @see #processEvent(Symbol0)
+     */
+    <P1, P2, P3> void processEvent(Symbol3<P1, P2, P3> symbol, P1 obj1, P2 obj2, P3 obj3);
+
+    /**
+     * @see #processEvent(Symbol0)
+     */
+    <P1, P2, P3> void processEvent(Symbol3<P1, P2, P3> symbol, P1 obj1, P2 obj2, P3 obj3, Object auxiliaryData);
+
+    /**
+     * Tells the monitor that the given object reached the end of its life, e.g. because it was closed. Its bindings are
+     * removed immediately, like the bindings of a garbage collected object, and the monitors which can not reach an
+     * accepting state without the object are terminated. If the object is bound again afterwards, it is treated as a
+     * new object. Bindings of value-typed parameters are released for all equal values.
+     * 
+     * @param boundObject
+     */
+    void release(Object boundObject);
+
     void reset();
 
+    /**
+     * Stops the threads of this monitor and removes its metrics from the platform MBean server, which would otherwise
+     * keep the monitor reachable. Events passed afterwards are processed by the calling thread.
+     * 
+     * @throws InterruptedException
+     *             if interrupted while waiting for a thread of this monitor
+     */
+    void shutdown() throws InterruptedException;
+
 }
@@ -10,16 +10,27 @@
  */
 package prm4j.api;
 
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import prm4j.Globals;
+import prm4j.indexing.AdmissionController;
+import prm4j.indexing.AsyncParametricMonitor;
+import prm4j.indexing.CoalescingParametricMonitor;
 import prm4j.indexing.DefaultParametricMonitor;
+import prm4j.indexing.SamplingParametricMonitor;
+import prm4j.indexing.ShardedParametricMonitor;
 import prm4j.indexing.binding.ArrayBasedBindingFactory;
 import prm4j.indexing.binding.BindingFactory;
 import prm4j.indexing.binding.BindingStore;
 import prm4j.indexing.binding.DefaultBindingStore;
 import prm4j.indexing.binding.LinkedListBindingFactory;
+import prm4j.indexing.binding.OpenAddressingBindingStore;
+import prm4j.indexing.binding.StepCleaningBindingStore;
+import prm4j.indexing.concurrent.OverflowPolicy;
 import prm4j.indexing.model.ParametricPropertyProcessor;
-import prm4j.indexing.monitor.AbstractMonitor;
 import prm4j.indexing.monitor.Monitor;
+import prm4j.indexing.monitor.PhaseProfiler;
 import prm4j.indexing.node.DefaultNodeStore;
 import prm4j.indexing.node.NodeManager;
 import prm4j.indexing.node.NodeStore;
@@ -29,9 +40,12 @@ import prm4j.spec.finite.FiniteSpec;
 
 public class ParametricMonitorFactory {
 
-    public static ParametricMonitor createParametricMonitor(FiniteSpec finiteSpec) {
+    /**
+     * Distinguishes the names of the MBeans exporting the metrics.
+     */
+    private final static AtomicInteger createdMonitorsCount = new AtomicInteger();
 
-	AbstractMonitor.reset(); // Diagnostic
+    public static ParametricMonitor createParametricMonitor(FiniteSpec finiteSpec) {
 
 	final ParametricProperty parametricProperty = new FiniteParametricProperty(finiteSpec);
 	final ParametricPropertyProcessor processor = new ParametricPropertyProcessor(parametricProperty);
@@ -39,14 +53,109 @@ public class ParametricMonitorFactory {
 	// build object graph
 	final BindingFactory bindingFactory = Globals.LINKEDLIST_STORED_BACKLINKS ? new LinkedListBindingFactory()
 		: new ArrayBasedBindingFactory();
-	final BindingStore bindingStore = new DefaultBindingStore(bindingFactory, finiteSpec.getFullParameterSet());
+	final BindingStore bindingStore = createBindingStore(bindingFactory, finiteSpec.getFullParameterSet());
 	final NodeManager nodeManager = new NodeManager();
 	final NodeStore nodeStore = new DefaultNodeStore(processor.getParameterTree(), nodeManager);
 	final Monitor monitorPrototype = finiteSpec.getMonitorPrototype();
 
-	final ParametricMonitor parametricMonitor = new DefaultParametricMonitor(bindingStore, nodeStore,
+	final DefaultParametricMonitor parametricMonitor = new DefaultParametricMonitor(bindingStore, nodeStore,
 		monitorPrototype, processor.getEventContext(), nodeManager, false);
+	if (Globals.BACKGROUND_RECLAMATION) {
+	    parametricMonitor.startBackgroundReclamation(Globals.RECLAMATION_CHUNK_SIZE);
+	}
+	if (Globals.PHASE_PROFILING) {
+	    parametricMonitor.setPhaseProfiler(new PhaseProfiler());
+	}
+	if (Globals.OVERHEAD_BUDGET > 0.0) {
+	    parametricMonitor.setAdmissionController(new AdmissionController(Globals.OVERHEAD_BUDGET));
+	}
+	if (Globals.MAX_MONITORS > 0) {
+	    parametricMonitor.setMonitorLimit(Globals.MAX_MONITORS);
+	}
+	if (Globals.JMX_METRICS) {
+	    parametricMonitor.getMetrics().registerMBean("monitor-" + createdMonitorsCount.incrementAndGet());
+	}
+	if (Globals.COALESCE_REPEATED_EVENTS) {
+	    return new CoalescingParametricMonitor(parametricMonitor, processor.getEventContext());
+	}
 
 	return parametricMonitor;
     }
+
+    /**
+     * Creates the binding store configured by {@link Globals#BINDING_STORE}.
+     * 
+     * @param bindingFactory
+     * @param fullParameterSet
+     * @return the binding store
+     */
+    static BindingStore createBindingStore(BindingFactory bindingFactory, Set<Parameter<?>> fullParameterSet) {
+	if ("default".equals(Globals.BINDING_STORE)) {
+	    return new DefaultBindingStore(bindingFactory, fullParameterSet);
+	}
+	if ("stepCleaning".equals(Globals.BINDING_STORE)) {
+	    return new StepCleaningBindingStore(bindingFactory, fullParameterSet);
+	}
+	if ("openAddressing".equals(Globals.BINDING_STORE)) {
+	    return new OpenAddressingBindingStore(bindingFactory, fullParameterSet);
+	}
+	throw new IllegalArgumentException("Unknown binding store: " + Globals.BINDING_STORE);
+    }
+
+    /**
+     * Creates a parametric monitor which processes the events asynchronously in a dedicated consumer thread. Producer
+     * threads publish into a lock-free ring buffer instead of contending for the lock of the monitor.
+     * 
+     * @param finiteSpec
+     * @param capacity
+     *            of the ring buffer, rounded up to the next power of two
+     * @param overflowPolicy
+     *            behavior of producers if the ring buffer is full
+     * @return the parametric monitor
+     */
+    public static AsyncParametricMonitor createAsyncParametricMonitor(FiniteSpec finiteSpec, int capacity,
+	    OverflowPolicy overflowPolicy) {
+	return new AsyncParametricMonitor(createParametricMonitor(finiteSpec), capacity, overflowPolicy);
+    }
+
+    /**
+     * Creates a parametric monitor partitioned into independent shards, each processing its events in a dedicated
+     * consumer thread. The property has to provide a partition parameter, i.e. a parameter bound by every instance
+     * which may carry a monitor.
+     * 
+     * @param finiteSpec
+     * @param shardCount
+     *            number of independent monitors and consumer threads
+     * @param capacity
+     *            of the ring buffer of each shard, rounded up to the next power of two
+     * @param overflowPolicy
+     *            behavior of producers if the ring buffer of a shard is full
+     * @return the parametric monitor
+     * @throws IllegalArgumentException
+     *             if the property can not be partitioned
+     */
+    public static ShardedParametricMonitor createShardedParametricMonitor(FiniteSpec finiteSpec, int shardCount,
+	    int capacity, OverflowPolicy overflowPolicy) {
+	return new ShardedParametricMonitor(finiteSpec, shardCount, capacity, overflowPolicy);
+    }
+
+    /**
+     * Creates a parametric monitor which monitors only a deterministic fraction of the parametric instances, selected
+     * by the object bound to a sampling parameter. The sampling parameter has to be bound by every instance which may
+     * carry a monitor.
+     * 
+     * @param finiteSpec
+     * @param samplingParameter
+     *            if <code>null</code>, the suitable parameter with the lowest index is selected
+     * @param samplingRate
+     *            one in <code>samplingRate</code> objects is sampled
+     * @return the parametric monitor
+     * @throws IllegalArgumentException
+     *             if the property can not be sampled by the given parameter
+     */
+    public static SamplingParametricMonitor createSamplingParametricMonitor(FiniteSpec finiteSpec,
+	    Parameter<?> samplingParameter, int samplingRate) {
+	return new SamplingParametricMonitor(createParametricMonitor(finiteSpec), finiteSpec, samplingParameter,
+		samplingRate);
+    }
 }
@@ -35,6 +35,13 @@ public abstract class Symbol implements BaseEvent {
 	parameterSet = new HashSet<Parameter<?>>();
     }
 
+    /**
+     * @return the alphabet which created this symbol
+     */
+    public Alphabet getAlphabet() {
+	return alphabet;
+    }
+
     @Override
     public int getIndex() {
 	return index;
@@ -93,7 +100,7 @@ public abstract class Symbol implements BaseEvent {
      * 
      * @return the array of bound objects
      */
-    protected Object[] createObjectArray() {
+    public Object[] createObjectArray() {
 	return new Object[alphabet.getParameterCount()];
     }
 
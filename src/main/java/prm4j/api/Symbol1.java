@@ -20,6 +20,14 @@ public class Symbol1<P1> extends Symbol {
 	setParameters(param1);
     }
 
+    /**
+     * Binds the objects to their positions in an array created by {@link #createObjectArray()}, which has to be empty
+     * at these positions.
+     */
+    public void bindObjects(Object[] boundObjects, P1 obj1) {
+	bindObject(this.param1, obj1, boundObjects);
+    }
+
     public Event createEvent(P1 obj1) {
 	Object[] boundObjects = createObjectArray();
 	bindObject(this.param1, obj1, boundObjects);
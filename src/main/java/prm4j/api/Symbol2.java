@@ -22,6 +22,15 @@ public class Symbol2<P1, P2> extends Symbol {
 	setParameters(param1, param2);
     }
 
+    /**
+     * Binds the objects to their positions in an array created by {@link #createObjectArray()}, which has to be empty
+     * at these positions.
+     */
+    public void bindObjects(Object[] boundObjects, P1 obj1, P2 obj2) {
+	bindObject(this.param1, obj1, boundObjects);
+	bindObject(this.param2, obj2, boundObjects);
+    }
+
     public Event createEvent(P1 obj1, P2 obj2) {
 	Object[] boundObjects = createObjectArray();
 	bindObject(this.param1, obj1, boundObjects);
@@ -25,6 +25,16 @@ public class Symbol3<P1, P2, P3> extends Symbol {
 	setParameters(param1, param2, param3);
     }
 
+    /**
+     * Binds the objects to their positions in an array created by {@link #createObjectArray()}, which has to be empty
+     * at these positions.
+     */
+    public void bindObjects(Object[] boundObjects, P1 obj1, P2 obj2, P3 obj3) {
+	bindObject(this.param1, obj1, boundObjects);
+	bindObject(this.param2, obj2, boundObjects);
+	bindObject(this.param3, obj3, boundObjects);
+    }
+
     public Event createEvent(P1 obj1, P2 obj2, P3 obj3) {
 	Object[] boundObjects = createObjectArray();
 	bindObject(this.param1, obj1, boundObjects);
@@ -15,11 +15,15 @@ import static java.util.Collections.unmodifiableSet;
 import java.util.HashSet;
 import java.util.Set;
 
+import prm4j.Globals;
 import prm4j.api.BaseEvent;
 import prm4j.api.Parameter;
+import prm4j.indexing.monitor.ArenaTransitionTableMonitor;
 import prm4j.indexing.monitor.MonitorState;
 import prm4j.indexing.monitor.Monitor;
+import prm4j.indexing.monitor.StateArena;
 import prm4j.indexing.monitor.StatefulMonitor;
+import prm4j.indexing.monitor.TransitionTableMonitor;
 import prm4j.spec.finite.FiniteSpec;
 
 public class FSMSpec implements FiniteSpec {
@@ -53,6 +57,12 @@ public class FSMSpec implements FiniteSpec {
 
     @Override
     public Monitor getMonitorPrototype() {
+	if (Globals.COLUMNAR_MONITOR_SETS) {
+	    return new ArenaTransitionTableMonitor(getInitialState().getIndex(), new StateArena());
+	}
+	if (Globals.TRANSITION_TABLE_MONITORS) {
+	    return new TransitionTableMonitor(getInitialState().getIndex());
+	}
 	return new StatefulMonitor(getInitialState());
     }
 
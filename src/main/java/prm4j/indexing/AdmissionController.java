@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing;
+
+import prm4j.indexing.binding.Binding;
+import prm4j.indexing.monitor.DeadMonitor;
+import prm4j.indexing.monitor.ParametricMonitorMetrics;
+
+/**
+ * Keeps the overhead of a {@link DefaultParametricMonitor} under a budget by controlling the fraction of new parametric
+ * instances which get a monitor at creation events. The time spent processing events is measured and compared with the
+ * elapsed time at the end of each control window. If the overhead exceeds the budget, or the monitor exceeds its
+ * limits of live monitors or stored bindings, the admitted fraction is halved. If the overhead stays well below the
+ * budget, it is increased additively.
+ * <p>
+ * A rejected instance gets a {@link DeadMonitor}, which remembers the decision for the lifetime of the instance. An
+ * instance is therefore monitored from its creation event on or not at all. Instances already monitored, and the
+ * instances derived from or joined with them, are not affected.
+ * <p>
+ * Used by the thread holding the lock of the parametric monitor, except the diagnostic getters.
+ */
+public class AdmissionController {
+
+    /**
+     * Admission of all instances, in units of 1/65536.
+     */
+    public final static int FULL_ADMISSION = 1 << 16;
+
+    private final static int MIN_ADMISSION = 1;
+    private final static int ADMISSION_INCREASE = FULL_ADMISSION / 32;
+
+    /**
+     * The admission is only increased if the overhead is below this fraction of the budget, so that it does not
+     * oscillate around the budget.
+     */
+    private final static double INCREASE_THRESHOLD = 0.8;
+
+    private final static long DEFAULT_WINDOW_NANOS = 100000000L;
+
+    private final double overheadBudget;
+    private final long windowNanos;
+    private final long maxLiveMonitors;
+    private final long maxStoredBindings;
+
+    /**
+     * Admitted fraction of new instances in units of 1/65536.
+     */
+    private volatile int admission = FULL_ADMISSION;
+
+    private long windowStart = System.nanoTime();
+    private long busyNanos = 0L;
+
+    /**
+     * DIAGNOSTIC: Overhead measured in the last completed window.
+     */
+    private volatile double overhead = 0.0;
+
+    /**
+     * DIAGNOSTIC
+     */
+    private long admittedInstancesCount = 0L;
+    private long rejectedInstancesCount = 0L;
+
+    /**
+     * @param overheadBudget
+     *            fraction of the elapsed time which may be spent processing events, e.g. 0.05
+     */
+    public AdmissionController(double overheadBudget) {
+	this(overheadBudget, DEFAULT_WINDOW_NANOS, 0L, 0L);
+    }
+
+    /**
+     * @param overheadBudget
+     *            fraction of the elapsed time which may be spent processing events, e.g. 0.05
+     * @param windowNanos
+     *            minimal length of a control window
+     * @param maxLiveMonitors
+     *            limit of the estimated number of live monitors, not limited if not positive
+     * @param maxStoredBindings
+     *            limit of the number of stored bindings, not limited if not positive
+     */
+    public AdmissionController(double overheadBudget, long windowNanos, long maxLiveMonitors, long maxStoredBindings) {
+	if (!(overheadBudget > 0.0 && overheadBudget <= 1.0)) {
+	    throw new IllegalArgumentException("Overhead budget has to be in (0, 1]: " + overheadBudget);
+	}
+	this.overheadBudget = overheadBudget;
+	this.windowNanos = windowNanos;
+	this.maxLiveMonitors = maxLiveMonitors;
+	this.maxStoredBindings = maxStoredBindings;
+    }
+
+    /**
+     * Accounts the time spent processing one or more events and adjusts the admission at the end of a window.
+     * 
+     * @param start
+     *            value of {@link System#nanoTime()} when the processing started
+     * @param metrics
+     *            of the parametric monitor
+     */
+    void processed(long start, ParametricMonitorMetrics metrics) {
+	final long now = System.nanoTime();
+	busyNanos += now - start;
+	final long elapsedNanos = now - windowStart;
+	if (elapsedNanos >= windowNanos && elapsedNanos > 0L) {
+	    adjust((double) busyNanos / elapsedNanos, metrics);
+	    windowStart = now;
+	    busyNanos = 0L;
+	}
+    }
+
+    private void adjust(double overhead, ParametricMonitorMetrics metrics) {
+	this.overhead = overhead;
+	if (overhead > overheadBudget || exceeds(getLiveMonitorsEstimate(metrics), maxLiveMonitors)
+		|| exceeds(metrics.getStoredBindingsCount(), maxStoredBindings)) {
+	    admission = Math.max(MIN_ADMISSION, admission / 2);
+	} else if (overhead < overheadBudget * INCREASE_THRESHOLD) {
+	    admission = Math.min(FULL_ADMISSION, admission + ADMISSION_INCREASE);
+	}
+    }
+
+    private static boolean exceeds(long count, long limit) {
+	return limit > 0L && count > limit;
+    }
+
+    /**
+     * Monitors whose node was collected or which were evicted are not alive anymore. Terminated monitors are not
+     * subtracted.
+     */
+    private static long getLiveMonitorsEstimate(ParametricMonitorMetrics metrics) {
+	return metrics.getCreatedMonitorsCount() + metrics.getDerivedMonitorsCount()
+		+ metrics.getCreatedDeadMonitorsCount() - metrics.getOrphanedMonitorsCount()
+		- metrics.getEvictedMonitorsCount();
+    }
+
+    /**
+     * Decides if a new instance gets a monitor. The decision depends on the identities of the bindings of the instance
+     * and the current admission.
+     * 
+     * @param bindings
+     *            uncompressed bindings
+     * @param parameterMask
+     *            of the instance
+     * @return <code>true</code> if the instance is admitted
+     */
+    boolean admit(Binding[] bindings, int[] parameterMask) {
+	final int admission = this.admission;
+	if (admission == FULL_ADMISSION) {
+	    admittedInstancesCount++;
+	    return true;
+	}
+	int hash = 0;
+	for (int parameterIndex : parameterMask) {
+	    hash = hash * 31 + System.identityHashCode(bindings[parameterIndex]);
+	}
+	if ((hash * 0x9E3779B9) >>> 16 < admission) {
+	    admittedInstancesCount++;
+	    return true;
+	}
+	rejectedInstancesCount++;
+	return false;
+    }
+
+    /**
+     * DIAGNOSTIC
+     * 
+     * @return the fraction of new instances which are admitted
+     */
+    public double getAdmissionRate() {
+	return (double) admission / FULL_ADMISSION;
+    }
+
+    /**
+     * DIAGNOSTIC
+     * 
+     * @return the overhead measured in the last completed window
+     */
+    public double getOverhead() {
+	return overhead;
+    }
+
+    /**
+     * DIAGNOSTIC
+     * 
+     * @return the number of new instances which got a monitor
+     */
+    public long getAdmittedInstancesCount() {
+	return admittedInstancesCount;
+    }
+
+    /**
+     * DIAGNOSTIC
+     * 
+     * @return the number of new instances which were rejected
+     */
+    public long getRejectedInstancesCount() {
+	return rejectedInstancesCount;
+    }
+
+    public double getOverheadBudget() {
+	return overheadBudget;
+    }
+
+}
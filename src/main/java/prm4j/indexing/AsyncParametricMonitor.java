@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing;
+
+import prm4j.api.AbstractParametricMonitor;
+import prm4j.api.Event;
+import prm4j.api.ParametricMonitor;
+import prm4j.indexing.concurrent.AsyncQueue;
+import prm4j.indexing.concurrent.OverflowPolicy;
+
+/**
+ * Decorates a {@link ParametricMonitor} so that producer threads only publish events into a bounded lock-free ring
+ * buffer. A dedicated consumer thread drains the buffer in batches and passes the events to the decorated monitor in
+ * the order they were published. Matches are therefore handled by the consumer thread.
+ */
+public class AsyncParametricMonitor extends AbstractParametricMonitor {
+
+    private final static int DEFAULT_BATCH_SIZE = 256;
+
+    private final ParametricMonitor parametricMonitor;
+    private final EventQueue queue;
+
+    /**
+     * Creates the decorator and starts its consumer thread.
+     * 
+     * @param parametricMonitor
+     *            the decorated monitor
+     * @param capacity
+     *            of the ring buffer, rounded up to the next power of two
+     * @param overflowPolicy
+     *            behavior of producers if the ring buffer is full
+     */
+    public AsyncParametricMonitor(ParametricMonitor parametricMonitor, int capacity, OverflowPolicy overflowPolicy) {
+	this(parametricMonitor, capacity, Math.min(capacity, DEFAULT_BATCH_SIZE), overflowPolicy);
+    }
+
+    /**
+     * Creates the decorator and starts its consumer thread.
+     * 
+     * @param parametricMonitor
+     *            the decorated monitor
+     * @param capacity
+     *            of the ring buffer, rounded up to the next power of two
+     * @param batchSize
+     *            maximal number of events the consumer takes from the buffer at once
+     * @param overflowPolicy
+     *            behavior of producers if the ring buffer is full
+     */
+    public AsyncParametricMonitor(ParametricMonitor parametricMonitor, int capacity, int batchSize,
+	    OverflowPolicy overflowPolicy) {
+	this.parametricMonitor = parametricMonitor;
+	queue = new EventQueue(capacity, batchSize, overflowPolicy);
+	queue.start();
+    }
+
+    @Override
+    public void processEvent(Event event) {
+	// after the shutdown, the event is processed synchronously
+	queue.offer(event);
+    }
+
+    /**
+     * Publishes the events one by one, each according to the overflow policy.
+     */
+    @Override
+    public void processEvents(Event[] events, int from, int to) {
+	if (queue.drainIfShutDown()) {
+	    parametricMonitor.processEvents(events, from, to);
+	    return;
+	}
+	for (int i = from; i < to; i++) {
+	    queue.offer(events[i]);
+	}
+    }
+
+    /**
+     * Waits until all events which were published before this call are processed by the decorated monitor. Dropped
+     * events are not waited for, events run inline are processed when they are published.
+     */
+    public void flush() {
+	queue.flush();
+    }
+
+    /**
+     * Processes all published events, stops the consumer thread and shuts down the decorated monitor. Subsequent events
+     * are processed synchronously by the calling thread.
+     * 
+     * @throws InterruptedException
+     *             if interrupted while waiting for the consumer thread
+     */
+    @Override
+    public void shutdown() throws InterruptedException {
+	queue.shutdown();
+	parametricMonitor.shutdown();
+    }
+
+    /**
+     * Waits until the published events are processed, then releases the object in the decorated monitor.
+     */
+    @Override
+    public void release(Object boundObject) {
+	flush();
+	parametricMonitor.release(boundObject);
+    }
+
+    /**
+     * Waits until the published events are processed, then resets the decorated monitor.
+     */
+    @Override
+    public void reset() {
+	flush();
+	parametricMonitor.reset();
+    }
+
+    /**
+     * @return the decorated monitor
+     */
+    public ParametricMonitor getParametricMonitor() {
+	return parametricMonitor;
+    }
+
+    /**
+     * DIAGNOSTIC
+     * 
+     * @return the number of events which were taken from the buffer and processed
+     */
+    public long getProcessedEventsCount() {
+	return queue.getConsumedCount();
+    }
+
+    /**
+     * DIAGNOSTIC
+     * 
+     * @return the number of events dropped because the buffer was full
+     */
+    public long getDroppedEventsCount() {
+	return queue.getDroppedCount();
+    }
+
+    /**
+     * DIAGNOSTIC
+     * 
+     * @return the number of events processed by producer threads because the buffer was full
+     */
+    public long getInlinedEventsCount() {
+	return queue.getInlinedCount();
+    }
+
+    private class EventQueue extends AsyncQueue<Event> {
+
+	public EventQueue(int capacity, int batchSize, OverflowPolicy overflowPolicy) {
+	    super(capacity, batchSize, overflowPolicy, "prm4j-consumer");
+	}
+
+	@Override
+	protected Event[] createBatch(int size) {
+	    return new Event[size];
+	}
+
+	@Override
+	protected void consume(Event[] events, int count) {
+	    try {
+		parametricMonitor.processEvents(events, 0, count);
+	    } catch (RuntimeException e) {
+		// a failing match handler must not stop the monitoring of all other events
+		final Thread thread = Thread.currentThread();
+		thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+	    }
+	}
+
+	@Override
+	protected void consumeInline(Event event) {
+	    parametricMonitor.processEvent(event);
+	}
+
+    }
+
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+import prm4j.api.ParametricMonitor;
+import prm4j.indexing.binding.Binding;
+import prm4j.indexing.binding.BindingStore;
+import prm4j.indexing.binding.DefaultBindingStore;
+import prm4j.indexing.node.NodeManager;
+import prm4j.indexing.node.NodeRef;
+
+/**
+ * Polls the reference queues of expired {@link Binding}s and {@link NodeRef}s in a dedicated thread, so that events do
+ * not pay for removing them. The polled references are handed over in chunks, each removed while holding the lock of
+ * the {@link ParametricMonitor}. An event therefore waits at most for the removal of a single chunk.
+ * <p>
+ * The reclaimer runs until it is shut down, or until the parametric monitor is garbage collected, which it references
+ * only weakly.
+ */
+public class BackgroundReclaimer {
+
+    /**
+     * Time the idle reclaimer sleeps before polling the queues again.
+     */
+    private final static long IDLE_MILLIS = 1L;
+
+    private final WeakReference<Object> lock;
+    private final DefaultBindingStore bindingStore;
+    private final NodeManager nodeManager;
+    private final ReferenceQueue<Object> bindingQueue;
+    private final ReferenceQueue<?> nodeRefQueue;
+    private final Binding[] bindingChunk;
+    private final NodeRef[] nodeRefChunk;
+    private final Thread reclaimer;
+
+    private volatile boolean running = true;
+
+    // DIAGNOSTIC: all counters are written by the reclaimer thread only
+    private volatile long reclaimedBindingsCount = 0L;
+    private volatile long reclaimedNodeRefsCount = 0L;
+    private volatile long handoffCount = 0L;
+    private volatile long lockHeldNanos = 0L;
+    private volatile long maxLockHeldNanos = 0L;
+
+    /**
+     * Creates the reclaimer and starts its thread.
+     * 
+     * @param lock
+     *            guarding the binding store and the node store, i.e. the parametric monitor. Referenced weakly.
+     * @param bindingStore
+     *            expired bindings are only reclaimed, if it is a {@link DefaultBindingStore}. Other stores remove them on
+     *            their own.
+     * @param nodeManager
+     * @param chunkSize
+     *            maximal number of bindings and node references removed per acquisition of the lock
+     */
+    public BackgroundReclaimer(Object lock, BindingStore bindingStore, NodeManager nodeManager, int chunkSize) {
+	if (chunkSize < 1) {
+	    throw new IllegalArgumentException("Chunk size has to be positive: " + chunkSize);
+	}
+	this.lock = new WeakReference<Object>(lock);
+	this.bindingStore = bindingStore instanceof DefaultBindingStore ? (DefaultBindingStore) bindingStore : null;
+	this.nodeManager = nodeManager;
+	bindingQueue = this.bindingStore != null ? this.bindingStore.getReferenceQueue() : null;
+	nodeRefQueue = nodeManager.getReferenceQueue();
+	bindingChunk = new Binding[chunkSize];
+	nodeRefChunk = new NodeRef[chunkSize];
+	reclaimer = new Thread(new Reclaimer(), "prm4j-reclaimer");
+	reclaimer.setDaemon(true);
+	reclaimer.start();
+    }
+
+    /**
+     * Stops the reclaimer thread. References which expire afterwards have to be removed by the caller.
+     * 
+     * @throws InterruptedException
+     *             if interrupted while waiting for the reclaimer thread
+     */
+    public void shutdown() throws InterruptedException {
+	running = false;
+	reclaimer.interrupt();
+	reclaimer.join();
+    }
+
+    /**
+     * @return <code>true</code> if the reclaimer thread is alive
+     */
+    public boolean isRunning() {
+	return reclaimer.isAlive();
+    }
+
+    /**
+     * DIAGNOSTIC
+     * 
+     * @return the number of expired bindings removed by the reclaimer
+     */
+    public long getReclaimedBindingsCount() {
+	return reclaimedBindingsCount;
+    }
+
+    /**
+     * DIAGNOSTIC
+     * 
+     * @return the number of expired node references processed by the reclaimer
+     */
+    public long getReclaimedNodeRefsCount() {
+	return reclaimedNodeRefsCount;
+    }
+
+    /**
+     * DIAGNOSTIC
+     * 
+     * @return the number of times the reclaimer acquired the lock to hand over a chunk
+     */
+    public long getHandoffCount() {
+	return handoffCount;
+    }
+
+    /**
+     * DIAGNOSTIC
+     * 
+     * @return the total time in nanoseconds the reclaimer held the lock
+     */
+    public long getLockHeldNanos() {
+	return lockHeldNanos;
+    }
+
+    /**
+     * DIAGNOSTIC
+     * 
+     * @return the longest time in nanoseconds the reclaimer held the lock at once, i.e. the longest delay it could
+     *         impose on an event
+     */
+    public long getMaxLockHeldNanos() {
+	return maxLockHeldNanos;
+    }
+
+    private class Reclaimer implements Runnable {
+
+	@Override
+	public void run() {
+	    while (running) {
+		final int bindingCount = bindingQueue != null ? poll(bindingQueue, bindingChunk) : 0;
+		final int nodeRefCount = poll(nodeRefQueue, nodeRefChunk);
+		if (bindingCount + nodeRefCount > 0) {
+		    handOver(bindingCount, nodeRefCount);
+		} else if (lock.get() == null) {
+		    // the parametric monitor was collected without being shut down
+		    running = false;
+		} else {
+		    try {
+			Thread.sleep(IDLE_MILLIS);
+		    } catch (InterruptedException e) {
+			// shutdown
+		    }
+		}
+	    }
+	}
+
+	private <T> int poll(ReferenceQueue<?> queue, T[] chunk) {
+	    int count = 0;
+	    while (count < chunk.length) {
+		@SuppressWarnings("unchecked")
+		final T reference = (T) queue.poll();
+		if (reference == null) {
+		    break;
+		}
+		chunk[count++] = reference;
+	    }
+	    return count;
+	}
+
+	private void handOver(int bindingCount, int nodeRefCount) {
+	    final Object lock = BackgroundReclaimer.this.lock.get();
+	    if (lock == null) {
+		running = false;
+		return;
+	    }
+	    final long nanos;
+	    synchronized (lock) {
+		final long start = System.nanoTime();
+		for (int i = 0; i < bindingCount; i++) {
+		    bindingStore.removeExpiredBinding(bindingChunk[i]);
+		}
+		for (int i = 0; i < nodeRefCount; i++) {
+		    nodeManager.reclaim(nodeRefChunk[i]);
+		}
+		nanos = System.nanoTime() - start;
+	    }
+	    for (int i = 0; i < bindingCount; i++) {
+		bindingChunk[i] = null;
+	    }
+	    for (int i = 0; i < nodeRefCount; i++) {
+		nodeRefChunk[i] = null;
+	    }
+	    reclaimedBindingsCount += bindingCount;
+	    reclaimedNodeRefsCount += nodeRefCount;
+	    handoffCount++;
+	    lockHeldNanos += nanos;
+	    if (nanos > maxLockHeldNanos) {
+		maxLockHeldNanos = nanos;
+	    }
+	}
+
+    }
+
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing;
+
+import java.util.Arrays;
+
+import prm4j.api.AbstractParametricMonitor;
+import prm4j.api.BaseEvent;
+import prm4j.api.Event;
+import prm4j.api.ParametricMonitor;
+import prm4j.indexing.model.EventContext;
+
+/**
+ * Decorates a {@link ParametricMonitor} so that runs of consecutive events with the same idempotent {@link BaseEvent}
+ * and the same bound objects are passed only once to the decorated monitor, see
+ * {@link EventContext#isIdempotentEvent(BaseEvent)}. Events with a condition are never elided. The bound objects of
+ * the last event are retained until the next event is processed.
+ */
+public class CoalescingParametricMonitor extends AbstractParametricMonitor {
+
+    private final ParametricMonitor parametricMonitor;
+    private final EventContext eventContext;
+
+    /**
+     * Base event of the last processed event, or <code>null</code> if the last event can not be repeated.
+     */
+    private BaseEvent lastBaseEvent;
+    private Object[] lastBoundObjects;
+
+    /**
+     * Reused for the events of a batch which are not elided.
+     */
+    private Event[] batch = new Event[0];
+
+    /**
+     * DIAGNOSTIC: Number of events which were not passed to the decorated monitor.
+     */
+    private long elidedEventsCount = 0L;
+
+    /**
+     * @param parametricMonitor
+     *            the decorated monitor
+     * @param eventContext
+     *            of the property monitored by the decorated monitor
+     */
+    public CoalescingParametricMonitor(ParametricMonitor parametricMonitor, EventContext eventContext) {
+	this.parametricMonitor = parametricMonitor;
+	this.eventContext = eventContext;
+    }
+
+    @Override
+    public synchronized void processEvent(Event event) {
+	if (isRepetition(event)) {
+	    elidedEventsCount++;
+	    return;
+	}
+	remember(event);
+	parametricMonitor.processEvent(event);
+    }
+
+    /**
+     * Passes the events of the batch which are not elided as a single batch to the decorated monitor.
+     */
+    @Override
+    public synchronized void processEvents(Event[] events, int from, int to) {
+	if (batch.length < to - from) {
+	    batch = new Event[to - from];
+	}
+	int count = 0;
+	for (int i = from; i < to; i++) {
+	    final Event event = events[i];
+	    if (isRepetition(event)) {
+		elidedEventsCount++;
+		continue;
+	    }
+	    remember(event);
+	    batch[count++] = event;
+	}
+	try {
+	    parametricMonitor.processEvents(batch, 0, count);
+	} finally {
+	    Arrays.fill(batch, 0, count, null);
+	}
+    }
+
+    private boolean isRepetition(Event event) {
+	if (event.getBaseEvent() != lastBaseEvent || event.hasCondition()) {
+	    return false;
+	}
+	final Object[] boundObjects = event.getBoundObjects();
+	for (int parameterIndex : lastBaseEvent.getParameterMask()) {
+	    if (boundObjects[parameterIndex] != lastBoundObjects[parameterIndex]) {
+		return false;
+	    }
+	}
+	return true;
+    }
+
+    private void remember(Event event) {
+	final BaseEvent baseEvent = event.getBaseEvent();
+	if (!eventContext.isIdempotentEvent(baseEvent) || event.hasCondition()) {
+	    forget();
+	    return;
+	}
+	final Object[] boundObjects = event.getBoundObjects();
+	if (lastBoundObjects == null || lastBoundObjects.length < boundObjects.length) {
+	    lastBoundObjects = new Object[boundObjects.length];
+	} else if (lastBaseEvent != null) {
+	    // do not retain objects of parameters the new base event does not bind
+	    Arrays.fill(lastBoundObjects, null);
+	}
+	for (int parameterIndex : baseEvent.getParameterMask()) {
+	    lastBoundObjects[parameterIndex] = boundObjects[parameterIndex];
+	}
+	lastBaseEvent = baseEvent;
+    }
+
+    private void forget() {
+	if (lastBaseEvent != null) {
+	    lastBaseEvent = null;
+	    Arrays.fill(lastBoundObjects, null);
+	}
+    }
+
+    /**
+     * Releases the object in the decorated monitor. The next event is never elided, since it would bind a new object.
+     */
+    @Override
+    public synchronized void release(Object boundObject) {
+	forget();
+	parametricMonitor.release(boundObject);
+    }
+
+    /**
+     * Resets the decorated monitor. The next event is never elided.
+     */
+    @Override
+    public synchronized void reset() {
+	forget();
+	elidedEventsCount = 0L;
+	parametricMonitor.reset();
+    }
+
+    @Override
+    public void shutdown() throws InterruptedException {
+	parametricMonitor.shutdown();
+    }
+
+    /**
+     * @return the decorated monitor
+     */
+    public ParametricMonitor getParametricMonitor() {
+	return parametricMonitor;
+    }
+
+    /**
+     * DIAGNOSTIC
+     * 
+     * @return the number of events which were not passed to the decorated monitor
+     */
+    public synchronized long getElidedEventsCount() {
+	return elidedEventsCount;
+    }
+
+}
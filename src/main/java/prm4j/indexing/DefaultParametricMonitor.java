@@ -10,11 +10,18 @@
  */
 package prm4j.indexing;
 
+import java.util.Arrays;
+
 import prm4j.Globals;
+import prm4j.api.AbstractParametricMonitor;
 import prm4j.api.BaseEvent;
+import prm4j.api.Condition;
 import prm4j.api.Event;
-import prm4j.api.MatchHandler;
-import prm4j.api.ParametricMonitor;
+import prm4j.api.Symbol;
+import prm4j.api.Symbol0;
+import prm4j.api.Symbol1;
+import prm4j.api.Symbol2;
+import prm4j.api.Symbol3;
 import prm4j.indexing.binding.Binding;
 import prm4j.indexing.binding.BindingStore;
 import prm4j.indexing.binding.DefaultBindingStore;
@@ -24,12 +31,18 @@ import prm4j.indexing.model.FindMaxArgs;
 import prm4j.indexing.model.JoinArgs;
 import prm4j.indexing.model.ParameterNode;
 import prm4j.indexing.model.UpdateChainingsArgs;
-import prm4j.indexing.monitor.AbstractMonitor;
+import prm4j.indexing.monitor.ArenaTransitionTableMonitor;
 import prm4j.indexing.monitor.DeadMonitor;
 import prm4j.indexing.monitor.Monitor;
 import prm4j.indexing.monitor.MonitorSet;
 import prm4j.indexing.monitor.ParametricMonitorLogger;
+import prm4j.indexing.monitor.ParametricMonitorMetrics;
+import prm4j.indexing.monitor.PhaseProfiler;
+import prm4j.indexing.monitor.PhaseProfiler.Phase;
+import prm4j.indexing.monitor.StatefulMonitor;
+import prm4j.indexing.monitor.TransitionTableMonitor;
 import prm4j.indexing.node.DefaultNodeStore;
+import prm4j.indexing.node.MonitorEvictor;
 import prm4j.indexing.node.Node;
 import prm4j.indexing.node.NodeManager;
 import prm4j.indexing.node.NodeStore;
@@ -37,7 +50,7 @@ import prm4j.indexing.node.NullNode;
 import prm4j.spec.Spec;
 import static prm4j.indexing.IndexingUtils.*;
 
-public class DefaultParametricMonitor implements ParametricMonitor {
+public class DefaultParametricMonitor extends AbstractParametricMonitor {
 
     protected final Monitor monitorPrototype;
     protected BindingStore bindingStore;
@@ -50,6 +63,50 @@ public class DefaultParametricMonitor implements ParametricMonitor {
 
     protected final ParametricMonitorLogger logger;
 
+    protected final ParametricMonitorMetrics metrics;
+
+    /**
+     * Events which can not change the state of any monitor are skipped, see {@link EventContext#isSelfLoopEvent}.
+     */
+    private boolean skipSelfLoopEvents;
+
+    /**
+     * Records the latencies of the phases of each event, if set.
+     */
+    private PhaseProfiler profiler;
+
+    /**
+     * Removes expired bindings and monitors in the background, if set. The event path does not clean then.
+     */
+    private BackgroundReclaimer reclaimer;
+
+    /**
+     * Decides which new instances get a monitor, if set. Otherwise every instance is monitored.
+     */
+    private AdmissionController admissionController;
+
+    /**
+     * Bounds the number of live monitors, if set.
+     */
+    private MonitorEvictor monitorEvictor;
+
+    /**
+     * Reused by the symbol-based methods, which process events without allocating them.
+     */
+    private final ReusableEvent reusableEvent = new ReusableEvent();
+    private Object[] reusableBoundObjects;
+
+    /**
+     * Number of symbol-based events being processed on the stack. Events processed by match handlers or conditions of
+     * an outer symbol-based event are allocated, since the reusable event is still in use.
+     */
+    private int reusableEventDepth;
+
+    /**
+     * Reusable joinable bindings, indexed by their length.
+     */
+    private Binding[][] joinableBindingsBuffers = new Binding[0][];
+
     /**
      * Creates a DefaultParametricMonitor using default {@link BindingStore} and {@link NodeStore} implementations (and
      * configurations).
@@ -62,8 +119,11 @@ public class DefaultParametricMonitor implements ParametricMonitor {
 	this.eventContext = eventContext;
 	bindingStore = new DefaultBindingStore(new LinkedListBindingFactory(), spec.getFullParameterSet());
 	monitorPrototype = spec.getMonitorPrototype();
+	skipSelfLoopEvents = Globals.SKIP_SELF_LOOP_EVENTS && isFiniteStateMonitor(monitorPrototype);
 	nodeManager = new NodeManager();
 	nodeStore = new DefaultNodeStore(parameterTree, nodeManager);
+	metrics = new ParametricMonitorMetrics(bindingStore, nodeManager, this);
+	nodeManager.setMetrics(metrics);
 	logger = Globals.LOGGING ? new ParametricMonitorLogger(bindingStore, nodeManager) : null;
     }
 
@@ -82,44 +142,426 @@ public class DefaultParametricMonitor implements ParametricMonitor {
 	this.bindingStore = bindingStore;
 	this.nodeStore = nodeStore;
 	this.monitorPrototype = monitorPrototype;
+	skipSelfLoopEvents = Globals.SKIP_SELF_LOOP_EVENTS && isFiniteStateMonitor(monitorPrototype);
 	this.eventContext = eventContext;
 	this.nodeManager = nodeManager;
 	this.activated = activated;
+	metrics = new ParametricMonitorMetrics(bindingStore, nodeManager, this);
+	nodeManager.setMetrics(metrics);
 	logger = Globals.LOGGING ? new ParametricMonitorLogger(bindingStore, nodeManager) : null;
     }
 
     @Override
     public synchronized void processEvent(Event event) {
 
-	final BaseEvent baseEvent = event.getBaseEvent();
-
 	// wait for a creation event to activate monitoring
-	if (!activated) {
-	    if (eventContext.isCreationEvent(baseEvent)) {
-		activated = true;
-	    } else {
-		return;
+	if (!activated && !activate(event.getBaseEvent())) {
+	    return;
+	}
+	if (skipSelfLoopEvents && eventContext.isIneffectiveEvent(event.getBaseEvent())) {
+	    // the event can not change anything, so it is only counted
+	    if (monitorEvictor != null) {
+		touchInstance(event);
 	    }
+	    finishEvent();
+	    return;
 	}
 
+	final PhaseProfiler profiler = this.profiler;
+	final long start = profiler != null ? profiler.beginEvent() : 0L;
+	final long admissionStart = admissionController != null ? System.nanoTime() : 0L;
+
 	// uncompressed representation of bindings
-	final Binding[] bindings = bindingStore.getBindings(event.getBoundObjects());
+	final Binding[] bindings;
+	final int[] lookupOnlyParameters = eventContext.getLookupOnlyParameters(event.getBaseEvent());
+	if (lookupOnlyParameters.length == 0) {
+	    if (reclaimer == null) {
+		bindings = bindingStore.getBindings(event.getBoundObjects());
+	    } else {
+		bindings = bindingStore.getBindingsWithoutCleaning(event.getBoundObjects());
+	    }
+	} else {
+	    bindings = bindingStore.getBindingsWithoutCleaning(event.getBoundObjects(), lookupOnlyParameters);
+	    if (reclaimer == null) {
+		bindingStore.tryToClean(1);
+	    }
+	}
+	if (profiler != null) {
+	    profiler.endPhase(Phase.BINDING_LOOKUP, start);
+	}
+	// unknown objects can not be part of any monitored instance
+	if (bindings != null) {
+	    processEvent(event, bindings);
+	}
+	if (profiler != null) {
+	    profiler.endEvent(event.getBaseEvent());
+	}
+	finishEvent();
+	if (admissionController != null) {
+	    admissionController.processed(admissionStart, metrics);
+	}
+    }
+
+    /**
+     * Records the activity of the instance of an event which is not processed, since the instance is still in use.
+     * Bindings are only looked up, an unknown object can not be part of any monitored instance.
+     */
+    private void touchInstance(Event event) {
+	final int[] parameterMask = event.getBaseEvent().getParameterMask();
+	final Binding[] bindings = bindingStore.getBindingsWithoutCleaning(event.getBoundObjects(), parameterMask);
+	monitorEvictor.touch(bindings != null ? nodeStore.getNode(bindings, parameterMask) : NullNode.instance,
+		timestamp);
+    }
+
+    private void finishEvent() {
+	// we increment the timestamp at the end (deviating from the algorithm) because we use it to count thenumber of
+	// events
+	if (reclaimer == null) {
+	    nodeManager.tryToClean(timestamp);
+	}
+	if (logger != null) {
+	    logger.log(timestamp);
+	}
+	metrics.processedEvents(1L);
+	timestamp++; // 40
+    }
+
+    /**
+     * Processes the events like {@link #processEvent(Event)}, but acquires the lock only once and removes expired
+     * bindings and monitors only at the end of the batch.
+     */
+    @Override
+    public synchronized void processEvents(Event[] events, int from, int to) {
+	final PhaseProfiler profiler = this.profiler;
+	final long admissionStart = admissionController != null ? System.nanoTime() : 0L;
+	final long firstTimestamp = timestamp;
+	RuntimeException firstException = null;
+	for (int i = from; i < to; i++) {
+	    final Event event = events[i];
+	    if (!activated && !activate(event.getBaseEvent())) {
+		continue;
+	    }
+	    try {
+		if (skipSelfLoopEvents && eventContext.isIneffectiveEvent(event.getBaseEvent())) {
+		    if (monitorEvictor != null) {
+			touchInstance(event);
+		    }
+		    timestamp++;
+		    continue;
+		}
+		final long start = profiler != null ? profiler.beginEvent() : 0L;
+		final Binding[] bindings = bindingStore.getBindingsWithoutCleaning(event.getBoundObjects(),
+			eventContext.getLookupOnlyParameters(event.getBaseEvent()));
+		if (profiler != null) {
+		    profiler.endPhase(Phase.BINDING_LOOKUP, start);
+		}
+		if (bindings != null) {
+		    processEvent(event, bindings);
+		}
+		if (profiler != null) {
+		    profiler.endEvent(event.getBaseEvent());
+		}
+		timestamp++;
+	    } catch (RuntimeException e) {
+		if (firstException == null) {
+		    firstException = e;
+		}
+	    }
+	}
+	if (timestamp > firstTimestamp) {
+	    metrics.processedEvents(timestamp - firstTimestamp);
+	    if (reclaimer == null) {
+		bindingStore.tryToClean((int) (timestamp - firstTimestamp));
+		nodeManager.tryToClean(firstTimestamp, timestamp);
+	    }
+	    if (logger != null) {
+		logger.log(firstTimestamp, timestamp);
+	    }
+	}
+	if (admissionController != null) {
+	    admissionController.processed(admissionStart, metrics);
+	}
+	if (firstException != null) {
+	    throw firstException;
+	}
+    }
+
+    @Override
+    public synchronized void processEvent(Symbol0 symbol) {
+	processReusableEvent(symbol, getReusableBoundObjects(symbol), null);
+    }
+
+    @Override
+    public synchronized void processEvent(Symbol0 symbol, Object auxiliaryData) {
+	processReusableEvent(symbol, getReusableBoundObjects(symbol), auxiliaryData);
+    }
+
+    @Override
+    public synchronized <P1> void processEvent(Symbol1<P1> symbol, P1 obj1) {
+	processEvent(symbol, obj1, null);
+    }
+
+    @Override
+    public synchronized <P1> void processEvent(Symbol1<P1> symbol, P1 obj1, Object auxiliaryData) {
+	final Object[] boundObjects = getReusableBoundObjects(symbol);
+	symbol.bindObjects(boundObjects, obj1);
+	processReusableEvent(symbol, boundObjects, auxiliaryData);
+    }
+
+    @Override
+    public synchronized <P1, P2> void processEvent(Symbol2<P1, P2> symbol, P1 obj1, P2 obj2) {
+	processEvent(symbol, obj1, obj2, null);
+    }
+
+    @Override
+    public synchronized <P1, P2> void processEvent(Symbol2<P1, P2> symbol, P1 obj1, P2 obj2, Object auxiliaryData) {
+	final Object[] boundObjects = getReusableBoundObjects(symbol);
+	symbol.bindObjects(boundObjects, obj1, obj2);
+	processReusableEvent(symbol, boundObjects, auxiliaryData);
+    }
+
+    @Override
+    public synchronized <P1, P2, P3> void processEvent(Symbol3<P1, P2, P3> symbol, P1 obj1, P2 obj2, P3 obj3) {
+	processEvent(symbol, obj1, obj2, obj3, null);
+    }
+
+    @Override
+    public synchronized <P1, P2, P3> void processEvent(Symbol3<P1, P2, P3> symbol, P1 obj1, P2 obj2, P3 obj3,
+	    Object auxiliaryData) {
+	final Object[] boundObjects = getReusableBoundObjects(symbol);
+	symbol.bindObjects(boundObjects, obj1, obj2, obj3);
+	processReusableEvent(symbol, boundObjects, auxiliaryData);
+    }
+
+    private Object[] getReusableBoundObjects(Symbol symbol) {
+	if (reusableEventDepth > 0) {
+	    return symbol.createObjectArray();
+	}
+	final int parameterCount = symbol.getAlphabet().getParameterCount();
+	if (reusableBoundObjects == null || reusableBoundObjects.length < parameterCount) {
+	    reusableBoundObjects = new Object[parameterCount];
+	}
+	return reusableBoundObjects;
+    }
+
+    /**
+     * Processes the bound objects wrapped in the reusable event, which gets cleared afterwards, so that the monitor does
+     * not keep the bound objects alive. Nested calls process a new event instead.
+     */
+    private void processReusableEvent(Symbol symbol, Object[] boundObjects, Object auxiliaryData) {
+	if (reusableEventDepth > 0) {
+	    processEvent(new Event(symbol, boundObjects, null, auxiliaryData));
+	    return;
+	}
+	reusableEvent.reinitialize(symbol, boundObjects, null, auxiliaryData);
+	reusableEventDepth++;
+	try {
+	    processEvent(reusableEvent);
+	} finally {
+	    reusableEventDepth--;
+	    for (int parameterIndex : symbol.getParameterMask()) {
+		boundObjects[parameterIndex] = null;
+	    }
+	    reusableEvent.reinitialize(null, null, null, null);
+	}
+    }
+
+    /**
+     * Starts a {@link BackgroundReclaimer}, which removes expired bindings and monitors instead of the event processing
+     * threads.
+     * 
+     * @param chunkSize
+     *            maximal number of removals while holding the lock of this monitor
+     * @return the reclaimer, providing its diagnostics
+     */
+    public synchronized BackgroundReclaimer startBackgroundReclamation(int chunkSize) {
+	if (reclaimer == null) {
+	    reclaimer = new BackgroundReclaimer(this, bindingStore, nodeManager, chunkSize);
+	}
+	return reclaimer;
+    }
+
+    /**
+     * Stops the background reclamation, so that events remove expired bindings and monitors again.
+     * 
+     * @throws InterruptedException
+     *             if interrupted while waiting for the reclaimer thread
+     */
+    public void stopBackgroundReclamation() throws InterruptedException {
+	final BackgroundReclaimer stoppedReclaimer;
+	synchronized (this) {
+	    stoppedReclaimer = reclaimer;
+	    reclaimer = null;
+	}
+	// the reclaimer needs the lock to finish its current chunk
+	if (stoppedReclaimer != null) {
+	    stoppedReclaimer.shutdown();
+	}
+    }
+
+    /**
+     * @return the running reclaimer or <code>null</code>, if expired bindings and monitors are removed by events
+     */
+    public synchronized BackgroundReclaimer getBackgroundReclaimer() {
+	return reclaimer;
+    }
+
+    /**
+     * Switches the profiling of the phases of each event on or off. Without profiler, the phases are not timed at all.
+     * 
+     * @param profiler
+     *            the profiler or <code>null</code> to switch off profiling
+     */
+    public synchronized void setPhaseProfiler(PhaseProfiler profiler) {
+	this.profiler = profiler;
+    }
+
+    /**
+     * DIAGNOSTIC
+     * 
+     * @return the phase profiler or <code>null</code>, if profiling is switched off
+     */
+    public synchronized PhaseProfiler getPhaseProfiler() {
+	return profiler;
+    }
+
+    /**
+     * Sets the controller which decides which new instances get a monitor. Instances which already have a monitor are
+     * not affected.
+     * 
+     * @param admissionController
+     *            the controller or <code>null</code> to monitor every instance
+     */
+    public synchronized void setAdmissionController(AdmissionController admissionController) {
+	this.admissionController = admissionController;
+    }
+
+    /**
+     * DIAGNOSTIC
+     * 
+     * @return the admission controller or <code>null</code>, if every instance is monitored
+     */
+    public synchronized AdmissionController getAdmissionController() {
+	return admissionController;
+    }
+
+    /**
+     * Limits the number of live monitors. If a new monitor exceeds the limit, the least recently active monitor of a
+     * sample is evicted, see {@link MonitorEvictor}. Monitors created before the limit was set are not counted.
+     * 
+     * @param maxMonitors
+     *            the maximal number of live monitors or <code>0</code> to remove the limit
+     * @return the evictor, providing its diagnostics, or <code>null</code> if the limit was removed
+     */
+    public synchronized MonitorEvictor setMonitorLimit(int maxMonitors) {
+	monitorEvictor = maxMonitors == 0 ? null : new MonitorEvictor(nodeStore, maxMonitors);
+	nodeManager.setMonitorEvictor(monitorEvictor);
+	return monitorEvictor;
+    }
+
+    /**
+     * DIAGNOSTIC
+     * 
+     * @return the monitor evictor or <code>null</code>, if the number of live monitors is not limited
+     */
+    public synchronized MonitorEvictor getMonitorEvictor() {
+	return monitorEvictor;
+    }
+
+    /**
+     * Switches the skipping of events which can not change the state of any monitor on or off. Skipping is only
+     * switched on for the base monitors of prm4j, which follow the transitions of the finite spec exactly. Defaults to
+     * {@link Globals#SKIP_SELF_LOOP_EVENTS}.
+     * 
+     * @param skipSelfLoopEvents
+     * @return <code>true</code>, if self-loop events are skipped now
+     */
+    public synchronized boolean setSkipSelfLoopEvents(boolean skipSelfLoopEvents) {
+	this.skipSelfLoopEvents = skipSelfLoopEvents && isFiniteStateMonitor(monitorPrototype);
+	return this.skipSelfLoopEvents;
+    }
+
+    /**
+     * DIAGNOSTIC
+     * 
+     * @return the metrics of this parametric monitor
+     */
+    public ParametricMonitorMetrics getMetrics() {
+	return metrics;
+    }
+
+    /**
+     * Only the base monitors of prm4j follow the transitions of the finite spec exactly, subclasses may observe the
+     * events otherwise.
+     */
+    private static boolean isFiniteStateMonitor(Monitor monitorPrototype) {
+	final Class<?> monitorClass = monitorPrototype.getClass();
+	return monitorClass == StatefulMonitor.class || monitorClass == TransitionTableMonitor.class
+		|| monitorClass == ArenaTransitionTableMonitor.class;
+    }
+
+    /**
+     * Monitoring gets activated by the first creation event.
+     * 
+     * @param baseEvent
+     * @return <code>true</code> if the monitor is activated
+     */
+    private boolean activate(BaseEvent baseEvent) {
+	if (eventContext.isCreationEvent(baseEvent)) {
+	    activated = true;
+	}
+	return activated;
+    }
+
+    /**
+     * Processes a single event of an activated monitor, without any bookkeeping of the timestamp.
+     * 
+     * @param event
+     * @param bindings
+     *            uncompressed representation of the event's bindings
+     */
+    private void processEvent(Event event, final Binding[] bindings) {
+
+	final PhaseProfiler profiler = this.profiler;
+	long start = profiler != null ? System.nanoTime() : 0L;
+	if (event.hasCondition() && !event.hasMonitorCondition()) {
+	    // the result of the event-scoped condition is kept only while this event is processed
+	    event = new EventConditionResult(event);
+	}
+	final BaseEvent baseEvent = event.getBaseEvent();
+	// no monitor has to be updated if the event can not change any state
+	final boolean selfLoop = skipSelfLoopEvents && eventContext.isSelfLoopEvent(baseEvent);
 	// selects a subset of bindings from the uncompressed bindings representation
 	final int[] parameterMask = baseEvent.getParameterMask();
 	// node associated to the current bindings. May be NullNode if binding is encountered the first time
 	Node instanceNode = nodeStore.getNode(bindings, parameterMask);
 	// monitor associated with the instance node. May be null if the instance node is a NullNode
 	Monitor instanceMonitor = instanceNode.getMonitor();
+	if (monitorEvictor != null) {
+	    monitorEvictor.touch(instanceNode, timestamp);
+	}
 
 	if (instanceMonitor == null) {
 	    // direct update phase
-	    for (MonitorSet monitorSet : instanceNode.getMonitorSets()) {
-		if (monitorSet != null) {
-		    monitorSet.processUpdate(event);
+	    if (!selfLoop) {
+		for (MonitorSet monitorSet : instanceNode.getMonitorSets()) {
+		    if (monitorSet != null) {
+			monitorSet.processUpdate(event);
+		    }
+		}
+		if (profiler != null) {
+		    start = profiler.endPhase(Phase.DIRECT_UPDATE, start);
 		}
 	    }
-	    findMaxPhase: for (FindMaxArgs findMaxArgs : eventContext.getFindMaxArgs(baseEvent)) {
+	    // each phase is only recorded if it ran, and at most once
+	    final FindMaxArgs[] findMaxArgsArray = eventContext.getFindMaxArgs(baseEvent);
+	    boolean derived = false;
+	    findMaxPhase: for (FindMaxArgs findMaxArgs : findMaxArgsArray) {
 		Monitor maxMonitor = nodeStore.getNode(bindings, findMaxArgs.nodeMask).getMonitor();
+		if (admissionController != null && maxMonitor instanceof DeadMonitor) {
+		    // under admission control, instances extending a rejected instance are not monitored
+		    break findMaxPhase;
+		}
 		if (maxMonitor != null) {
 		    // time check
 		    final long maxMonitorTimestamp = maxMonitor.getTimestamp();
@@ -133,19 +575,30 @@ public class DefaultParametricMonitor implements ParametricMonitor {
 
 		    // DefineTo
 		    instanceMonitor = maxMonitor.copy(toCompressedBindings(bindings, parameterMask));
+		    metrics.derivedMonitor();
 		    if (instanceNode == NullNode.instance) {
 			instanceNode = nodeStore.getOrCreateNode(bindings, parameterMask);
 		    }
 		    instanceNode.setMonitor(instanceMonitor);
+		    nodeManager.createdMonitor(instanceNode);
 		    instanceMonitor.process(event);
-
-		    // update-chainings phase
-		    updateChainings(bindings, instanceNode);
+		    derived = true;
 		    break findMaxPhase;
 		}
 	    }
+	    if (profiler != null && findMaxArgsArray.length > 0) {
+		start = profiler.endPhase(Phase.FIND_MAX, start);
+	    }
+	    if (derived) {
+		// update-chainings phase
+		updateChainings(bindings, instanceNode);
+		if (profiler != null) {
+		    start = profiler.endPhase(Phase.UPDATE_CHAININGS, start);
+		}
+	    }
 
-	    joinPhase: for (JoinArgs joinArgs : eventContext.getJoinArgs(baseEvent)) { // 43
+	    final JoinArgs[] joinArgsArray = eventContext.getJoinArgs(baseEvent);
+	    joinPhase: for (JoinArgs joinArgs : joinArgsArray) { // 43
 
 		// if node does not exist there can't be any joinable monitors
 		final Node compatibleNode = nodeStore.getNode(bindings, joinArgs.nodeMask);
@@ -154,17 +607,24 @@ public class DefaultParametricMonitor implements ParametricMonitor {
 		}
 
 		// calculate bindings array which is to be joined with the whole monitor set
-		final Binding[] joinableBindings = createJoinableBindings(bindings, joinArgs.extensionPattern);
+		final Binding[] joinableBindings = createJoinableBindings(bindings, joinArgs.extensionPattern,
+			getJoinableBindingsBuffer(joinArgs.extensionPattern.length));
 
 		// join is performed in monitor set
 		compatibleNode.getMonitorSet(joinArgs.monitorSetId).join(nodeStore, event, joinableBindings, joinArgs);
 
 	    }
+	    if (profiler != null && joinArgsArray.length > 0) {
+		start = profiler.endPhase(Phase.JOIN, start);
+	    }
 
-	    monitorCreation: if (instanceMonitor == null && eventContext.isCreationEvent(baseEvent)) {
+	    final boolean creationPhase = instanceMonitor == null && eventContext.isCreationEvent(baseEvent);
+	    boolean created = false;
+	    monitorCreation: if (creationPhase) {
 
 		if (eventContext.isDisableEvent(baseEvent)) { // 2
 		    instanceMonitor = new DeadMonitor(timestamp);
+		    metrics.createdDeadMonitor();
 		    nodeStore.getOrCreateNode(bindings, parameterMask).setMonitor(instanceMonitor);
 		} else {
 		    // check for existing monitors
@@ -174,36 +634,50 @@ public class DefaultParametricMonitor implements ParametricMonitor {
 			    break monitorCreation;
 			}
 		    }
+		    if (admissionController != null && !admissionController.admit(bindings, parameterMask)) {
+			// the rejection is remembered, so the instance is never monitored with an incomplete trace
+			instanceMonitor = new DeadMonitor(timestamp);
+			metrics.createdDeadMonitor();
+			nodeStore.getOrCreateNode(bindings, parameterMask).setMonitor(instanceMonitor);
+			break monitorCreation;
+		    }
 		    // DefineNew
 		    instanceMonitor = monitorPrototype.copy(toCompressedBindings(bindings, parameterMask), timestamp);
+		    metrics.createdMonitor();
 		    if (instanceNode == NullNode.instance) {
 			instanceNode = nodeStore.getOrCreateNode(bindings, parameterMask);
 		    }
 		    instanceNode.setMonitor(instanceMonitor);
+		    nodeManager.createdMonitor(instanceNode);
 		    instanceMonitor.process(event);
-
-		    // update-chainings phase
-		    updateChainings(bindings, instanceNode);
+		    created = true;
+		}
+	    }
+	    if (profiler != null && creationPhase) {
+		start = profiler.endPhase(Phase.MONITOR_CREATION, start);
+	    }
+	    if (created) {
+		// update-chainings phase
+		updateChainings(bindings, instanceNode);
+		if (profiler != null) {
+		    profiler.endPhase(Phase.UPDATE_CHAININGS, start);
 		}
 	    }
 	    nodeStore.getNode(bindings, parameterMask).setTimestamp(timestamp);
 	} else {
 	    // update phase
-	    instanceMonitor.process(event);
-	    for (MonitorSet monitorSet : instanceNode.getMonitorSets()) {
-		if (monitorSet != null) {
-		    monitorSet.processUpdate(event);
+	    if (!selfLoop) {
+		instanceMonitor.process(event);
+		for (MonitorSet monitorSet : instanceNode.getMonitorSets()) {
+		    if (monitorSet != null) {
+			monitorSet.processUpdate(event);
+		    }
+		}
+		if (profiler != null) {
+		    profiler.endPhase(Phase.UPDATE, start);
 		}
 	    }
 	}
-
-	// we increment the timestamp at the end (deviating from the algorithm) because we use it to count thenumber of
-	// events
-	nodeManager.tryToClean(timestamp);
-	if (logger != null) {
-	    logger.log(timestamp);
-	}
-	timestamp++; // 40
     }
 
     private void updateChainings(final Binding[] bindings, Node instanceNode) {
@@ -222,14 +696,60 @@ public class DefaultParametricMonitor implements ParametricMonitor {
      * @return joinable bindings
      */
     static Binding[] createJoinableBindings(Binding[] bindings, int[] extensionPattern) {
-	final Binding[] joinableBindings = new Binding[extensionPattern.length];
+	return createJoinableBindings(bindings, extensionPattern, new Binding[extensionPattern.length]);
+    }
+
+    /**
+     * Fills the given buffer with the joinable bindings, see {@link #createJoinableBindings(Binding[], int[])}.
+     * 
+     * @param bindings
+     * @param extensionPattern
+     * @param buffer
+     *            array of the same length as the extension pattern
+     * @return the buffer
+     */
+    static Binding[] createJoinableBindings(Binding[] bindings, int[] extensionPattern, Binding[] buffer) {
 	for (int i = 0; i < extensionPattern.length; i++) {
 	    final int e = extensionPattern[i];
-	    if (e >= 0) {
-		joinableBindings[i] = bindings[e];
+	    buffer[i] = e >= 0 ? bindings[e] : null;
+	}
+	return buffer;
+    }
+
+    /**
+     * The joinable bindings can be reused between joins, since {@link MonitorSet#join} works on copies only.
+     * 
+     * @param length
+     * @return a buffer of the given length
+     */
+    private Binding[] getJoinableBindingsBuffer(int length) {
+	if (length >= joinableBindingsBuffers.length) {
+	    joinableBindingsBuffers = Arrays.copyOf(joinableBindingsBuffers, length + 1);
+	}
+	Binding[] buffer = joinableBindingsBuffers[length];
+	if (buffer == null) {
+	    buffer = new Binding[length];
+	    joinableBindingsBuffers[length] = buffer;
+	}
+	return buffer;
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * The nodes of the instances binding the object are removed from the node tree right away. Monitors which can still
+     * reach an accepting state stay in the monitor sets of their sub-instances.
+     */
+    @Override
+    public synchronized void release(Object boundObject) {
+	if (boundObject != null) {
+	    nodeManager.setExplicitRelease(true);
+	    try {
+		bindingStore.releaseBindings(boundObject);
+	    } finally {
+		nodeManager.setExplicitRelease(false);
 	    }
 	}
-	return joinableBindings;
     }
 
     @Override
@@ -237,14 +757,75 @@ public class DefaultParametricMonitor implements ParametricMonitor {
 	activated = false;
 	timestamp = 0L;
 	if (logger != null) {
+	    if (profiler != null) {
+		logger.log(profiler);
+	    }
 	    logger.reset();
 	}
+	if (profiler != null) {
+	    profiler.reset();
+	}
 	bindingStore.reset();
 	nodeStore.reset();
 	nodeManager.reset();
-	AbstractMonitor.reset();
-	DeadMonitor.reset();
-	MatchHandler.reset();
+	metrics.reset();
+    }
+
+    /**
+     * Stops the background reclamation and removes the metrics of this monitor from the platform MBean server, if they
+     * were registered.
+     */
+    @Override
+    public void shutdown() throws InterruptedException {
+	stopBackgroundReclamation();
+	metrics.unregisterMBean();
+    }
+
+    /**
+     * View of an event with an event-scoped condition, which evaluates the condition at most once while the event is
+     * processed. The viewed event is not modified, so that it may be processed repeatedly and by several parametric
+     * monitors concurrently.
+     */
+    private static class EventConditionResult extends Event {
+
+	private boolean conditionEvaluated = false;
+	private boolean conditionSatisfied;
+
+	EventConditionResult(Event event) {
+	    super(event.getBaseEvent(), event.getBoundObjects(), event.getCondition(), event.getAuxiliaryData());
+	}
+
+	@Override
+	public BaseEvent getEvaluatedBaseEvent(Monitor baseMonitor) {
+	    return getEvaluatedBaseEvent();
+	}
+
+	@Override
+	public BaseEvent getEvaluatedBaseEvent() {
+	    if (!conditionEvaluated) {
+		conditionSatisfied = super.getEvaluatedBaseEvent(null) != null;
+		conditionEvaluated = true;
+	    }
+	    return conditionSatisfied ? getBaseEvent() : null;
+	}
+
+    }
+
+    /**
+     * Event which can be reinitialized for each processed event.
+     */
+    private static class ReusableEvent extends Event {
+
+	ReusableEvent() {
+	    super(null, null);
+	}
+
+	@Override
+	protected void reinitialize(BaseEvent baseEvent, Object[] parameterValues, Condition condition,
+		Object auxiliaryData) {
+	    super.reinitialize(baseEvent, parameterValues, condition, auxiliaryData);
+	}
+
     }
 
 }
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import prm4j.api.AbstractParametricMonitor;
+import prm4j.api.Event;
+import prm4j.api.Parameter;
+import prm4j.api.ParametricMonitor;
+import prm4j.indexing.model.ParametricPropertyModel;
+import prm4j.spec.finite.FiniteSpec;
+
+/**
+ * Decorates a {@link ParametricMonitor} so that only the parametric instances binding a sampled object to the sampling
+ * parameter are monitored. The sampling parameter has to be a partition parameter, i.e. bound by every instance which
+ * may carry a monitor (see {@link ParametricPropertyModel#getPartitionParameters()}), so the trace slice of a sampled
+ * instance is always observed completely. Events binding an object which is not sampled are discarded before they
+ * reach the decorated monitor, all other events are passed on.
+ * <p>
+ * An object is sampled depending on its identity hash code, so the decision does not change during the lifetime of
+ * the object, but differs between runs. Objects bound to a value-typed sampling parameter are sampled depending on
+ * their hash code instead, so that either all or none of the equal values are sampled.
+ */
+public class SamplingParametricMonitor extends AbstractParametricMonitor {
+
+    private final ParametricMonitor parametricMonitor;
+    private final Parameter<?> samplingParameter;
+    private final int samplingParameterIndex;
+    private final boolean samplingByValue;
+    private final int samplingRate;
+
+    /**
+     * DIAGNOSTIC: Number of events discarded because their object was not sampled.
+     */
+    private final AtomicLong discardedEventsCount = new AtomicLong();
+
+    /**
+     * @param parametricMonitor
+     *            the decorated monitor
+     * @param finiteSpec
+     *            the property monitored by the decorated monitor
+     * @param samplingParameter
+     *            has to be a partition parameter of the property. If <code>null</code>, the partition parameter with
+     *            the lowest index is selected
+     * @param samplingRate
+     *            one in <code>samplingRate</code> objects is sampled
+     * @throws IllegalArgumentException
+     *             if the property can not be sampled by the given parameter
+     */
+    public SamplingParametricMonitor(ParametricMonitor parametricMonitor, FiniteSpec finiteSpec,
+	    Parameter<?> samplingParameter, int samplingRate) {
+	if (samplingRate < 1) {
+	    throw new IllegalArgumentException("Sampling rate has to be positive: " + samplingRate);
+	}
+	this.parametricMonitor = parametricMonitor;
+	this.samplingParameter = ShardedParametricMonitor.getPartitionParameter(finiteSpec, samplingParameter);
+	samplingParameterIndex = this.samplingParameter.getIndex();
+	samplingByValue = this.samplingParameter.isValueTyped();
+	this.samplingRate = samplingRate;
+    }
+
+    @Override
+    public void processEvent(Event event) {
+	if (isDiscarded(event)) {
+	    discardedEventsCount.incrementAndGet();
+	    return;
+	}
+	parametricMonitor.processEvent(event);
+    }
+
+    /**
+     * Passes each run of consecutive events which are not discarded as a batch to the decorated monitor.
+     */
+    @Override
+    public void processEvents(Event[] events, int from, int to) {
+	int runStart = from;
+	for (int i = from; i < to; i++) {
+	    if (isDiscarded(events[i])) {
+		if (runStart < i) {
+		    parametricMonitor.processEvents(events, runStart, i);
+		}
+		discardedEventsCount.incrementAndGet();
+		runStart = i + 1;
+	    }
+	}
+	if (runStart < to) {
+	    parametricMonitor.processEvents(events, runStart, to);
+	}
+    }
+
+    private boolean isDiscarded(Event event) {
+	final Object samplingObject = event.getBoundObject(samplingParameterIndex);
+	return samplingObject != null && !isSampled(samplingObject);
+    }
+
+    /**
+     * Uses the high bits of a multiplicative hash. The multiplier differs from the one of the
+     * {@link ShardedParametricMonitor}, so that the sampled objects are not concentrated in a single shard.
+     * 
+     * @param object
+     * @return <code>true</code> if the instances binding the object to the sampling parameter are monitored
+     */
+    public boolean isSampled(Object object) {
+	final int objectHash = samplingByValue ? object.hashCode() : System.identityHashCode(object);
+	final long hash = (objectHash * 0x85EBCA6BL) & 0xFFFFFFFFL;
+	return (hash * samplingRate) >>> 32 == 0L;
+    }
+
+    @Override
+    public void release(Object boundObject) {
+	parametricMonitor.release(boundObject);
+    }
+
+    @Override
+    public void reset() {
+	parametricMonitor.reset();
+    }
+
+    @Override
+    public void shutdown() throws InterruptedException {
+	parametricMonitor.shutdown();
+    }
+
+    /**
+     * @return the decorated monitor
+     */
+    public ParametricMonitor getParametricMonitor() {
+	return parametricMonitor;
+    }
+
+    public Parameter<?> getSamplingParameter() {
+	return samplingParameter;
+    }
+
+    public int getSamplingRate() {
+	return samplingRate;
+    }
+
+    /**
+     * DIAGNOSTIC
+     * 
+     * @return the number of events discarded because their object was not sampled
+     */
+    public long getDiscardedEventsCount() {
+	return discardedEventsCount.get();
+    }
+
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing;
+
+import java.util.Set;
+
+import prm4j.api.AbstractParametricMonitor;
+import prm4j.api.Event;
+import prm4j.api.Parameter;
+import prm4j.api.ParametricMonitorFactory;
+import prm4j.indexing.concurrent.OverflowPolicy;
+import prm4j.indexing.model.ParametricPropertyModel;
+import prm4j.spec.finite.FiniteParametricProperty;
+import prm4j.spec.finite.FiniteSpec;
+
+/**
+ * Partitions the monitoring of a property by the object bound to a partition parameter, i.e. a parameter bound by
+ * every instance which may carry a monitor (see {@link ParametricPropertyModel#getPartitionParameters()}). Each shard
+ * is an independent {@link DefaultParametricMonitor} with its own stores, driven by its own
+ * {@link AsyncParametricMonitor} consumer thread. Events binding the partition parameter are sent to the shard selected
+ * by the bound object, all other events are sent to every shard. Objects bound to a value-typed partition parameter are
+ * distributed by their hash code, so that equal values are monitored by the same shard, all other objects by their
+ * identity hash code.
+ * <p>
+ * Match handlers are called concurrently by the consumer threads of the shards and have to be thread-safe.
+ */
+public class ShardedParametricMonitor extends AbstractParametricMonitor {
+
+    private final Parameter<?> partitionParameter;
+    private final int partitionParameterIndex;
+    private final boolean partitionByValue;
+    private final AsyncParametricMonitor[] shards;
+
+    /**
+     * Creates a sharded monitor partitioned by the partition parameter with the lowest index.
+     * 
+     * @param finiteSpec
+     * @param shardCount
+     *            number of independent monitors and consumer threads
+     * @param capacity
+     *            of the ring buffer of each shard
+     * @param overflowPolicy
+     *            behavior of producers if the ring buffer of a shard is full
+     * @throws IllegalArgumentException
+     *             if the property can not be partitioned
+     */
+    public ShardedParametricMonitor(FiniteSpec finiteSpec, int shardCount, int capacity, OverflowPolicy overflowPolicy) {
+	this(finiteSpec, null, shardCount, capacity, overflowPolicy);
+    }
+
+    /**
+     * Creates a sharded monitor partitioned by the given parameter.
+     * 
+     * @param finiteSpec
+     * @param partitionParameter
+     *            has to be a partition parameter of the property. If <code>null</code>, the partition parameter with
+     *            the lowest index is selected
+     * @param shardCount
+     *            number of independent monitors and consumer threads
+     * @param capacity
+     *            of the ring buffer of each shard
+     * @param overflowPolicy
+     *            behavior of producers if the ring buffer of a shard is full
+     * @throws IllegalArgumentException
+     *             if the property can not be partitioned by the given parameter
+     */
+    public ShardedParametricMonitor(FiniteSpec finiteSpec, Parameter<?> partitionParameter, int shardCount,
+	    int capacity, OverflowPolicy overflowPolicy) {
+	if (shardCount < 1) {
+	    throw new IllegalArgumentException("Shard count has to be positive: " + shardCount);
+	}
+	this.partitionParameter = getPartitionParameter(finiteSpec, partitionParameter);
+	partitionParameterIndex = this.partitionParameter.getIndex();
+	partitionByValue = this.partitionParameter.isValueTyped();
+	shards = new AsyncParametricMonitor[shardCount];
+	for (int i = 0; i < shardCount; i++) {
+	    shards[i] = new AsyncParametricMonitor(ParametricMonitorFactory.createParametricMonitor(finiteSpec),
+		    capacity, overflowPolicy);
+	}
+    }
+
+    /**
+     * Validates or selects a parameter bound by every instance which may carry a monitor.
+     * 
+     * @param finiteSpec
+     * @param partitionParameter
+     *            has to be a partition parameter of the property. If <code>null</code>, the partition parameter with
+     *            the lowest index is selected
+     * @return the partition parameter
+     * @throws IllegalArgumentException
+     *             if the property can not be partitioned by the given parameter
+     */
+    static Parameter<?> getPartitionParameter(FiniteSpec finiteSpec, Parameter<?> partitionParameter) {
+	final Set<Parameter<?>> partitionParameters = new ParametricPropertyModel(new FiniteParametricProperty(
+		finiteSpec)).getPartitionParameters();
+	if (partitionParameter == null) {
+	    for (Parameter<?> parameter : partitionParameters) {
+		if (partitionParameter == null || parameter.getIndex() < partitionParameter.getIndex()) {
+		    partitionParameter = parameter;
+		}
+	    }
+	    if (partitionParameter == null) {
+		throw new IllegalArgumentException("The property can not be partitioned, no parameter is bound by "
+			+ "every instance carrying a monitor.");
+	    }
+	} else if (!partitionParameters.contains(partitionParameter)) {
+	    throw new IllegalArgumentException("The property can not be partitioned by parameter " + partitionParameter
+		    + ". Partition parameters: " + partitionParameters);
+	}
+	return partitionParameter;
+    }
+
+    @Override
+    public void processEvent(Event event) {
+	final Object partitionObject = event.getBoundObject(partitionParameterIndex);
+	if (partitionObject != null) {
+	    shards[getShardIndex(partitionObject)].processEvent(event);
+	} else {
+	    for (AsyncParametricMonitor shard : shards) {
+		shard.processEvent(event);
+	    }
+	}
+    }
+
+    @Override
+    public void processEvents(Event[] events, int from, int to) {
+	for (int i = from; i < to; i++) {
+	    processEvent(events[i]);
+	}
+    }
+
+    /**
+     * Uses the high bits of a multiplicative hash, so that the objects of a shard do not share the low bits of their
+     * hash codes, which are used by the binding stores of the shard.
+     */
+    int getShardIndex(Object partitionObject) {
+	final int objectHash = partitionByValue ? partitionObject.hashCode() : System.identityHashCode(partitionObject);
+	final long hash = (objectHash * 0x9E3779B9L) & 0xFFFFFFFFL;
+	return (int) ((hash * shards.length) >>> 32);
+    }
+
+    /**
+     * Waits until all events published before this call are processed by all shards.
+     */
+    public void flush() {
+	for (AsyncParametricMonitor shard : shards) {
+	    shard.flush();
+	}
+    }
+
+    /**
+     * Processes all published events and shuts down all shards.
+     * 
+     * @throws InterruptedException
+     */
+    @Override
+    public void shutdown() throws InterruptedException {
+	for (AsyncParametricMonitor shard : shards) {
+	    shard.shutdown();
+	}
+    }
+
+    /**
+     * Releases the object in all shards, since it may be bound to other parameters than the partition parameter.
+     */
+    @Override
+    public void release(Object boundObject) {
+	for (AsyncParametricMonitor shard : shards) {
+	    shard.release(boundObject);
+	}
+    }
+
+    @Override
+    public void reset() {
+	for (AsyncParametricMonitor shard : shards) {
+	    shard.reset();
+	}
+    }
+
+    public Parameter<?> getPartitionParameter() {
+	return partitionParameter;
+    }
+
+    /**
+     * @return the shards, each decorating an independent {@link DefaultParametricMonitor}
+     */
+    public AsyncParametricMonitor[] getShards() {
+	return shards;
+    }
+
+}
@@ -43,6 +43,21 @@ public class ArrayBasedBinding extends AbstractBinding {
 	bindingHolders[bindingHoldersSize++] = bindingHolder;
     }
 
+    @Override
+    public void unregisterHolder(Holder<Binding> bindingHolder) {
+	if (bindingHolders == null) {
+	    return;
+	}
+	for (int i = 0; i < bindingHoldersSize; i++) {
+	    if (bindingHolders[i] == bindingHolder) {
+		// the order of the holders does not matter
+		bindingHolders[i] = bindingHolders[--bindingHoldersSize];
+		bindingHolders[bindingHoldersSize] = null;
+		return;
+	    }
+	}
+    }
+
     @Override
     public void release() {
 	if (bindingHolders != null) {
@@ -53,4 +68,13 @@ public class ArrayBasedBinding extends AbstractBinding {
 	}
     }
 
+    /**
+     * DIAGNOSTIC
+     * 
+     * @return the number of registered holders
+     */
+    public int getHoldersCount() {
+	return bindingHolders == null ? 0 : bindingHoldersSize;
+    }
+
 }
@@ -40,4 +40,12 @@ public interface Binding extends MinimalMapEntry<Object, Binding> {
      */
     void registerHolder(Holder<Binding> bindingHolder);
 
+    /**
+     * Unregisters a holder which does not use this binding anymore, e.g. a node whose child with this binding was
+     * removed while the binding is still alive.
+     * 
+     * @param bindingHolder
+     */
+    void unregisterHolder(Holder<Binding> bindingHolder);
+
 }
@@ -24,6 +24,36 @@ public interface BindingStore {
      */
     public Binding[] getBindings(Object[] boundObjects);
 
+    /**
+     * Like {@link #getBindings(Object[])}, but never removes expired bindings. Callers retrieving many bindings at once
+     * report their retrievals afterwards by calling {@link #tryToClean(int)}.
+     * 
+     * @param boundObjects
+     *            (uncompressed)
+     * @return bindings (uncompressed)
+     */
+    public Binding[] getBindingsWithoutCleaning(Object[] boundObjects);
+
+    /**
+     * Like {@link #getBindingsWithoutCleaning(Object[])}, but only looks up the objects bound to the given lookup-only
+     * parameters. If one of them has no binding, no binding is created and <code>null</code> is returned.
+     * 
+     * @param boundObjects
+     *            (uncompressed)
+     * @param lookupOnlyParameters
+     *            indices of parameters, whose bound objects have to be known already
+     * @return bindings (uncompressed), or <code>null</code> if a lookup-only object has no binding
+     */
+    public Binding[] getBindingsWithoutCleaning(Object[] boundObjects, int[] lookupOnlyParameters);
+
+    /**
+     * Removes expired bindings, if the cleaning interval is reached by the given number of retrievals.
+     * 
+     * @param retrievals
+     *            number of calls to {@link #getBindingsWithoutCleaning(Object[])} since the last call
+     */
+    public void tryToClean(int retrievals);
+
     /**
      * Retrieves the binding for a given bound object, or returns <code>null</code>, if the binding does not exist.
      *
@@ -48,6 +78,16 @@ public interface BindingStore {
      */
     public boolean removeBinding(Binding binding);
 
+    /**
+     * Removes the bindings of an object which reached the end of its life, like the bindings of a garbage collected
+     * object, and releases their resources. The released bindings return <code>null</code> on {@link Binding#get()},
+     * so the object gets a new binding, if it is bound again.
+     * 
+     * @param boundObject
+     * @return the number of released bindings
+     */
+    public int releaseBindings(Object boundObject);
+
     public int size();
 
     public void reset();
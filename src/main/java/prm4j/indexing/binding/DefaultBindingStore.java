@@ -10,12 +10,14 @@
  */
 package prm4j.indexing.binding;
 
+import java.lang.ref.Reference;
 import java.lang.ref.ReferenceQueue;
 import java.util.Set;
 
 import prm4j.Globals;
 import prm4j.api.Parameter;
 import prm4j.indexing.map.MinimalMap;
+import prm4j.indexing.map.ValueMap;
 
 public class DefaultBindingStore implements BindingStore {
 
@@ -28,9 +30,24 @@ public class DefaultBindingStore implements BindingStore {
 
     private long createdBindingsCount;
     private long collectedBindingsCount;
+    private long cleaningPassesCount;
 
     private MinimalMap<Object, Binding> store;
 
+    /**
+     * Strong bindings of each value-typed parameter, <code>null</code> for other parameters. The array is
+     * <code>null</code>, if there are no value-typed parameters.
+     */
+    private final ValueStore[] valueStores;
+    private final long[] timeToLive;
+
+    /**
+     * Number of retrieved binding arrays, which measures the time to live of value bindings.
+     */
+    private long retrievals = 0L;
+    private long nextValueSweep;
+    private final long valueSweepInterval;
+
     public DefaultBindingStore(BindingFactory bindingFactory, Set<Parameter<?>> fullParameterSet) {
 	this(bindingFactory, fullParameterSet, Globals.BINDING_CLEANING_INTERVAL);
     }
@@ -40,8 +57,35 @@ public class DefaultBindingStore implements BindingStore {
 	fullParameterCount = fullParameterSet.size();
 	this.cleaningInterval = cleaningInterval;
 	referenceQueue = new ReferenceQueue<Object>();
-	store = new DefaultStore();
+	store = createStore();
 	bindings = createInitialBindings();
+	timeToLive = new long[fullParameterCount];
+	long minTimeToLive = Long.MAX_VALUE;
+	for (Parameter<?> parameter : fullParameterSet) {
+	    if (parameter.isValueTyped()) {
+		timeToLive[parameter.getIndex()] = parameter.getTimeToLive();
+		if (parameter.getTimeToLive() > 0L) {
+		    minTimeToLive = Math.min(minTimeToLive, parameter.getTimeToLive());
+		}
+	    }
+	}
+	valueStores = createValueStores(fullParameterSet);
+	// unused bindings expire after their time to live, but at most half of it later
+	valueSweepInterval = minTimeToLive == Long.MAX_VALUE ? Long.MAX_VALUE : Math.max(1L, minTimeToLive / 2);
+	nextValueSweep = valueSweepInterval;
+    }
+
+    private ValueStore[] createValueStores(Set<Parameter<?>> fullParameterSet) {
+	ValueStore[] result = null;
+	for (Parameter<?> parameter : fullParameterSet) {
+	    if (parameter.isValueTyped()) {
+		if (result == null) {
+		    result = new ValueStore[fullParameterCount];
+		}
+		result[parameter.getIndex()] = new ValueStore();
+	    }
+	}
+	return result;
     }
 
     private Binding[] createInitialBindings() {
@@ -55,7 +99,17 @@ public class DefaultBindingStore implements BindingStore {
 
     @Override
     public Binding[] getBindings(Object[] boundObjects) {
+	getBindingsWithoutCleaning(boundObjects);
+	cleaner.clean(1);
+	return bindings;
+    }
+
+    @Override
+    public Binding[] getBindingsWithoutCleaning(Object[] boundObjects) {
 	assert boundObjects.length == fullParameterCount;
+	if (valueStores != null) {
+	    return getBindingsWithValues(boundObjects);
+	}
 	for (int i = 0; i < boundObjects.length; i++) {
 	    final Object boundObject = boundObjects[i];
 	    // the bindings-array serves as a very basic cache
@@ -63,10 +117,68 @@ public class DefaultBindingStore implements BindingStore {
 		bindings[i] = store.getOrCreate(boundObject);
 	    }
 	}
-	cleaner.clean();
+	return bindings;
+    }
+
+    /**
+     * Like {@link #getBindingsWithoutCleaning(Object[])}, but binds equal values of value-typed parameters to the same
+     * binding and records their use.
+     */
+    private Binding[] getBindingsWithValues(Object[] boundObjects) {
+	retrievals++;
+	for (int i = 0; i < boundObjects.length; i++) {
+	    final Object boundObject = boundObjects[i];
+	    if (boundObject == null) {
+		continue;
+	    }
+	    final ValueStore valueStore = valueStores[i];
+	    if (valueStore == null) {
+		if (boundObject != bindings[i].get()) {
+		    bindings[i] = store.getOrCreate(boundObject);
+		}
+	    } else {
+		if (!boundObject.equals(bindings[i].get())) {
+		    bindings[i] = valueStore.getOrCreate(boundObject);
+		}
+		((ValueBinding) bindings[i]).setLastUse(retrievals);
+	    }
+	}
+	if (retrievals >= nextValueSweep) {
+	    removeUnusedValueBindings();
+	    nextValueSweep = retrievals + valueSweepInterval;
+	}
 	return bindings;
     }
 
+    @Override
+    public Binding[] getBindingsWithoutCleaning(Object[] boundObjects, int[] lookupOnlyParameters) {
+	for (int i = 0; i < lookupOnlyParameters.length; i++) {
+	    final int parameterIndex = lookupOnlyParameters[i];
+	    final Object boundObject = boundObjects[parameterIndex];
+	    if (valueStores != null && valueStores[parameterIndex] != null) {
+		if (!boundObject.equals(bindings[parameterIndex].get())) {
+		    final Binding binding = valueStores[parameterIndex].get(boundObject);
+		    if (binding == null) {
+			return null;
+		    }
+		    bindings[parameterIndex] = binding;
+		}
+	    } else if (boundObject != bindings[parameterIndex].get()) {
+		final Binding binding = store.get(boundObject);
+		if (binding == null) {
+		    return null;
+		}
+		bindings[parameterIndex] = binding;
+	    }
+	}
+	return getBindingsWithoutCleaning(boundObjects);
+    }
+
+    @Override
+    public void tryToClean(int retrievals) {
+	cleaner.clean(retrievals);
+    }
+
     @Override
     public Binding getBinding(Object boundObject) {
 	return store.get(boundObject);
@@ -84,7 +196,70 @@ public class DefaultBindingStore implements BindingStore {
 
     @Override
     public int size() {
-	return store.size();
+	int size = store.size();
+	if (valueStores != null) {
+	    for (ValueStore valueStore : valueStores) {
+		if (valueStore != null) {
+		    size += valueStore.size();
+		}
+	    }
+	}
+	return size;
+    }
+
+    /**
+     * Retrieves the binding of a value bound to a value-typed parameter.
+     * 
+     * @param parameter
+     *            value-typed
+     * @param value
+     * @return the binding or <code>null</code>, if the value has no binding
+     */
+    public Binding getValueBinding(Parameter<?> parameter, Object value) {
+	return getValueStore(parameter).get(value);
+    }
+
+    /**
+     * Removes the binding of a value bound to a value-typed parameter and releases its resources, like a binding
+     * whose object was garbage collected.
+     * 
+     * @param parameter
+     *            value-typed
+     * @param value
+     * @return <code>true</code> if the value had a binding
+     */
+    public boolean expireValueBinding(Parameter<?> parameter, Object value) {
+	final ValueStore valueStore = getValueStore(parameter);
+	final Binding binding = valueStore.get(value);
+	if (binding == null) {
+	    return false;
+	}
+	expireValueBinding(valueStore, binding);
+	return true;
+    }
+
+    private ValueStore getValueStore(Parameter<?> parameter) {
+	if (valueStores == null || valueStores[parameter.getIndex()] == null) {
+	    throw new IllegalArgumentException("Parameter " + parameter + " is not value-typed.");
+	}
+	return valueStores[parameter.getIndex()];
+    }
+
+    private void expireValueBinding(ValueStore valueStore, Binding binding) {
+	valueStore.removeEntry(binding);
+	binding.release();
+	collectedBindingsCount++;
+    }
+
+    /**
+     * Removes the value bindings which were not used during their time to live.
+     */
+    private void removeUnusedValueBindings() {
+	for (int i = 0; i < valueStores.length; i++) {
+	    if (valueStores[i] != null && timeToLive[i] > 0L) {
+		valueStores[i].removeUnused(retrievals - timeToLive[i]);
+	    }
+	}
     }
 
     public ReferenceQueue<Object> getReferenceQueue() {
@@ -95,6 +270,103 @@ public class DefaultBindingStore implements BindingStore {
 	cleaner.removeExpiredBindings();
     }
 
+    /**
+     * Removes a binding whose bound object was garbage collected and releases its resources. A binding which was
+     * removed already, e.g. by {@link #releaseBindings(Object)} after it was polled from the reference queue, is not
+     * counted again.
+     * 
+     * @param binding
+     *            polled from the reference queue
+     */
+    public void removeExpiredBinding(Binding binding) {
+	if (removeBinding(binding)) {
+	    binding.release();
+	    collectedBindingsCount++;
+	}
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * Value bindings of equal values are released, too.
+     */
+    @Override
+    public int releaseBindings(Object boundObject) {
+	int releasedBindings = 0;
+	final Binding binding = store.get(boundObject);
+	if (binding != null) {
+	    // a cleared reference is not enqueued anymore
+	    ((Reference<?>) binding).clear();
+	    removeExpiredBinding(binding);
+	    releasedBindings++;
+	}
+	if (valueStores != null) {
+	    for (ValueStore valueStore : valueStores) {
+		if (valueStore != null) {
+		    final Binding valueBinding = valueStore.get(boundObject);
+		    if (valueBinding != null) {
+			expireValueBinding(valueStore, valueBinding);
+			releasedBindings++;
+		    }
+		}
+	    }
+	}
+	return releasedBindings;
+    }
+
+    /**
+     * Creates the map storing the bindings. Subclasses may provide another map implementation, which has to create its
+     * entries with {@link #createBinding(Object, int)}.
+     * 
+     * @return the map
+     */
+    protected MinimalMap<Object, Binding> createStore() {
+	return new DefaultStore();
+    }
+
+    protected Binding[] createTable(int size) {
+	return bindingFactory.createTable(size);
+    }
+
+    protected Binding createBinding(Object boundObject, int hashCode) {
+	createdBindingsCount++;
+	return bindingFactory.createBinding(boundObject, hashCode, referenceQueue, fullParameterCount);
+    }
+
+    /**
+     * Stores the strong bindings of a value-typed parameter.
+     */
+    class ValueStore extends ValueMap<Object, Binding> {
+
+	@Override
+	protected Binding[] createTable(int size) {
+	    return new Binding[size];
+	}
+
+	@Override
+	protected Binding createEntry(Object key, int hashCode) {
+	    createdBindingsCount++;
+	    return new ValueBinding(key, hashCode);
+	}
+
+	/**
+	 * @param lastUse
+	 *            bindings last used before are expired
+	 */
+	void removeUnused(long lastUse) {
+	    for (int i = 0; i < table.length; i++) {
+		Binding binding = table[i];
+		while (binding != null) {
+		    final Binding next = binding.next();
+		    if (((ValueBinding) binding).getLastUse() < lastUse) {
+			expireValueBinding(this, binding);
+		    }
+		    binding = next;
+		}
+	    }
+	}
+    }
+
     /**
      * Stores bindings associated to a single parameter
      */
@@ -102,13 +374,12 @@ public class DefaultBindingStore implements BindingStore {
 
 	@Override
 	protected Binding[] createTable(int size) {
-	    return bindingFactory.createTable(size);
+	    return DefaultBindingStore.this.createTable(size);
 	}
 
 	@Override
 	protected Binding createEntry(Object key, int hashCode) {
-	    createdBindingsCount++;
-	    return bindingFactory.createBinding(key, hashCode, referenceQueue, fullParameterCount);
+	    return createBinding(key, hashCode);
 	}
     }
 
@@ -116,19 +387,19 @@ public class DefaultBindingStore implements BindingStore {
 
 	private int attempts = 0;
 
-	public void clean() {
-	    if (attempts++ >= cleaningInterval) {
+	public void clean(int retrievals) {
+	    attempts += retrievals;
+	    if (attempts > cleaningInterval) {
 		removeExpiredBindings();
 		attempts = 0;
 	    }
 	}
 
 	private void removeExpiredBindings() {
+	    cleaningPassesCount++;
 	    Binding binding = (Binding) referenceQueue.poll();
 	    while (binding != null) {
-		removeBinding(binding);
-		binding.release();
-		collectedBindingsCount++;
+		removeExpiredBinding(binding);
 		binding = (Binding) referenceQueue.poll();
 	    }
 	}
@@ -136,12 +407,22 @@ public class DefaultBindingStore implements BindingStore {
 
     @Override
     public void reset() {
-	store = new DefaultStore();
+	store = createStore();
+	if (valueStores != null) {
+	    for (int i = 0; i < valueStores.length; i++) {
+		if (valueStores[i] != null) {
+		    valueStores[i] = new ValueStore();
+		}
+	    }
+	}
+	retrievals = 0L;
+	nextValueSweep = valueSweepInterval;
 	System.gc();
 	removeExpiredBindingsNow();
 	System.gc();
 	createdBindingsCount = 0L;
 	collectedBindingsCount = 0L;
+	cleaningPassesCount = 0L;
     }
 
     @Override
@@ -154,4 +435,13 @@ public class DefaultBindingStore implements BindingStore {
 	return collectedBindingsCount;
     }
 
+    /**
+     * DIAGNOSTIC
+     * 
+     * @return the number of times the reference queue was polled for expired bindings
+     */
+    public long getCleaningPassesCount() {
+	return cleaningPassesCount;
+    }
+
 }
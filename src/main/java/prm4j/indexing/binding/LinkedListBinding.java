@@ -30,6 +30,23 @@ public class LinkedListBinding extends AbstractBinding {
 	link = new Link(bindingHolder, link);
     }
 
+    @Override
+    public void unregisterHolder(Holder<Binding> bindingHolder) {
+	if (link == null) {
+	    return;
+	}
+	if (link.bindingHolder == bindingHolder) {
+	    link = link.next;
+	    return;
+	}
+	for (Link l = link; l.next != null; l = l.next) {
+	    if (l.next.bindingHolder == bindingHolder) {
+		l.next = l.next.next;
+		return;
+	    }
+	}
+    }
+
     @Override
     public void release() {
 	while (link != null) {
@@ -38,9 +55,22 @@ public class LinkedListBinding extends AbstractBinding {
 	}
     }
 
+    /**
+     * DIAGNOSTIC
+     * 
+     * @return the number of registered holders
+     */
+    public int getHoldersCount() {
+	int count = 0;
+	for (Link l = link; l != null; l = l.next) {
+	    count++;
+	}
+	return count;
+    }
+
     class Link {
 
-	final Link next;
+	Link next;
 	final Holder<Binding> bindingHolder;
 
 	Link(Holder<Binding> bindingHolder, Link next) {
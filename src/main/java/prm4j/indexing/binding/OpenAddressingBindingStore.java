@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.binding;
+
+import java.util.Set;
+
+import prm4j.Globals;
+import prm4j.api.Parameter;
+import prm4j.indexing.map.MinimalMap;
+import prm4j.indexing.map.OpenAddressingMap;
+
+/**
+ * {@link DefaultBindingStore} storing its bindings in an {@link OpenAddressingMap}. Lookups probe the cached hash codes
+ * in a flat array and dereference only bindings with a matching hash code, which pays off with large numbers of live
+ * bindings.
+ */
+public class OpenAddressingBindingStore extends DefaultBindingStore {
+
+    public OpenAddressingBindingStore(BindingFactory bindingFactory, Set<Parameter<?>> fullParameterSet) {
+	this(bindingFactory, fullParameterSet, Globals.BINDING_CLEANING_INTERVAL);
+    }
+
+    public OpenAddressingBindingStore(BindingFactory bindingFactory, Set<Parameter<?>> fullParameterSet,
+	    int cleaningInterval) {
+	super(bindingFactory, fullParameterSet, cleaningInterval);
+    }
+
+    @Override
+    protected MinimalMap<Object, Binding> createStore() {
+	return new OpenAddressingStore();
+    }
+
+    /**
+     * Stores bindings associated to a single parameter
+     */
+    class OpenAddressingStore extends OpenAddressingMap<Object, Binding> {
+
+	@Override
+	protected Binding[] createTable(int size) {
+	    return OpenAddressingBindingStore.this.createTable(size);
+	}
+
+	@Override
+	protected Binding createEntry(Object key, int hashCode) {
+	    return createBinding(key, hashCode);
+	}
+    }
+
+}
@@ -10,6 +10,7 @@
  */
 package prm4j.indexing.binding;
 
+import java.lang.ref.Reference;
 import java.lang.ref.ReferenceQueue;
 import java.util.Set;
 
@@ -17,7 +18,7 @@ import prm4j.api.Parameter;
 import prm4j.indexing.map.StepCleaningBindingMap;
 
 /**
- * BindingStore using a {@link StepCleaningBindingMap}.
+ * BindingStore using a {@link StepCleaningBindingMap}. Value-typed parameters are not supported.
  */
 public class StepCleaningBindingStore implements BindingStore {
 
@@ -32,6 +33,11 @@ public class StepCleaningBindingStore implements BindingStore {
     private StepCleaningBindingMap store;
 
     public StepCleaningBindingStore(BindingFactory bindingFactory, Set<Parameter<?>> fullParameterSet) {
+	for (Parameter<?> parameter : fullParameterSet) {
+	    if (parameter.isValueTyped()) {
+		throw new IllegalArgumentException("Value-typed parameters are not supported: " + parameter);
+	    }
+	}
 	this.bindingFactory = bindingFactory;
 	fullParameterCount = fullParameterSet.size();
 	referenceQueue = new ReferenceQueue<Object>();
@@ -50,6 +56,11 @@ public class StepCleaningBindingStore implements BindingStore {
 
     @Override
     public Binding[] getBindings(Object[] boundObjects) {
+	return getBindingsWithoutCleaning(boundObjects);
+    }
+
+    @Override
+    public Binding[] getBindingsWithoutCleaning(Object[] boundObjects) {
 	assert boundObjects.length == fullParameterCount;
 	for (int i = 0; i < boundObjects.length; i++) {
 	    final Object boundObject = boundObjects[i];
@@ -61,6 +72,27 @@ public class StepCleaningBindingStore implements BindingStore {
 	return bindings;
     }
 
+    @Override
+    public Binding[] getBindingsWithoutCleaning(Object[] boundObjects, int[] lookupOnlyParameters) {
+	for (int i = 0; i < lookupOnlyParameters.length; i++) {
+	    final int parameterIndex = lookupOnlyParameters[i];
+	    final Object boundObject = boundObjects[parameterIndex];
+	    if (boundObject != bindings[parameterIndex].get()) {
+		final Binding binding = store.get(boundObject);
+		if (binding == null) {
+		    return null;
+		}
+		bindings[parameterIndex] = binding;
+	    }
+	}
+	return getBindingsWithoutCleaning(boundObjects);
+    }
+
+    @Override
+    public void tryToClean(int retrievals) {
+	// expired bindings are removed stepwise by the map itself
+    }
+
     @Override
     public Binding getBinding(Object boundObject) {
 	return store.get(boundObject);
@@ -76,6 +108,20 @@ public class StepCleaningBindingStore implements BindingStore {
 	return store.removeEntry(binding);
     }
 
+    @Override
+    public int releaseBindings(Object boundObject) {
+	final Binding binding = store.get(boundObject);
+	if (binding == null) {
+	    return 0;
+	}
+	removeBinding(binding);
+	// a cleared reference is not enqueued anymore
+	((Reference<?>) binding).clear();
+	binding.release();
+	collectedBindingsCount++;
+	return 1;
+    }
+
     @Override
     public int size() {
 	return store.size();
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.binding;
+
+import java.util.Arrays;
+
+/**
+ * Binding of a value-typed parameter, which references its value strongly. It does not expire by garbage collection,
+ * but when it is released by its {@link BindingStore}. Afterwards, {@link #get()} returns <code>null</code> like for
+ * collected objects.
+ */
+public class ValueBinding implements Binding {
+
+    private final static int INITIAL_HOLDERS_CAPACITY = 2;
+
+    private Object value;
+    private final int hashCode;
+    private Binding next;
+    private Holder<Binding>[] bindingHolders;
+    private int bindingHoldersSize;
+
+    /**
+     * Number of binding retrievals of the store when the value was bound the last time.
+     */
+    private long lastUse;
+
+    public ValueBinding(Object value, int hashCode) {
+	this.value = value;
+	this.hashCode = hashCode;
+    }
+
+    @Override
+    public Object get() {
+	return value;
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * The key used in the {@link BindingStore} is the value.
+     */
+    @Override
+    public Object getKey() {
+	return value;
+    }
+
+    @Override
+    public int hashCode() {
+	return hashCode;
+    }
+
+    @Override
+    public Binding next() {
+	return next;
+    }
+
+    @Override
+    public void setNext(Binding next) {
+	this.next = next;
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    @Override
+    public void registerHolder(Holder<Binding> bindingHolder) {
+	if (bindingHolders == null) {
+	    bindingHolders = new Holder[INITIAL_HOLDERS_CAPACITY];
+	} else if (bindingHoldersSize == bindingHolders.length) {
+	    bindingHolders = Arrays.copyOf(bindingHolders, (bindingHolders.length * 3) / 2 + 1);
+	}
+	bindingHolders[bindingHoldersSize++] = bindingHolder;
+    }
+
+    @Override
+    public void unregisterHolder(Holder<Binding> bindingHolder) {
+	if (bindingHolders == null) {
+	    return;
+	}
+	for (int i = 0; i < bindingHoldersSize; i++) {
+	    if (bindingHolders[i] == bindingHolder) {
+		// the order of the holders does not matter
+		bindingHolders[i] = bindingHolders[--bindingHoldersSize];
+		bindingHolders[bindingHoldersSize] = null;
+		return;
+	    }
+	}
+    }
+
+    /**
+     * Releases the value and all holders.
+     */
+    @Override
+    public void release() {
+	value = null;
+	if (bindingHolders != null) {
+	    for (int i = 0; i < bindingHoldersSize; i++) {
+		bindingHolders[i].release(this);
+	    }
+	    bindingHolders = null;
+	    bindingHoldersSize = 0;
+	}
+    }
+
+    /**
+     * DIAGNOSTIC
+     * 
+     * @return the number of registered holders
+     */
+    public int getHoldersCount() {
+	return bindingHoldersSize;
+    }
+
+    long getLastUse() {
+	return lastUse;
+    }
+
+    void setLastUse(long lastUse) {
+	this.lastUse = lastUse;
+    }
+
+    @Override
+    public String toString() {
+	return "ValueBinding(" + hashCode + ")=" + value;
+    }
+
+}
@@ -0,0 +1,312 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.concurrent;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands elements from producer threads over to a dedicated consumer thread through a {@link MpscRingBuffer}. The
+ * consumer takes the elements in batches in the order they were published.
+ * <p>
+ * After {@link #shutdown()}, the consumer thread terminates and producers consume their elements themselves. Elements
+ * still in the buffer are consumed first, so that no element is lost and the elements of each producer are consumed
+ * in the order they were published. At most one thread takes the consumer role at a time.
+ * 
+ * @param <E>
+ *            the type of the elements
+ */
+public abstract class AsyncQueue<E> {
+
+    /**
+     * Maximal time the idle consumer sleeps before looking for elements on its own.
+     */
+    private final static long PARK_NANOS = 1000000L;
+
+    private final MpscRingBuffer<E> buffer;
+    private final OverflowPolicy overflowPolicy;
+    private final E[] batch;
+    private final Thread consumer;
+
+    private volatile boolean running = true;
+    private volatile boolean consumerWaiting = false;
+
+    /**
+     * Number of elements taken from the buffer and consumed. Written by the thread in the consumer role only.
+     */
+    private volatile long consumedCount = 0L;
+
+    /**
+     * DIAGNOSTIC: Number of elements dropped because the buffer was full.
+     */
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    /**
+     * DIAGNOSTIC: Number of elements consumed by producer threads because the buffer was full.
+     */
+    private final AtomicLong inlinedCount = new AtomicLong();
+
+    /**
+     * @param capacity
+     *            of the ring buffer, rounded up to the next power of two
+     * @param batchSize
+     *            maximal number of elements the consumer takes from the buffer at once
+     * @param overflowPolicy
+     *            behavior of producers if the ring buffer is full
+     * @param threadName
+     *            name of the consumer thread
+     */
+    public AsyncQueue(int capacity, int batchSize, OverflowPolicy overflowPolicy, String threadName) {
+	if (batchSize < 1) {
+	    throw new IllegalArgumentException("Batch size has to be positive: " + batchSize);
+	}
+	this.overflowPolicy = overflowPolicy;
+	buffer = new MpscRingBuffer<E>(capacity);
+	batch = createBatch(Math.min(buffer.getCapacity(), batchSize));
+	consumer = new Thread(new Consumer(), threadName);
+	consumer.setDaemon(true);
+    }
+
+    /**
+     * Starts the consumer thread. Called once, after the subclass is initialized.
+     */
+    public void start() {
+	consumer.start();
+    }
+
+    protected abstract E[] createBatch(int size);
+
+    /**
+     * Consumes elements taken from the buffer, called by the thread in the consumer role.
+     * 
+     * @param elements
+     * @param count
+     *            number of elements in the array
+     */
+    protected abstract void consume(E[] elements, int count);
+
+    /**
+     * Consumes an element which was not published, called by the producer thread.
+     * 
+     * @param element
+     */
+    protected abstract void consumeInline(E element);
+
+    /**
+     * Publishes the element, or consumes it in the calling thread, if the queue was shut down or is full and the
+     * overflow policy demands it.
+     * 
+     * @param element
+     * @return <code>true</code> if the element was published into the buffer
+     */
+    public boolean offer(E element) {
+	if (!running) {
+	    consumeAfterShutdown(element);
+	    return false;
+	}
+	if (buffer.offer(element)) {
+	    published();
+	    return true;
+	}
+	if (Thread.currentThread() == consumer) {
+	    // the consumer can not wait for itself
+	    inlinedCount.incrementAndGet();
+	    consumeInline(element);
+	    return false;
+	}
+	switch (overflowPolicy) {
+	case BLOCK:
+	    do {
+		if (!running) {
+		    consumeAfterShutdown(element);
+		    return false;
+		}
+		wakeUpConsumer();
+		Thread.yield();
+	    } while (!buffer.offer(element));
+	    published();
+	    return true;
+	case DROP:
+	    droppedCount.incrementAndGet();
+	    return false;
+	default:
+	    inlinedCount.incrementAndGet();
+	    // the elements published before by this producer are consumed first
+	    flush();
+	    consumeInline(element);
+	    return false;
+	}
+    }
+
+    private void published() {
+	if (running) {
+	    wakeUpConsumer();
+	} else {
+	    // the consumer may have terminated before taking the element
+	    drainAfterShutdown();
+	}
+    }
+
+    private void wakeUpConsumer() {
+	if (consumerWaiting) {
+	    LockSupport.unpark(consumer);
+	}
+    }
+
+    private void consumeAfterShutdown(E element) {
+	drainAfterShutdown();
+	consumeInline(element);
+    }
+
+    /**
+     * Consumes the elements which are still in the buffer after the shutdown, once the consumer thread terminated.
+     * 
+     * @return <code>true</code> if the queue is shut down
+     */
+    public boolean drainIfShutDown() {
+	if (running) {
+	    return false;
+	}
+	drainAfterShutdown();
+	return true;
+    }
+
+    private void drainAfterShutdown() {
+	boolean interrupted = false;
+	while (consumer.isAlive()) {
+	    try {
+		consumer.join();
+	    } catch (InterruptedException e) {
+		interrupted = true;
+	    }
+	}
+	if (interrupted) {
+	    Thread.currentThread().interrupt();
+	}
+	synchronized (batch) {
+	    while (!buffer.isEmpty()) {
+		drainBatch();
+	    }
+	}
+    }
+
+    private void drainBatch() {
+	final int count = buffer.drain(batch, batch.length);
+	try {
+	    consume(batch, count);
+	} finally {
+	    Arrays.fill(batch, 0, count, null);
+	    consumedCount += count;
+	}
+    }
+
+    /**
+     * Waits until all elements which were published before this call are consumed. Dropped elements are not waited
+     * for, elements consumed inline are consumed when they are offered. After the shutdown, the calling thread consumes
+     * the remaining elements itself.
+     */
+    public void flush() {
+	final long publishedCount = buffer.getProducerIndex();
+	while (consumedCount < publishedCount) {
+	    if (!consumer.isAlive()) {
+		// the consumer terminates only after the shutdown
+		if (running) {
+		    throw new IllegalStateException("Consumer thread terminated before all elements were consumed.");
+		}
+		drainAfterShutdown();
+	    } else {
+		LockSupport.unpark(consumer);
+		Thread.yield();
+	    }
+	}
+    }
+
+    /**
+     * Consumes all published elements and stops the consumer thread. Subsequent elements are consumed synchronously by
+     * the producer threads.
+     * 
+     * @throws InterruptedException
+     *             if interrupted while waiting for the consumer thread
+     */
+    public void shutdown() throws InterruptedException {
+	running = false;
+	LockSupport.unpark(consumer);
+	consumer.join();
+	// the calling thread takes over the consumer role for elements which raced with the shutdown
+	drainAfterShutdown();
+    }
+
+    public boolean isRunning() {
+	return running;
+    }
+
+    /**
+     * DIAGNOSTIC
+     * 
+     * @return the estimated number of elements waiting in the buffer
+     */
+    public int size() {
+	return buffer.size();
+    }
+
+    /**
+     * DIAGNOSTIC
+     * 
+     * @return the number of elements which were taken from the buffer and consumed
+     */
+    public long getConsumedCount() {
+	return consumedCount;
+    }
+
+    /**
+     * DIAGNOSTIC
+     * 
+     * @return the number of elements dropped because the buffer was full
+     */
+    public long getDroppedCount() {
+	return droppedCount.get();
+    }
+
+    /**
+     * DIAGNOSTIC
+     * 
+     * @return the number of elements consumed by producer threads because the buffer was full
+     */
+    public long getInlinedCount() {
+	return inlinedCount.get();
+    }
+
+    private class Consumer implements Runnable {
+
+	@Override
+	public void run() {
+	    while (true) {
+		// read before the buffer: a producer publishing after the last check sees the shutdown and drains
+		final boolean stopping = !running;
+		if (!buffer.isEmpty()) {
+		    drainBatch();
+		} else if (!stopping) {
+		    consumerWaiting = true;
+		    // recheck after announcing, so that no producer can miss the waiting consumer
+		    if (buffer.isEmpty() && running) {
+			LockSupport.parkNanos(PARK_NANOS);
+		    }
+		    consumerWaiting = false;
+		} else {
+		    return;
+		}
+	    }
+	}
+
+    }
+
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.concurrent;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free multi-producer single-consumer queue backed by a ring buffer. Producers claim a slot by a CAS on
+ * the producer index and publish the element with an ordered store; the single consumer takes elements in the order of
+ * their claimed slots. A slot which is claimed but not published yet blocks the consumer until the producer completes
+ * the store.
+ * <p>
+ * {@link #offer(Object)} may be called by arbitrary threads, all other methods except {@link #size()} and the index
+ * getters have to be called by the consumer thread only.
+ * 
+ * @param <E>
+ *            the type of the elements
+ */
+public class MpscRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> buffer;
+    private final int capacity;
+    private final int mask;
+
+    /**
+     * Index of the next slot to be claimed by a producer.
+     */
+    private final AtomicLong producerIndex = new AtomicLong();
+
+    /**
+     * Index of the next slot to be consumed. Written by the consumer only.
+     */
+    private final AtomicLong consumerIndex = new AtomicLong();
+
+    /**
+     * @param capacity
+     *            is rounded up to the next power of two
+     */
+    public MpscRingBuffer(int capacity) {
+	if (capacity < 1 || capacity > 1 << 30) {
+	    throw new IllegalArgumentException("Capacity has to be in [1, 2^30]: " + capacity);
+	}
+	int powerOfTwo = 1;
+	while (powerOfTwo < capacity) {
+	    powerOfTwo <<= 1;
+	}
+	this.capacity = powerOfTwo;
+	mask = powerOfTwo - 1;
+	buffer = new AtomicReferenceArray<E>(powerOfTwo);
+    }
+
+    /**
+     * Appends the element if the buffer is not full.
+     * 
+     * @param element
+     *            not <code>null</code>
+     * @return <code>false</code> if the buffer was full
+     */
+    public boolean offer(E element) {
+	if (element == null) {
+	    throw new NullPointerException();
+	}
+	long index;
+	do {
+	    index = producerIndex.get();
+	    if (index - consumerIndex.get() >= capacity) {
+		return false;
+	    }
+	} while (!producerIndex.compareAndSet(index, index + 1));
+	buffer.lazySet((int) index & mask, element);
+	return true;
+    }
+
+    /**
+     * Removes the oldest element. Consumer thread only.
+     * 
+     * @return the element or <code>null</code> if the buffer is empty
+     */
+    public E poll() {
+	final long index = consumerIndex.get();
+	final int offset = (int) index & mask;
+	E element = buffer.get(offset);
+	if (element == null) {
+	    if (index == producerIndex.get()) {
+		return null;
+	    }
+	    // the slot is claimed, but the element is not visible yet
+	    do {
+		element = buffer.get(offset);
+	    } while (element == null);
+	}
+	buffer.lazySet(offset, null);
+	consumerIndex.lazySet(index + 1);
+	return element;
+    }
+
+    /**
+     * Moves up to <code>limit</code> elements into the given array, starting at position 0. Consumer thread only.
+     * 
+     * @param target
+     * @param limit
+     *            at most <code>target.length</code>
+     * @return the number of elements moved
+     */
+    public int drain(E[] target, int limit) {
+	int count = 0;
+	while (count < limit) {
+	    final E element = poll();
+	    if (element == null) {
+		break;
+	    }
+	    target[count++] = element;
+	}
+	return count;
+    }
+
+    /**
+     * @return <code>true</code> if no slot is claimed which was not consumed
+     */
+    public boolean isEmpty() {
+	return consumerIndex.get() == producerIndex.get();
+    }
+
+    /**
+     * @return an estimation of the number of elements in the buffer
+     */
+    public int size() {
+	final long size = producerIndex.get() - consumerIndex.get();
+	return (int) Math.max(0L, Math.min(size, capacity));
+    }
+
+    /**
+     * @return the number of slots ever claimed by producers
+     */
+    public long getProducerIndex() {
+	return producerIndex.get();
+    }
+
+    /**
+     * @return the number of elements ever consumed
+     */
+    public long getConsumerIndex() {
+	return consumerIndex.get();
+    }
+
+    public int getCapacity() {
+	return capacity;
+    }
+
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.concurrent;
+
+/**
+ * Behavior of a producer which finds a bounded buffer full.
+ */
+public enum OverflowPolicy {
+
+    /**
+     * Wait until the consumer has freed a slot.
+     */
+    BLOCK,
+
+    /**
+     * Discard the element and count it as dropped.
+     */
+    DROP,
+
+    /**
+     * Let the producer thread do the work of the consumer for this element. The producer first waits until the elements
+     * published before are consumed, so that the element does not overtake them.
+     */
+    RUN_INLINE
+
+}
@@ -0,0 +1,363 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.map;
+
+import prm4j.indexing.binding.Binding;
+
+/**
+ * Child index optimized for the common case of nodes with very few children. Up to two entries are stored inline.
+ * Further entries move the map into an open-addressing table with linear probing, which caches the hash codes of the
+ * bindings in a parallel array, so that most probes do not touch the entries.
+ * 
+ * @param <E>
+ *            the type of the value which is also used as map entry
+ */
+public abstract class CompactNodeMap<E extends CompactNodeMapEntry> {
+
+    /**
+     * The capacity of the table created for the third entry - MUST be a power of two.
+     */
+    static final int INITIAL_TABLE_CAPACITY = 8;
+
+    static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /**
+     * Linear probing degrades quickly on higher loads.
+     */
+    static final float LOAD_FACTOR = 0.5f;
+
+    /**
+     * Inline entries, used while there is no table. <code>second</code> is only set, if <code>first</code> is set.
+     */
+    protected E first;
+    protected E second;
+
+    /**
+     * The table, created on demand. Length MUST Always be a power of two.
+     */
+    protected E[] table;
+
+    /**
+     * The hash codes of the keys of the entries in the table at the same index.
+     */
+    protected int[] hashCodes;
+
+    /**
+     * The number of entries contained in this map.
+     */
+    protected int size = 0;
+
+    /**
+     * The next size value at which to resize (capacity * load factor).
+     */
+    int threshold;
+
+    protected abstract E[] createTable(int size);
+
+    /**
+     * @return the load factor of the table, {@link #LOAD_FACTOR} by default
+     */
+    protected float loadFactor() {
+	return LOAD_FACTOR;
+    }
+
+    /**
+     * @return <code>true</code>, if the first two entries are stored inline and the table is released when it gets
+     *         empty, which is the default
+     */
+    protected boolean storesInline() {
+	return true;
+    }
+
+    /**
+     * Creates a new entry based on the key and hash code.
+     * 
+     * @param parameterIndex
+     * @param key
+     * @return the entry
+     */
+    protected abstract E createEntry(final int parameterIndex, Binding key);
+
+    /**
+     * Retrieves the entry associated with this key or creates and stores a new entry.
+     * 
+     * @param parameterIndex
+     *            the node is only retrieved, if the binding has the specified index
+     * @param key
+     *            the binding
+     * @return the entry
+     */
+    public E getOrCreate(final int parameterIndex, final Binding key) {
+	if (table == null) {
+	    if (first != null) {
+		if (parameterIndex == first.parameterIndex() && key == first.getKey()) {
+		    return first;
+		}
+		if (second != null) {
+		    if (parameterIndex == second.parameterIndex() && key == second.getKey()) {
+			return second;
+		    }
+		}
+	    }
+	    final E entry = createEntry(parameterIndex, key);
+	    if (first == null) {
+		first = entry;
+	    } else if (second == null) {
+		second = entry;
+	    } else {
+		createTableFromInlineEntries();
+		insert(entry, key.hashCode());
+	    }
+	    size++;
+	    return entry;
+	}
+	final int hashCode = key.hashCode();
+	final int mask = table.length - 1;
+	int index = hashCode & mask;
+	E entry;
+	while ((entry = table[index]) != null) {
+	    if (hashCodes[index] == hashCode && parameterIndex == entry.parameterIndex() && key == entry.getKey()) {
+		return entry;
+	    }
+	    index = (index + 1) & mask;
+	}
+	entry = createEntry(parameterIndex, key);
+	table[index] = entry;
+	hashCodes[index] = hashCode;
+	size++;
+	ensureCapacity();
+	return entry;
+    }
+
+    /**
+     * Retrieves the entry associated with this key or returns null.
+     * 
+     * @param parameterIndex
+     *            the node is only retrieved, if the binding has the specified index
+     * @param key
+     *            the binding
+     * @return the entry or null, if entry is not stored in the map
+     */
+    public E get(final int parameterIndex, final Binding key) {
+	if (table == null) {
+	    if (first != null && parameterIndex == first.parameterIndex() && key == first.getKey()) {
+		return first;
+	    }
+	    if (second != null && parameterIndex == second.parameterIndex() && key == second.getKey()) {
+		return second;
+	    }
+	    return null;
+	}
+	final int hashCode = key.hashCode();
+	final int mask = table.length - 1;
+	int index = hashCode & mask;
+	E entry;
+	while ((entry = table[index]) != null) {
+	    if (hashCodes[index] == hashCode && parameterIndex == entry.parameterIndex() && key == entry.getKey()) {
+		return entry;
+	    }
+	    index = (index + 1) & mask;
+	}
+	return null;
+    }
+
+    /**
+     * Checks if an entry with the given binding is stored, regardless of its parameterIndex.
+     * 
+     * @param key
+     *            the binding
+     * @return <code>true</code> if an entry with the binding is stored
+     */
+    public boolean containsKey(final Binding key) {
+	if (table == null) {
+	    return (first != null && key == first.getKey()) || (second != null && key == second.getKey());
+	}
+	// all entries of the key share the same probe sequence
+	final int hashCode = key.hashCode();
+	final int mask = table.length - 1;
+	int index = hashCode & mask;
+	E entry;
+	while ((entry = table[index]) != null) {
+	    if (hashCodes[index] == hashCode && key == entry.getKey()) {
+		return true;
+	    }
+	    index = (index + 1) & mask;
+	}
+	return false;
+    }
+
+    /**
+     * Removes <b>all</b> entries with the given binding, regardless of any parameterIndex.
+     * 
+     * @param key
+     */
+    public void remove(final Binding key) {
+	if (table == null) {
+	    final E removedSecond = second;
+	    if (removedSecond != null && key == removedSecond.getKey()) {
+		second = null;
+		size--;
+		removed(removedSecond);
+	    }
+	    final E removedFirst = first;
+	    if (removedFirst != null && key == removedFirst.getKey()) {
+		first = second;
+		second = null;
+		size--;
+		removed(removedFirst);
+	    }
+	    return;
+	}
+	// all entries of the key share the same probe sequence
+	final int hashCode = key.hashCode();
+	final int mask = table.length - 1;
+	int index = hashCode & mask;
+	E entry;
+	while ((entry = table[index]) != null) {
+	    if (hashCodes[index] == hashCode && key == entry.getKey()) {
+		// the following entry gets shifted into this index, so we stay here
+		removeAt(index);
+		removed(entry);
+	    } else {
+		index = (index + 1) & mask;
+	    }
+	}
+	releaseEmptyTable();
+    }
+
+    /**
+     * Called for each entry removed by {@link #remove(Binding)}, after it was removed. Does nothing by default.
+     * 
+     * @param entry
+     */
+    protected void removed(E entry) {
+	// do nothing
+    }
+
+    public boolean removeEntry(final E entryToRemove) {
+	if (table == null) {
+	    if (entryToRemove == second) {
+		second = null;
+		size--;
+		return true;
+	    }
+	    if (entryToRemove == first) {
+		first = second;
+		second = null;
+		size--;
+		return true;
+	    }
+	    return false;
+	}
+	final int mask = table.length - 1;
+	int index = entryToRemove.getKey().hashCode() & mask;
+	E entry;
+	while ((entry = table[index]) != null) {
+	    if (entry == entryToRemove) {
+		removeAt(index);
+		releaseEmptyTable();
+		return true;
+	    }
+	    index = (index + 1) & mask;
+	}
+	return false;
+    }
+
+    /**
+     * Removes the entry at the given index and shifts back all following entries of the probe sequence, which would
+     * not be found anymore otherwise.
+     * 
+     * @param index
+     */
+    private void removeAt(int index) {
+	final int mask = table.length - 1;
+	int gap = index;
+	int next = (gap + 1) & mask;
+	while (table[next] != null) {
+	    final int home = hashCodes[next] & mask;
+	    // the entry may fill the gap, if its home is not cyclically located in (gap, next]
+	    if (((next - home) & mask) >= ((next - gap) & mask)) {
+		table[gap] = table[next];
+		hashCodes[gap] = hashCodes[next];
+		gap = next;
+	    }
+	    next = (next + 1) & mask;
+	}
+	table[gap] = null;
+	hashCodes[gap] = 0;
+	size--;
+    }
+
+    /**
+     * Nodes which lost all their children go back to inline storage.
+     */
+    private void releaseEmptyTable() {
+	if (size == 0 && storesInline()) {
+	    table = null;
+	    hashCodes = null;
+	}
+    }
+
+    private void createTableFromInlineEntries() {
+	initializeTable(INITIAL_TABLE_CAPACITY);
+	insert(first, first.getKey().hashCode());
+	insert(second, second.getKey().hashCode());
+	first = null;
+	second = null;
+    }
+
+    /**
+     * Creates an empty table, which replaces the inline storage.
+     * 
+     * @param capacity
+     *            MUST be a power of two
+     */
+    protected void initializeTable(int capacity) {
+	table = createTable(capacity);
+	hashCodes = new int[capacity];
+	threshold = (int) (capacity * loadFactor());
+    }
+
+    /**
+     * Inserts an entry which is known to be absent.
+     */
+    private void insert(E entry, int hashCode) {
+	final int mask = table.length - 1;
+	int index = hashCode & mask;
+	while (table[index] != null) {
+	    index = (index + 1) & mask;
+	}
+	table[index] = entry;
+	hashCodes[index] = hashCode;
+    }
+
+    private void ensureCapacity() {
+	if (table.length == MAXIMUM_CAPACITY || size < threshold) {
+	    return;
+	}
+	final E[] oldTable = table;
+	final int[] oldHashCodes = hashCodes;
+	final int newCapacity = table.length * 2;
+	table = createTable(newCapacity);
+	hashCodes = new int[newCapacity];
+	threshold = (int) (newCapacity * loadFactor());
+	for (int i = 0; i < oldTable.length; i++) {
+	    if (oldTable[i] != null) {
+		insert(oldTable[i], oldHashCodes[i]);
+	    }
+	}
+    }
+
+    public int size() {
+	return size;
+    }
+
+}
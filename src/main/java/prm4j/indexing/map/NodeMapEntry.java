@@ -10,13 +10,13 @@
  */
 package prm4j.indexing.map;
 
-import prm4j.indexing.binding.Binding;
-
-public interface NodeMapEntry<E extends NodeMapEntry<E>>{
-
-    public Binding getKey();
-
-    public int parameterIndex();
+/**
+ * Entry of a {@link NodeMap}. The chain of entries is not used by the open-addressing table backing the map.
+ * 
+ * @param <E>
+ *            the type of the entry
+ */
+public interface NodeMapEntry<E extends NodeMapEntry<E>> extends CompactNodeMapEntry {
 
     public E next();
 
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.map;
+
+/**
+ * A {@link MinimalMap} which resolves collisions by linear probing instead of chaining the entries. The hash codes of
+ * the entries are cached in an array parallel to the table, so that most probes compare only integers and do not
+ * touch the entry. Entries are removed by backward shifting, therefore no tombstones are left in the table. The
+ * <code>next</code> pointers of the entries are not used.
+ * 
+ * @param <E>
+ *            the type of the value which is also used as map entry
+ */
+public abstract class OpenAddressingMap<K, E extends MinimalMapEntry<K, E>> extends MinimalMap<K, E> {
+
+    /**
+     * Linear probing degrades quickly on higher loads.
+     */
+    static final float OPEN_ADDRESSING_LOAD_FACTOR = 0.5f;
+
+    /**
+     * The hash codes of the entries in the table at the same index.
+     */
+    protected int[] hashCodes;
+
+    public OpenAddressingMap() {
+	super();
+	hashCodes = new int[table.length];
+	threshold = (int) (table.length * OPEN_ADDRESSING_LOAD_FACTOR);
+    }
+
+    @Override
+    public E getOrCreate(final K key, final int hashCode) {
+	final int mask = table.length - 1;
+	int index = hashIndex(hashCode, table.length);
+	E entry;
+	while ((entry = table[index]) != null) {
+	    if (hashCodes[index] == hashCode && key == entry.getKey()) {
+		return entry;
+	    }
+	    index = (index + 1) & mask;
+	}
+	entry = createEntry(key, hashCode);
+	table[index] = entry;
+	hashCodes[index] = hashCode;
+	size++;
+	ensureCapacity();
+	return entry;
+    }
+
+    @Override
+    public E get(final K key, final int hashCode) {
+	final int mask = table.length - 1;
+	int index = hashIndex(hashCode, table.length);
+	E entry;
+	while ((entry = table[index]) != null) {
+	    if (hashCodes[index] == hashCode && key == entry.getKey()) {
+		return entry;
+	    }
+	    index = (index + 1) & mask;
+	}
+	return null;
+    }
+
+    @Override
+    public void remove(final K key, final int hashCode) {
+	final int mask = table.length - 1;
+	int index = hashIndex(hashCode, table.length);
+	E entry;
+	while ((entry = table[index]) != null) {
+	    if (hashCodes[index] == hashCode && key == entry.getKey()) {
+		removeAt(index);
+		return;
+	    }
+	    index = (index + 1) & mask;
+	}
+    }
+
+    @Override
+    public boolean removeEntry(final E entryToRemove) {
+	final int hashCode = entryToRemove.hashCode();
+	final int mask = table.length - 1;
+	int index = hashIndex(hashCode, table.length);
+	E entry;
+	while ((entry = table[index]) != null) {
+	    if (entry == entryToRemove) {
+		removeAt(index);
+		return true;
+	    }
+	    index = (index + 1) & mask;
+	}
+	return false;
+    }
+
+    /**
+     * Removes the entry at the given index and shifts back all following entries of the probe sequence, which would
+     * not be found anymore otherwise.
+     * 
+     * @param index
+     */
+    protected void removeAt(int index) {
+	final int mask = table.length - 1;
+	int gap = index;
+	int next = (gap + 1) & mask;
+	while (table[next] != null) {
+	    final int home = hashIndex(hashCodes[next], table.length);
+	    // the entry may fill the gap, if its home is not cyclically located in (gap, next]
+	    if (((next - home) & mask) >= ((next - gap) & mask)) {
+		table[gap] = table[next];
+		hashCodes[gap] = hashCodes[next];
+		gap = next;
+	    }
+	    next = (next + 1) & mask;
+	}
+	table[gap] = null;
+	hashCodes[gap] = 0;
+	size--;
+    }
+
+    @Override
+    protected void ensureCapacity() {
+	if (table.length == MAXIMUM_CAPACITY) {
+	    return;
+	}
+	if (size >= threshold) {
+	    resize(table.length * 2);
+	}
+    }
+
+    protected void resize(int newCapacity) {
+	final E[] oldTable = table;
+	final int[] oldHashCodes = hashCodes;
+	final E[] newTable = createTable(newCapacity);
+	final int[] newHashCodes = new int[newCapacity];
+	final int mask = newCapacity - 1;
+	for (int i = 0; i < oldTable.length; i++) {
+	    final E entry = oldTable[i];
+	    if (entry != null) {
+		int index = hashIndex(oldHashCodes[i], newCapacity);
+		while (newTable[index] != null) {
+		    index = (index + 1) & mask;
+		}
+		newTable[index] = entry;
+		newHashCodes[index] = oldHashCodes[i];
+	    }
+	}
+	table = newTable;
+	hashCodes = newHashCodes;
+	threshold = (int) (newCapacity * OPEN_ADDRESSING_LOAD_FACTOR);
+    }
+
+    /**
+     * Uses the finalizer of MurmurHash3, since linear probing needs a hash code which spreads identity hash codes more
+     * evenly than the chaining variant.
+     */
+    @Override
+    public int hashCode(K key) {
+	int h = System.identityHashCode(key);
+	h ^= h >>> 16;
+	h *= 0x85ebca6b;
+	h ^= h >>> 13;
+	h *= 0xc2b2ae35;
+	return h ^ (h >>> 16);
+    }
+
+    @Override
+    public void reset() {
+	super.reset();
+	hashCodes = new int[table.length];
+	threshold = (int) (table.length * OPEN_ADDRESSING_LOAD_FACTOR);
+    }
+
+}
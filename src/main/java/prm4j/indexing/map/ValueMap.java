@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.map;
+
+/**
+ * A {@link MinimalMap} which identifies its keys by {@link Object#equals(Object)} and {@link Object#hashCode()}
+ * instead of their identity. Equal keys therefore share the same entry.
+ * 
+ * @param <E>
+ *            the type of the value which is also used as map entry
+ */
+public abstract class ValueMap<K, E extends MinimalMapEntry<K, E>> extends MinimalMap<K, E> {
+
+    @Override
+    public E getOrCreate(final K key, final int hashCode) {
+
+	final int index = hashIndex(hashCode, table.length);
+	E entry = table[index];
+
+	E lastEntry = null;
+	while (entry != null) {
+	    if (hashCode == entry.hashCode() && key.equals(entry.getKey())) {
+		return entry;
+	    }
+	    lastEntry = entry;
+	    entry = entry.next();
+	}
+	entry = createEntry(key, hashCode);
+	if (lastEntry == null) {
+	    table[index] = entry;
+	} else {
+	    lastEntry.setNext(entry);
+	}
+	size++;
+	ensureCapacity();
+	return entry;
+    }
+
+    @Override
+    public E get(final K key, final int hashCode) {
+
+	final int index = hashIndex(hashCode, table.length);
+	E entry = table[index];
+
+	while (entry != null) {
+	    if (hashCode == entry.hashCode() && key.equals(entry.getKey())) {
+		return entry;
+	    }
+	    entry = entry.next();
+	}
+	return null;
+    }
+
+    @Override
+    public void remove(final K key, final int hashCode) {
+	final E entry = get(key, hashCode);
+	if (entry != null) {
+	    removeEntry(entry);
+	}
+    }
+
+    /**
+     * Calculates the hash code for the given key based on {@link Object#hashCode()}.
+     * 
+     * @param key
+     * @return the hash code
+     */
+    @Override
+    public int hashCode(K key) {
+	int h = key.hashCode();
+	// spreads the bits like the identity based variant
+	h ^= (h >>> 20) ^ (h >>> 12);
+	return h ^ (h >>> 7) ^ (h >>> 4);
+    }
+
+}
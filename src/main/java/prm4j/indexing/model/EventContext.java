@@ -11,7 +11,18 @@
 package prm4j.indexing.model;
 
 import static prm4j.indexing.IndexingUtils.toParameterMasks;
+import static prm4j.indexing.IndexingUtils.toPrimitiveIntegerArray;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
 import prm4j.api.BaseEvent;
+import prm4j.indexing.monitor.MonitorState;
+import prm4j.spec.Spec;
+import prm4j.spec.finite.FiniteSpec;
 
 /**
  * Encapsulates arguments used in the real-time algorithm related to {@link BaseEvent}s.
@@ -24,6 +35,11 @@ public class EventContext {
     private final boolean[] disableEvents;
     // baseEvent * numberOfExistingMonitorMasks * parameterMaskLength
     private final int[][][] disableMonitors;
+    // baseEvent * lookupOnlyParameterCount
+    private final int[][] lookupOnlyParameters;
+    private final boolean[] selfLoopEvents;
+    private final boolean[] ineffectiveEvents;
+    private final boolean[] idempotentEvents;
 
     public EventContext(JoinArgs[][] joinArgsArray, FindMaxArgs[][] findMaxArgsArray, boolean[] creationEvents,
 	    boolean[] disableEvents, int[][][] existingMonitorMasks) {
@@ -32,6 +48,12 @@ public class EventContext {
 	this.creationEvents = creationEvents;
 	this.disableEvents = disableEvents;
 	disableMonitors = existingMonitorMasks;
+	// no knowledge about the parameters of the base events, every object may be bound
+	lookupOnlyParameters = new int[creationEvents.length][0];
+	// no knowledge about the states
+	selfLoopEvents = new boolean[creationEvents.length];
+	ineffectiveEvents = new boolean[creationEvents.length];
+	idempotentEvents = new boolean[creationEvents.length];
     }
 
     public EventContext(ParametricPropertyModel ppm) {
@@ -40,6 +62,10 @@ public class EventContext {
 	creationEvents = getCreationEvents(ppm);
 	disableEvents = getDisableEvents(ppm);
 	disableMonitors = getDisableMonitors(ppm);
+	lookupOnlyParameters = getLookupOnlyParameters(ppm);
+	selfLoopEvents = getSelfLoopEvents(ppm);
+	ineffectiveEvents = getIneffectiveEvents(ppm);
+	idempotentEvents = getIdempotentEvents(ppm);
     }
 
     protected static int[][][] getDisableMonitors(ParametricPropertyModel ppm) {
@@ -74,6 +100,201 @@ public class EventContext {
 	return disableMonitors[baseEvent.getIndex()];
     }
 
+    /**
+     * Returns the parameters of the base event whose bound objects need to have a binding already, or the event can
+     * neither update, nor create, nor join any monitor. Their objects are only looked up in the binding store.
+     * 
+     * @param baseEvent
+     * @return parameter indices
+     */
+    public int[] getLookupOnlyParameters(BaseEvent baseEvent) {
+	return lookupOnlyParameters[baseEvent.getIndex()];
+    }
+
+    /**
+     * Returns <code>true</code> if the base event loops in every reachable state which is not final, without reaching
+     * a state with a match handler. Updating any monitor with this base event has no effect.
+     * 
+     * @param baseEvent
+     * @return <code>true</code> if the base event can not change the state of a monitor
+     */
+    public boolean isSelfLoopEvent(BaseEvent baseEvent) {
+	return selfLoopEvents[baseEvent.getIndex()];
+    }
+
+    /**
+     * Returns <code>true</code> if the base event is a self-loop event which can neither create, derive nor join
+     * monitors, and whose timestamp is not used to disable the derivation of monitors. Processing the base event has no
+     * effect at all.
+     * 
+     * @param baseEvent
+     * @return <code>true</code> if the base event can be skipped
+     */
+    public boolean isIneffectiveEvent(BaseEvent baseEvent) {
+	return ineffectiveEvents[baseEvent.getIndex()];
+    }
+
+    /**
+     * Returns <code>true</code> if updating a monitor twice with the base event has the same effect as updating it once.
+     * The second event of two consecutive events with this base event and the same bound objects can be elided.
+     * 
+     * @param baseEvent
+     * @return <code>true</code> if the base event is idempotent
+     */
+    public boolean isIdempotentEvent(BaseEvent baseEvent) {
+	return idempotentEvents[baseEvent.getIndex()];
+    }
+
+    private boolean[] getSelfLoopEvents(ParametricPropertyModel ppm) {
+	final boolean[] result = new boolean[creationEvents.length];
+	final Spec spec = ppm.getParametricProperty().getSpec();
+	if (!(spec instanceof FiniteSpec)) {
+	    return result;
+	}
+	final Set<MonitorState> reachableStates = getReachableStates(spec);
+	nextBaseEvent: for (BaseEvent baseEvent : spec.getBaseEvents()) {
+	    for (MonitorState state : reachableStates) {
+		// monitors are terminated when they reach a final state
+		if (!state.isFinal() && (state.getSuccessor(baseEvent) != state || state.getMatchHandler() != null)) {
+		    continue nextBaseEvent;
+		}
+	    }
+	    result[baseEvent.getIndex()] = true;
+	}
+	return result;
+    }
+
+    /**
+     * The successor of each reachable state has to loop without reporting a match again. Monitors reaching the dead
+     * state or a final state are terminated and not updated a second time.
+     */
+    private boolean[] getIdempotentEvents(ParametricPropertyModel ppm) {
+	final boolean[] result = new boolean[creationEvents.length];
+	final Spec spec = ppm.getParametricProperty().getSpec();
+	if (!(spec instanceof FiniteSpec)) {
+	    return result;
+	}
+	final Set<MonitorState> reachableStates = getReachableStates(spec);
+	nextBaseEvent: for (BaseEvent baseEvent : spec.getBaseEvents()) {
+	    for (MonitorState state : reachableStates) {
+		if (state.isFinal()) {
+		    continue;
+		}
+		final MonitorState successor = state.getSuccessor(baseEvent);
+		if (successor != null && !successor.isFinal()
+			&& (successor.getSuccessor(baseEvent) != successor || successor.getMatchHandler() != null)) {
+		    continue nextBaseEvent;
+		}
+	    }
+	    result[baseEvent.getIndex()] = true;
+	}
+	return result;
+    }
+
+    private static Set<MonitorState> getReachableStates(Spec spec) {
+	final Set<MonitorState> result = new HashSet<MonitorState>();
+	final LinkedList<MonitorState> queue = new LinkedList<MonitorState>();
+	result.add(spec.getInitialState());
+	queue.add(spec.getInitialState());
+	while (!queue.isEmpty()) {
+	    final MonitorState state = queue.removeFirst();
+	    for (BaseEvent baseEvent : spec.getBaseEvents()) {
+		final MonitorState successor = state.getSuccessor(baseEvent);
+		if (successor != null && result.add(successor)) {
+		    queue.add(successor);
+		}
+	    }
+	}
+	return result;
+    }
+
+    private boolean[] getIneffectiveEvents(ParametricPropertyModel ppm) {
+	final boolean[] result = new boolean[creationEvents.length];
+	for (BaseEvent baseEvent : ppm.getParametricProperty().getSpec().getBaseEvents()) {
+	    final int index = baseEvent.getIndex();
+	    result[index] = selfLoopEvents[index] && !creationEvents[index] && findMaxArgsArray[index].length == 0
+		    && joinArgsArray[index].length == 0 && !isDisableMask(baseEvent.getParameterMask());
+	}
+	return result;
+    }
+
+    /**
+     * The timestamps of the nodes of disable masks are compared with the timestamps of monitors, when monitors are
+     * derived or joined.
+     */
+    private boolean isDisableMask(int[] parameterMask) {
+	for (FindMaxArgs[] findMaxArgs : findMaxArgsArray) {
+	    for (FindMaxArgs args : findMaxArgs) {
+		if (containsParameterMask(args.disableMasks, parameterMask)) {
+		    return true;
+		}
+	    }
+	}
+	for (JoinArgs[] joinArgs : joinArgsArray) {
+	    for (JoinArgs args : joinArgs) {
+		if (containsParameterMask(args.disableMasks, parameterMask)) {
+		    return true;
+		}
+	    }
+	}
+	return false;
+    }
+
+    private static boolean containsParameterMask(int[][] parameterMasks, int[] parameterMask) {
+	nextMask: for (int[] mask : parameterMasks) {
+	    if (mask.length != parameterMask.length) {
+		continue;
+	    }
+	    for (int parameterIndex : parameterMask) {
+		if (!contains(mask, parameterIndex)) {
+		    continue nextMask;
+		}
+	    }
+	    return true;
+	}
+	return false;
+    }
+
+    /**
+     * A parameter is lookup-only, if the base event is no creation event and every instance used for findMax and join
+     * contains the parameter. An unknown object bound to this parameter yields only nodes which do not exist.
+     */
+    private int[][] getLookupOnlyParameters(ParametricPropertyModel ppm) {
+	final int[][] result = new int[creationEvents.length][];
+	for (BaseEvent baseEvent : ppm.getParametricProperty().getSpec().getBaseEvents()) {
+	    final int index = baseEvent.getIndex();
+	    if (creationEvents[index]) {
+		result[index] = new int[0];
+		continue;
+	    }
+	    final List<Integer> parameters = new ArrayList<Integer>();
+	    nextParameter: for (int parameterIndex : baseEvent.getParameterMask()) {
+		for (FindMaxArgs findMaxArgs : findMaxArgsArray[index]) {
+		    if (!contains(findMaxArgs.nodeMask, parameterIndex)) {
+			continue nextParameter;
+		    }
+		}
+		for (JoinArgs joinArgs : joinArgsArray[index]) {
+		    if (!contains(joinArgs.nodeMask, parameterIndex)) {
+			continue nextParameter;
+		    }
+		}
+		parameters.add(parameterIndex);
+	    }
+	    result[index] = toPrimitiveIntegerArray(parameters);
+	}
+	return result;
+    }
+
+    private static boolean contains(int[] parameterMask, int parameterIndex) {
+	for (int i : parameterMask) {
+	    if (i == parameterIndex) {
+		return true;
+	    }
+	}
+	return false;
+    }
+
     private JoinArgs[][] getJoinArgsArray(ParametricPropertyModel ppm) {
 	final JoinArgs[][] result = new JoinArgs[ppm.getParametricProperty().getSpec().getBaseEvents().size()][];
 	for (BaseEvent baseEvent : ppm.getParametricProperty().getSpec().getBaseEvents()) {
@@ -20,6 +20,9 @@ import prm4j.Util;
 import prm4j.api.Parameter;
 import prm4j.indexing.binding.Binding;
 import prm4j.indexing.monitor.MonitorState;
+import prm4j.indexing.monitor.ColumnarMonitorSet;
+import prm4j.indexing.monitor.MonitorSet;
+import prm4j.indexing.monitor.TransitionTable;
 import prm4j.indexing.node.DefaultNodeFactory;
 import prm4j.indexing.node.LeafNodeFactory;
 import prm4j.indexing.node.LeafNodeWithMonitorSetsFactory;
@@ -43,9 +46,12 @@ public class ParameterNode {
     private final Parameter<?> lastParameter;
     private final int lastParameterIndex;
     private final ParameterNode[] successors;
+    private final ReusableMatchContext matchContext;
 
     private NodeManager nodeManager;
     private NodeFactory nodeFactory;
+    private TransitionTable transitionTable;
+    private boolean columnarMonitorSets;
 
     private Set<UpdateChainingsArgs> chainDataSet;
     private UpdateChainingsArgs[] chainDataArray;
@@ -70,6 +76,7 @@ public class ParameterNode {
 	    lastParameterIndex = -1;
 	}
 	successors = new ParameterNode[fullParameterSet.size()];
+	matchContext = new ReusableMatchContext(this);
     }
 
     /**
@@ -377,6 +384,47 @@ public class ParameterNode {
 	return lastParameterIndex;
     }
 
+    /**
+     * Sets the transition table to all parameter nodes in this tree including this node.
+     * 
+     * @param transitionTable
+     *            the transition table
+     */
+    public void setTransitionTableToTree(TransitionTable transitionTable) {
+	for (ParameterNode parameterNode : getAllNodesInSubtree()) {
+	    parameterNode.transitionTable = transitionTable;
+	}
+    }
+
+    /**
+     * @return the transition table of the finite property, or <code>null</code>
+     */
+    public TransitionTable getTransitionTable() {
+	return transitionTable;
+    }
+
+    /**
+     * Selects the type of the monitor sets created by the nodes of all parameter nodes in this tree including this
+     * node.
+     * 
+     * @param columnarMonitorSets
+     *            <code>true</code> for {@link ColumnarMonitorSet}s
+     */
+    public void setColumnarMonitorSetsToTree(boolean columnarMonitorSets) {
+	for (ParameterNode parameterNode : getAllNodesInSubtree()) {
+	    parameterNode.columnarMonitorSets = columnarMonitorSets;
+	}
+    }
+
+    /**
+     * Creates a monitor set for a node of this parameter node.
+     * 
+     * @return the monitor set
+     */
+    public MonitorSet createMonitorSet() {
+	return columnarMonitorSets ? new ColumnarMonitorSet() : new MonitorSet();
+    }
+
     public NodeManager getNodeManager() {
 	return nodeManager;
     }
@@ -464,6 +512,19 @@ public class ParameterNode {
 		: isAcceptingStateReachable(compressedBindings, state2AliveParameterMasks[state.getIndex()]);
     }
 
+    /**
+     * Tests, if an accepting state can be reached from the state with the given index and the given bindings.
+     * 
+     * @param stateIndex
+     * @param compressedBindings
+     *            A number of these bindings is checked for aliveness.
+     * @return <code>true</code> if an accepting state is reachable
+     */
+    public boolean isAcceptingStateReachable(final int stateIndex, final Binding[] compressedBindings) {
+	return state2AliveParameterMasks == null ? isAcceptingStateReachable(compressedBindings, aliveParameterMasks)
+		: isAcceptingStateReachable(compressedBindings, state2AliveParameterMasks[stateIndex]);
+    }
+
     private static boolean isAcceptingStateReachable(final Binding[] compressedBindings,
 	    final int[][] aliveParameterMasks) {
 	int[] parameterMask;
@@ -491,6 +552,27 @@ public class ParameterNode {
 	return (T) compressedBindings[compressedIndex[parameter.getIndex()]].get();
     }
 
+    /**
+     * Retrieves the binding of the given parameter from the compressed bindings.
+     * 
+     * @param parameter
+     * @param compressedBindings
+     * @return the binding, or <code>null</code> if the parameter is not bound by this node
+     */
+    public Binding getBinding(Parameter<?> parameter, Binding[] compressedBindings) {
+	if (!nodeParameterSet.contains(parameter)) {
+	    return null;
+	}
+	return compressedBindings[compressedIndex[parameter.getIndex()]];
+    }
+
+    /**
+     * @return the view of the matches reported by the monitors of this node, which is reused for each match
+     */
+    public ReusableMatchContext getMatchContext() {
+	return matchContext;
+    }
+
     @Override
     public int hashCode() {
 	return nodeParameterSet.hashCode();
@@ -165,6 +165,23 @@ public class ParametricPropertyModel {
 	return result;
     }
 
+    /**
+     * Returns the parameters which are contained in every instance type carrying a monitor. The trace slices of
+     * instances binding different objects to such a parameter are independent from each other: An event binding the
+     * parameter is only relevant for monitors binding the same object, an event not binding the parameter is relevant
+     * for monitors binding any object. The parametric monitor can therefore be partitioned by the bound object.
+     * 
+     * @return the set of parameters suitable to partition the parametric monitor, may be empty
+     */
+    public Set<Parameter<?>> getPartitionParameters() {
+	final Set<Parameter<?>> result = new HashSet<Parameter<?>>(getParametricProperty().getSpec()
+		.getFullParameterSet());
+	for (Set<Parameter<?>> monitorInstanceType : getMonitorInstanceTypes()) {
+	    result.retainAll(monitorInstanceType);
+	}
+	return result;
+    }
+
     /**
      * Returns the set of X where X is (at least one)
      * <ul>
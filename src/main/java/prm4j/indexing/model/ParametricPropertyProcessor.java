@@ -15,11 +15,13 @@ import static prm4j.indexing.IndexingUtils.toParameterMask;
 import java.util.HashSet;
 import java.util.Set;
 
+import prm4j.Globals;
 import prm4j.Util;
 import prm4j.Util.Tuple;
 import prm4j.api.Parameter;
 import prm4j.indexing.IndexingUtils;
 import prm4j.indexing.monitor.MonitorState;
+import prm4j.indexing.monitor.TransitionTable;
 import prm4j.spec.ParametricProperty;
 import prm4j.spec.finite.FiniteParametricProperty;
 
@@ -61,6 +63,11 @@ public class ParametricPropertyProcessor {
 		}
 	    }
 	}
+	if (ppm.getParametricProperty() instanceof FiniteParametricProperty) {
+	    final FiniteParametricProperty fpp = (FiniteParametricProperty) ppm.getParametricProperty();
+	    parameterTreeRoot.setTransitionTableToTree(new TransitionTable(fpp.getSpec()));
+	    parameterTreeRoot.setColumnarMonitorSetsToTree(Globals.COLUMNAR_MONITOR_SETS);
+	}
 	return parameterTreeRoot;
     }
 
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.model;
+
+import prm4j.api.MatchContext;
+import prm4j.api.MatchHandler;
+import prm4j.indexing.binding.Binding;
+
+/**
+ * Match context which can be reinitialized for each reported match.
+ */
+public class ReusableMatchContext extends MatchContext {
+
+    /**
+     * Bindings of the match currently shown by this view, <code>null</code> if no match is handled.
+     */
+    private Binding[] compressedBindings;
+
+    public ReusableMatchContext(ParameterNode parameterNode) {
+	super(parameterNode);
+    }
+
+    /**
+     * Reports the match through this view. A handler causing a match of another monitor of the same node finds the view
+     * showing its own match again afterwards.
+     * 
+     * @param matchHandler
+     * @param compressedBindings
+     *            of the matching monitor
+     * @param auxiliaryData
+     *            of the event completing the match
+     */
+    public void handleMatch(MatchHandler matchHandler, Binding[] compressedBindings, Object auxiliaryData) {
+	final Binding[] previousBindings = this.compressedBindings;
+	final Object previousAuxiliaryData = getAuxiliaryData();
+	show(compressedBindings, auxiliaryData);
+	try {
+	    matchHandler.handleAndCountMatch(this);
+	} finally {
+	    // restores the match of an enclosing handler, otherwise neither bindings nor auxiliary data are retained
+	    show(previousBindings, previousAuxiliaryData);
+	}
+    }
+
+    private void show(Binding[] compressedBindings, Object auxiliaryData) {
+	this.compressedBindings = compressedBindings;
+	reinitialize(compressedBindings, auxiliaryData);
+    }
+
+}
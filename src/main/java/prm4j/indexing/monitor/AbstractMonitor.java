@@ -10,9 +10,12 @@
  */
 package prm4j.indexing.monitor;
 
+import prm4j.Globals;
 import prm4j.api.Event;
+import prm4j.api.MatchHandler;
 import prm4j.indexing.binding.Binding;
 import prm4j.indexing.model.ParameterNode;
+import prm4j.indexing.model.ReusableMatchContext;
 
 /**
  * Abstract base class for a concrete monitor instance, representing the internal state of a {@link ParametricMonitor}
@@ -22,21 +25,6 @@ public abstract class AbstractMonitor implements Monitor {
 
     private final static Binding[] EMPTY_BINDINGS = new Binding[0];
 
-    /**
-     * Sum of derived and underived monitors.
-     */
-    private static long createdMonitorsCount = 0L;
-
-    /**
-     * Sum of all update events which got processed by all monitors.
-     */
-    private static long updatedMonitorsCount = 0L;
-
-    /**
-     * Created by deriving from the max monitor or during a join
-     */
-    private static long derivedMonitorsCount = 0L;
-
     private ParameterNode parameterNode;
     // low level access
     private Binding[] compressedBindings;
@@ -44,7 +32,6 @@ public abstract class AbstractMonitor implements Monitor {
     private long timestamp;
 
     public AbstractMonitor() {
-	createdMonitorsCount++;
 	compressedBindings = EMPTY_BINDINGS;
 	timestamp = -1L;
     }
@@ -85,12 +72,25 @@ public abstract class AbstractMonitor implements Monitor {
 	return parameterNode.uncompressBindings(compressedBindings);
     }
 
+    /**
+     * Reports a match of this monitor through the view of the parameter node, which is reused by all its monitors.
+     * 
+     * @param matchHandler
+     * @param auxiliaryData
+     *            of the event completing the match
+     */
+    protected final void handleMatch(MatchHandler matchHandler, Object auxiliaryData) {
+	final ReusableMatchContext matchContext = parameterNode != null ? parameterNode.getMatchContext()
+		: new ReusableMatchContext(null);
+	matchContext.handleMatch(matchHandler, compressedBindings, auxiliaryData);
+    }
+
     /**
      * Ends the life-span of this monitor. A terminated monitor can be removed from all data structures it is referenced
      * by.
      */
     @Override
-    public final void terminate() {
+    public void terminate() {
 	compressedBindings = null;
     }
 
@@ -117,7 +117,12 @@ public abstract class AbstractMonitor implements Monitor {
      */
     @Override
     public final boolean process(Event event) {
-	updatedMonitorsCount++;
+	if (Globals.MONITOR_UPDATE_METRICS) {
+	    final ParametricMonitorMetrics metrics = ParametricMonitorMetrics.of(parameterNode);
+	    if (metrics != null) {
+		metrics.updatedMonitor();
+	    }
+	}
 	return processEvent(event);
     }
 
@@ -166,40 +171,4 @@ public abstract class AbstractMonitor implements Monitor {
 	this.timestamp = timestamp;
     }
 
-    /**
-     * DIAGNOSTIC
-     * 
-     * @return the number of created monitors
-     */
-    public static long getCreatedMonitorsCount() {
-	return createdMonitorsCount;
-    }
-
-    /**
-     * DIAGNOSTIC
-     * 
-     * @return the number of updated monitors
-     */
-    public static long getUpdateddMonitorsCount() {
-	return updatedMonitorsCount;
-    }
-
-    /**
-     * DIAGNOSTIC
-     * 
-     * @return the number of derived monitors
-     */
-    public static long getDerivedMonitorsCount() {
-	return derivedMonitorsCount;
-    }
-
-    /**
-     * DIAGNOSTIC Resets internal created monitors and updated monitors counter.
-     */
-    public static void reset() {
-	createdMonitorsCount = 0L;
-	updatedMonitorsCount = 0L;
-	derivedMonitorsCount = 0L;
-    }
-
 }
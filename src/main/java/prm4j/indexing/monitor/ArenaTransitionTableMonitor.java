@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.monitor;
+
+/**
+ * A {@link TransitionTableMonitor} storing its state in a cell of a {@link StateArena}, so that a
+ * {@link ColumnarMonitorSet} can read and update the state without dereferencing the monitor.
+ */
+public class ArenaTransitionTableMonitor extends TransitionTableMonitor {
+
+    private final StateArena arena;
+    private final int[] slab;
+    private final int cell;
+
+    /**
+     * @param state
+     *            the index of the initial state
+     * @param arena
+     *            shared by all copies of this monitor
+     */
+    public ArenaTransitionTableMonitor(int state, StateArena arena) {
+	super(state);
+	this.arena = arena;
+	slab = arena.getSlab();
+	cell = arena.allocate(state);
+    }
+
+    @Override
+    public int getState() {
+	return slab[cell];
+    }
+
+    @Override
+    protected void setState(int state) {
+	slab[cell] = state;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The state is set to {@link TransitionTable#DEAD_STATE}, which tells the {@link ColumnarMonitorSet}s to remove
+     * the monitor.
+     */
+    @Override
+    public void terminate() {
+	super.terminate();
+	slab[cell] = TransitionTable.DEAD_STATE;
+    }
+
+    @Override
+    public Monitor copy() {
+	return new ArenaTransitionTableMonitor(getState(), arena);
+    }
+
+    /**
+     * @return the slab containing the state of this monitor
+     */
+    public int[] getSlab() {
+	return slab;
+    }
+
+    /**
+     * @return the index of the state of this monitor in its slab
+     */
+    public int getCell() {
+	return cell;
+    }
+
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.monitor;
+
+import java.util.Arrays;
+
+import prm4j.Globals;
+import prm4j.api.BaseEvent;
+import prm4j.api.Event;
+import prm4j.indexing.node.NodeRef;
+
+/**
+ * A {@link MonitorSet} storing the state cells of its {@link ArenaTransitionTableMonitor}s in arrays parallel to the
+ * node references. An update reads the state of each monitor from its cell and looks up the successor in the row of
+ * {@link TransitionTable#getQuietSuccessors(int)} for the base event, so the transitions are computed once per state
+ * and not per monitor. Only if the successor reports a match, is final or dead, the monitor is dereferenced and
+ * processed like in the {@link MonitorSet}, as are monitors of other types.
+ * <p>
+ * The state cells are only used if {@link Globals#CHECK_MONITOR_VALIDITY_ON_EACH_UPDATE} is disabled and the event
+ * has no condition depending on the monitor. Otherwise the bindings of each monitor have to be checked on each update
+ * anyway.
+ */
+public class ColumnarMonitorSet extends MonitorSet {
+
+    /**
+     * Stores the slabs containing the state cells of the monitors, or <code>null</code> for other monitors.
+     */
+    private int[][] slabs;
+    /**
+     * Stores the indices of the state cells in the slabs.
+     */
+    private int[] cells;
+    /**
+     * The transition table of the contained monitors.
+     */
+    private TransitionTable transitionTable;
+    private ParametricMonitorMetrics metrics;
+
+    public ColumnarMonitorSet() {
+	slabs = new int[DEFAULT_CAPACITY][];
+	cells = new int[DEFAULT_CAPACITY];
+    }
+
+    @Override
+    public void add(NodeRef monitor) {
+	setCell(size, monitor.monitor);
+	super.add(monitor);
+    }
+
+    @Override
+    protected void ensureCapacity() {
+	super.ensureCapacity();
+	if (slabs.length < monitorSet.length) {
+	    slabs = Arrays.copyOf(slabs, monitorSet.length);
+	    cells = Arrays.copyOf(cells, monitorSet.length);
+	}
+    }
+
+    private void setCell(int index, Monitor monitor) {
+	if (monitor instanceof ArenaTransitionTableMonitor) {
+	    final ArenaTransitionTableMonitor arenaMonitor = (ArenaTransitionTableMonitor) monitor;
+	    if (transitionTable == null) {
+		transitionTable = arenaMonitor.getParameterNode().getTransitionTable();
+		metrics = ParametricMonitorMetrics.of(arenaMonitor.getParameterNode());
+	    }
+	    slabs[index] = arenaMonitor.getSlab();
+	    cells[index] = arenaMonitor.getCell();
+	} else {
+	    slabs[index] = null;
+	}
+    }
+
+    @Override
+    public void processUpdate(Event event) {
+	final boolean useCells = transitionTable != null && !Globals.CHECK_MONITOR_VALIDITY_ON_EACH_UPDATE
+		&& !event.hasMonitorCondition();
+	final BaseEvent baseEvent = useCells ? event.getEvaluatedBaseEvent() : null;
+	if (useCells && baseEvent == null) {
+	    // the event condition is not satisfied, no monitor takes a transition
+	    return;
+	}
+	// the successors are computed once per state and base event
+	final int[] quietSuccessors = useCells ? transitionTable.getQuietSuccessors(baseEvent.getIndex()) : null;
+	long quietUpdates = 0L;
+	int deadPartitionStart = 0;
+	for (int i = 0; i < size; i++) {
+	    final int[] slab = slabs[i];
+	    if (useCells && slab != null) {
+		final int cell = cells[i];
+		final int state = slab[cell];
+		// a dead state indicates a terminated monitor, which may have been replaced in its node
+		final int successor = quietSuccessors[state + 1];
+		if (successor != TransitionTable.NOT_QUIET) {
+		    if (successor != state) {
+			slab[cell] = successor;
+		    }
+		    quietUpdates++;
+		    retain(i, deadPartitionStart++);
+		    continue;
+		}
+	    }
+	    final NodeRef nodeRef = monitorSet[i];
+	    final Monitor monitor = nodeRef.monitor;
+	    // check if the monitor was already gc'ed by the NodeManager
+	    if (monitor == null) {
+		continue;
+	    }
+	    // check if the monitor was terminated by some other operation
+	    if (monitor.isTerminated()) {
+		nodeRef.monitor = null;
+		continue;
+	    }
+	    // if the monitor is still alive after processing, its reference is copied into the alive partition
+	    if (monitor.process(event)) {
+		monitorSet[deadPartitionStart] = nodeRef;
+		setCell(deadPartitionStart++, monitor);
+	    }
+	}
+	removeDeadPartition(deadPartitionStart);
+	if (Globals.MONITOR_UPDATE_METRICS && quietUpdates > 0L && metrics != null) {
+	    metrics.updatedMonitors(quietUpdates);
+	}
+    }
+
+    @Override
+    protected void retain(int index, int aliveIndex) {
+	monitorSet[aliveIndex] = monitorSet[index];
+	slabs[aliveIndex] = slabs[index];
+	cells[aliveIndex] = cells[index];
+    }
+
+    @Override
+    protected void removeDeadPartition(int deadPartitionStart) {
+	for (int i = deadPartitionStart; i < size; i++) {
+	    slabs[i] = null;
+	}
+	super.removeDeadPartition(deadPartitionStart);
+    }
+
+}
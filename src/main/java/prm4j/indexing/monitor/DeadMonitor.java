@@ -16,12 +16,9 @@ import prm4j.indexing.model.ParameterNode;
 
 public class DeadMonitor implements Monitor {
 
-    private static long createdMonitorsCount = 0L;
-
     private final long creationTime;
 
     public DeadMonitor(long creationTime) {
-	createdMonitorsCount++;
 	this.creationTime = creationTime;
     }
 
@@ -104,20 +101,4 @@ public class DeadMonitor implements Monitor {
 	return null;
     }
 
-    /**
-     * DIAGNOSTIC
-     * 
-     * @return the number of created dead monitors
-     */
-    public static long getCreatedMonitorsCount() {
-	return createdMonitorsCount;
-    }
-
-    /**
-     * DIAGNOSTIC
-     */
-    public static long reset() {
-	return createdMonitorsCount = 0;
-    }
-
 }
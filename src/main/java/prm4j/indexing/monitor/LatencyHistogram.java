@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.monitor;
+
+/**
+ * DIAGNOSTIC: Histogram of latencies in nanoseconds with logarithmic buckets. Bucket <code>b</code> counts latencies
+ * in <code>[2^(b-1), 2^b - 1]</code>, so percentiles are exact up to a factor of two. Recording is allocation-free and
+ * not thread-safe.
+ */
+public class LatencyHistogram {
+
+    private final static int BUCKET_COUNT = 64;
+
+    private final long[] buckets = new long[BUCKET_COUNT];
+    private long count;
+    private long totalNanos;
+    private long maxNanos;
+
+    public void record(long nanos) {
+	if (nanos < 0L) {
+	    // nanoTime is not guaranteed to be monotonic on all platforms
+	    nanos = 0L;
+	}
+	buckets[BUCKET_COUNT - Long.numberOfLeadingZeros(nanos)]++;
+	count++;
+	totalNanos += nanos;
+	if (nanos > maxNanos) {
+	    maxNanos = nanos;
+	}
+    }
+
+    /**
+     * Adds all recorded latencies of the other histogram to this histogram.
+     * 
+     * @param other
+     */
+    public void add(LatencyHistogram other) {
+	for (int i = 0; i < BUCKET_COUNT; i++) {
+	    buckets[i] += other.buckets[i];
+	}
+	count += other.count;
+	totalNanos += other.totalNanos;
+	if (other.maxNanos > maxNanos) {
+	    maxNanos = other.maxNanos;
+	}
+    }
+
+    public long getCount() {
+	return count;
+    }
+
+    public long getTotalNanos() {
+	return totalNanos;
+    }
+
+    public long getMaxNanos() {
+	return maxNanos;
+    }
+
+    public double getMeanNanos() {
+	return count == 0L ? 0.0 : (double) totalNanos / count;
+    }
+
+    /**
+     * Returns an upper bound for the given percentile, which is at most twice the exact value.
+     * 
+     * @param percentile
+     *            between 0 and 100
+     * @return the upper bound of the bucket containing the percentile, or 0 if nothing was recorded
+     */
+    public long getPercentileNanos(double percentile) {
+	if (count == 0L) {
+	    return 0L;
+	}
+	final long rank = Math.max(1L, (long) Math.ceil(count * percentile / 100.0));
+	long seen = 0L;
+	for (int i = 0; i < BUCKET_COUNT; i++) {
+	    seen += buckets[i];
+	    if (seen >= rank) {
+		return Math.min(maxNanos, (1L << i) - 1L);
+	    }
+	}
+	return maxNanos;
+    }
+
+    public void reset() {
+	for (int i = 0; i < BUCKET_COUNT; i++) {
+	    buckets[i] = 0L;
+	}
+	count = 0L;
+	totalNanos = 0L;
+	maxNanos = 0L;
+    }
+
+    @Override
+    public String toString() {
+	return String.format("%d %.1f %d %d %d", count, getMeanNanos(), getPercentileNanos(50.0),
+		getPercentileNanos(99.0), maxNanos);
+    }
+
+}
@@ -17,6 +17,7 @@ import prm4j.indexing.binding.Binding;
 import prm4j.indexing.model.JoinArgs;
 import prm4j.indexing.model.UpdateChainingsArgs;
 import prm4j.indexing.node.Node;
+import prm4j.indexing.node.NodeManager;
 import prm4j.indexing.node.NodeRef;
 import prm4j.indexing.node.NodeStore;
 
@@ -33,11 +34,11 @@ public class MonitorSet {
     /**
      * Number of contained monitors
      */
-    private int size = 0;
+    protected int size = 0;
     /**
      * Stores the monitors
      */
-    private NodeRef[] monitorSet;
+    protected NodeRef[] monitorSet;
 
     public MonitorSet() {
 	monitorSet = new NodeRef[DEFAULT_CAPACITY];
@@ -54,13 +55,44 @@ public class MonitorSet {
     }
 
     /**
-     * Enlarge the capacity if we run out of space.
+     * Enlarge the capacity if we run out of space. Entries of terminated and dead monitors are removed first, since
+     * sets which are never updated would hold them forever, e.g. after their monitors got evicted.
      */
-    private void ensureCapacity() {
+    protected void ensureCapacity() {
 	if (size >= monitorSet.length) {
-	    int capacity = (monitorSet.length * 3) / 2 + 1;
-	    monitorSet = Arrays.copyOf(monitorSet, capacity);
+	    removeDeadEntries();
+	    // grow anyway if only few entries were removed, so that the set is not scanned on each add
+	    if (size >= (monitorSet.length * 3) / 4) {
+		int capacity = (monitorSet.length * 3) / 2 + 1;
+		monitorSet = Arrays.copyOf(monitorSet, capacity);
+	    }
+	}
+    }
+
+    private void removeDeadEntries() {
+	int deadPartitionStart = 0;
+	for (int i = 0; i < size; i++) {
+	    if (isAlive(monitorSet[i].monitor)) {
+		retain(i, deadPartitionStart++);
+	    }
+	}
+	removeDeadPartition(deadPartitionStart);
+    }
+
+    private static boolean isAlive(Monitor monitor) {
+	return monitor != null && !monitor.isTerminated() && !monitor.isDead();
+    }
+
+    /**
+     * @return <code>true</code> if the set contains a monitor which is neither terminated nor dead
+     */
+    public boolean containsAliveMonitors() {
+	for (int i = 0; i < size; i++) {
+	    if (isAlive(monitorSet[i].monitor)) {
+		return true;
+	    }
 	}
+	return false;
     }
 
     /**
@@ -155,10 +187,19 @@ public class MonitorSet {
 		// inlined 'DefineTo'
 		final Monitor monitor = compatibleMonitor.copy(joinable);
 		joinedInstanceNode.setMonitor(monitor);
+		final ParametricMonitorMetrics metrics = ParametricMonitorMetrics.of(joinedInstanceNode
+			.getParameterNode());
+		if (metrics != null) {
+		    metrics.derivedMonitor();
+		}
+		final NodeManager nodeManager = joinedInstanceNode.getParameterNode().getNodeManager();
+		if (nodeManager != null) {
+		    nodeManager.createdMonitor(joinedInstanceNode);
+		}
 		// process and test if monitor is still alive
 		if (monitor.process(event)) {
 		    // this monitor is alive, so copy its reference to the alive partition
-		    monitorSet[deadPartitionStart++] = compatibleNodeRef;
+		    retain(i, deadPartitionStart++);
 		}
 
 		// update-chainings phase
@@ -172,6 +213,28 @@ public class MonitorSet {
 	    }
 	}
 	// remove all dead monitors from the monitor set by nullifying all entries in the dead partition
+	removeDeadPartition(deadPartitionStart);
+    }
+
+    /**
+     * Copies the entry at the given index into the alive partition.
+     * 
+     * @param index
+     *            of the entry
+     * @param aliveIndex
+     *            in the alive partition, not greater than the index
+     */
+    protected void retain(int index, int aliveIndex) {
+	monitorSet[aliveIndex] = monitorSet[index];
+    }
+
+    /**
+     * Removes all entries from the dead partition by nullifying them.
+     * 
+     * @param deadPartitionStart
+     *            the new size of the set
+     */
+    protected void removeDeadPartition(int deadPartitionStart) {
 	for (int i = deadPartitionStart; i < size; i++) {
 	    monitorSet[i] = null;
 	}
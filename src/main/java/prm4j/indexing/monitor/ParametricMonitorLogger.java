@@ -21,7 +21,6 @@ import java.util.logging.Logger;
 import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
 
 import prm4j.Util;
-import prm4j.api.MatchHandler;
 import prm4j.indexing.binding.BindingStore;
 import prm4j.indexing.node.NodeManager;
 
@@ -53,6 +52,29 @@ public class ParametricMonitorLogger {
 	}
     }
 
+    /**
+     * Logs a batch of events with the timestamps <code>fromTimestamp</code> (inclusive) to <code>toTimestamp</code>
+     * (exclusive). The memory consumption is logged at most once per batch.
+     */
+    public void log(long fromTimestamp, long toTimestamp) {
+	timestamp = toTimestamp - 1;
+	if ((fromTimestamp + 99) / 100 * 100 < toTimestamp) {
+	    logMemoryConsumption();
+	}
+    }
+
+    /**
+     * Logs count, mean, median, 99th percentile and maximum of the latency of each phase over all base events.
+     * 
+     * @param profiler
+     */
+    public void log(PhaseProfiler profiler) {
+	for (PhaseProfiler.Phase phase : PhaseProfiler.Phase.values()) {
+	    logger.log(Level.INFO, String.format("%s PHASE %s (count/mean/p50/p99/max ns) %s", experimentName, phase,
+		    profiler.getHistogram(phase)));
+	}
+    }
+
     private void logMemoryConsumption() {
 	double memoryConsumption = (((double) (Runtime.getRuntime().totalMemory() / 1024) / 1024) - ((double) (Runtime
 		.getRuntime().freeMemory() / 1024) / 1024));
@@ -65,8 +87,9 @@ public class ParametricMonitorLogger {
     public void reset() {
 	logMemoryConsumption();
 	logger.log(Level.INFO, String.format("%s EVENTS (totalCount) %d", experimentName, timestamp));
-	logger.log(Level.INFO,
-		String.format("%s MATCHES (totalCount) %d", experimentName, MatchHandler.getMatchCount()));
+	final ParametricMonitorMetrics metrics = nodeManager.getMetrics();
+	logger.log(Level.INFO, String.format("%s MATCHES (totalCount) %d", experimentName,
+		metrics.getMatchesCount()));
 	logger.log(Level.INFO,
 		String.format("%s MEMORY (mean/max) %f %f", experimentName, memStats.getMean(), memStats.getMax()));
 	logger.log(
@@ -77,9 +100,9 @@ public class ParametricMonitorLogger {
 	logger.log(Level.INFO, String.format("%s NODES (created) %d", experimentName, nodeManager.getCreatedCount()));
 	logger.log(Level.INFO, String.format(
 		"%s MONITORS (createdAlive/updated/orphaned/collected/createdDead) %d %d %d %d %d", experimentName,
-		AbstractMonitor.getCreatedMonitorsCount(), AbstractMonitor.getUpdateddMonitorsCount(),
+		metrics.getCreatedMonitorsCount() + metrics.getDerivedMonitorsCount(), metrics.getUpdatedMonitorsCount(),
 		nodeManager.getOrphanedMonitorsCount(), nodeManager.getCollectedMonitorsCount(),
-		DeadMonitor.getCreatedMonitorsCount()));
+		metrics.getCreatedDeadMonitorsCount()));
 	memStats.clear();
     }
 
@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.monitor;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import prm4j.Globals;
+import prm4j.indexing.binding.BindingStore;
+import prm4j.indexing.binding.DefaultBindingStore;
+import prm4j.indexing.model.ParameterNode;
+import prm4j.indexing.node.NodeManager;
+
+/**
+ * DIAGNOSTIC: Counters of a single parametric monitor. Counters already maintained by the {@link BindingStore} and the
+ * {@link NodeManager} are read from them. The updates and matches of the monitors are only counted if
+ * {@link Globals#MONITOR_UPDATE_METRICS} is enabled.
+ * <p>
+ * All counters are plain fields written while holding the lock of the parametric monitor. The getters read them while
+ * holding the same lock, so that reads from other threads, e.g. via JMX, see the current values.
+ */
+public class ParametricMonitorMetrics implements ParametricMonitorMetricsMBean {
+
+    private final BindingStore bindingStore;
+    private final NodeManager nodeManager;
+    /**
+     * Weak, since the metrics are reachable from the {@link NodeManager}, which must not keep the parametric monitor
+     * alive, see {@link prm4j.indexing.BackgroundReclaimer}.
+     */
+    private final WeakReference<Object> lock;
+
+    private long eventsCount;
+    private long createdMonitorsCount;
+    private long derivedMonitorsCount;
+    private long createdDeadMonitorsCount;
+    private long evictedMonitorsCount;
+    private long updatedMonitorsCount;
+    private long matchesCount;
+
+    private ObjectName objectName;
+
+    /**
+     * @param bindingStore
+     * @param nodeManager
+     * @param lock
+     *            the lock of the parametric monitor, which is held when the counters are written
+     */
+    public ParametricMonitorMetrics(BindingStore bindingStore, NodeManager nodeManager, Object lock) {
+	this.bindingStore = bindingStore;
+	this.nodeManager = nodeManager;
+	this.lock = new WeakReference<Object>(lock);
+    }
+
+    /**
+     * @return the lock of the parametric monitor or this object, if the parametric monitor was collected
+     */
+    private Object lock() {
+	final Object result = lock.get();
+	return result != null ? result : this;
+    }
+
+    /**
+     * Returns the metrics of the parametric monitor owning the given parameter node.
+     * 
+     * @param parameterNode
+     *            may be null
+     * @return the metrics or <code>null</code>, if there are none
+     */
+    public static ParametricMonitorMetrics of(ParameterNode parameterNode) {
+	if (parameterNode == null || parameterNode.getNodeManager() == null) {
+	    return null;
+	}
+	return parameterNode.getNodeManager().getMetrics();
+    }
+
+    public void processedEvents(long count) {
+	eventsCount += count;
+    }
+
+    public void createdMonitor() {
+	createdMonitorsCount++;
+    }
+
+    public void derivedMonitor() {
+	derivedMonitorsCount++;
+    }
+
+    public void createdDeadMonitor() {
+	createdDeadMonitorsCount++;
+    }
+
+    public void evictedMonitor() {
+	evictedMonitorsCount++;
+    }
+
+    public void updatedMonitor() {
+	updatedMonitorsCount++;
+    }
+
+    public void updatedMonitors(long count) {
+	updatedMonitorsCount += count;
+    }
+
+    public void matched() {
+	matchesCount++;
+    }
+
+    @Override
+    public long getEventsCount() {
+	synchronized (lock()) {
+	    return eventsCount;
+	}
+    }
+
+    @Override
+    public long getCreatedBindingsCount() {
+	synchronized (lock()) {
+	    return bindingStore.getCreatedBindingsCount();
+	}
+    }
+
+    @Override
+    public long getCollectedBindingsCount() {
+	synchronized (lock()) {
+	    return bindingStore.getCollectedBindingsCount();
+	}
+    }
+
+    @Override
+    public long getStoredBindingsCount() {
+	synchronized (lock()) {
+	    return bindingStore.size();
+	}
+    }
+
+    @Override
+    public long getCreatedNodesCount() {
+	synchronized (lock()) {
+	    return nodeManager.getCreatedCount();
+	}
+    }
+
+    /**
+     * @return the number of monitors created from the monitor prototype
+     */
+    @Override
+    public long getCreatedMonitorsCount() {
+	synchronized (lock()) {
+	    return createdMonitorsCount;
+	}
+    }
+
+    /**
+     * @return the number of monitors derived from the max monitor or during a join
+     */
+    @Override
+    public long getDerivedMonitorsCount() {
+	synchronized (lock()) {
+	    return derivedMonitorsCount;
+	}
+    }
+
+    @Override
+    public long getCreatedDeadMonitorsCount() {
+	synchronized (lock()) {
+	    return createdDeadMonitorsCount;
+	}
+    }
+
+    /**
+     * @return the number of monitors evicted because the limit of live monitors was reached
+     */
+    @Override
+    public long getEvictedMonitorsCount() {
+	synchronized (lock()) {
+	    return evictedMonitorsCount;
+	}
+    }
+
+    @Override
+    public long getUpdatedMonitorsCount() {
+	synchronized (lock()) {
+	    return updatedMonitorsCount;
+	}
+    }
+
+    @Override
+    public long getOrphanedMonitorsCount() {
+	synchronized (lock()) {
+	    return nodeManager.getOrphanedMonitorsCount();
+	}
+    }
+
+    @Override
+    public long getCollectedMonitorsCount() {
+	synchronized (lock()) {
+	    return nodeManager.getCollectedMonitorsCount();
+	}
+    }
+
+    @Override
+    public long getMatchesCount() {
+	synchronized (lock()) {
+	    return matchesCount;
+	}
+    }
+
+    /**
+     * @return the number of times expired monitors and bindings were removed
+     */
+    @Override
+    public long getCleaningPassesCount() {
+	synchronized (lock()) {
+	    long result = nodeManager.getCleaningPassesCount();
+	    if (bindingStore instanceof DefaultBindingStore) {
+		result += ((DefaultBindingStore) bindingStore).getCleaningPassesCount();
+	    }
+	    return result;
+	}
+    }
+
+    /**
+     * Exports the metrics to the platform MBean server as <code>prm4j:type=ParametricMonitor,name=&lt;name&gt;</code>.
+     * The MBean server keeps the metrics reachable until {@link #unregisterMBean()} is called.
+     * 
+     * @param name
+     *            distinguishes the parametric monitors
+     * @return the object name
+     * @throws IllegalStateException
+     *             if the registration failed, e.g. because the name is already used
+     */
+    public synchronized ObjectName registerMBean(String name) {
+	if (objectName != null) {
+	    throw new IllegalStateException("Metrics are already registered as " + objectName);
+	}
+	try {
+	    final ObjectName newObjectName = new ObjectName("prm4j:type=ParametricMonitor,name="
+		    + ObjectName.quote(name));
+	    ManagementFactory.getPlatformMBeanServer().registerMBean(this, newObjectName);
+	    objectName = newObjectName;
+	    return objectName;
+	} catch (JMException e) {
+	    throw new IllegalStateException("Could not register metrics as MBean " + name, e);
+	}
+    }
+
+    /**
+     * Removes the metrics from the platform MBean server, if they were registered.
+     */
+    public synchronized void unregisterMBean() {
+	if (objectName == null) {
+	    return;
+	}
+	final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+	try {
+	    if (server.isRegistered(objectName)) {
+		server.unregisterMBean(objectName);
+	    }
+	} catch (JMException e) {
+	    throw new IllegalStateException("Could not unregister MBean " + objectName, e);
+	} finally {
+	    objectName = null;
+	}
+    }
+
+    /**
+     * Resets the counters maintained by this object.
+     */
+    public void reset() {
+	synchronized (lock()) {
+	    eventsCount = 0L;
+	    createdMonitorsCount = 0L;
+	    derivedMonitorsCount = 0L;
+	    createdDeadMonitorsCount = 0L;
+	    evictedMonitorsCount = 0L;
+	    updatedMonitorsCount = 0L;
+	    matchesCount = 0L;
+	}
+    }
+
+}
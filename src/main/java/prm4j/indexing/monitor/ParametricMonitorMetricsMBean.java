@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.monitor;
+
+/**
+ * Management interface of the {@link ParametricMonitorMetrics}, exported via JMX.
+ */
+public interface ParametricMonitorMetricsMBean {
+
+    public long getEventsCount();
+
+    public long getCreatedBindingsCount();
+
+    public long getCollectedBindingsCount();
+
+    public long getStoredBindingsCount();
+
+    public long getCreatedNodesCount();
+
+    public long getCreatedMonitorsCount();
+
+    public long getDerivedMonitorsCount();
+
+    public long getCreatedDeadMonitorsCount();
+
+    public long getEvictedMonitorsCount();
+
+    public long getUpdatedMonitorsCount();
+
+    public long getOrphanedMonitorsCount();
+
+    public long getCollectedMonitorsCount();
+
+    public long getMatchesCount();
+
+    public long getCleaningPassesCount();
+
+}
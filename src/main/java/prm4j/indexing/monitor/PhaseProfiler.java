@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.monitor;
+
+import java.util.Arrays;
+
+import prm4j.api.BaseEvent;
+
+/**
+ * DIAGNOSTIC: Records the latency of each phase of the event processing algorithm, separately for each
+ * {@link BaseEvent}. The durations of a phase are summed up per event, so each histogram holds at most one value per
+ * event. Not thread-safe; the parametric monitor calls it while holding its lock.
+ */
+public class PhaseProfiler {
+
+    public static enum Phase {
+	/**
+	 * Retrieval of the bindings from the binding store.
+	 */
+	BINDING_LOOKUP,
+	/**
+	 * Update of an existing instance monitor and its monitor sets.
+	 */
+	UPDATE,
+	/**
+	 * Update of the monitor sets of an instance without a monitor.
+	 */
+	DIRECT_UPDATE,
+	/**
+	 * Search for the maximal monitor to derive from.
+	 */
+	FIND_MAX,
+	/**
+	 * Joins with all compatible monitor sets, including the chainings of the joined monitors.
+	 */
+	JOIN,
+	/**
+	 * Creation of new monitors, including the checks for existing ones.
+	 */
+	MONITOR_CREATION,
+	/**
+	 * Adding a derived or created monitor to its monitor sets.
+	 */
+	UPDATE_CHAININGS
+    }
+
+    private final static Phase[] PHASES = Phase.values();
+
+    /**
+     * Histograms indexed by base event and phase.
+     */
+    private LatencyHistogram[][] histograms = new LatencyHistogram[0][];
+
+    /**
+     * Summed up durations of the phases of the current event.
+     */
+    private final long[] phaseNanos = new long[PHASES.length];
+    private final boolean[] phaseEntered = new boolean[PHASES.length];
+
+    /**
+     * Starts the profiling of an event.
+     * 
+     * @return the current time
+     */
+    public long beginEvent() {
+	for (int i = 0; i < PHASES.length; i++) {
+	    phaseNanos[i] = 0L;
+	    phaseEntered[i] = false;
+	}
+	return System.nanoTime();
+    }
+
+    /**
+     * Ends a phase of the current event.
+     * 
+     * @param phase
+     * @param start
+     *            the time the phase started
+     * @return the current time, i.e. the start of the next phase
+     */
+    public long endPhase(Phase phase, long start) {
+	final long now = System.nanoTime();
+	phaseNanos[phase.ordinal()] += now - start;
+	phaseEntered[phase.ordinal()] = true;
+	return now;
+    }
+
+    /**
+     * Records the durations of all phases entered during the current event.
+     * 
+     * @param baseEvent
+     */
+    public void endEvent(BaseEvent baseEvent) {
+	final LatencyHistogram[] eventHistograms = getHistograms(baseEvent.getIndex());
+	for (int i = 0; i < PHASES.length; i++) {
+	    if (phaseEntered[i]) {
+		eventHistograms[i].record(phaseNanos[i]);
+	    }
+	}
+    }
+
+    private LatencyHistogram[] getHistograms(int baseEventIndex) {
+	if (baseEventIndex >= histograms.length) {
+	    histograms = Arrays.copyOf(histograms, baseEventIndex + 1);
+	}
+	LatencyHistogram[] result = histograms[baseEventIndex];
+	if (result == null) {
+	    result = new LatencyHistogram[PHASES.length];
+	    for (int i = 0; i < PHASES.length; i++) {
+		result[i] = new LatencyHistogram();
+	    }
+	    histograms[baseEventIndex] = result;
+	}
+	return result;
+    }
+
+    /**
+     * Returns the histogram of a phase for a single base event.
+     * 
+     * @param baseEvent
+     * @param phase
+     * @return the histogram
+     */
+    public LatencyHistogram getHistogram(BaseEvent baseEvent, Phase phase) {
+	return getHistograms(baseEvent.getIndex())[phase.ordinal()];
+    }
+
+    /**
+     * Returns the histogram of a phase over all base events.
+     * 
+     * @param phase
+     * @return a new histogram
+     */
+    public LatencyHistogram getHistogram(Phase phase) {
+	final LatencyHistogram result = new LatencyHistogram();
+	for (LatencyHistogram[] eventHistograms : histograms) {
+	    if (eventHistograms != null) {
+		result.add(eventHistograms[phase.ordinal()]);
+	    }
+	}
+	return result;
+    }
+
+    public void reset() {
+	histograms = new LatencyHistogram[0][];
+    }
+
+}
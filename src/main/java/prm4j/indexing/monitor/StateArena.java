@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.monitor;
+
+/**
+ * Allocates the cells storing the states of {@link ArenaTransitionTableMonitor}s. Cells are handed out consecutively
+ * from slabs of {@link #SLAB_SIZE} integers, so that the states of monitors created one after another are adjacent in
+ * memory. Cells are never reused, a slab gets garbage collected when it is no longer referenced by any monitor or
+ * {@link ColumnarMonitorSet}.
+ */
+public class StateArena {
+
+    /**
+     * Number of cells in a slab.
+     */
+    public final static int SLAB_SIZE = 256;
+
+    private int[] slab;
+    private int nextCell;
+
+    public StateArena() {
+	slab = new int[SLAB_SIZE];
+    }
+
+    /**
+     * Returns the slab containing the cell which will be returned by the next call of {@link #allocate(int)}.
+     * 
+     * @return the current slab
+     */
+    public int[] getSlab() {
+	if (nextCell == SLAB_SIZE) {
+	    slab = new int[SLAB_SIZE];
+	    nextCell = 0;
+	}
+	return slab;
+    }
+
+    /**
+     * Allocates a cell in the slab returned by {@link #getSlab()} and initializes it with the given state.
+     * 
+     * @param state
+     *            the index of the state
+     * @return the index of the cell in the slab
+     */
+    public int allocate(int state) {
+	final int[] slab = getSlab();
+	slab[nextCell] = state;
+	return nextCell++;
+    }
+
+}
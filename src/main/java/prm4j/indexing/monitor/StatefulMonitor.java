@@ -44,7 +44,13 @@ public class StatefulMonitor extends AbstractMonitor {
 	}
 	final MatchHandler matchHandler = state.getMatchHandler();
 	if (matchHandler != null) {
-	    matchHandler.handleAndCountMatch(getUncompressedBindings(), event.getAuxiliaryData());
+	    if (Globals.MONITOR_UPDATE_METRICS) {
+		final ParametricMonitorMetrics metrics = ParametricMonitorMetrics.of(getParameterNode());
+		if (metrics != null) {
+		    metrics.matched();
+		}
+	    }
+	    handleMatch(matchHandler, event.getAuxiliaryData());
 	    // when a state is a accepting state, it is still possible we will reach another accepting state (or loop on
 	    // an accepting state)
 	}
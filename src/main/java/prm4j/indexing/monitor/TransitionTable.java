@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.monitor;
+
+import prm4j.api.BaseEvent;
+import prm4j.api.MatchHandler;
+import prm4j.spec.finite.FiniteSpec;
+
+/**
+ * Compiled representation of a {@link FiniteSpec}. States are represented by their index. The successors of all states
+ * are stored in a single dense array indexed by <code>state * alphabetSize + baseEventIndex</code>, accepting and final
+ * states in bit sets.
+ */
+public class TransitionTable {
+
+    /**
+     * Successor of a state which has no transition for a base event.
+     */
+    public final static int DEAD_STATE = -1;
+
+    /**
+     * Marks a transition in {@link #getQuietSuccessors(int)} which requires processing the monitor.
+     */
+    public final static int NOT_QUIET = -2;
+
+    private final int alphabetSize;
+    private final int initialState;
+    private final int[] successors;
+    private final MatchHandler[] matchHandlers;
+    private final long[] acceptingStates;
+    private final long[] finalStates;
+    private final int[][] quietSuccessors;
+
+    public TransitionTable(FiniteSpec finiteSpec) {
+	int stateCount = 0;
+	for (MonitorState state : finiteSpec.getStates()) {
+	    stateCount = Math.max(stateCount, state.getIndex() + 1);
+	}
+	int maxBaseEventIndex = -1;
+	for (BaseEvent baseEvent : finiteSpec.getBaseEvents()) {
+	    maxBaseEventIndex = Math.max(maxBaseEventIndex, baseEvent.getIndex());
+	}
+	alphabetSize = maxBaseEventIndex + 1;
+	initialState = finiteSpec.getInitialState().getIndex();
+	successors = new int[stateCount * alphabetSize];
+	matchHandlers = new MatchHandler[stateCount];
+	acceptingStates = new long[(stateCount + 63) >>> 6];
+	finalStates = new long[(stateCount + 63) >>> 6];
+	for (MonitorState state : finiteSpec.getStates()) {
+	    final int index = state.getIndex();
+	    for (BaseEvent baseEvent : finiteSpec.getBaseEvents()) {
+		final MonitorState successor = state.getSuccessor(baseEvent);
+		successors[index * alphabetSize + baseEvent.getIndex()] = successor != null ? successor.getIndex()
+			: DEAD_STATE;
+	    }
+	    matchHandlers[index] = state.getMatchHandler();
+	    if (state.isAccepting()) {
+		acceptingStates[index >>> 6] |= 1L << index;
+	    }
+	    if (state.isFinal()) {
+		finalStates[index >>> 6] |= 1L << index;
+	    }
+	}
+	quietSuccessors = new int[alphabetSize][stateCount + 1];
+	for (int baseEventIndex = 0; baseEventIndex < alphabetSize; baseEventIndex++) {
+	    final int[] row = quietSuccessors[baseEventIndex];
+	    row[0] = NOT_QUIET;
+	    for (int state = 0; state < stateCount; state++) {
+		final int successor = successors[state * alphabetSize + baseEventIndex];
+		final boolean quiet = successor != DEAD_STATE && matchHandlers[successor] == null
+			&& !isFinal(successor);
+		row[state + 1] = quiet ? successor : NOT_QUIET;
+	    }
+	}
+    }
+
+    /**
+     * @param state
+     * @param baseEventIndex
+     * @return the index of the successor state or {@link #DEAD_STATE}
+     */
+    public int getSuccessor(int state, int baseEventIndex) {
+	return successors[state * alphabetSize + baseEventIndex];
+    }
+
+    /**
+     * @param state
+     * @return the match handler of the state, or <code>null</code> if the state is not accepting
+     */
+    public MatchHandler getMatchHandler(int state) {
+	return matchHandlers[state];
+    }
+
+    public boolean isAccepting(int state) {
+	return (acceptingStates[state >>> 6] & (1L << state)) != 0L;
+    }
+
+    /**
+     * @param state
+     * @return <code>true</code> if all successor states are dead states
+     */
+    public boolean isFinal(int state) {
+	return (finalStates[state >>> 6] & (1L << state)) != 0L;
+    }
+
+    /**
+     * Returns the successors of all states for the given base event, where a transition is quiet if the successor is
+     * neither dead nor final and has no match handler. A monitor taking a quiet transition only needs its state to be
+     * updated. The successor of a state is stored at the index of the state plus one. Index 0 belongs to the
+     * {@link #DEAD_STATE}.
+     * 
+     * @param baseEventIndex
+     * @return the successor states or {@link #NOT_QUIET}, indexed by state + 1
+     */
+    public int[] getQuietSuccessors(int baseEventIndex) {
+	return quietSuccessors[baseEventIndex];
+    }
+
+    public int getInitialState() {
+	return initialState;
+    }
+
+    public int getStateCount() {
+	return matchHandlers.length;
+    }
+
+    public int getAlphabetSize() {
+	return alphabetSize;
+    }
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.monitor;
+
+import prm4j.Globals;
+import prm4j.api.BaseEvent;
+import prm4j.api.Event;
+import prm4j.api.MatchHandler;
+import prm4j.indexing.model.ParameterNode;
+
+/**
+ * A base monitor storing the index of its state, whose transitions are looked up in the {@link TransitionTable} of its
+ * parameter node. It is equivalent to a {@link StatefulMonitor} but does not reference a {@link MonitorState}.
+ */
+public class TransitionTableMonitor extends AbstractMonitor {
+
+    protected int state;
+
+    /**
+     * @param state
+     *            the index of the state, usually {@link TransitionTable#getInitialState()}
+     */
+    public TransitionTableMonitor(int state) {
+	this.state = state;
+    }
+
+    @Override
+    public boolean processEvent(Event event) {
+	int state = getState();
+	if (state == TransitionTable.DEAD_STATE) {
+	    terminate();
+	    return false;
+	}
+	final BaseEvent baseEvent = event.getEvaluatedBaseEvent(this);
+	if (baseEvent == null) {
+	    // the condition evaluated to false, no transition is taken, monitor was alive => stays alive
+	    return true;
+	}
+	final ParameterNode parameterNode = getParameterNode();
+	final TransitionTable transitionTable = parameterNode.getTransitionTable();
+	state = transitionTable.getSuccessor(state, baseEvent.getIndex());
+	setState(state);
+	if (state == TransitionTable.DEAD_STATE) {
+	    terminate();
+	    return false;
+	}
+	final MatchHandler matchHandler = transitionTable.getMatchHandler(state);
+	if (matchHandler != null) {
+	    if (Globals.MONITOR_UPDATE_METRICS) {
+		final ParametricMonitorMetrics metrics = ParametricMonitorMetrics.of(parameterNode);
+		if (metrics != null) {
+		    metrics.matched();
+		}
+	    }
+	    handleMatch(matchHandler, event.getAuxiliaryData());
+	}
+	if (transitionTable.isFinal(state)
+		|| (Globals.CHECK_MONITOR_VALIDITY_ON_EACH_UPDATE && !parameterNode.isAcceptingStateReachable(state,
+			getCompressedBindings()))) {
+	    terminate();
+	    return false;
+	}
+	return true;
+    }
+
+    @Override
+    public Monitor copy() {
+	return new TransitionTableMonitor(getState());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Like {@link StatefulMonitor#isAlive()}.
+     */
+    @Override
+    public boolean isAlive() {
+	final int state = getState();
+	if (isTerminated() || state == TransitionTable.DEAD_STATE) {
+	    return false;
+	}
+	final ParameterNode parameterNode = getParameterNode();
+	return !parameterNode.getTransitionTable().isFinal(state)
+		&& parameterNode.isAcceptingStateReachable(state, getCompressedBindings());
+    }
+
+    /**
+     * @return the index of the current state or {@link TransitionTable#DEAD_STATE}
+     */
+    public int getState() {
+	return state;
+    }
+
+    /**
+     * @param state
+     *            the index of the new state or {@link TransitionTable#DEAD_STATE}
+     */
+    protected void setState(int state) {
+	this.state = state;
+    }
+
+    @Override
+    public int hashCode() {
+	return 31 + getState();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+	if (this == obj) {
+	    return true;
+	}
+	if (obj == null) {
+	    return false;
+	}
+	if (getClass() != obj.getClass()) {
+	    return false;
+	}
+	return getState() == ((TransitionTableMonitor) obj).getState();
+    }
+
+    @Override
+    public boolean isDead() {
+	return false;
+    }
+
+}
@@ -11,12 +11,11 @@
 package prm4j.indexing.node;
 
 import prm4j.indexing.binding.Binding;
-import prm4j.indexing.map.NodeMap;
+import prm4j.indexing.map.CompactNodeMap;
 
-public abstract class AbstractNode extends NodeMap<Node> implements Node {
+public abstract class AbstractNode extends CompactNodeMap<Node> implements Node {
 
     private final Binding key;
-    private Node nextNode;
 
     /**
      * @param parameterNode
@@ -39,23 +38,20 @@ public abstract class AbstractNode extends NodeMap<Node> implements Node {
 	return key;
     }
 
-    @Override
-    public Node next() {
-	return nextNode;
-    }
-
-    @Override
-    public void setNext(Node nextNode) {
-	this.nextNode = nextNode;
-    }
-
     @Override
     protected Node[] createTable(int size) {
 	return new Node[size];
     }
 
+    /**
+     * Registers this node as holder of the binding, if it has no other child with the binding yet. Releasing the
+     * binding removes all children with the binding, so each node is registered only once.
+     */
     @Override
     protected Node createEntry(int parameterIndex, Binding key) {
+	if (!containsKey(key)) {
+	    key.registerHolder(getNodeRef());
+	}
 	return getParameterNode().createNode(parameterIndex, key);
     }
 
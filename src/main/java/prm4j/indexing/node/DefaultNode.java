@@ -73,7 +73,6 @@ public class DefaultNode extends AbstractNode {
 	if (binding == null) {
 	    throw new NullPointerException("binding was null");
 	}
-	binding.registerHolder(nodeRef);
 	if (cachedParameterIndex != parameterIndex || cachedBinding != binding) {
 	    cachedParameterIndex = parameterIndex;
 	    cachedBinding = binding;
@@ -100,6 +99,53 @@ public class DefaultNode extends AbstractNode {
 	return cachedNodeRef.get();
     }
 
+    @Override
+    public void terminateDeadMonitors() {
+	final Monitor monitor = nodeRef.monitor;
+	if (monitor != null && !monitor.isTerminated() && !monitor.isAlive()) {
+	    monitor.terminate();
+	}
+	if (table == null) {
+	    if (first != null) {
+		first.terminateDeadMonitors();
+	    }
+	    if (second != null) {
+		second.terminateDeadMonitors();
+	    }
+	} else {
+	    for (Node child : table) {
+		if (child != null) {
+		    child.terminateDeadMonitors();
+		}
+	    }
+	}
+    }
+
+    @Override
+    public void removeChild(Node child) {
+	if (removeEntry(child)) {
+	    if (cachedNodeRef == child.getNodeRef()) {
+		// the child may be looked up again, since its binding is alive
+		cachedNodeRef = null;
+		cachedBinding = null;
+		cachedParameterIndex = -1;
+	    }
+	    final Binding key = child.getKey();
+	    if (!containsKey(key)) {
+		key.unregisterHolder(nodeRef);
+	    }
+	}
+    }
+
+    @Override
+    protected void removed(Node node) {
+	// the cache is not cleared, it keeps the node ref reachable until it is enqueued
+	final NodeManager nodeManager = parameterNode.getNodeManager();
+	if (nodeManager != null) {
+	    nodeManager.removedNode(node);
+	}
+    }
+
     @Override
     public void setMonitor(Monitor monitor) {
 	nodeRef.monitor = monitor;
@@ -111,7 +157,7 @@ public class DefaultNode extends AbstractNode {
 	// lazy creation
 	MonitorSet monitorSet = monitorSets[monitorSetId];
 	if (monitorSet == null) {
-	    monitorSet = new MonitorSet();
+	    monitorSet = parameterNode.createMonitorSet();
 	    monitorSets[monitorSetId] = monitorSet;
 	}
 	return monitorSet;
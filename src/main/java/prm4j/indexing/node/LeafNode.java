@@ -27,7 +27,6 @@ public class LeafNode implements Node {
     private long timestamp = Long.MAX_VALUE; // this instance was not seen yet
 
     private final Binding key;
-    private Node nextNode;
 
     /**
      * @param parameterNode
@@ -117,25 +116,28 @@ public class LeafNode implements Node {
     }
 
     @Override
-    public Node next() {
-	return nextNode;
-    }
-
-    @Override
-    public void setNext(Node nextEntry) {
-	nextNode = nextEntry;
+    public void remove(Binding binding) {
+	throw new UnsupportedOperationException("This node should not need to use this operation!");
 
     }
 
     @Override
-    public void remove(Binding binding) {
+    public void removeChild(Node child) {
 	throw new UnsupportedOperationException("This node should not need to use this operation!");
+    }
 
+    @Override
+    public void terminateDeadMonitors() {
+	final Monitor monitor = nodeRef.monitor;
+	if (monitor != null && !monitor.isTerminated() && !monitor.isAlive()) {
+	    monitor.terminate();
+	}
     }
 
     @Override
     public int size() {
-	throw new UnsupportedOperationException("This node should not need to use this operation!");
+	// a leaf has no children
+	return 0;
     }
 
     @Override
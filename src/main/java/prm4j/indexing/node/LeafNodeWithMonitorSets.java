@@ -30,7 +30,7 @@ public class LeafNodeWithMonitorSets extends LeafNode {
 	// lazy creation
 	MonitorSet monitorSet = monitorSets[monitorSetId];
 	if (monitorSet == null) {
-	    monitorSet = new MonitorSet();
+	    monitorSet = getParameterNode().createMonitorSet();
 	    monitorSets[monitorSetId] = monitorSet;
 	}
 	return monitorSet;
@@ -0,0 +1,381 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.node;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import prm4j.indexing.binding.Binding;
+import prm4j.indexing.model.ParameterNode;
+import prm4j.indexing.model.UpdateChainingsArgs;
+import prm4j.indexing.monitor.DeadMonitor;
+import prm4j.indexing.monitor.Monitor;
+import prm4j.indexing.monitor.MonitorSet;
+import prm4j.indexing.monitor.ParametricMonitorMetrics;
+
+/**
+ * Bounds the number of live monitors of a parametric monitor. If a new monitor exceeds the limit, the least recently
+ * active of some randomly sampled monitors is evicted. The activity of an instance is the last timestamp of an event
+ * with the instance or one of its sub-instances, i.e. of an event which could have updated its monitor.
+ * <p>
+ * An evicted monitor is terminated and replaced by a {@link DeadMonitor} in its node, so that neither the instance
+ * nor the instances derived from it are monitored again with an incomplete trace. The number of these tombstones is
+ * bounded by the limit, too: the oldest tombstone beyond the limit is forgotten by unlinking its node from the node
+ * tree, together with the nodes which were only kept for the instance. The bindings of the instance may stay alive,
+ * so its instance may be monitored again after it was forgotten. Tombstones which are still on the path of other
+ * nodes or hold alive monitors in their monitor sets are kept until they are not needed anymore.
+ * <p>
+ * Used by the thread holding the lock of the parametric monitor.
+ */
+public class MonitorEvictor {
+
+    /**
+     * Number of monitors sampled to select the least recently active one.
+     */
+    private final static int SAMPLE_SIZE = 8;
+
+    private final static int INITIAL_CAPACITY = 1024;
+
+    private final NodeStore nodeStore;
+    private final int maxMonitors;
+
+    /**
+     * Nodes of the tracked monitors. Entries of monitors which are not alive anymore are removed when sampled.
+     */
+    private NodeRef[] nodeRefs;
+    private int size = 0;
+
+    /**
+     * Ring of the nodes of evicted monitors, oldest first, with the uncompressed bindings of their instances.
+     */
+    private NodeRef[] tombstones;
+    private Binding[][] tombstoneBindings;
+    private int tombstonesHead = 0;
+    private int tombstonesSize = 0;
+
+    /**
+     * Proper sub-instances of each kind of instance, as parameter masks.
+     */
+    private final Map<ParameterNode, int[][]> subInstanceMasks = new IdentityHashMap<ParameterNode, int[][]>();
+
+    /**
+     * Masks of the ancestors of each kind of node in the node tree, beginning with the root.
+     */
+    private final Map<ParameterNode, int[][]> ancestorMasks = new IdentityHashMap<ParameterNode, int[][]>();
+
+    /**
+     * Timestamp of the current event.
+     */
+    private long timestamp = 0L;
+
+    private int randomState = 0x2545F491;
+
+    /**
+     * @param nodeStore
+     *            of the parametric monitor
+     * @param maxMonitors
+     *            maximal number of tracked monitors
+     */
+    public MonitorEvictor(NodeStore nodeStore, int maxMonitors) {
+	if (maxMonitors < 1) {
+	    throw new IllegalArgumentException("Maximal number of monitors has to be positive: " + maxMonitors);
+	}
+	this.nodeStore = nodeStore;
+	this.maxMonitors = maxMonitors;
+	nodeRefs = new NodeRef[Math.min(maxMonitors, INITIAL_CAPACITY)];
+	tombstones = new NodeRef[Math.min(maxMonitors, INITIAL_CAPACITY)];
+	tombstoneBindings = new Binding[tombstones.length][];
+    }
+
+    /**
+     * Records the activity of the instance of the current event. Tombstones beyond the limit are forgotten here, before
+     * the event is processed, since no monitor set is iterated yet.
+     * 
+     * @param node
+     *            of the instance, may be the {@link NullNode}
+     * @param timestamp
+     *            of the current event
+     */
+    public void touch(Node node, long timestamp) {
+	this.timestamp = timestamp;
+	if (node != NullNode.instance) {
+	    node.getNodeRef().activity = timestamp;
+	}
+	if (tombstonesSize > maxMonitors) {
+	    forgetOldestTombstones();
+	}
+    }
+
+    /**
+     * Tracks the monitor of the given node, evicting another monitor if the limit is reached.
+     * 
+     * @param node
+     *            which just got a monitor
+     */
+    public void register(Node node) {
+	final NodeRef nodeRef = node.getNodeRef();
+	nodeRef.activity = timestamp;
+	while (size >= maxMonitors) {
+	    evictLeastRecentlyActive();
+	}
+	if (size == nodeRefs.length) {
+	    nodeRefs = Arrays.copyOf(nodeRefs, (int) Math.min(maxMonitors, 2L * size));
+	}
+	nodeRefs[size++] = nodeRef;
+    }
+
+    /**
+     * Samples some tracked monitors and evicts the least recently active one. Sampled monitors which are not alive
+     * anymore are just removed.
+     */
+    private void evictLeastRecentlyActive() {
+	int victimIndex = -1;
+	long victimActivity = Long.MAX_VALUE;
+	for (int i = 0; i < SAMPLE_SIZE && size > 0; i++) {
+	    final int index = nextIndex();
+	    final NodeRef nodeRef = nodeRefs[index];
+	    final Node node = nodeRef.get();
+	    final Monitor monitor = nodeRef.monitor;
+	    if (node == null || monitor == null || !monitor.isAlive()) {
+		remove(index);
+		if (victimIndex == size) {
+		    // the victim was moved into the gap
+		    victimIndex = index;
+		}
+		continue;
+	    }
+	    final long activity = getActivity(node, monitor);
+	    if (activity < victimActivity) {
+		victimIndex = index;
+		victimActivity = activity;
+	    }
+	}
+	if (victimIndex >= 0) {
+	    evict(victimIndex);
+	}
+    }
+
+    private int nextIndex() {
+	// xorshift, the quality suffices to sample
+	randomState ^= randomState << 13;
+	randomState ^= randomState >>> 17;
+	randomState ^= randomState << 5;
+	return (int) (((randomState & 0xFFFFFFFFL) * size) >>> 32);
+    }
+
+    /**
+     * @return the last timestamp of an event with the instance or one of its sub-instances
+     */
+    private long getActivity(Node node, Monitor monitor) {
+	long activity = node.getNodeRef().activity;
+	final Binding[] bindings = monitor.getUncompressedBindings();
+	for (int[] subInstanceMask : getSubInstanceMasks(node.getParameterNode())) {
+	    final Node subInstanceNode = nodeStore.getNode(bindings, subInstanceMask);
+	    if (subInstanceNode != NullNode.instance) {
+		activity = Math.max(activity, subInstanceNode.getNodeRef().activity);
+	    }
+	}
+	return activity;
+    }
+
+    private int[][] getSubInstanceMasks(ParameterNode parameterNode) {
+	int[][] masks = subInstanceMasks.get(parameterNode);
+	if (masks == null) {
+	    final int[] nodeMask = parameterNode.getNodeMask();
+	    // all non-empty proper subsets, which keep the order of the node mask
+	    masks = new int[(1 << nodeMask.length) - 2][];
+	    for (int subset = 1; subset < (1 << nodeMask.length) - 1; subset++) {
+		final int[] mask = new int[Integer.bitCount(subset)];
+		int j = 0;
+		for (int i = 0; i < nodeMask.length; i++) {
+		    if ((subset & (1 << i)) != 0) {
+			mask[j++] = nodeMask[i];
+		    }
+		}
+		masks[subset - 1] = mask;
+	    }
+	    subInstanceMasks.put(parameterNode, masks);
+	}
+	return masks;
+    }
+
+    private void evict(int index) {
+	final NodeRef nodeRef = nodeRefs[index];
+	final Node node = nodeRef.get();
+	final Monitor monitor = nodeRef.monitor;
+	remove(index);
+	addTombstone(nodeRef, monitor.getUncompressedBindings());
+	monitor.terminate();
+	// the timestamp of the monitor is kept for the time checks of derivations and joins
+	node.setMonitor(new DeadMonitor(monitor.getTimestamp()));
+	final ParametricMonitorMetrics metrics = ParametricMonitorMetrics.of(node.getParameterNode());
+	if (metrics != null) {
+	    metrics.evictedMonitor();
+	}
+    }
+
+    private void remove(int index) {
+	nodeRefs[index] = nodeRefs[--size];
+	nodeRefs[size] = null;
+    }
+
+    private void addTombstone(NodeRef nodeRef, Binding[] bindings) {
+	if (tombstonesSize == tombstones.length) {
+	    // tombstones which are still needed are kept beyond the limit
+	    final NodeRef[] newTombstones = new NodeRef[2 * tombstones.length];
+	    final Binding[][] newTombstoneBindings = new Binding[newTombstones.length][];
+	    for (int i = 0; i < tombstonesSize; i++) {
+		final int index = (tombstonesHead + i) % tombstones.length;
+		newTombstones[i] = tombstones[index];
+		newTombstoneBindings[i] = tombstoneBindings[index];
+	    }
+	    tombstones = newTombstones;
+	    tombstoneBindings = newTombstoneBindings;
+	    tombstonesHead = 0;
+	}
+	final int index = (tombstonesHead + tombstonesSize) % tombstones.length;
+	tombstones[index] = nodeRef;
+	tombstoneBindings[index] = bindings;
+	tombstonesSize++;
+    }
+
+    /**
+     * Forgets tombstones until the limit is reached. Tombstones which are still needed are moved to the end of the
+     * ring, at most two tombstones are visited per call.
+     */
+    private void forgetOldestTombstones() {
+	for (int i = 0; i < 2 && tombstonesSize > maxMonitors; i++) {
+	    final NodeRef nodeRef = tombstones[tombstonesHead];
+	    final Binding[] bindings = tombstoneBindings[tombstonesHead];
+	    tombstones[tombstonesHead] = null;
+	    tombstoneBindings[tombstonesHead] = null;
+	    tombstonesHead = (tombstonesHead + 1) % tombstones.length;
+	    tombstonesSize--;
+	    if (!forget(nodeRef, bindings)) {
+		addTombstone(nodeRef, bindings);
+	    }
+	}
+    }
+
+    /**
+     * Unlinks the node of the tombstone, if it is not needed anymore, and all nodes which were only kept for it.
+     * 
+     * @return <code>false</code> if the tombstone is still needed
+     */
+    private boolean forget(NodeRef nodeRef, Binding[] bindings) {
+	final Node node = nodeRef.get();
+	if (node == null || !(nodeRef.monitor instanceof DeadMonitor)) {
+	    // the node was already removed, because a binding expired or was released
+	    return true;
+	}
+	if (node.size() > 0 || containsAliveMonitors(node)) {
+	    return false;
+	}
+	unlink(node, bindings);
+	// the nodes holding the monitor sets the monitor was added to
+	for (UpdateChainingsArgs updateChainingsArgs : node.getParameterNode().getUpdateChainingsArgs()) {
+	    final Node chainedNode = nodeStore.getNode(bindings, updateChainingsArgs.nodeMask);
+	    if (chainedNode != NullNode.instance && isUnused(chainedNode)) {
+		unlink(chainedNode, bindings);
+	    }
+	}
+	return true;
+    }
+
+    /**
+     * Removes the node from its parent, and each ancestor which got unused by this from its own parent.
+     */
+    private void unlink(Node node, Binding[] bindings) {
+	final int[][] masks = getAncestorMasks(node.getParameterNode());
+	Node child = node;
+	for (int i = masks.length - 1; i >= 0; i--) {
+	    final Node parent = nodeStore.getNode(bindings, masks[i]);
+	    if (parent == NullNode.instance) {
+		// an ancestor was removed already
+		return;
+	    }
+	    parent.removeChild(child);
+	    if (i == 0 || !isUnused(parent)) {
+		return;
+	    }
+	    child = parent;
+	}
+    }
+
+    /**
+     * @return <code>true</code> if the node neither has a monitor, nor children, nor alive monitors in its monitor sets
+     *         and its instance was never seen, so that no time check depends on it
+     */
+    private static boolean isUnused(Node node) {
+	return node.getMonitor() == null && node.getTimestamp() == Long.MAX_VALUE && node.size() == 0
+		&& !containsAliveMonitors(node);
+    }
+
+    private static boolean containsAliveMonitors(Node node) {
+	for (MonitorSet monitorSet : node.getMonitorSets()) {
+	    if (monitorSet != null && monitorSet.containsAliveMonitors()) {
+		return true;
+	    }
+	}
+	return false;
+    }
+
+    private int[][] getAncestorMasks(ParameterNode parameterNode) {
+	int[][] masks = ancestorMasks.get(parameterNode);
+	if (masks == null) {
+	    final int[] nodeMask = parameterNode.getNodeMask();
+	    // all proper prefixes of the node mask, including the empty one of the root
+	    masks = new int[nodeMask.length][];
+	    for (int i = 0; i < nodeMask.length; i++) {
+		masks[i] = Arrays.copyOf(nodeMask, i);
+	    }
+	    ancestorMasks.put(parameterNode, masks);
+	}
+	return masks;
+    }
+
+    /**
+     * DIAGNOSTIC
+     * 
+     * @return the number of tracked monitors, including monitors which are not alive anymore but were not yet removed
+     */
+    public int getTrackedMonitorsCount() {
+	return size;
+    }
+
+    /**
+     * DIAGNOSTIC
+     * 
+     * @return the number of nodes of evicted monitors, which are kept as tombstones
+     */
+    public int getTombstonesCount() {
+	return tombstonesSize;
+    }
+
+    public int getMaxMonitors() {
+	return maxMonitors;
+    }
+
+    /**
+     * Stops tracking all monitors.
+     */
+    public void reset() {
+	Arrays.fill(nodeRefs, 0, size, null);
+	size = 0;
+	Arrays.fill(tombstones, null);
+	Arrays.fill(tombstoneBindings, null);
+	tombstonesHead = 0;
+	tombstonesSize = 0;
+	timestamp = 0L;
+    }
+
+}
@@ -11,12 +11,12 @@
 package prm4j.indexing.node;
 
 import prm4j.indexing.binding.Binding;
-import prm4j.indexing.map.NodeMapEntry;
+import prm4j.indexing.map.CompactNodeMapEntry;
 import prm4j.indexing.model.ParameterNode;
 import prm4j.indexing.monitor.Monitor;
 import prm4j.indexing.monitor.MonitorSet;
 
-public interface Node extends NodeMapEntry<Node> {
+public interface Node extends CompactNodeMapEntry {
 
     public ParameterNode getParameterNode();
 
@@ -35,6 +35,20 @@ public interface Node extends NodeMapEntry<Node> {
 
     public void remove(Binding binding);
 
+    /**
+     * Removes the given child, whose bindings may still be alive, and unregisters this node as holder of the binding of
+     * the child, if no other child has the binding.
+     * 
+     * @param child
+     */
+    public void removeChild(Node child);
+
+    /**
+     * Terminates the monitors of this node and its descendants, which can not reach an accepting state anymore. Called
+     * when the node is removed, because one of its bindings was released explicitly.
+     */
+    public void terminateDeadMonitors();
+
     /**
      * Returns a monitor set which represents a (sometimes not real) subset of instances which are more informative than
      * the instance represented by this node.
@@ -14,6 +14,7 @@ import java.lang.ref.ReferenceQueue;
 
 import prm4j.Globals;
 import prm4j.api.ParametricMonitor;
+import prm4j.indexing.monitor.ParametricMonitorMetrics;
 
 /**
  * Coordinates the garbage collection of monitors which can never reach an accepting state. Provides some diagnostics
@@ -51,6 +52,26 @@ public class NodeManager {
      */
     private long collectedMonitors;
 
+    /**
+     * The number of times the reference queue was polled.
+     */
+    private long cleaningPasses;
+
+    /**
+     * The metrics of the parametric monitor, reachable via the parameter tree.
+     */
+    private ParametricMonitorMetrics metrics;
+
+    /**
+     * Bounds the number of live monitors, if set.
+     */
+    private MonitorEvictor monitorEvictor;
+
+    /**
+     * Set while the bindings of an object are released explicitly.
+     */
+    private boolean explicitRelease = false;
+
     /**
      * Contains {@link NodeRef}s.
      */
@@ -71,21 +92,85 @@ public class NodeManager {
 	}
     }
 
+    /**
+     * Calls {@link #reallyClean()} once, if the cleaning interval is reached by any timestamp in the given range.
+     * 
+     * @param fromTimestamp
+     *            (inclusive)
+     * @param toTimestamp
+     *            (exclusive)
+     */
+    public void tryToClean(long fromTimestamp, long toTimestamp) {
+	long next = fromTimestamp - fromTimestamp % CLEANING_INTERVAL + CLEANING_INTERVAL_SHIFT;
+	if (next < fromTimestamp) {
+	    next += CLEANING_INTERVAL;
+	}
+	if (next < toTimestamp) {
+	    reallyClean();
+	}
+    }
+
     /**
      * Polls all expired {@link NodeRef}s and nullifies all monitors which can never reach an accepting state.
      */
     public void reallyClean() {
+	cleaningPasses++;
 	NodeRef nodeRef = (NodeRef) referenceQueue.poll();
 	while (nodeRef != null) {
-	    orphanedMonitors++;
-	    if (nodeRef.monitor != null && !nodeRef.monitor.isAlive()) {
-		nodeRef.monitor = null;
-		collectedMonitors++;
-	    }
+	    reclaim(nodeRef);
 	    nodeRef = (NodeRef) referenceQueue.poll();
 	}
     }
 
+    /**
+     * Terminates and nullifies the monitor of an expired {@link NodeRef}, if it can never reach an accepting state.
+     * 
+     * @param nodeRef
+     *            polled from the reference queue
+     */
+    public void reclaim(NodeRef nodeRef) {
+	orphanedMonitors++;
+	if (nodeRef.monitor != null && !nodeRef.monitor.isAlive()) {
+	    // monitor sets may hold the state of the monitor, see ColumnarMonitorSet
+	    nodeRef.monitor.terminate();
+	    nodeRef.monitor = null;
+	    collectedMonitors++;
+	}
+    }
+
+    /**
+     * Called each time a node got a new monitor, which is not a dead monitor.
+     * 
+     * @param node
+     */
+    public void createdMonitor(Node node) {
+	if (monitorEvictor != null) {
+	    monitorEvictor.register(node);
+	}
+    }
+
+    /**
+     * Called each time a node is removed from its parent, because one of its bindings was released. If the binding was
+     * released explicitly, the monitors of the node and its descendants which can not reach an accepting state anymore
+     * are terminated right away, since the node may not be garbage collected soon. Otherwise, they are reclaimed when
+     * the node is garbage collected.
+     * 
+     * @param node
+     */
+    public void removedNode(Node node) {
+	if (explicitRelease) {
+	    node.terminateDeadMonitors();
+	}
+    }
+
+    /**
+     * @param explicitRelease
+     *            <code>true</code> while the bindings of an object are released explicitly
+     */
+    public void setExplicitRelease(boolean explicitRelease) {
+	this.explicitRelease = explicitRelease;
+    }
+
     /**
      * DIAGNOSTIC: Called by each {@link NodeFactory} each time a node has been created.
      * 
@@ -104,6 +189,36 @@ public class NodeManager {
 	return createdNodeCount;
     }
 
+    /**
+     * DIAGNOSTIC: Returns the number of times the reference queue was polled for expired {@link NodeRef}s.
+     * 
+     * @return the number of cleaning passes
+     */
+    public long getCleaningPassesCount() {
+	return cleaningPasses;
+    }
+
+    /**
+     * DIAGNOSTIC: Returns the metrics of the parametric monitor using this node manager.
+     * 
+     * @return the metrics or <code>null</code>, if not set
+     */
+    public ParametricMonitorMetrics getMetrics() {
+	return metrics;
+    }
+
+    public void setMetrics(ParametricMonitorMetrics metrics) {
+	this.metrics = metrics;
+    }
+
+    public MonitorEvictor getMonitorEvictor() {
+	return monitorEvictor;
+    }
+
+    public void setMonitorEvictor(MonitorEvictor monitorEvictor) {
+	this.monitorEvictor = monitorEvictor;
+    }
+
     public ReferenceQueue<Node> getReferenceQueue() {
 	return referenceQueue;
     }
@@ -137,6 +252,10 @@ public class NodeManager {
 	collectedMonitors = 0L;
 	orphanedMonitors = 0L;
 	reallyClean();
+	cleaningPasses = 0L;
+	if (monitorEvictor != null) {
+	    monitorEvictor.reset();
+	}
     }
 
 }
@@ -21,6 +21,11 @@ public class NodeRef extends WeakReference<Node> implements Holder<Binding> {
 
     public Monitor monitor;
 
+    /**
+     * Last timestamp of an event with the instance of the node, only maintained if a {@link MonitorEvictor} is used.
+     */
+    public long activity;
+
     public NodeRef(Node node, ReferenceQueue<Node> refQueue) {
 	super(node, refQueue);
     }
@@ -36,16 +36,6 @@ public class NullNode implements Node {
 	return instance;
     }
 
-    @Override
-    public Node next() {
-	throw new UnsupportedOperationException();
-    }
-
-    @Override
-    public void setNext(Node nextEntry) {
-	throw new UnsupportedOperationException();
-    }
-
     @Override
     public ParameterNode getParameterNode() {
 	return null;
@@ -66,6 +56,16 @@ public class NullNode implements Node {
 	throw new UnsupportedOperationException();
     }
 
+    @Override
+    public void removeChild(Node child) {
+	throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void terminateDeadMonitors() {
+	// do nothing
+    }
+
     @Override
     public MonitorSet getMonitorSet(int monitorSetId) {
 	return EMPTY_MONITOR_SET;
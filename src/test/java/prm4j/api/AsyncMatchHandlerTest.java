@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import prm4j.AbstractTest;
+import prm4j.api.fsm.FSM;
+import prm4j.api.fsm.FSMSpec;
+import prm4j.api.fsm.FSMState;
+import prm4j.indexing.binding.Binding;
+import prm4j.indexing.concurrent.OverflowPolicy;
+
+public class AsyncMatchHandlerTest extends AbstractTest {
+
+    private AsyncMatchHandler asyncHandler;
+
+    @After
+    public void shutdown() throws InterruptedException {
+	if (asyncHandler != null) {
+	    asyncHandler.shutdown();
+	}
+    }
+
+    @Test
+    public void handleMatch_matchesAreHandledByDispatcherThreadInOrder() throws Exception {
+	final List<Object> handled = new ArrayList<Object>();
+	final List<Thread> threads = new ArrayList<Thread>();
+	asyncHandler = new AsyncMatchHandler(new MatchHandler0() {
+	    @Override
+	    public void handleMatch(Object auxiliaryData) {
+		handled.add(auxiliaryData);
+		threads.add(Thread.currentThread());
+	    }
+	}, 16, OverflowPolicy.BLOCK, true);
+
+	// exercise
+	for (int i = 0; i < 100; i++) {
+	    asyncHandler.handleAndCountMatch(new Binding[0], i);
+	}
+	asyncHandler.flush();
+
+	// verify
+	assertEquals(100, handled.size());
+	for (int i = 0; i < 100; i++) {
+	    assertEquals(i, handled.get(i));
+	    assertNotSame(Thread.currentThread(), threads.get(i));
+	}
+	assertEquals(100L, asyncHandler.getHandledMatchesCount());
+	assertEquals(100L, asyncHandler.getHandlerLatency().getCount());
+    }
+
+    @Test
+    public void handleMatch_fullBufferWithDropPolicy_matchesAreDropped() throws Exception {
+	final BlockingMatchHandler blockingHandler = new BlockingMatchHandler();
+	asyncHandler = new AsyncMatchHandler(blockingHandler, 4, OverflowPolicy.DROP, false);
+	asyncHandler.handleAndCountMatch(new Binding[0], null);
+	blockingHandler.awaitFirstMatch();
+	// the dispatcher is blocked handling the first match, so the buffer fills up
+	for (int i = 0; i < 10; i++) {
+	    asyncHandler.handleAndCountMatch(new Binding[0], null);
+	}
+	assertEquals(4, asyncHandler.getQueueDepth());
+	blockingHandler.release();
+	asyncHandler.flush();
+
+	// verify
+	assertEquals(6L, asyncHandler.getDroppedMatchesCount());
+	assertEquals(5, blockingHandler.handledMatches.get());
+	assertEquals(4, asyncHandler.getMaxQueueDepth());
+    }
+
+    @Test
+    public void handleMatch_fullBufferWithInlinePolicy_matchesAreHandledByMonitoringThreadInOrder() throws Exception {
+	final BlockingMatchHandler blockingHandler = new BlockingMatchHandler();
+	asyncHandler = new AsyncMatchHandler(blockingHandler, 4, OverflowPolicy.RUN_INLINE, false);
+	asyncHandler.handleAndCountMatch(new Binding[0], 0);
+	blockingHandler.awaitFirstMatch();
+	final Thread monitoringThread = new Thread() {
+	    @Override
+	    public void run() {
+		for (int i = 1; i < 11; i++) {
+		    asyncHandler.handleAndCountMatch(new Binding[0], i);
+		}
+	    }
+	};
+	monitoringThread.start();
+	// the inlined match waits for the matches in the buffer
+	while (asyncHandler.getInlinedMatchesCount() == 0) {
+	    Thread.yield();
+	}
+	assertEquals(0, blockingHandler.handledMatches.get());
+	blockingHandler.release();
+	monitoringThread.join();
+	asyncHandler.flush();
+
+	// verify
+	assertEquals(11, blockingHandler.handledMatches.get());
+	for (int i = 0; i < 11; i++) {
+	    assertEquals(i, blockingHandler.handledAuxiliaryData.get(i));
+	}
+    }
+
+    @Test
+    public void shutdown_enqueuedMatchesAreHandled() throws Exception {
+	final BlockingMatchHandler blockingHandler = new BlockingMatchHandler();
+	blockingHandler.release();
+	asyncHandler = new AsyncMatchHandler(blockingHandler, 1024, OverflowPolicy.BLOCK, false);
+	for (int i = 0; i < 1000; i++) {
+	    asyncHandler.handleAndCountMatch(new Binding[0], null);
+	}
+	asyncHandler.shutdown();
+	asyncHandler.handleAndCountMatch(new Binding[0], null);
+
+	// verify
+	assertEquals(1001, blockingHandler.handledMatches.get());
+	asyncHandler = null;
+    }
+
+    @Test
+    public void shutdown_racingMonitoringThreads_noMatchIsLost() throws Exception {
+	for (OverflowPolicy overflowPolicy : new OverflowPolicy[] { OverflowPolicy.BLOCK, OverflowPolicy.RUN_INLINE }) {
+	    for (int run = 0; run < 20; run++) {
+		final BlockingMatchHandler blockingHandler = new BlockingMatchHandler();
+		blockingHandler.release();
+		asyncHandler = new AsyncMatchHandler(blockingHandler, 16, overflowPolicy, false);
+		final int monitoringThreads = 4;
+		final int matchesPerThread = 2000;
+		final CountDownLatch started = new CountDownLatch(monitoringThreads);
+		final List<Thread> threads = new ArrayList<Thread>();
+		for (int t = 0; t < monitoringThreads; t++) {
+		    threads.add(new Thread() {
+			@Override
+			public void run() {
+			    started.countDown();
+			    for (int i = 0; i < matchesPerThread; i++) {
+				asyncHandler.handleAndCountMatch(new Binding[0], null);
+			    }
+			}
+		    });
+		}
+		for (Thread thread : threads) {
+		    thread.start();
+		}
+		started.await();
+		asyncHandler.shutdown();
+		for (Thread thread : threads) {
+		    thread.join();
+		}
+		asyncHandler.flush();
+
+		// verify
+		assertEquals(monitoringThreads * matchesPerThread, blockingHandler.handledMatches.get());
+		asyncHandler = null;
+	    }
+	}
+    }
+
+    @Test
+    public void parametricMonitor_matchesAreReportedAfterFlush() throws Exception {
+	final Alphabet alphabet = new Alphabet();
+	final Parameter<Object> p = alphabet.createParameter("p", Object.class);
+	final Symbol1<Object> a = alphabet.createSymbol1("a", p);
+	final Symbol1<Object> b = alphabet.createSymbol1("b", p);
+	final AtomicInteger matches = new AtomicInteger();
+	asyncHandler = new AsyncMatchHandler(new MatchHandler0() {
+	    @Override
+	    public void handleMatch(Object auxiliaryData) {
+		matches.incrementAndGet();
+	    }
+	}, 64, OverflowPolicy.BLOCK, true);
+	final FSM fsm = new FSM(alphabet);
+	final FSMState initial = fsm.createInitialState();
+	final FSMState s1 = fsm.createState();
+	final FSMState error = fsm.createAcceptingState(asyncHandler);
+	initial.addTransition(a, s1);
+	s1.addTransition(b, error);
+	final ParametricMonitor pm = ParametricMonitorFactory.createParametricMonitor(new FSMSpec(fsm));
+
+	// exercise
+	for (int i = 0; i < 1000; i++) {
+	    final Object object = new Object();
+	    pm.processEvent(a.createEvent(object));
+	    pm.processEvent(b.createEvent(object));
+	}
+	asyncHandler.flush();
+
+	// verify
+	assertEquals(1000, matches.get());
+    }
+
+    /**
+     * Counts matches and blocks the thread handling the first match until released.
+     */
+    private static class BlockingMatchHandler extends MatchHandler0 {
+
+	private final CountDownLatch firstMatch = new CountDownLatch(1);
+	private final CountDownLatch released = new CountDownLatch(1);
+	private final AtomicInteger handledMatches = new AtomicInteger();
+	private final List<Object> handledAuxiliaryData = Collections.synchronizedList(new ArrayList<Object>());
+
+	@Override
+	public void handleMatch(Object auxiliaryData) {
+	    if (firstMatch.getCount() > 0) {
+		firstMatch.countDown();
+		try {
+		    released.await();
+		} catch (InterruptedException e) {
+		    throw new RuntimeException(e);
+		}
+	    }
+	    handledMatches.incrementAndGet();
+	    handledAuxiliaryData.add(auxiliaryData);
+	}
+
+	void awaitFirstMatch() throws InterruptedException {
+	    firstMatch.await();
+	}
+
+	void release() {
+	    released.countDown();
+	}
+
+    }
+
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import prm4j.AbstractTest;
+import prm4j.api.fsm.FSM;
+import prm4j.api.fsm.FSMSpec;
+import prm4j.api.fsm.FSMState;
+import prm4j.indexing.binding.Binding;
+
+public class MatchContextTest extends AbstractTest {
+
+    private final Alphabet alphabet = new Alphabet();
+    private final Parameter<String> p1 = alphabet.createParameter("p1", String.class);
+    private final Parameter<String> p2 = alphabet.createParameter("p2", String.class);
+    private final Symbol1<String> a = alphabet.createSymbol1("a", p1);
+    private final Symbol1<String> b = alphabet.createSymbol1("b", p1);
+    private final Symbol1<String> c = alphabet.createSymbol1("c", p2);
+
+    private ParametricMonitor createParametricMonitor(MatchHandler matchHandler) {
+	final FSM fsm = new FSM(alphabet);
+	final FSMState initial = fsm.createInitialState();
+	final FSMState s1 = fsm.createState();
+	final FSMState error = fsm.createAcceptingState(matchHandler);
+	initial.addTransition(a, s1);
+	initial.addTransition(c, initial);
+	s1.addTransition(b, error);
+	return ParametricMonitorFactory.createParametricMonitor(new FSMSpec(fsm));
+    }
+
+    @Test
+    public void handleMatch_boundObjectsAreAccessibleByParameter() throws Exception {
+	final List<Object> boundObjects = new ArrayList<Object>();
+	final List<MatchContext> contexts = new ArrayList<MatchContext>();
+	final ParametricMonitor pm = createParametricMonitor(new MatchHandler() {
+	    @Override
+	    public void handleMatch(Binding[] bindings, Object auxiliaryData) {
+		throw new AssertionError("Bindings should not be uncompressed");
+	    }
+
+	    @Override
+	    public void handleMatch(MatchContext matchContext) {
+		boundObjects.add(matchContext.getBoundObject(p1));
+		assertNull(matchContext.getBoundObject(p2));
+		assertNull(matchContext.getBinding(p2));
+		contexts.add(matchContext);
+	    }
+	});
+	final String x = "x";
+	final String y = "y";
+
+	// exercise
+	pm.processEvent(a.createEvent(x));
+	pm.processEvent(b.createEvent(x));
+	pm.processEvent(a.createEvent(y));
+	pm.processEvent(b.createEvent(y));
+
+	// verify
+	assertEquals(2, boundObjects.size());
+	assertSame(x, boundObjects.get(0));
+	assertSame(y, boundObjects.get(1));
+	// the view is reused
+	assertSame(contexts.get(0), contexts.get(1));
+    }
+
+    @Test
+    public void handleMatch_reentrantMatchOfSameNode_viewIsRestored() throws Exception {
+	final List<Object> boundObjectsAfterNestedMatch = new ArrayList<Object>();
+	final List<Object> nestedBoundObjects = new ArrayList<Object>();
+	final ParametricMonitor[] pm = new ParametricMonitor[1];
+	final String x = "x";
+	final String y = "y";
+	pm[0] = createParametricMonitor(new MatchHandler() {
+	    @Override
+	    public void handleMatch(Binding[] bindings, Object auxiliaryData) {
+		throw new AssertionError("Bindings should not be uncompressed");
+	    }
+
+	    @Override
+	    public void handleMatch(MatchContext matchContext) {
+		if (matchContext.getBoundObject(p1) == x) {
+		    // the handler completes the match of another monitor of the same node
+		    pm[0].processEvent(b.createEvent(y));
+		    boundObjectsAfterNestedMatch.add(matchContext.getBoundObject(p1));
+		    boundObjectsAfterNestedMatch.add(matchContext.getAuxiliaryData());
+		} else {
+		    nestedBoundObjects.add(matchContext.getBoundObject(p1));
+		}
+	    }
+	});
+	pm[0].processEvent(a.createEvent(x));
+	pm[0].processEvent(a.createEvent(y));
+
+	// exercise
+	pm[0].processEvent(b.createEvent(x, "aux"));
+
+	// verify
+	assertEquals(1, nestedBoundObjects.size());
+	assertSame(y, nestedBoundObjects.get(0));
+	assertEquals(2, boundObjectsAfterNestedMatch.size());
+	assertSame(x, boundObjectsAfterNestedMatch.get(0));
+	assertEquals("aux", boundObjectsAfterNestedMatch.get(1));
+    }
+
+    @Test
+    public void handleMatch_matchHandler1ReceivesBoundObject() throws Exception {
+	final List<String> boundObjects = new ArrayList<String>();
+	final ParametricMonitor pm = createParametricMonitor(new MatchHandler1<String>(p1) {
+	    @Override
+	    public void handleMatch(String obj1, Object auxiliaryData) {
+		boundObjects.add(obj1);
+	    }
+	});
+	final String x = "x";
+
+	// exercise
+	pm.processEvent(a.createEvent(x));
+	pm.processEvent(b.createEvent(x));
+
+	// verify
+	assertEquals(1, boundObjects.size());
+	assertSame(x, boundObjects.get(0));
+    }
+
+    @Test
+    public void getUncompressedBindings_copiesBindings() throws Exception {
+	final List<Binding[]> bindings = new ArrayList<Binding[]>();
+	final ParametricMonitor pm = createParametricMonitor(new MatchHandler() {
+	    @Override
+	    public void handleMatch(Binding[] uncompressedBindings, Object auxiliaryData) {
+		bindings.add(uncompressedBindings);
+	    }
+	});
+	final String x = "x";
+
+	// exercise
+	pm.processEvent(a.createEvent(x));
+	pm.processEvent(b.createEvent(x));
+
+	// verify
+	assertEquals(1, bindings.size());
+	assertEquals(2, bindings.get(0).length);
+	assertSame(x, bindings.get(0)[p1.getIndex()].get());
+	assertNull(bindings.get(0)[p2.getIndex()]);
+    }
+
+}
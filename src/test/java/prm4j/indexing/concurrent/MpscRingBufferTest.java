@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+public class MpscRingBufferTest {
+
+    @Test
+    public void capacity_isRoundedUpToPowerOfTwo() throws Exception {
+	assertEquals(1, new MpscRingBuffer<Object>(1).getCapacity());
+	assertEquals(8, new MpscRingBuffer<Object>(5).getCapacity());
+	assertEquals(16, new MpscRingBuffer<Object>(16).getCapacity());
+    }
+
+    @Test
+    public void poll_emptyBuffer_returnsNull() throws Exception {
+	MpscRingBuffer<Object> buffer = new MpscRingBuffer<Object>(4);
+	assertNull(buffer.poll());
+	assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    public void poll_elementsAreReturnedInOfferOrder() throws Exception {
+	MpscRingBuffer<Integer> buffer = new MpscRingBuffer<Integer>(4);
+	buffer.offer(1);
+	buffer.offer(2);
+	buffer.offer(3);
+	// verify
+	assertEquals(3, buffer.size());
+	assertEquals(Integer.valueOf(1), buffer.poll());
+	assertEquals(Integer.valueOf(2), buffer.poll());
+	assertEquals(Integer.valueOf(3), buffer.poll());
+	assertNull(buffer.poll());
+    }
+
+    @Test
+    public void offer_fullBuffer_isRejectedUntilElementIsPolled() throws Exception {
+	MpscRingBuffer<Integer> buffer = new MpscRingBuffer<Integer>(2);
+	assertTrue(buffer.offer(1));
+	assertTrue(buffer.offer(2));
+	assertFalse(buffer.offer(3));
+	buffer.poll();
+	assertTrue(buffer.offer(3));
+	// verify
+	assertEquals(Integer.valueOf(2), buffer.poll());
+	assertEquals(Integer.valueOf(3), buffer.poll());
+    }
+
+    @Test
+    public void drain_movesAtMostLimitElements() throws Exception {
+	MpscRingBuffer<Integer> buffer = new MpscRingBuffer<Integer>(8);
+	for (int i = 0; i < 5; i++) {
+	    buffer.offer(i);
+	}
+	Integer[] target = new Integer[8];
+	// verify
+	assertEquals(3, buffer.drain(target, 3));
+	assertEquals(Integer.valueOf(2), target[2]);
+	assertEquals(2, buffer.drain(target, 8));
+	assertEquals(Integer.valueOf(4), target[1]);
+	assertEquals(5, buffer.getConsumerIndex());
+    }
+
+    @Test
+    public void offer_multipleProducers_everyElementIsConsumedOnceAndInProducerOrder() throws Exception {
+	final int producers = 4;
+	final int elementsPerProducer = 100000;
+	final MpscRingBuffer<int[]> buffer = new MpscRingBuffer<int[]>(64);
+	final CountDownLatch start = new CountDownLatch(1);
+	for (int p = 0; p < producers; p++) {
+	    final int producer = p;
+	    new Thread() {
+		@Override
+		public void run() {
+		    try {
+			start.await();
+		    } catch (InterruptedException e) {
+			return;
+		    }
+		    for (int i = 0; i < elementsPerProducer; i++) {
+			final int[] element = new int[] { producer, i };
+			while (!buffer.offer(element)) {
+			    Thread.yield();
+			}
+		    }
+		}
+	    }.start();
+	}
+	start.countDown();
+	final int[] nextExpected = new int[producers];
+	int consumed = 0;
+	while (consumed < producers * elementsPerProducer) {
+	    final int[] element = buffer.poll();
+	    if (element != null) {
+		assertEquals(nextExpected[element[0]]++, element[1]);
+		consumed++;
+	    }
+	}
+	// verify
+	assertNull(buffer.poll());
+	for (int p = 0; p < producers; p++) {
+	    assertEquals(elementsPerProducer, nextExpected[p]);
+	}
+    }
+
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import prm4j.indexing.binding.ArrayBasedBinding;
+import prm4j.indexing.binding.Binding;
+
+public class CompactNodeMapTest {
+
+    private final static Binding b0 = new ArrayBasedBinding(null, 0, null, 2);
+    private final static Binding b1 = new ArrayBasedBinding(null, 1, null, 2);
+    private final static Binding b2 = new ArrayBasedBinding(null, 2, null, 2);
+    private final static Binding b3 = new ArrayBasedBinding(null, 3, null, 2);
+    private final static Binding b8 = new ArrayBasedBinding(null, 8, null, 2);
+    private final static Binding b16 = new ArrayBasedBinding(null, 16, null, 2);
+
+    @Test
+    public void getOrCreate_twoEntriesAreStoredInline() throws Exception {
+	MockMap map = new MockMap();
+	MockEntry x = map.getOrCreate(0, b0);
+	MockEntry y = map.getOrCreate(1, b1);
+	// verify
+	assertEquals(2, map.size());
+	assertNull(map.table);
+	assertSame(x, map.getOrCreate(0, b0));
+	assertSame(y, map.getOrCreate(1, b1));
+    }
+
+    @Test
+    public void getOrCreate_thirdEntryCreatesTable() throws Exception {
+	MockMap map = new MockMap();
+	MockEntry x = map.getOrCreate(0, b0);
+	MockEntry y = map.getOrCreate(1, b1);
+	MockEntry z = map.getOrCreate(2, b2);
+	// verify
+	assertEquals(3, map.size());
+	assertNotNull(map.table);
+	assertEquals(8, map.table.length);
+	assertNull(map.first);
+	assertNull(map.second);
+	assertSame(x, map.get(0, b0));
+	assertSame(y, map.get(1, b1));
+	assertSame(z, map.get(2, b2));
+    }
+
+    @Test
+    public void getOrCreate_parameterIndexIsPartOfTheKey() throws Exception {
+	MockMap map = new MockMap();
+	MockEntry x = map.getOrCreate(0, b0);
+	MockEntry y = map.getOrCreate(1, b0);
+	// verify
+	assertNotSame(x, y);
+	assertEquals(2, map.size());
+	assertNull(map.get(2, b0));
+    }
+
+    @Test
+    public void containsKey_ignoresParameterIndex() throws Exception {
+	MockMap map = new MockMap();
+	map.getOrCreate(1, b0);
+	map.getOrCreate(0, b8);
+	// verify inline
+	assertTrue(map.containsKey(b0));
+	assertFalse(map.containsKey(b1));
+	// verify table
+	map.getOrCreate(2, b16);
+	assertTrue(map.containsKey(b8));
+	assertTrue(map.containsKey(b16));
+	assertFalse(map.containsKey(b1));
+    }
+
+    @Test
+    public void remove_inline_removesAllEntriesWithBinding() throws Exception {
+	MockMap map = new MockMap();
+	map.getOrCreate(0, b0);
+	map.getOrCreate(1, b0);
+	map.remove(b0);
+	// verify
+	assertEquals(0, map.size());
+	assertNull(map.get(0, b0));
+	assertNull(map.get(1, b0));
+    }
+
+    @Test
+    public void remove_inline_firstEntryIsReplacedBySecond() throws Exception {
+	MockMap map = new MockMap();
+	map.getOrCreate(0, b0);
+	MockEntry y = map.getOrCreate(1, b1);
+	map.remove(b0);
+	// verify
+	assertEquals(1, map.size());
+	assertSame(y, map.first);
+	assertNull(map.second);
+	assertSame(y, map.get(1, b1));
+    }
+
+    @Test
+    public void remove_table_removesAllEntriesWithBindingAndKeepsCollidingEntries() throws Exception {
+	MockMap map = new MockMap();
+	// b0, b8 and b16 share the same home slot
+	MockEntry x = map.getOrCreate(0, b8);
+	map.getOrCreate(0, b0);
+	MockEntry y = map.getOrCreate(0, b16);
+	map.getOrCreate(1, b0);
+	MockEntry z = map.getOrCreate(1, b1);
+	map.remove(b0);
+	// verify
+	assertEquals(3, map.size());
+	assertNull(map.get(0, b0));
+	assertNull(map.get(1, b0));
+	assertSame(x, map.get(0, b8));
+	assertSame(y, map.get(0, b16));
+	assertSame(z, map.get(1, b1));
+    }
+
+    @Test
+    public void remove_table_removingAllEntriesReleasesTable() throws Exception {
+	MockMap map = new MockMap();
+	map.getOrCreate(0, b0);
+	map.getOrCreate(0, b1);
+	map.getOrCreate(0, b2);
+	map.remove(b0);
+	map.remove(b1);
+	map.remove(b2);
+	// verify
+	assertEquals(0, map.size());
+	assertNull(map.table);
+	map.getOrCreate(0, b3);
+	assertEquals(1, map.size());
+    }
+
+    @Test
+    public void removeEntry_table_keepsCollidingEntries() throws Exception {
+	MockMap map = new MockMap();
+	MockEntry x = map.getOrCreate(0, b0);
+	MockEntry y = map.getOrCreate(0, b8);
+	MockEntry z = map.getOrCreate(0, b16);
+	// verify
+	assertTrue(map.removeEntry(x));
+	assertEquals(2, map.size());
+	assertSame(y, map.get(0, b8));
+	assertSame(z, map.get(0, b16));
+	assertTrue(!map.removeEntry(x));
+    }
+
+    @Test
+    public void ensureCapacity_resizeKeepsEntries() throws Exception {
+	MockMap map = new MockMap();
+	List<MockEntry> entries = new ArrayList<MockEntry>();
+	List<Binding> bindings = new ArrayList<Binding>();
+	for (int i = 0; i < 20; i++) {
+	    Binding binding = new ArrayBasedBinding(null, i, null, 2);
+	    bindings.add(binding);
+	    entries.add(map.getOrCreate(1, binding));
+	}
+	// verify
+	assertEquals(20, map.size());
+	assertEquals(64, map.table.length);
+	for (int i = 0; i < 20; i++) {
+	    assertSame(entries.get(i), map.get(1, bindings.get(i)));
+	}
+    }
+
+    @Test
+    public void randomOperations_behaveLikeHashMap() throws Exception {
+	final Random random = new Random(42L);
+	final Binding[] bindings = new Binding[32];
+	for (int i = 0; i < bindings.length; i++) {
+	    // provoke collisions by reusing few hash codes
+	    bindings[i] = new ArrayBasedBinding(null, random.nextInt(8) * 8 + random.nextInt(2), null, 2);
+	}
+	final MockMap map = new MockMap();
+	final Map<List<Object>, MockEntry> expected = new HashMap<List<Object>, MockEntry>();
+	for (int i = 0; i < 10000; i++) {
+	    final Binding binding = bindings[random.nextInt(bindings.length)];
+	    final int parameterIndex = random.nextInt(3);
+	    final List<Object> key = key(parameterIndex, binding);
+	    switch (random.nextInt(4)) {
+	    case 0:
+	    case 1:
+		final MockEntry entry = map.getOrCreate(parameterIndex, binding);
+		if (expected.containsKey(key)) {
+		    assertSame(expected.get(key), entry);
+		} else {
+		    expected.put(key, entry);
+		}
+		break;
+	    case 2:
+		map.remove(binding);
+		for (int j = 0; j < 3; j++) {
+		    expected.remove(key(j, binding));
+		}
+		break;
+	    default:
+		final MockEntry toRemove = expected.remove(key);
+		if (toRemove != null) {
+		    assertTrue(map.removeEntry(toRemove));
+		}
+	    }
+	    assertEquals(expected.size(), map.size());
+	}
+	for (Binding binding : bindings) {
+	    for (int j = 0; j < 3; j++) {
+		assertSame(expected.get(key(j, binding)), map.get(j, binding));
+	    }
+	}
+    }
+
+    private static List<Object> key(int parameterIndex, Binding binding) {
+	final List<Object> key = new ArrayList<Object>();
+	key.add(parameterIndex);
+	key.add(binding);
+	return key;
+    }
+
+    static class MockMap extends CompactNodeMap<MockEntry> {
+
+	@Override
+	protected MockEntry[] createTable(int size) {
+	    return new MockEntry[size];
+	}
+
+	@Override
+	protected MockEntry createEntry(int parameterIndex, Binding binding) {
+	    return new MockEntry(parameterIndex, binding);
+	}
+
+    }
+
+    static class MockEntry implements CompactNodeMapEntry {
+
+	private final Binding binding;
+	private final int parameterIndex;
+
+	public MockEntry(int parameterIndex, Binding binding) {
+	    this.parameterIndex = parameterIndex;
+	    this.binding = binding;
+	}
+
+	@Override
+	public Binding getKey() {
+	    return binding;
+	}
+
+	@Override
+	public int parameterIndex() {
+	    return parameterIndex;
+	}
+
+    }
+
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import prm4j.indexing.map.MinimalMapTest.MockEntry;
+
+public class OpenAddressingMapTest {
+
+    @Test
+    public void getOrCreate_createEntryAndRetrieveEntry() throws Exception {
+	OpenAddressingMap<Object, MockEntry> map = new MockMap();
+	String a = "a";
+	MockEntry x = map.getOrCreate(a);
+	MockEntry y = map.getOrCreate(a);
+	assertEquals(1, map.size());
+	assertSame(x, y);
+	assertSame(x, map.get(a));
+    }
+
+    @Test
+    public void remove_getOrCreate_collision() throws Exception {
+	OpenAddressingMap<Object, MockEntry> map = new MockMap();
+	String a = "a";
+	String b = "b";
+	map.getOrCreate(b, 0);
+	MockEntry aEntry = map.getOrCreate(a, 0);
+	assertEquals(2, map.size());
+	map.remove(b, 0);
+	assertEquals(1, map.size());
+	// a has been shifted back into the home slot
+	assertSame(aEntry, map.table[0]);
+	assertSame(aEntry, map.getOrCreate(a, 0));
+    }
+
+    @Test
+    public void removeEntry_collisionsWrapAroundTableEnd_entriesStayReachable() throws Exception {
+	OpenAddressingMap<Object, MockEntry> map = new MockMap();
+	assertEquals(8, map.table.length);
+	MockEntry e1 = map.getOrCreate("1", 6);
+	MockEntry e2 = map.getOrCreate("2", 6);
+	MockEntry e3 = map.getOrCreate("3", 7);
+	assertSame(e3, map.table[0]);
+
+	// exercise
+	assertTrue(map.removeEntry(e1));
+
+	// verify
+	assertSame(e2, map.table[6]);
+	assertSame(e3, map.table[7]);
+	assertNull(map.table[0]);
+	assertSame(e2, map.get("2", 6));
+	assertSame(e3, map.get("3", 7));
+	assertFalse(map.removeEntry(e1));
+	assertNotSame(e1, map.getOrCreate("1", 6));
+    }
+
+    @Test
+    public void removeEntry_entryInHomeSlotIsNotShifted() throws Exception {
+	OpenAddressingMap<Object, MockEntry> map = new MockMap();
+	MockEntry e1 = map.getOrCreate("1", 1);
+	MockEntry e2 = map.getOrCreate("2", 2);
+
+	// exercise
+	map.removeEntry(e1);
+
+	// verify
+	assertNull(map.table[1]);
+	assertSame(e2, map.table[2]);
+    }
+
+    @Test
+    public void ensureCapacity_resizeAtHalfLoadKeepsEntries() throws Exception {
+	OpenAddressingMap<Object, MockEntry> map = new MockMap();
+	List<MockEntry> entries = new ArrayList<MockEntry>();
+	for (int i = 0; i < 3; i++) {
+	    entries.add(map.getOrCreate(i));
+	}
+	assertEquals(8, map.table.length);
+	entries.add(map.getOrCreate(3));
+	assertEquals(16, map.table.length);
+	for (int i = 0; i < 4; i++) {
+	    assertSame(entries.get(i), map.get(i));
+	}
+    }
+
+    @Test
+    public void randomOperations_sameContentAsIdentityHashMap() throws Exception {
+	OpenAddressingMap<Object, MockEntry> map = new MockMap();
+	Map<Object, MockEntry> expected = new IdentityHashMap<Object, MockEntry>();
+	Random random = new Random(42L);
+	Object[] keys = new Object[500];
+	for (int i = 0; i < keys.length; i++) {
+	    keys[i] = new Object();
+	}
+	for (int i = 0; i < 100000; i++) {
+	    Object key = keys[random.nextInt(keys.length)];
+	    // few distinct hash codes provoke long probe sequences
+	    int hashCode = random.nextBoolean() ? map.hashCode(key) : System.identityHashCode(key) % 7;
+	    if (random.nextInt(3) == 0) {
+		MockEntry entry = expected.remove(key);
+		if (entry != null) {
+		    assertTrue(map.removeEntry(entry));
+		}
+	    } else if (!expected.containsKey(key)) {
+		expected.put(key, map.getOrCreate(key, hashCode));
+	    }
+	    assertEquals(expected.size(), map.size());
+	}
+	for (Map.Entry<Object, MockEntry> entry : expected.entrySet()) {
+	    assertSame(entry.getValue(), map.get(entry.getKey(), entry.getValue().hashCode()));
+	}
+    }
+
+    static class MockMap extends OpenAddressingMap<Object, MockEntry> {
+
+	@Override
+	protected MockEntry[] createTable(int size) {
+	    return new MockEntry[size];
+	}
+
+	@Override
+	protected MockEntry createEntry(Object key, int hashCode) {
+	    return new MockEntry(key, hashCode);
+	}
+
+    }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.model;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import prm4j.AbstractTest;
+import prm4j.api.Alphabet;
+import prm4j.api.BaseEvent;
+import prm4j.api.Parameter;
+import prm4j.api.Symbol1;
+import prm4j.api.Symbol2;
+import prm4j.api.fsm.FSM;
+import prm4j.api.fsm.FSMSpec;
+import prm4j.api.fsm.FSMState;
+import prm4j.indexing.realtime.AwareMatchHandler;
+import prm4j.indexing.realtime.AwareMatchHandler.AwareMatchHandler0;
+import prm4j.spec.finite.FiniteParametricProperty;
+
+public class EventContextTest extends AbstractTest {
+
+    public static class FSM_a_loop_ab {
+
+	public final Alphabet alphabet = new Alphabet();
+
+	public final Parameter<String> p1 = alphabet.createParameter("p1", String.class);
+	public final Parameter<String> p2 = alphabet.createParameter("p2", String.class);
+
+	public final Symbol1<String> e1 = alphabet.createSymbol1("e1", p1);
+	public final Symbol1<String> loop = alphabet.createSymbol1("loop", p1);
+	public final Symbol2<String, String> e2 = alphabet.createSymbol2("e2", p1, p2);
+
+	public final AwareMatchHandler0 matchHandler = AwareMatchHandler.create();
+
+	public final FSM fsm = new FSM(alphabet);
+
+	public final FSMState initial = fsm.createInitialState();
+	public final FSMState s1 = fsm.createState();
+	public final FSMState error = fsm.createAcceptingState(matchHandler);
+
+	public FSM_a_loop_ab() {
+	    initial.addTransition(e1, s1);
+	    initial.addTransition(loop, initial);
+	    s1.addTransition(loop, s1);
+	    s1.addTransition(e2, error);
+	}
+    }
+
+    private static EventContext createEventContext(FSM fsm) {
+	return new ParametricPropertyProcessor(new FiniteParametricProperty(new FSMSpec(fsm))).getEventContext();
+    }
+
+    @Test
+    public void isSelfLoopEvent_loopInEveryNonFinalState() throws Exception {
+	FSM_a_loop_ab fsm = new FSM_a_loop_ab();
+	EventContext eventContext = createEventContext(fsm.fsm);
+	// verify
+	assertTrue(eventContext.isSelfLoopEvent(fsm.loop));
+	assertFalse(eventContext.isSelfLoopEvent(fsm.e1));
+	assertFalse(eventContext.isSelfLoopEvent(fsm.e2));
+    }
+
+    @Test
+    public void isIneffectiveEvent_loopCanNotCreateOrDisableMonitors() throws Exception {
+	FSM_a_loop_ab fsm = new FSM_a_loop_ab();
+	EventContext eventContext = createEventContext(fsm.fsm);
+	// verify
+	assertTrue(eventContext.isIneffectiveEvent(fsm.loop));
+	assertFalse(eventContext.isIneffectiveEvent(fsm.e1));
+	assertFalse(eventContext.isIneffectiveEvent(fsm.e2));
+    }
+
+    @Test
+    public void isSelfLoopEvent_SafeMapIterator_noSelfLoopEvents() throws Exception {
+	FSM_SafeMapIterator fsm = new FSM_SafeMapIterator();
+	EventContext eventContext = createEventContext(fsm.fsm);
+	// verify
+	for (BaseEvent baseEvent : fsm.alphabet.getSymbols()) {
+	    assertFalse(eventContext.isSelfLoopEvent(baseEvent));
+	    assertFalse(eventContext.isIneffectiveEvent(baseEvent));
+	}
+    }
+
+    @Test
+    public void isSelfLoopEvent_loopWithMatchHandlerIsNoSelfLoopEvent() throws Exception {
+	FSM_a_loop_ab fsm = new FSM_a_loop_ab();
+	fsm.error.addTransition(fsm.loop, fsm.error);
+	EventContext eventContext = createEventContext(fsm.fsm);
+	// verify
+	assertFalse(eventContext.isSelfLoopEvent(fsm.loop));
+    }
+
+    @Test
+    public void isIdempotentEvent_HasNext_onlyHasNextIsIdempotent() throws Exception {
+	FSM_HasNext fsm = new FSM_HasNext();
+	EventContext eventContext = createEventContext(fsm.fsm);
+	// verify
+	assertTrue(eventContext.isIdempotentEvent(fsm.hasNext));
+	assertFalse(eventContext.isIdempotentEvent(fsm.next));
+    }
+
+    @Test
+    public void isIdempotentEvent_transitionIntoFinalStateIsIdempotent() throws Exception {
+	FSM_a_loop_ab fsm = new FSM_a_loop_ab();
+	EventContext eventContext = createEventContext(fsm.fsm);
+	// verify
+	assertTrue(eventContext.isIdempotentEvent(fsm.loop));
+	assertTrue(eventContext.isIdempotentEvent(fsm.e2));
+	assertFalse(eventContext.isIdempotentEvent(fsm.e1));
+    }
+
+}
@@ -46,6 +46,27 @@ public class ParametricPropertyModelTest extends AbstractTest {
 
     }
 
+    @Test
+    public void getPartitionParameters_HasNext() {
+	FSM_HasNext fsm = new FSM_HasNext();
+	ParametricPropertyModel ppm = new ParametricPropertyModel(new FiniteParametricProperty(new FSMSpec(fsm.fsm)));
+	assertEquals(asSet(fsm.i), ppm.getPartitionParameters());
+    }
+
+    @Test
+    public void getPartitionParameters_SafeMapIterator() {
+	FSM_SafeMapIterator fsm = new FSM_SafeMapIterator();
+	ParametricPropertyModel ppm = new ParametricPropertyModel(new FiniteParametricProperty(new FSMSpec(fsm.fsm)));
+	assertEquals(asSet(fsm.m, fsm.c), ppm.getPartitionParameters());
+    }
+
+    @Test
+    public void getPartitionParameters_ab_bc_c_noPartitionParameter() {
+	FSM_ab_bc_c fsm = new FSM_ab_bc_c();
+	ParametricPropertyModel ppm = new ParametricPropertyModel(new FiniteParametricProperty(new FSMSpec(fsm.fsm)));
+	assertEquals(EMPTY_PARAMETER_SET, ppm.getPartitionParameters());
+    }
+
     @Test
     public void calculateDisableParameterMasks1() {
 
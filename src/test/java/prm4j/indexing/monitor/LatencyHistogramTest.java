@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.monitor;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void record_countTotalAndMaxAreUpdated() throws Exception {
+	LatencyHistogram histogram = new LatencyHistogram();
+	histogram.record(10L);
+	histogram.record(30L);
+	// verify
+	assertEquals(2L, histogram.getCount());
+	assertEquals(40L, histogram.getTotalNanos());
+	assertEquals(30L, histogram.getMaxNanos());
+	assertEquals(20.0, histogram.getMeanNanos(), 0.0);
+    }
+
+    @Test
+    public void getPercentileNanos_returnsUpperBoundOfBucket() throws Exception {
+	LatencyHistogram histogram = new LatencyHistogram();
+	for (int i = 0; i < 99; i++) {
+	    histogram.record(100L); // bucket [64, 127]
+	}
+	histogram.record(1000L); // bucket [512, 1023]
+	// verify
+	assertEquals(127L, histogram.getPercentileNanos(50.0));
+	assertEquals(127L, histogram.getPercentileNanos(99.0));
+	assertEquals(1000L, histogram.getPercentileNanos(100.0));
+    }
+
+    @Test
+    public void getPercentileNanos_emptyHistogramReturnsZero() throws Exception {
+	assertEquals(0L, new LatencyHistogram().getPercentileNanos(99.0));
+    }
+
+    @Test
+    public void record_zeroAndNegativeLatenciesAreRecordedAsZero() throws Exception {
+	LatencyHistogram histogram = new LatencyHistogram();
+	histogram.record(0L);
+	histogram.record(-5L);
+	// verify
+	assertEquals(2L, histogram.getCount());
+	assertEquals(0L, histogram.getPercentileNanos(100.0));
+    }
+
+    @Test
+    public void add_mergesHistograms() throws Exception {
+	LatencyHistogram a = new LatencyHistogram();
+	LatencyHistogram b = new LatencyHistogram();
+	a.record(1L);
+	b.record(5000L);
+	a.add(b);
+	// verify
+	assertEquals(2L, a.getCount());
+	assertEquals(5000L, a.getMaxNanos());
+	assertEquals(1L, a.getPercentileNanos(50.0));
+    }
+
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.monitor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import prm4j.api.fsm.FSMSpec;
+import prm4j.indexing.realtime.DefaultParametricMonitor_a_ab_Test.FSM_a_ab;
+
+public class TransitionTableTest {
+
+    @Test
+    public void transitionTable_sameTransitionsAsFSM() throws Exception {
+	FSM_a_ab fsm = new FSM_a_ab();
+	TransitionTable table = new TransitionTable(new FSMSpec(fsm.fsm));
+	final int initial = fsm.initial.getIndex();
+	final int s1 = fsm.s1.getIndex();
+	final int error = fsm.error.getIndex();
+	// verify
+	assertEquals(initial, table.getInitialState());
+	assertEquals(3, table.getStateCount());
+	assertEquals(2, table.getAlphabetSize());
+	assertEquals(s1, table.getSuccessor(initial, fsm.e1.getIndex()));
+	assertEquals(TransitionTable.DEAD_STATE, table.getSuccessor(initial, fsm.e2.getIndex()));
+	assertEquals(error, table.getSuccessor(s1, fsm.e2.getIndex()));
+	assertEquals(TransitionTable.DEAD_STATE, table.getSuccessor(error, fsm.e1.getIndex()));
+    }
+
+    @Test
+    public void transitionTable_acceptingAndFinalStates() throws Exception {
+	FSM_a_ab fsm = new FSM_a_ab();
+	TransitionTable table = new TransitionTable(new FSMSpec(fsm.fsm));
+	// verify
+	assertFalse(table.isAccepting(fsm.initial.getIndex()));
+	assertFalse(table.isFinal(fsm.initial.getIndex()));
+	assertTrue(table.isAccepting(fsm.error.getIndex()));
+	assertTrue(table.isFinal(fsm.error.getIndex()));
+	assertNull(table.getMatchHandler(fsm.s1.getIndex()));
+	assertSame(fsm.matchHandler, table.getMatchHandler(fsm.error.getIndex()));
+    }
+
+    @Test
+    public void getQuietSuccessors_onlyTransitionsWithoutMatchOrTermination() throws Exception {
+	FSM_a_ab fsm = new FSM_a_ab();
+	TransitionTable table = new TransitionTable(new FSMSpec(fsm.fsm));
+	final int[] e1 = table.getQuietSuccessors(fsm.e1.getIndex());
+	final int[] e2 = table.getQuietSuccessors(fsm.e2.getIndex());
+	// verify
+	assertEquals(TransitionTable.NOT_QUIET, e1[TransitionTable.DEAD_STATE + 1]);
+	assertEquals(fsm.s1.getIndex(), e1[fsm.initial.getIndex() + 1]);
+	assertEquals(TransitionTable.NOT_QUIET, e1[fsm.s1.getIndex() + 1]);
+	assertEquals(TransitionTable.NOT_QUIET, e2[fsm.initial.getIndex() + 1]);
+	assertEquals(TransitionTable.NOT_QUIET, e2[fsm.s1.getIndex() + 1]);
+    }
+
+}
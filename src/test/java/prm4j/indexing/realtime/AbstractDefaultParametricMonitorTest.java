@@ -29,8 +29,6 @@ import prm4j.indexing.binding.Binding;
 import prm4j.indexing.binding.BindingStore;
 import prm4j.indexing.model.ParametricPropertyModel;
 import prm4j.indexing.model.ParametricPropertyProcessor;
-import prm4j.indexing.monitor.AbstractMonitor;
-import prm4j.indexing.monitor.DeadMonitor;
 import prm4j.indexing.monitor.Monitor;
 import prm4j.indexing.monitor.MonitorSet;
 import prm4j.indexing.node.Node;
@@ -247,8 +245,6 @@ public class AbstractDefaultParametricMonitorTest extends AbstractTest {
 	prototypeMonitor = null;
 	pm = null;
 	monitor = null;
-	AbstractMonitor.reset();
-	DeadMonitor.reset();
     }
 
 }
@@ -24,8 +24,6 @@ import prm4j.indexing.DefaultParametricMonitor;
 import prm4j.indexing.binding.ArrayBasedBindingFactory;
 import prm4j.indexing.binding.DefaultBindingStore;
 import prm4j.indexing.model.ParametricPropertyProcessor;
-import prm4j.indexing.monitor.AbstractMonitor;
-import prm4j.indexing.monitor.DeadMonitor;
 import prm4j.indexing.monitor.Monitor;
 import prm4j.indexing.monitor.MonitorSet;
 import prm4j.indexing.monitor.StatefulMonitor;
@@ -124,8 +122,6 @@ public class AbstractParametricMonitorTest extends AbstractTest {
 	nodeStore = null;
 	prototypeMonitor = null;
 	pm = null;
-	AbstractMonitor.reset();
-	DeadMonitor.reset();
     }
 
 }
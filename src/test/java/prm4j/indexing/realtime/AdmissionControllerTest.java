@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.realtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import prm4j.api.ParametricMonitorFactory;
+import prm4j.api.fsm.FSMSpec;
+import prm4j.indexing.AdmissionController;
+import prm4j.indexing.DefaultParametricMonitor;
+import prm4j.indexing.realtime.SamplingParametricMonitorTest.RecordingSafeMapIterator;
+
+public class AdmissionControllerTest extends AbstractParametricMonitorTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void create_zeroBudget_isRejected() throws Exception {
+	new AdmissionController(0.0);
+    }
+
+    @Test
+    public void processEvent_budgetNotExceeded_allInstancesAreAdmitted() throws Exception {
+	final RecordingSafeMapIterator fsm = new RecordingSafeMapIterator();
+	final DefaultParametricMonitor pm = createParametricMonitor(fsm);
+	final AdmissionController controller = new AdmissionController(1.0, 0L, 0L, 0L);
+	pm.setAdmissionController(controller);
+
+	// exercise
+	final List<Object> maps = violateSafeMapIterator(fsm, pm, 50);
+
+	// verify
+	assertEquals(maps, fsm.matchedMaps);
+	assertEquals(50L, controller.getAdmittedInstancesCount());
+	assertEquals(0L, controller.getRejectedInstancesCount());
+	assertEquals(1.0, controller.getAdmissionRate(), 0.0);
+    }
+
+    @Test
+    public void processEvent_limitExceeded_newInstancesAreRejected() throws Exception {
+	final RecordingSafeMapIterator fsm = new RecordingSafeMapIterator();
+	final DefaultParametricMonitor pm = createParametricMonitor(fsm);
+	// each event closes a window, the first creation event exceeds the limit of stored bindings
+	final AdmissionController controller = new AdmissionController(1.0, 0L, 0L, 1L);
+	pm.setAdmissionController(controller);
+
+	// exercise
+	violateSafeMapIterator(fsm, pm, 50);
+
+	// verify
+	assertTrue(controller.getAdmissionRate() < 0.001);
+	assertTrue("" + fsm.matchedMaps.size(), fsm.matchedMaps.size() < 20);
+	assertTrue(controller.getRejectedInstancesCount() > 30L);
+	assertEquals(controller.getRejectedInstancesCount(), pm.getMetrics().getCreatedDeadMonitorsCount());
+    }
+
+    @Test
+    public void processEvent_limitExceeded_monitoredInstancesAreNotAffected() throws Exception {
+	final RecordingSafeMapIterator fsm = new RecordingSafeMapIterator();
+	final DefaultParametricMonitor pm = createParametricMonitor(fsm);
+	pm.setAdmissionController(new AdmissionController(1.0, 0L, 0L, 1L));
+	final BoundObject map = new BoundObject();
+	final BoundObject collection = new BoundObject();
+	final BoundObject iterator = new BoundObject();
+
+	// exercise
+	pm.processEvent(fsm.createColl.createEvent(map, collection));
+	pm.processEvent(fsm.createIter.createEvent(collection, iterator));
+	violateSafeMapIterator(fsm, pm, 50);
+	fsm.matchedMaps.clear();
+	pm.processEvent(fsm.updateMap.createEvent(map));
+	pm.processEvent(fsm.useIter.createEvent(iterator));
+
+	// verify
+	assertEquals(1, fsm.matchedMaps.size());
+	assertTrue(fsm.matchedMaps.contains(map));
+    }
+
+    private static DefaultParametricMonitor createParametricMonitor(RecordingSafeMapIterator fsm) {
+	return (DefaultParametricMonitor) ParametricMonitorFactory.createParametricMonitor(new FSMSpec(fsm.fsm));
+    }
+
+    /**
+     * Creates the given number of families of a map, a collection and an iterator, each violating the property.
+     */
+    private List<Object> violateSafeMapIterator(RecordingSafeMapIterator fsm, DefaultParametricMonitor pm,
+	    int count) {
+	final List<Object> maps = new ArrayList<Object>();
+	for (int j = 0; j < count; j++) {
+	    final BoundObject map = new BoundObject();
+	    final BoundObject collection = new BoundObject();
+	    final BoundObject iterator = new BoundObject();
+	    pm.processEvent(fsm.createColl.createEvent(map, collection));
+	    pm.processEvent(fsm.createIter.createEvent(collection, iterator));
+	    pm.processEvent(fsm.updateMap.createEvent(map));
+	    pm.processEvent(fsm.useIter.createEvent(iterator));
+	    maps.add(map);
+	}
+	return maps;
+    }
+
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.realtime;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import prm4j.api.AbstractParametricMonitor;
+import prm4j.api.Event;
+import prm4j.api.ParametricMonitor;
+import prm4j.api.fsm.FSMSpec;
+import prm4j.indexing.AsyncParametricMonitor;
+import prm4j.indexing.concurrent.OverflowPolicy;
+
+public class AsyncParametricMonitorTest extends AbstractParametricMonitorTest {
+
+    private AsyncParametricMonitor asyncPm;
+
+    @After
+    public void shutdown() throws InterruptedException {
+	if (asyncPm != null) {
+	    asyncPm.shutdown();
+	}
+    }
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    public void processEvent_multipleProducers_allMatchesAreReported() throws Exception {
+	final FSM_HasNext fsm = new FSM_HasNext();
+	createDefaultParametricMonitor(new FSMSpec(fsm.fsm));
+	asyncPm = new AsyncParametricMonitor(pm, 128, OverflowPolicy.BLOCK);
+	final int producers = 4;
+	final int iteratorsPerProducer = 1000;
+	final CountDownLatch done = new CountDownLatch(producers);
+	for (int p = 0; p < producers; p++) {
+	    final List<Iterator> producerIterators = new ArrayList<Iterator>();
+	    for (int i = 0; i < iteratorsPerProducer; i++) {
+		producerIterators.add(new ArrayList<Object>().iterator());
+	    }
+	    new Thread() {
+		@Override
+		public void run() {
+		    for (Iterator iterator : producerIterators) {
+			asyncPm.processEvent(fsm.hasNext.createEvent(iterator));
+			asyncPm.processEvent(fsm.next.createEvent(iterator));
+			// next without hasNext
+			asyncPm.processEvent(fsm.next.createEvent(iterator));
+		    }
+		    done.countDown();
+		}
+	    }.start();
+	}
+	done.await();
+	asyncPm.flush();
+	// verify
+	assertEquals(producers * iteratorsPerProducer, fsm.matchHandler.getHandledMatches().size());
+	assertEquals(producers * iteratorsPerProducer * 3, asyncPm.getProcessedEventsCount());
+    }
+
+    @Test
+    public void processEvent_fullBufferWithDropPolicy_eventsAreDropped() throws Exception {
+	final BlockingParametricMonitor blockingPm = new BlockingParametricMonitor();
+	asyncPm = new AsyncParametricMonitor(blockingPm, 4, 1, OverflowPolicy.DROP);
+	asyncPm.processEvent(createEvent());
+	blockingPm.awaitFirstEvent();
+	// the consumer is blocked processing the first event, so the buffer fills up
+	for (int i = 0; i < 10; i++) {
+	    asyncPm.processEvent(createEvent());
+	}
+	blockingPm.release();
+	asyncPm.flush();
+	// verify
+	assertEquals(6, asyncPm.getDroppedEventsCount());
+	assertEquals(5, blockingPm.processedEvents.get());
+    }
+
+    @Test
+    public void processEvent_fullBufferWithInlinePolicy_eventsAreProcessedByProducerInOrder() throws Exception {
+	final BlockingParametricMonitor blockingPm = new BlockingParametricMonitor();
+	asyncPm = new AsyncParametricMonitor(blockingPm, 4, 1, OverflowPolicy.RUN_INLINE);
+	final List<Event> events = new ArrayList<Event>();
+	for (int i = 0; i < 11; i++) {
+	    events.add(createEvent());
+	}
+	asyncPm.processEvent(events.get(0));
+	blockingPm.awaitFirstEvent();
+	final Thread producer = new Thread() {
+	    @Override
+	    public void run() {
+		for (Event event : events.subList(1, events.size())) {
+		    asyncPm.processEvent(event);
+		}
+	    }
+	};
+	producer.start();
+	// the inlined event waits for the events in the buffer
+	while (asyncPm.getInlinedEventsCount() == 0) {
+	    Thread.yield();
+	}
+	assertEquals(0, blockingPm.processedEvents.get());
+	blockingPm.release();
+	producer.join();
+	asyncPm.flush();
+	// verify
+	assertEquals(11, blockingPm.processedEvents.get());
+	assertEquals(events, blockingPm.processedEventsInOrder);
+    }
+
+    @Test
+    public void processEvent_fullBufferWithBlockPolicy_noEventIsLost() throws Exception {
+	final BlockingParametricMonitor blockingPm = new BlockingParametricMonitor();
+	asyncPm = new AsyncParametricMonitor(blockingPm, 4, 1, OverflowPolicy.BLOCK);
+	asyncPm.processEvent(createEvent());
+	blockingPm.awaitFirstEvent();
+	final Thread producer = new Thread() {
+	    @Override
+	    public void run() {
+		for (int i = 0; i < 10; i++) {
+		    asyncPm.processEvent(createEvent());
+		}
+	    }
+	};
+	producer.start();
+	blockingPm.release();
+	producer.join();
+	asyncPm.flush();
+	// verify
+	assertEquals(11, blockingPm.processedEvents.get());
+	assertEquals(0, asyncPm.getDroppedEventsCount());
+    }
+
+    @Test
+    public void shutdown_publishedEventsAreProcessed() throws Exception {
+	final BlockingParametricMonitor blockingPm = new BlockingParametricMonitor();
+	blockingPm.release();
+	asyncPm = new AsyncParametricMonitor(blockingPm, 1024, OverflowPolicy.BLOCK);
+	for (int i = 0; i < 1000; i++) {
+	    asyncPm.processEvent(createEvent());
+	}
+	asyncPm.shutdown();
+	asyncPm.processEvent(createEvent());
+	// verify
+	assertEquals(1001, blockingPm.processedEvents.get());
+	asyncPm = null;
+    }
+
+    @Test
+    public void shutdown_racingProducers_noEventIsLost() throws Exception {
+	for (OverflowPolicy overflowPolicy : new OverflowPolicy[] { OverflowPolicy.BLOCK, OverflowPolicy.RUN_INLINE }) {
+	    for (int run = 0; run < 20; run++) {
+		final BlockingParametricMonitor blockingPm = new BlockingParametricMonitor();
+		blockingPm.release();
+		asyncPm = new AsyncParametricMonitor(blockingPm, 16, 4, overflowPolicy);
+		final int producers = 4;
+		final int eventsPerProducer = 2000;
+		final CountDownLatch started = new CountDownLatch(producers);
+		final List<Thread> threads = new ArrayList<Thread>();
+		for (int p = 0; p < producers; p++) {
+		    threads.add(new Thread() {
+			@Override
+			public void run() {
+			    started.countDown();
+			    for (int i = 0; i < eventsPerProducer; i++) {
+				asyncPm.processEvent(createEvent());
+			    }
+			}
+		    });
+		}
+		for (Thread thread : threads) {
+		    thread.start();
+		}
+		started.await();
+		asyncPm.shutdown();
+		for (Thread thread : threads) {
+		    thread.join();
+		}
+		asyncPm.flush();
+		asyncPm.reset();
+		// verify
+		assertEquals(0, blockingPm.processedEvents.get());
+		assertEquals(producers * eventsPerProducer, blockingPm.processedEventsInOrder.size());
+		asyncPm = null;
+	    }
+	}
+    }
+
+    private static Event createEvent() {
+	return new Event(null, new Object[0]);
+    }
+
+    /**
+     * Counts events and blocks the thread processing the first event until released.
+     */
+    private static class BlockingParametricMonitor extends AbstractParametricMonitor {
+
+	private final CountDownLatch firstEvent = new CountDownLatch(1);
+	private final CountDownLatch released = new CountDownLatch(1);
+	private final AtomicInteger processedEvents = new AtomicInteger();
+	private final List<Event> processedEventsInOrder = Collections.synchronizedList(new ArrayList<Event>());
+
+	@Override
+	public void processEvent(Event event) {
+	    if (firstEvent.getCount() > 0) {
+		firstEvent.countDown();
+		try {
+		    released.await();
+		} catch (InterruptedException e) {
+		    throw new RuntimeException(e);
+		}
+	    }
+	    processedEvents.incrementAndGet();
+	    processedEventsInOrder.add(event);
+	}
+
+	@Override
+	public void processEvents(Event[] events, int from, int to) {
+	    for (int i = from; i < to; i++) {
+		processEvent(events[i]);
+	    }
+	}
+
+	@Override
+	public void release(Object boundObject) {
+	    // nothing to release
+	}
+
+	@Override
+	public void reset() {
+	    processedEvents.set(0);
+	}
+
+	void awaitFirstEvent() throws InterruptedException {
+	    firstEvent.await();
+	}
+
+	void release() {
+	    released.countDown();
+	}
+
+    }
+
+}
@@ -39,6 +39,15 @@ public class AwareDefaultBindingStore extends DefaultBindingStore {
 	return bindings;
     }
 
+    @Override
+    public Binding[] getBindingsWithoutCleaning(Object[] boundObjects, int[] lookupOnlyParameters) {
+	Binding[] bindings = super.getBindingsWithoutCleaning(boundObjects, lookupOnlyParameters);
+	if (bindings != null) {
+	    getListOfBindings().add(new WeakReference<Binding[]>(bindings));
+	}
+	return bindings;
+    }
+
     public Deque<WeakReference<Binding[]>> getListOfBindings() {
 	return retrievedBindings;
     }
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.realtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import prm4j.api.ParametricMonitorFactory;
+import prm4j.api.fsm.FSMSpec;
+import prm4j.indexing.BackgroundReclaimer;
+import prm4j.indexing.DefaultParametricMonitor;
+import prm4j.indexing.realtime.DefaultParametricMonitor_a_ab_Test.FSM_a_ab;
+
+public class BackgroundReclaimerTest extends AbstractParametricMonitorTest {
+
+    private final static long TIMEOUT_MILLIS = 10000L;
+
+    FSM_a_ab fsm;
+    DefaultParametricMonitor defaultPm;
+
+    @Before
+    public void init() {
+	fsm = new FSM_a_ab();
+	createDefaultParametricMonitor(new FSMSpec(fsm.fsm));
+	defaultPm = (DefaultParametricMonitor) pm;
+    }
+
+    @After
+    public void stopReclamation() throws InterruptedException {
+	defaultPm.stopBackgroundReclamation();
+    }
+
+    @Test
+    public void startBackgroundReclamation_reclaimerIsReturnedOnce() throws Exception {
+	BackgroundReclaimer reclaimer = defaultPm.startBackgroundReclamation(16);
+	// verify
+	assertSame(reclaimer, defaultPm.startBackgroundReclamation(16));
+	assertSame(reclaimer, defaultPm.getBackgroundReclaimer());
+    }
+
+    @Test
+    public void expiredBinding_isRemovedByReclaimer() throws Exception {
+	BackgroundReclaimer reclaimer = defaultPm.startBackgroundReclamation(16);
+	String a = new String("a");
+	pm.processEvent(fsm.e1.createEvent(a));
+	synchronized (pm) {
+	    assertEquals(1, bindingStore.size());
+	}
+
+	// exercise
+	a = null;
+	awaitReclaimedBindings(reclaimer, 1);
+
+	// verify
+	synchronized (pm) {
+	    assertEquals(0, bindingStore.size());
+	    assertEquals(1L, bindingStore.getCollectedBindingsCount());
+	}
+	assertTrue(reclaimer.getHandoffCount() > 0);
+	assertTrue(reclaimer.getMaxLockHeldNanos() <= reclaimer.getLockHeldNanos());
+    }
+
+    @Test
+    public void expiredBindings_areRemovedInChunks() throws Exception {
+	BackgroundReclaimer reclaimer = defaultPm.startBackgroundReclamation(2);
+	for (int i = 0; i < 10; i++) {
+	    pm.processEvent(fsm.e1.createEvent(new String("a" + i)));
+	}
+
+	// exercise
+	awaitReclaimedBindings(reclaimer, 10);
+
+	// verify
+	synchronized (pm) {
+	    assertEquals(0, bindingStore.size());
+	}
+	assertTrue(reclaimer.getHandoffCount() >= 5);
+    }
+
+    @Test
+    public void stopBackgroundReclamation_eventsRemoveExpiredBindingsAgain() throws Exception {
+	defaultPm.startBackgroundReclamation(16);
+	defaultPm.stopBackgroundReclamation();
+	String a = new String("a");
+	pm.processEvent(fsm.e1.createEvent(a));
+
+	// exercise
+	a = null;
+	runGarbageCollectorAFewTimes();
+	pm.processEvent(fsm.e1.createEvent("b"));
+
+	// verify
+	assertNull(defaultPm.getBackgroundReclaimer());
+	assertEquals(1, bindingStore.size());
+    }
+
+    @Test
+    public void shutdown_reclaimerIsStopped() throws Exception {
+	BackgroundReclaimer reclaimer = defaultPm.startBackgroundReclamation(16);
+
+	// exercise
+	pm.shutdown();
+
+	// verify
+	assertNull(defaultPm.getBackgroundReclaimer());
+	assertFalse(reclaimer.isRunning());
+    }
+
+    @Test
+    public void unreachableParametricMonitor_reclaimerTerminates() throws Exception {
+	DefaultParametricMonitor otherPm = (DefaultParametricMonitor) ParametricMonitorFactory
+		.createParametricMonitor(new FSMSpec(fsm.fsm));
+	BackgroundReclaimer reclaimer = otherPm.startBackgroundReclamation(16);
+
+	// exercise
+	otherPm = null;
+
+	// verify
+	final long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+	while (reclaimer.isRunning()) {
+	    assertTrue("Reclaimer did not terminate in time.", System.currentTimeMillis() < deadline);
+	    runGarbageCollectorAFewTimes();
+	    Thread.sleep(10L);
+	}
+    }
+
+    private static void awaitReclaimedBindings(BackgroundReclaimer reclaimer, long count) throws InterruptedException {
+	final long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+	while (reclaimer.getReclaimedBindingsCount() < count) {
+	    assertTrue("Bindings were not reclaimed in time.", System.currentTimeMillis() < deadline);
+	    runGarbageCollectorAFewTimes();
+	    Thread.sleep(10L);
+	}
+    }
+
+}
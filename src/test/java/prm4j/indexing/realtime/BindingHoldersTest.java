@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.realtime;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import prm4j.api.fsm.FSMSpec;
+import prm4j.indexing.binding.ArrayBasedBinding;
+import prm4j.indexing.binding.ValueBinding;
+import prm4j.indexing.realtime.SamplingParametricMonitorTest.RecordingSafeMapIterator;
+import prm4j.indexing.realtime.ValueBindingTest.UseAfterClose;
+
+public class BindingHoldersTest extends AbstractParametricMonitorTest {
+
+    @Test
+    public void processEvent_hotObjects_holdersAreRegisteredOnce() throws Exception {
+	final RecordingSafeMapIterator fsm = new RecordingSafeMapIterator();
+	createDefaultParametricMonitor(new FSMSpec(fsm.fsm));
+	final BoundObject map = new BoundObject("m");
+	final BoundObject collection = new BoundObject("c");
+	final BoundObject iterator = new BoundObject("i");
+
+	// exercise
+	for (int i = 0; i < 100000; i++) {
+	    pm.processEvent(fsm.createColl.createEvent(map, collection));
+	    pm.processEvent(fsm.createIter.createEvent(collection, iterator));
+	    pm.processEvent(fsm.useIter.createEvent(iterator));
+	    pm.processEvent(fsm.updateMap.createEvent(map));
+	}
+
+	// verify: the holders are the parents of the nodes with the binding as key
+	assertEquals(1, getHoldersCount(map)); // root
+	assertEquals(2, getHoldersCount(collection)); // root, (m)
+	assertEquals(3, getHoldersCount(iterator)); // root, (c), (m, c)
+    }
+
+    @Test
+    public void processEvent_hotValue_holdersAreRegisteredOnce() throws Exception {
+	final UseAfterClose fsm = new UseAfterClose(0L);
+	createDefaultParametricMonitor(new FSMSpec(fsm.fsm));
+
+	// exercise
+	for (int i = 0; i < 100000; i++) {
+	    pm.processEvent(fsm.use.createEvent("key"));
+	}
+
+	// verify
+	assertEquals(1, ((ValueBinding) bindingStore.getValueBinding(fsm.key, "key")).getHoldersCount());
+    }
+
+    private int getHoldersCount(Object boundObject) {
+	return ((ArrayBasedBinding) bindingStore.getBinding(boundObject)).getHoldersCount();
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.realtime;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import prm4j.api.Event;
+import prm4j.api.fsm.FSMSpec;
+import prm4j.indexing.CoalescingParametricMonitor;
+
+@SuppressWarnings("rawtypes")
+public class CoalescingParametricMonitorTest extends AbstractParametricMonitorTest {
+
+    FSM_HasNext fsm;
+    CoalescingParametricMonitor coalescingPm;
+
+    Iterator i1;
+    Iterator i2;
+
+    @Before
+    public void init() {
+	fsm = new FSM_HasNext();
+	createDefaultParametricMonitor(new FSMSpec(fsm.fsm));
+	coalescingPm = new CoalescingParametricMonitor(pm, processor.getEventContext());
+	i1 = new ArrayList<Object>().iterator();
+	i2 = new ArrayList<Object>().iterator();
+    }
+
+    @Test
+    public void processEvent_repeatedIdempotentEventIsElided() throws Exception {
+	// exercise
+	coalescingPm.processEvent(fsm.hasNext.createEvent(i1));
+	coalescingPm.processEvent(fsm.hasNext.createEvent(i1));
+	coalescingPm.processEvent(fsm.hasNext.createEvent(i1));
+	coalescingPm.processEvent(fsm.next.createEvent(i1));
+
+	// verify
+	assertEquals(2L, coalescingPm.getElidedEventsCount());
+	assertEquals(0, fsm.matchHandler.getHandledMatches().size());
+    }
+
+    @Test
+    public void processEvent_repeatedNonIdempotentEventIsNotElided() throws Exception {
+	// exercise
+	coalescingPm.processEvent(fsm.hasNext.createEvent(i1));
+	coalescingPm.processEvent(fsm.next.createEvent(i1));
+	coalescingPm.processEvent(fsm.next.createEvent(i1));
+
+	// verify
+	assertEquals(0L, coalescingPm.getElidedEventsCount());
+	assertEquals(1, fsm.matchHandler.getHandledMatches().size());
+    }
+
+    @Test
+    public void processEvent_eventWithOtherObjectsIsNotElided() throws Exception {
+	// exercise
+	coalescingPm.processEvent(fsm.hasNext.createEvent(i1));
+	coalescingPm.processEvent(fsm.hasNext.createEvent(i2));
+	coalescingPm.processEvent(fsm.hasNext.createEvent(i1));
+	coalescingPm.processEvent(fsm.next.createEvent(i2));
+	coalescingPm.processEvent(fsm.next.createEvent(i2));
+
+	// verify
+	assertEquals(0L, coalescingPm.getElidedEventsCount());
+	assertEquals(1, fsm.matchHandler.getHandledMatches().size());
+    }
+
+    @Test
+    public void reset_nextEventIsNotElided() throws Exception {
+	// exercise
+	coalescingPm.processEvent(fsm.hasNext.createEvent(i1));
+	coalescingPm.reset();
+	coalescingPm.processEvent(fsm.hasNext.createEvent(i1));
+	coalescingPm.processEvent(fsm.next.createEvent(i1));
+
+	// verify
+	assertEquals(0L, coalescingPm.getElidedEventsCount());
+	assertEquals(0, fsm.matchHandler.getHandledMatches().size());
+    }
+
+    @Test
+    public void processEvents_repeatedIdempotentEventsAreElided() throws Exception {
+	Event[] events = new Event[] { fsm.hasNext.createEvent(i1), fsm.hasNext.createEvent(i1),
+		fsm.next.createEvent(i1), fsm.hasNext.createEvent(i2), fsm.hasNext.createEvent(i2),
+		fsm.next.createEvent(i2), fsm.next.createEvent(i2) };
+
+	// exercise
+	coalescingPm.processEvents(events, 0, events.length);
+
+	// verify
+	assertEquals(2L, coalescingPm.getElidedEventsCount());
+	assertEquals(1, fsm.matchHandler.getHandledMatches().size());
+    }
+
+}
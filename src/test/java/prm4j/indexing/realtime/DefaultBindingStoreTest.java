@@ -82,6 +82,22 @@ public class DefaultBindingStoreTest extends AbstractTest {
 	assertEquals(0, bs.size());
     }
 
+    @Test
+    public void releaseBindings_removeExpiredBinding_bindingIsCountedOnce() throws Exception {
+	FSM_obj_obj fsm = new FSM_obj_obj();
+	createBindingStore(fsm.fsm, 1);
+	Object object = new Object();
+	Binding[] bindings = bs.getBindings(array(object));
+
+	// exercise: the reclaimer hands over the binding after it was released
+	assertEquals(1, bs.releaseBindings(object));
+	bs.removeExpiredBinding(bindings[0]);
+
+	// verify
+	assertEquals(0, bs.size());
+	assertEquals(1L, bs.getCollectedBindingsCount());
+    }
+
     @Test
     public void unreachableBoundObject_boundObjectIsNullInBinding() throws Exception {
 	FSM_obj_obj fsm = new FSM_obj_obj();
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.realtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import prm4j.api.Alphabet;
+import prm4j.api.Event;
+import prm4j.api.MatchHandler0;
+import prm4j.api.Parameter;
+import prm4j.api.ParametricMonitor;
+import prm4j.api.ParametricMonitorFactory;
+import prm4j.api.Symbol1;
+import prm4j.api.fsm.FSM;
+import prm4j.api.fsm.FSMSpec;
+import prm4j.api.fsm.FSMState;
+import prm4j.indexing.realtime.ShardedParametricMonitorTest.CountingSafeMapIterator;
+
+public class DefaultParametricMonitor_Batch_Test extends AbstractParametricMonitorTest {
+
+    @Test
+    public void processEvents_SafeMapIterator_sameMatchesAsSingleEvents() throws Exception {
+	final CountingSafeMapIterator single = new CountingSafeMapIterator();
+	final CountingSafeMapIterator batched = new CountingSafeMapIterator();
+	final ParametricMonitor singlePm = ParametricMonitorFactory.createParametricMonitor(new FSMSpec(single.fsm));
+	final ParametricMonitor batchedPm = ParametricMonitorFactory.createParametricMonitor(new FSMSpec(batched.fsm));
+
+	final Random random = new Random(42L);
+	final List<Object> objects = new ArrayList<Object>();
+	for (int i = 0; i < 30; i++) {
+	    objects.add(new BoundObject());
+	}
+	final Event[] batch = new Event[64];
+	for (int i = 0; i < 500; i++) {
+	    // batches of varying size, placed at varying offsets
+	    final int from = random.nextInt(8);
+	    final int to = from + random.nextInt(batch.length - from);
+	    for (int j = from; j < to; j++) {
+		final Object o1 = objects.get(random.nextInt(10));
+		final Object o2 = objects.get(10 + random.nextInt(10));
+		final Object o3 = objects.get(20 + random.nextInt(10));
+		final int symbol = random.nextInt(4);
+		singlePm.processEvent(single.createEvent(symbol, o1, o2, o3));
+		batch[j] = batched.createEvent(symbol, o1, o2, o3);
+	    }
+	    batchedPm.processEvents(batch, from, to);
+	}
+
+	// verify
+	assertTrue(single.matches.get() > 0);
+	assertEquals(single.matches.get(), batched.matches.get());
+    }
+
+    @Test
+    public void processEvents_failingMatchHandler_remainingEventsAreProcessedAndFirstExceptionIsRethrown()
+	    throws Exception {
+	final List<Object> matchedObjects = new ArrayList<Object>();
+	final Alphabet alphabet = new Alphabet();
+	final Parameter<Object> p = alphabet.createParameter("p", Object.class);
+	final Symbol1<Object> a = alphabet.createSymbol1("a", p);
+	final FSM fsm = new FSM(alphabet);
+	final FSMState initial = fsm.createInitialState();
+	final FSMState error = fsm.createAcceptingState(new MatchHandler0() {
+	    @Override
+	    public void handleMatch(Object auxiliaryData) {
+		matchedObjects.add(auxiliaryData);
+		throw new IllegalStateException(auxiliaryData.toString());
+	    }
+	});
+	initial.addTransition(a, error);
+	final ParametricMonitor batchedPm = ParametricMonitorFactory.createParametricMonitor(new FSMSpec(fsm));
+
+	// exercise
+	final Event[] batch = new Event[] { a.createEvent(new BoundObject(), "first"),
+		a.createEvent(new BoundObject(), "second"), a.createEvent(new BoundObject(), "third") };
+	try {
+	    batchedPm.processEvents(batch, 0, batch.length);
+	    fail("Exception of the match handler expected.");
+	} catch (IllegalStateException e) {
+	    // verify
+	    assertEquals("first", e.getMessage());
+	}
+	assertEquals(3, matchedObjects.size());
+    }
+
+}
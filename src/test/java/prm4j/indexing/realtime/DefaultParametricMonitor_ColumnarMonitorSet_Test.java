@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.realtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import prm4j.api.fsm.FSMSpec;
+import prm4j.indexing.DefaultParametricMonitor;
+import prm4j.indexing.binding.ArrayBasedBindingFactory;
+import prm4j.indexing.binding.DefaultBindingStore;
+import prm4j.indexing.model.ParametricPropertyProcessor;
+import prm4j.indexing.monitor.ArenaTransitionTableMonitor;
+import prm4j.indexing.monitor.Monitor;
+import prm4j.indexing.monitor.StateArena;
+import prm4j.indexing.monitor.TransitionTable;
+import prm4j.indexing.node.DefaultNodeStore;
+import prm4j.indexing.node.NodeManager;
+import prm4j.indexing.realtime.DefaultParametricMonitor_a_ab_Test.FSM_a_ab;
+import prm4j.indexing.realtime.ShardedParametricMonitorTest.CountingSafeMapIterator;
+import prm4j.spec.finite.FiniteParametricProperty;
+import prm4j.spec.finite.FiniteSpec;
+
+public class DefaultParametricMonitor_ColumnarMonitorSet_Test extends AbstractParametricMonitorTest {
+
+    private static DefaultParametricMonitor createParametricMonitor(FiniteSpec finiteSpec, Monitor monitorPrototype,
+	    boolean columnarMonitorSets) {
+	ParametricPropertyProcessor processor = new ParametricPropertyProcessor(new FiniteParametricProperty(finiteSpec));
+	processor.getParameterTree().setColumnarMonitorSetsToTree(columnarMonitorSets);
+	NodeManager nodeManager = new NodeManager();
+	return new DefaultParametricMonitor(new DefaultBindingStore(new ArrayBasedBindingFactory(),
+		finiteSpec.getFullParameterSet(), 1), new DefaultNodeStore(processor.getParameterTree(), nodeManager),
+		monitorPrototype, processor.getEventContext(), nodeManager, false);
+    }
+
+    private static Monitor createArenaMonitor(FSMSpec spec) {
+	return new ArenaTransitionTableMonitor(spec.getInitialState().getIndex(), new StateArena());
+    }
+
+    @Test
+    public void copy_copiesShareTheArena() throws Exception {
+	final ArenaTransitionTableMonitor prototype = new ArenaTransitionTableMonitor(3, new StateArena());
+
+	// exercise
+	final ArenaTransitionTableMonitor copy = (ArenaTransitionTableMonitor) prototype.copy();
+
+	// verify
+	assertSame(prototype.getSlab(), copy.getSlab());
+	assertEquals(prototype.getCell() + 1, copy.getCell());
+	assertEquals(3, copy.getState());
+    }
+
+    @Test
+    public void terminate_marksCellAsDead() throws Exception {
+	final ArenaTransitionTableMonitor monitor = new ArenaTransitionTableMonitor(0, new StateArena());
+
+	// exercise
+	monitor.terminate();
+
+	// verify
+	assertTrue(monitor.isTerminated());
+	assertEquals(TransitionTable.DEAD_STATE, monitor.getSlab()[monitor.getCell()]);
+    }
+
+    @Test
+    public void allocate_startsNewSlabWhenFull() throws Exception {
+	final StateArena arena = new StateArena();
+	final int[] firstSlab = arena.getSlab();
+	for (int i = 0; i < StateArena.SLAB_SIZE; i++) {
+	    arena.allocate(i);
+	}
+
+	// exercise
+	final int[] slab = arena.getSlab();
+	final int cell = arena.allocate(42);
+
+	// verify
+	assertTrue(slab != firstSlab);
+	assertEquals(0, cell);
+	assertEquals(42, slab[cell]);
+	assertEquals(StateArena.SLAB_SIZE - 1, firstSlab[StateArena.SLAB_SIZE - 1]);
+    }
+
+    @Test
+    public void a_ab_matchIsReported() throws Exception {
+	FSM_a_ab fsm = new FSM_a_ab();
+	FSMSpec spec = new FSMSpec(fsm.fsm);
+	DefaultParametricMonitor pm = createParametricMonitor(spec, createArenaMonitor(spec), true);
+
+	// exercise
+	pm.processEvent(fsm.e1.createEvent("a"));
+	pm.processEvent(fsm.e2.createEvent("a", "b"));
+
+	// verify
+	assertEquals(1, fsm.matchHandler.getHandledMatches().size());
+    }
+
+    @Test
+    public void SafeMapIterator_sameMatchesAndUpdatesAsStatefulMonitor() throws Exception {
+	final CountingSafeMapIterator stateful = new CountingSafeMapIterator();
+	final CountingSafeMapIterator columnar = new CountingSafeMapIterator();
+	final FSMSpec statefulSpec = new FSMSpec(stateful.fsm);
+	final FSMSpec columnarSpec = new FSMSpec(columnar.fsm);
+	final DefaultParametricMonitor statefulPm = createParametricMonitor(statefulSpec,
+		statefulSpec.getMonitorPrototype(), false);
+	final DefaultParametricMonitor columnarPm = createParametricMonitor(columnarSpec,
+		createArenaMonitor(columnarSpec), true);
+
+	final Random random = new Random(42L);
+	final List<Object> objects = new ArrayList<Object>();
+	for (int i = 0; i < 30; i++) {
+	    objects.add(new BoundObject());
+	}
+	for (int i = 0; i < 20000; i++) {
+	    final Object o1 = objects.get(random.nextInt(10));
+	    final Object o2 = objects.get(10 + random.nextInt(10));
+	    final Object o3 = objects.get(20 + random.nextInt(10));
+	    final int symbol = random.nextInt(4);
+	    statefulPm.processEvent(stateful.createEvent(symbol, o1, o2, o3));
+	    columnarPm.processEvent(columnar.createEvent(symbol, o1, o2, o3));
+	}
+
+	// verify
+	assertTrue(stateful.matches.get() > 0);
+	assertEquals(stateful.matches.get(), columnar.matches.get());
+	assertEquals(statefulPm.getMetrics().getUpdatedMonitorsCount(), columnarPm.getMetrics()
+		.getUpdatedMonitorsCount());
+    }
+
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.realtime;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import prm4j.api.Condition;
+import prm4j.api.Event;
+import prm4j.api.EventCondition;
+import prm4j.api.ImplicitMonitorCondition;
+import prm4j.api.fsm.FSMSpec;
+import prm4j.indexing.monitor.Monitor;
+
+@SuppressWarnings("rawtypes")
+public class DefaultParametricMonitor_EventCondition_Test extends AbstractDefaultParametricMonitorTest {
+
+    private FSM_SafeMapIterator fsm;
+
+    private Map m1;
+    private Collection c1;
+    private Collection c2;
+    private Iterator i1;
+    private Iterator i2;
+
+    private int evaluations;
+    private boolean satisfied;
+
+    @Before
+    public void init() {
+	fsm = new FSM_SafeMapIterator();
+	createDefaultParametricMonitorWithAwareComponents(new FSMSpec(fsm.fsm));
+
+	m1 = new HashMap<Object, Object>();
+	c1 = new ArrayList<Object>();
+	c2 = new ArrayList<Object>();
+	i1 = c1.iterator();
+	i2 = c2.iterator();
+
+	// monitors for (m1, c1), (m1, c2), (m1, c1, i1) and (m1, c2, i2)
+	pm.processEvent(fsm.createColl.createEvent(m1, c1));
+	pm.processEvent(fsm.createColl.createEvent(m1, c2));
+	pm.processEvent(fsm.createIter.createEvent(c1, i1));
+	pm.processEvent(fsm.createIter.createEvent(c2, i2));
+    }
+
+    private EventCondition createEventCondition(final boolean result) {
+	return new EventCondition() {
+	    @Override
+	    public boolean eval() {
+		evaluations++;
+		return result;
+	    }
+	};
+    }
+
+    @Test
+    public void eventCondition_evaluatedOncePerEvent() throws Exception {
+	// exercise
+	pm.processEvent(fsm.updateMap.createConditionalEvent(m1, createEventCondition(true)));
+	pm.processEvent(fsm.useIter.createEvent(i1));
+	pm.processEvent(fsm.useIter.createEvent(i2));
+
+	// verify
+	assertEquals(1, evaluations);
+	assertEquals(2, fsm.matchHandler.getHandledMatches().size());
+    }
+
+    @Test
+    public void eventCondition_notSatisfied_noTransition() throws Exception {
+	// exercise
+	pm.processEvent(fsm.updateMap.createConditionalEvent(m1, createEventCondition(false)));
+	pm.processEvent(fsm.useIter.createEvent(i1));
+	pm.processEvent(fsm.useIter.createEvent(i2));
+
+	// verify
+	assertEquals(1, evaluations);
+	assertEquals(0, fsm.matchHandler.getHandledMatches().size());
+    }
+
+    @Test
+    public void eventCondition_sameEventProcessedTwice_evaluatedAgain() throws Exception {
+	final Event event = fsm.updateMap.createConditionalEvent(m1, new EventCondition() {
+	    @Override
+	    public boolean eval() {
+		evaluations++;
+		return satisfied;
+	    }
+	});
+	pm.processEvent(event);
+	satisfied = true;
+
+	// exercise
+	pm.processEvent(event);
+	pm.processEvent(fsm.useIter.createEvent(i1));
+	pm.processEvent(fsm.useIter.createEvent(i2));
+
+	// verify
+	assertEquals(2, evaluations);
+	assertEquals(2, fsm.matchHandler.getHandledMatches().size());
+    }
+
+    @Test
+    public void monitorCondition_evaluatedOncePerMonitor() throws Exception {
+	final Condition condition = new ImplicitMonitorCondition() {
+	    @Override
+	    public boolean eval() {
+		evaluations++;
+		return getParameterValue(fsm.c) == c1;
+	    }
+	};
+
+	// exercise
+	pm.processEvent(fsm.updateMap.createConditionalEvent(m1, condition));
+	pm.processEvent(fsm.useIter.createEvent(i1));
+	pm.processEvent(fsm.useIter.createEvent(i2));
+
+	// verify
+	assertEquals(4, evaluations);
+	assertEquals(1, fsm.matchHandler.getHandledMatches().size());
+    }
+
+    @Test
+    public void monitorCondition_monitorPassedExplicitly_evaluatedOncePerMonitor() throws Exception {
+	final Condition condition = new Condition() {
+	    @Override
+	    protected boolean eval(Monitor monitor) {
+		evaluations++;
+		return getParameterValue(fsm.c, monitor) == c1;
+	    }
+	};
+
+	// exercise
+	pm.processEvent(fsm.updateMap.createConditionalEvent(m1, condition));
+	pm.processEvent(fsm.useIter.createEvent(i1));
+	pm.processEvent(fsm.useIter.createEvent(i2));
+
+	// verify
+	assertEquals(4, evaluations);
+	assertEquals(1, fsm.matchHandler.getHandledMatches().size());
+    }
+
+}
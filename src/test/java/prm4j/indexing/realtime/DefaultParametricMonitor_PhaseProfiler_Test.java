@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.realtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import prm4j.api.fsm.FSMSpec;
+import prm4j.indexing.DefaultParametricMonitor;
+import prm4j.indexing.monitor.PhaseProfiler;
+import prm4j.indexing.monitor.PhaseProfiler.Phase;
+import prm4j.indexing.realtime.DefaultParametricMonitor_a_ab_Test.FSM_a_ab;
+
+public class DefaultParametricMonitor_PhaseProfiler_Test extends AbstractParametricMonitorTest {
+
+    FSM_a_ab fsm;
+    DefaultParametricMonitor defaultPm;
+    PhaseProfiler profiler;
+
+    @Before
+    public void init() {
+	fsm = new FSM_a_ab();
+	createDefaultParametricMonitor(new FSMSpec(fsm.fsm));
+	defaultPm = (DefaultParametricMonitor) pm;
+	profiler = new PhaseProfiler();
+    }
+
+    @Test
+    public void processEvent_phasesAreRecordedOncePerEvent() throws Exception {
+	defaultPm.setPhaseProfiler(profiler);
+
+	// exercise
+	pm.processEvent(fsm.e1.createEvent("a")); // creates monitor
+	pm.processEvent(fsm.e2.createEvent("a", "b")); // derives monitor
+	pm.processEvent(fsm.e1.createEvent("a")); // updates monitor
+
+	// verify
+	assertEquals(3L, profiler.getHistogram(Phase.BINDING_LOOKUP).getCount());
+	assertEquals(2L, profiler.getHistogram(fsm.e1, Phase.BINDING_LOOKUP).getCount());
+	assertEquals(1L, profiler.getHistogram(fsm.e1, Phase.MONITOR_CREATION).getCount());
+	assertEquals(1L, profiler.getHistogram(fsm.e1, Phase.UPDATE).getCount());
+	assertEquals(1L, profiler.getHistogram(fsm.e2, Phase.DIRECT_UPDATE).getCount());
+	assertEquals(1L, profiler.getHistogram(fsm.e2, Phase.FIND_MAX).getCount());
+	assertEquals(1L, profiler.getHistogram(fsm.e2, Phase.UPDATE_CHAININGS).getCount());
+	assertEquals(0L, profiler.getHistogram(fsm.e2, Phase.UPDATE).getCount());
+	assertEquals(2L, profiler.getHistogram(Phase.UPDATE_CHAININGS).getCount());
+	// phases which did not run are not recorded
+	assertEquals(0L, profiler.getHistogram(fsm.e2, Phase.MONITOR_CREATION).getCount());
+	assertEquals(0L, profiler.getHistogram(fsm.e1, Phase.FIND_MAX).getCount());
+	assertEquals(0L, profiler.getHistogram(fsm.e1, Phase.JOIN).getCount());
+    }
+
+    @Test
+    public void processEvents_phasesAreRecordedOncePerEvent() throws Exception {
+	defaultPm.setPhaseProfiler(profiler);
+
+	// exercise
+	pm.processEvents(array(fsm.e1.createEvent("a"), fsm.e2.createEvent("a", "b")), 0, 2);
+
+	// verify
+	assertEquals(2L, profiler.getHistogram(Phase.BINDING_LOOKUP).getCount());
+	assertEquals(1L, profiler.getHistogram(fsm.e2, Phase.FIND_MAX).getCount());
+    }
+
+    @Test
+    public void setPhaseProfiler_switchingOffStopsRecording() throws Exception {
+	defaultPm.setPhaseProfiler(profiler);
+	pm.processEvent(fsm.e1.createEvent("a"));
+
+	// exercise
+	defaultPm.setPhaseProfiler(null);
+	pm.processEvent(fsm.e1.createEvent("a"));
+
+	// verify
+	assertNull(defaultPm.getPhaseProfiler());
+	assertEquals(1L, profiler.getHistogram(Phase.BINDING_LOOKUP).getCount());
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.realtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import prm4j.api.fsm.FSMSpec;
+import prm4j.indexing.AsyncParametricMonitor;
+import prm4j.indexing.binding.Binding;
+import prm4j.indexing.concurrent.OverflowPolicy;
+import prm4j.indexing.monitor.Monitor;
+import prm4j.indexing.realtime.SamplingParametricMonitorTest.RecordingSafeMapIterator;
+
+public class DefaultParametricMonitor_Release_Test extends AbstractParametricMonitorTest {
+
+    final BoundObject map = new BoundObject("m");
+    final BoundObject collection = new BoundObject("c");
+    final BoundObject iterator = new BoundObject("i");
+
+    @Test
+    public void release_boundObject_bindingIsRemoved() throws Exception {
+	final RecordingSafeMapIterator fsm = new RecordingSafeMapIterator();
+	createDefaultParametricMonitor(new FSMSpec(fsm.fsm));
+	pm.processEvent(fsm.createColl.createEvent(map, collection));
+	pm.processEvent(fsm.createIter.createEvent(collection, iterator));
+	final Binding binding = bindingStore.getBinding(iterator);
+
+	// exercise
+	pm.release(iterator);
+
+	// verify
+	assertNull(binding.get());
+	assertNull(bindingStore.getBinding(iterator));
+	assertEquals(2, bindingStore.size());
+	assertEquals(1L, bindingStore.getCollectedBindingsCount());
+    }
+
+    @Test
+    public void release_boundObject_deadMonitorsAreTerminated() throws Exception {
+	final RecordingSafeMapIterator fsm = new RecordingSafeMapIterator();
+	createDefaultParametricMonitor(new FSMSpec(fsm.fsm));
+	pm.processEvent(fsm.createColl.createEvent(map, collection));
+	pm.processEvent(fsm.createIter.createEvent(collection, iterator));
+	final Monitor collectionMonitor = getNode(map, collection, _).getMonitor();
+	final Monitor iteratorMonitor = getNode(map, collection, iterator).getMonitor();
+
+	// exercise
+	pm.release(iterator);
+
+	// verify
+	assertTrue(iteratorMonitor.isTerminated());
+	assertFalse(collectionMonitor.isTerminated());
+    }
+
+    @Test
+    public void release_boundObject_objectBoundAgainIsNewObject() throws Exception {
+	final RecordingSafeMapIterator fsm = new RecordingSafeMapIterator();
+	createDefaultParametricMonitor(new FSMSpec(fsm.fsm));
+	pm.processEvent(fsm.createColl.createEvent(map, collection));
+	pm.processEvent(fsm.createIter.createEvent(collection, iterator));
+	pm.processEvent(fsm.updateMap.createEvent(map));
+
+	// exercise
+	pm.release(iterator);
+	pm.processEvent(fsm.useIter.createEvent(iterator));
+
+	// verify
+	assertEquals(0, fsm.matchedMaps.size());
+    }
+
+    @Test
+    public void release_async_previousEventsAreProcessedFirst() throws Exception {
+	final RecordingSafeMapIterator fsm = new RecordingSafeMapIterator();
+	createDefaultParametricMonitor(new FSMSpec(fsm.fsm));
+	final AsyncParametricMonitor async = new AsyncParametricMonitor(pm, 16, OverflowPolicy.BLOCK);
+	async.processEvent(fsm.createColl.createEvent(map, collection));
+	async.processEvent(fsm.createIter.createEvent(collection, iterator));
+	async.processEvent(fsm.updateMap.createEvent(map));
+
+	// exercise
+	async.release(iterator);
+	async.processEvent(fsm.useIter.createEvent(iterator));
+	async.shutdown();
+
+	// verify
+	assertEquals(0, fsm.matchedMaps.size());
+	assertEquals(1L, bindingStore.getCollectedBindingsCount());
+    }
+
+}
@@ -20,6 +20,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import prm4j.api.Condition;
+import prm4j.api.ImplicitMonitorCondition;
 import prm4j.api.fsm.FSMSpec;
 
 @SuppressWarnings("rawtypes")
@@ -34,7 +35,7 @@ public class DefaultParametricMonitor_SafeSyncCollection_Test extends AbstractDe
      * A condition can be attached to an event and must evaluate to "true" if the event has to be processed by the base
      * monitor.
      */
-    final Condition threadHoldsLockOnCollection = new Condition() {
+    final Condition threadHoldsLockOnCollection = new ImplicitMonitorCondition() {
 	@Override
 	public boolean eval() {
 	    final Collection coll = getParameterValue(fsm.c);
@@ -45,7 +46,7 @@ public class DefaultParametricMonitor_SafeSyncCollection_Test extends AbstractDe
     /**
      * A second condition.
      */
-    final Condition threadDoesNotHoldLockOnCollection = new Condition() {
+    final Condition threadDoesNotHoldLockOnCollection = new ImplicitMonitorCondition() {
 	@Override
 	public boolean eval() {
 	    final Collection coll = getParameterValue(fsm.c);
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.realtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import prm4j.api.fsm.FSMSpec;
+import prm4j.indexing.DefaultParametricMonitor;
+import prm4j.indexing.binding.ArrayBasedBindingFactory;
+import prm4j.indexing.binding.DefaultBindingStore;
+import prm4j.indexing.model.EventContextTest.FSM_a_loop_ab;
+import prm4j.indexing.model.ParametricPropertyProcessor;
+import prm4j.indexing.node.DefaultNodeStore;
+import prm4j.indexing.node.NodeManager;
+import prm4j.spec.finite.FiniteParametricProperty;
+import prm4j.spec.finite.FiniteSpec;
+
+public class DefaultParametricMonitor_SelfLoop_Test extends AbstractParametricMonitorTest {
+
+    private static DefaultParametricMonitor createParametricMonitor(FiniteSpec finiteSpec) {
+	ParametricPropertyProcessor processor = new ParametricPropertyProcessor(new FiniteParametricProperty(finiteSpec));
+	NodeManager nodeManager = new NodeManager();
+	return new DefaultParametricMonitor(new DefaultBindingStore(new ArrayBasedBindingFactory(),
+		finiteSpec.getFullParameterSet(), 1), new DefaultNodeStore(processor.getParameterTree(), nodeManager),
+		finiteSpec.getMonitorPrototype(), processor.getEventContext(), nodeManager, false);
+    }
+
+    @Test
+    public void selfLoopEvents_doNotUpdateMonitors() throws Exception {
+	FSM_a_loop_ab withLoops = new FSM_a_loop_ab();
+	FSM_a_loop_ab withoutLoops = new FSM_a_loop_ab();
+	DefaultParametricMonitor pm1 = createParametricMonitor(new FSMSpec(withLoops.fsm));
+	DefaultParametricMonitor pm2 = createParametricMonitor(new FSMSpec(withoutLoops.fsm));
+	assertTrue(pm1.setSkipSelfLoopEvents(true));
+
+	// exercise
+	pm1.processEvent(withLoops.e1.createEvent("a"));
+	pm2.processEvent(withoutLoops.e1.createEvent("a"));
+	for (int i = 0; i < 10; i++) {
+	    pm1.processEvent(withLoops.loop.createEvent("a"));
+	}
+	pm1.processEvent(withLoops.e2.createEvent("a", "b"));
+	pm2.processEvent(withoutLoops.e2.createEvent("a", "b"));
+
+	// verify
+	assertEquals(1, withLoops.matchHandler.getHandledMatches().size());
+	assertEquals(1, withoutLoops.matchHandler.getHandledMatches().size());
+	assertEquals(pm2.getMetrics().getUpdatedMonitorsCount(), pm1.getMetrics().getUpdatedMonitorsCount());
+	assertEquals(12L, pm1.getMetrics().getEventsCount());
+    }
+
+    @Test
+    public void selfLoopEvents_updateMonitorsByDefault() throws Exception {
+	FSM_a_loop_ab withLoops = new FSM_a_loop_ab();
+	DefaultParametricMonitor pm = createParametricMonitor(new FSMSpec(withLoops.fsm));
+
+	// exercise
+	pm.processEvent(withLoops.e1.createEvent("a"));
+	for (int i = 0; i < 10; i++) {
+	    pm.processEvent(withLoops.loop.createEvent("a"));
+	}
+
+	// verify
+	assertEquals(11L, pm.getMetrics().getUpdatedMonitorsCount());
+    }
+
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.realtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import prm4j.api.Alphabet;
+import prm4j.api.MatchHandler0;
+import prm4j.api.Parameter;
+import prm4j.api.ParametricMonitor;
+import prm4j.api.ParametricMonitorFactory;
+import prm4j.api.Symbol1;
+import prm4j.api.Symbol2;
+import prm4j.api.fsm.FSM;
+import prm4j.api.fsm.FSMSpec;
+import prm4j.api.fsm.FSMState;
+
+public class DefaultParametricMonitor_SymbolEvent_Test extends AbstractParametricMonitorTest {
+
+    final List<Object> matches = new ArrayList<Object>();
+
+    final Alphabet alphabet = new Alphabet();
+
+    final Parameter<Object> p1 = alphabet.createParameter("p1", Object.class);
+    final Parameter<Object> p2 = alphabet.createParameter("p2", Object.class);
+
+    final Symbol2<Object, Object> a = alphabet.createSymbol2("a", p1, p2);
+    final Symbol2<Object, Object> b = alphabet.createSymbol2("b", p1, p2);
+    final Symbol1<Object> c = alphabet.createSymbol1("c", p1);
+
+    /**
+     * Processes a nested event when matching the auxiliary data "outer", if set.
+     */
+    ParametricMonitor reentrantMonitor;
+    Object[] nestedObjects;
+
+    final FSM fsm = new FSM(alphabet);
+
+    final FSMState initial = fsm.createInitialState();
+    final FSMState s1 = fsm.createState();
+    final FSMState error = fsm.createAcceptingState(new MatchHandler0() {
+	@Override
+	public void handleMatch(Object auxiliaryData) {
+	    matches.add(auxiliaryData);
+	    if (reentrantMonitor != null && "outer".equals(auxiliaryData) && nestedObjects != null) {
+		final Object[] objects = nestedObjects;
+		nestedObjects = null;
+		reentrantMonitor.processEvent(b, objects[0], objects[1], "nested");
+	    }
+	}
+    });
+
+    {
+	initial.addTransition(a, s1);
+	s1.addTransition(a, s1);
+	s1.addTransition(b, error);
+	s1.addTransition(c, error);
+    }
+
+    @Test
+    public void processEvent_symbol_sameMatchesAsEvents() throws Exception {
+	final ParametricMonitor pm = ParametricMonitorFactory.createParametricMonitor(new FSMSpec(fsm));
+	final Object o1 = new BoundObject();
+	final Object o2 = new BoundObject();
+	final Object o3 = new BoundObject();
+
+	// exercise
+	pm.processEvent(a, o1, o2);
+	pm.processEvent(b.createEvent(o1, o2, "event"));
+	pm.processEvent(a.createEvent(o1, o3));
+	pm.processEvent(b, o1, o3, "symbol");
+	pm.processEvent(b, o2, o3, "unmatched");
+
+	// verify
+	assertEquals(2, matches.size());
+	assertEquals("event", matches.get(0));
+	assertEquals("symbol", matches.get(1));
+    }
+
+    @Test
+    public void processEvent_symbol_boundObjectsAreNotRetained() throws Exception {
+	final ParametricMonitor pm = ParametricMonitorFactory.createParametricMonitor(new FSMSpec(fsm));
+	final Object o2 = new BoundObject();
+	Object o1 = new BoundObject();
+	pm.processEvent(a, o1, o2);
+	pm.processEvent(b, o1, o2, o1);
+	assertEquals(1, matches.size());
+	matches.clear();
+	final WeakReference<Object> reference = new WeakReference<Object>(o1);
+	o1 = null;
+
+	runGarbageCollectorAFewTimes();
+
+	// verify
+	assertNull(reference.get());
+    }
+
+    @Test
+    public void processEvent_symbol_noAllocationForUpdatesOfExistingMonitors() throws Exception {
+	final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+	assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+	final com.sun.management.ThreadMXBean allocationMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+	assumeTrue(allocationMXBean.isThreadAllocatedMemorySupported());
+	allocationMXBean.setThreadAllocatedMemoryEnabled(true);
+
+	final ParametricMonitor pm = ParametricMonitorFactory.createParametricMonitor(new FSMSpec(fsm));
+	final Object o1 = new BoundObject();
+	final Object o2 = new BoundObject();
+	final int events = 100000;
+	for (int i = 0; i < events; i++) {
+	    pm.processEvent(a, o1, o2);
+	}
+
+	// exercise
+	final long threadId = Thread.currentThread().getId();
+	final long allocatedBytesBefore = allocationMXBean.getThreadAllocatedBytes(threadId);
+	for (int i = 0; i < events; i++) {
+	    pm.processEvent(a, o1, o2);
+	}
+	final long allocatedBytes = allocationMXBean.getThreadAllocatedBytes(threadId) - allocatedBytesBefore;
+
+	// verify
+	assertTrue("Allocated " + allocatedBytes + " bytes for " + events + " events.", allocatedBytes < events);
+    }
+
+    @Test
+    public void processEvent_symbol_reentrantMatchHandler() throws Exception {
+	final ParametricMonitor pm = ParametricMonitorFactory.createParametricMonitor(new FSMSpec(fsm));
+	final Object o1 = new BoundObject();
+	final Object o2 = new BoundObject();
+	final Object o3 = new BoundObject();
+	final Object o4 = new BoundObject();
+	final Object o5 = new BoundObject();
+	pm.processEvent(a, o1, o2);
+	pm.processEvent(a, o1, o3);
+	pm.processEvent(a, o4, o5);
+	reentrantMonitor = pm;
+	nestedObjects = new Object[] { o4, o5 };
+
+	// exercise: the first match of the two monitors bound to o1 processes a nested event
+	pm.processEvent(c, o1, "outer");
+
+	// verify
+	assertEquals(3, matches.size());
+	assertEquals("outer", matches.get(0));
+	assertEquals("nested", matches.get(1));
+	assertEquals("outer", matches.get(2));
+
+	// the reusable event is usable again
+	pm.processEvent(a, o2, o3);
+	pm.processEvent(b, o2, o3, "after");
+	assertEquals(4, matches.size());
+	assertEquals("after", matches.get(3));
+    }
+
+}
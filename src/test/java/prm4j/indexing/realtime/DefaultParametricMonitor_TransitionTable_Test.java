@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.realtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import prm4j.api.ParametricMonitor;
+import prm4j.api.fsm.FSMSpec;
+import prm4j.indexing.DefaultParametricMonitor;
+import prm4j.indexing.binding.ArrayBasedBindingFactory;
+import prm4j.indexing.binding.DefaultBindingStore;
+import prm4j.indexing.model.ParametricPropertyProcessor;
+import prm4j.indexing.monitor.Monitor;
+import prm4j.indexing.monitor.TransitionTableMonitor;
+import prm4j.indexing.node.DefaultNodeStore;
+import prm4j.indexing.node.NodeManager;
+import prm4j.indexing.realtime.DefaultParametricMonitor_a_ab_Test.FSM_a_ab;
+import prm4j.indexing.realtime.ShardedParametricMonitorTest.CountingSafeMapIterator;
+import prm4j.spec.finite.FiniteParametricProperty;
+import prm4j.spec.finite.FiniteSpec;
+
+public class DefaultParametricMonitor_TransitionTable_Test extends AbstractParametricMonitorTest {
+
+    private static ParametricMonitor createParametricMonitor(FiniteSpec finiteSpec, Monitor monitorPrototype) {
+	ParametricPropertyProcessor processor = new ParametricPropertyProcessor(new FiniteParametricProperty(finiteSpec));
+	NodeManager nodeManager = new NodeManager();
+	return new DefaultParametricMonitor(new DefaultBindingStore(new ArrayBasedBindingFactory(),
+		finiteSpec.getFullParameterSet(), 1), new DefaultNodeStore(processor.getParameterTree(), nodeManager),
+		monitorPrototype, processor.getEventContext(), nodeManager, false);
+    }
+
+    @Test
+    public void a_ab_matchIsReported() throws Exception {
+	FSM_a_ab fsm = new FSM_a_ab();
+	FSMSpec spec = new FSMSpec(fsm.fsm);
+	ParametricMonitor pm = createParametricMonitor(spec, new TransitionTableMonitor(spec.getInitialState()
+		.getIndex()));
+
+	// exercise
+	pm.processEvent(fsm.e1.createEvent("a"));
+	pm.processEvent(fsm.e2.createEvent("a", "b"));
+
+	// verify
+	assertEquals(1, fsm.matchHandler.getHandledMatches().size());
+    }
+
+    @Test
+    public void SafeMapIterator_sameMatchesAsStatefulMonitor() throws Exception {
+	final CountingSafeMapIterator stateful = new CountingSafeMapIterator();
+	final CountingSafeMapIterator table = new CountingSafeMapIterator();
+	final FSMSpec statefulSpec = new FSMSpec(stateful.fsm);
+	final FSMSpec tableSpec = new FSMSpec(table.fsm);
+	final ParametricMonitor statefulPm = createParametricMonitor(statefulSpec, statefulSpec.getMonitorPrototype());
+	final ParametricMonitor tablePm = createParametricMonitor(tableSpec, new TransitionTableMonitor(tableSpec
+		.getInitialState().getIndex()));
+
+	final Random random = new Random(42L);
+	final List<Object> objects = new ArrayList<Object>();
+	for (int i = 0; i < 30; i++) {
+	    objects.add(new BoundObject());
+	}
+	for (int i = 0; i < 20000; i++) {
+	    final Object o1 = objects.get(random.nextInt(10));
+	    final Object o2 = objects.get(10 + random.nextInt(10));
+	    final Object o3 = objects.get(20 + random.nextInt(10));
+	    final int symbol = random.nextInt(4);
+	    statefulPm.processEvent(stateful.createEvent(symbol, o1, o2, o3));
+	    tablePm.processEvent(table.createEvent(symbol, o1, o2, o3));
+	}
+
+	// verify
+	assertTrue(stateful.matches.get() > 0);
+	assertEquals(stateful.matches.get(), table.matches.get());
+    }
+
+}
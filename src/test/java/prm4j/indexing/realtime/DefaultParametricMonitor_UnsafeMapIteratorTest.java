@@ -13,6 +13,7 @@ package prm4j.indexing.realtime;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
@@ -30,7 +31,6 @@ import prm4j.indexing.model.FindMaxArgs;
 import prm4j.indexing.model.JoinArgs;
 import prm4j.indexing.model.ParametricPropertyProcessor;
 import prm4j.indexing.model.UpdateChainingsArgs;
-import prm4j.indexing.monitor.AbstractMonitor;
 import prm4j.indexing.node.NodeManager;
 import prm4j.spec.finite.FiniteParametricProperty;
 import prm4j.spec.finite.FiniteSpec;
@@ -95,6 +95,43 @@ public class DefaultParametricMonitor_UnsafeMapIteratorTest extends AbstractDefa
 	assertArrayEquals(eventContext.getJoinArgs(fsm.useIter), new JoinArgs[0]);
     }
 
+    @Test
+    public void eventContext_getLookupOnlyParameters() {
+	EventContext eventContext = processor.getEventContext();
+	assertArrayEquals(new int[0], eventContext.getLookupOnlyParameters(fsm.createColl));
+	// the collection has to be known to join with a monitor of (m, c)
+	assertArrayEquals(new int[] { 1 }, eventContext.getLookupOnlyParameters(fsm.createIter));
+	assertArrayEquals(new int[] { 0 }, eventContext.getLookupOnlyParameters(fsm.updateMap));
+	assertArrayEquals(new int[] { 2 }, eventContext.getLookupOnlyParameters(fsm.useIter));
+    }
+
+    @Test
+    public void unknownObjects_noBindingsAreCreated() throws Exception {
+	pm.processEvent(instance(m1, c1, _).createEvent(fsm.createColl));
+	assertEquals(2, bindingStore.size());
+
+	// exercise
+	pm.processEvent(instance(_, _, i1).createEvent(fsm.useIter));
+	pm.processEvent(instance(new BoundObject("m2"), _, _).createEvent(fsm.updateMap));
+	pm.processEvent(instance(_, c2, i2).createEvent(fsm.createIter));
+
+	// verify
+	assertEquals(2, bindingStore.size());
+    }
+
+    @Test
+    public void knownLookupOnlyObject_unknownObjectIsBound() throws Exception {
+	final ParametricInstance instance = instance(m1, c1, i1);
+	pm.processEvent(instance.createEvent(fsm.createColl));
+
+	// exercise
+	pm.processEvent(instance.createEvent(fsm.createIter));
+
+	// verify
+	assertEquals(3, bindingStore.size());
+	assertNotNull(getNode(m1, c1, i1).getMonitor());
+    }
+
     @Test
     public void getChainData_unsafeMapIterator() {
 	assertChainData(processor.getParameterTree(), asSet(fsm.m, fsm.c, fsm.i), new UpdateChainingsArgs(list(0), 0),
@@ -125,8 +162,9 @@ public class DefaultParametricMonitor_UnsafeMapIteratorTest extends AbstractDefa
 	assertEquals(7L, nodeManager.getCreatedCount()); // root + ...
 	assertCreatedNodes(array(m1, _, _), array(_, c1, _), array(m1, c1, _), array(_, c1, i1), array(m1, c1, i1),
 		array(_, _, i1));
-	assertEquals(3, AbstractMonitor.getCreatedMonitorsCount()); // m1, m1c1, m1c1i1
-	assertEquals(2, AbstractMonitor.getUpdateddMonitorsCount()); // m1c1, m1c1i1
+	assertEquals(2, nodeManager.getMetrics().getCreatedMonitorsCount()
+		+ nodeManager.getMetrics().getDerivedMonitorsCount()); // m1c1, m1c1i1
+	assertEquals(2, nodeManager.getMetrics().getUpdatedMonitorsCount()); // m1c1, m1c1i1
     }
 
     @Test
@@ -142,7 +180,7 @@ public class DefaultParametricMonitor_UnsafeMapIteratorTest extends AbstractDefa
 	// This is correct, because at (1) only the monitor for mi is created.
 	// at (3) the monitor is created, but not updated. Only mci is updated, because the transition m->mc is not in
 	// the chainSet, because it is not stagechanging!
-	assertEquals(3, AbstractMonitor.getUpdateddMonitorsCount()); // m1c1, m1c1i1, m1c1i1
+	assertEquals(3, nodeManager.getMetrics().getUpdatedMonitorsCount()); // m1c1, m1c1i1, m1c1i1
     }
 
     @Test
@@ -159,7 +197,7 @@ public class DefaultParametricMonitor_UnsafeMapIteratorTest extends AbstractDefa
 	// the chainSet, because it is not stagechanging!
 	// at (4) m1 is not updated, because it will never have a monitor! m1c1 not (not stagechanging), and m1c1i1 is
 	// the only valid target.
-	assertEquals(4, AbstractMonitor.getUpdateddMonitorsCount()); // m1c1, m1c1i1, m1c1i1. (4:) m1c1i1
+	assertEquals(4, nodeManager.getMetrics().getUpdatedMonitorsCount()); // m1c1, m1c1i1, m1c1i1. (4:) m1c1i1
     }
 
     @Test
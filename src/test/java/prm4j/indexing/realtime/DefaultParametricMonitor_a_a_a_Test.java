@@ -21,7 +21,6 @@ import org.junit.Test;
 
 import prm4j.api.fsm.FSMSpec;
 import prm4j.indexing.binding.Binding;
-import prm4j.indexing.monitor.AbstractMonitor;
 import prm4j.indexing.monitor.MonitorSet;
 import prm4j.spec.finite.FiniteSpec;
 
@@ -65,7 +64,7 @@ public class DefaultParametricMonitor_a_a_a_Test extends AbstractDefaultParametr
 
 	// verify
 	popNextUpdatedMonitor();
-	assertEquals(1, AbstractMonitor.getUpdateddMonitorsCount());
+	assertEquals(1, nodeManager.getMetrics().getUpdatedMonitorsCount());
 	assertNoMoreUpdatedMonitors();
     }
 
@@ -142,7 +141,7 @@ public class DefaultParametricMonitor_a_a_a_Test extends AbstractDefaultParametr
 	pm.processEvent(fsm.e1.createEvent(a));
 
 	// verify
-	assertEquals(2, AbstractMonitor.getUpdateddMonitorsCount());
+	assertEquals(2, nodeManager.getMetrics().getUpdatedMonitorsCount());
     }
 
     @Test
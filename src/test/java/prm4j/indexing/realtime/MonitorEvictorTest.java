@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.realtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import prm4j.api.ParametricMonitorFactory;
+import prm4j.api.fsm.FSMSpec;
+import prm4j.indexing.DefaultParametricMonitor;
+import prm4j.indexing.binding.ArrayBasedBinding;
+import prm4j.indexing.node.DefaultNodeStore;
+import prm4j.indexing.node.MonitorEvictor;
+import prm4j.indexing.realtime.SamplingParametricMonitorTest.RecordingSafeMapIterator;
+
+public class MonitorEvictorTest extends AbstractParametricMonitorTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setMonitorLimit_negativeLimit_isRejected() throws Exception {
+	createParametricMonitor(new RecordingSafeMapIterator()).setMonitorLimit(-1);
+    }
+
+    @Test
+    public void processEvent_limitReached_numberOfMonitorsIsBounded() throws Exception {
+	final RecordingSafeMapIterator fsm = new RecordingSafeMapIterator();
+	final DefaultParametricMonitor pm = createParametricMonitor(fsm);
+	final MonitorEvictor evictor = pm.setMonitorLimit(10);
+
+	// exercise
+	for (int i = 0; i < 100; i++) {
+	    pm.processEvent(fsm.createColl.createEvent(new BoundObject(), new BoundObject()));
+	    assertTrue(evictor.getTrackedMonitorsCount() <= 10);
+	}
+
+	// verify
+	assertEquals(10, evictor.getTrackedMonitorsCount());
+	assertEquals(90L, pm.getMetrics().getEvictedMonitorsCount());
+    }
+
+    @Test
+    public void processEvent_limitReached_activeMonitorIsNotEvicted() throws Exception {
+	final RecordingSafeMapIterator fsm = new RecordingSafeMapIterator();
+	final DefaultParametricMonitor pm = createParametricMonitor(fsm);
+	pm.setMonitorLimit(10);
+	final BoundObject map = new BoundObject();
+	final BoundObject collection = new BoundObject();
+	final BoundObject iterator = new BoundObject();
+	pm.processEvent(fsm.createColl.createEvent(map, collection));
+	pm.processEvent(fsm.createIter.createEvent(collection, iterator));
+
+	// exercise
+	for (int i = 0; i < 100; i++) {
+	    pm.processEvent(fsm.createColl.createEvent(new BoundObject(), new BoundObject()));
+	    pm.processEvent(fsm.useIter.createEvent(iterator));
+	}
+	pm.processEvent(fsm.updateMap.createEvent(map));
+	pm.processEvent(fsm.useIter.createEvent(iterator));
+
+	// verify
+	assertEquals(1, fsm.matchedMaps.size());
+	assertTrue(fsm.matchedMaps.contains(map));
+	assertTrue(pm.getMetrics().getEvictedMonitorsCount() > 0L);
+    }
+
+    @Test
+    public void processEvent_evictedInstance_isNotMonitoredAgain() throws Exception {
+	final RecordingSafeMapIterator fsm = new RecordingSafeMapIterator();
+	final DefaultParametricMonitor pm = createParametricMonitor(fsm);
+	pm.setMonitorLimit(1);
+	final BoundObject map = new BoundObject();
+	final BoundObject collection = new BoundObject();
+	final BoundObject iterator = new BoundObject();
+
+	// exercise
+	pm.processEvent(fsm.createColl.createEvent(map, collection));
+	pm.processEvent(fsm.createColl.createEvent(new BoundObject(), new BoundObject()));
+	pm.processEvent(fsm.createIter.createEvent(collection, iterator));
+	pm.processEvent(fsm.createColl.createEvent(map, collection));
+	pm.processEvent(fsm.updateMap.createEvent(map));
+	pm.processEvent(fsm.useIter.createEvent(iterator));
+
+	// verify
+	assertEquals(0, fsm.matchedMaps.size());
+	assertEquals(1L, pm.getMetrics().getEvictedMonitorsCount());
+    }
+
+    @Test
+    public void processEvent_evictedInstancesOfLiveObjects_nodesAndBacklinksAreBounded() throws Exception {
+	final RecordingSafeMapIterator fsm = new RecordingSafeMapIterator();
+	createDefaultParametricMonitor(new FSMSpec(fsm.fsm));
+	final MonitorEvictor evictor = ((DefaultParametricMonitor) pm).setMonitorLimit(10);
+	final BoundObject map = new BoundObject("m");
+	// the collections stay alive, so their nodes are not removed by the garbage collection
+	final List<BoundObject> collections = new ArrayList<BoundObject>();
+
+	// exercise
+	for (int i = 0; i < 1000; i++) {
+	    final BoundObject collection = new BoundObject();
+	    collections.add(collection);
+	    pm.processEvent(fsm.createColl.createEvent(map, collection));
+	}
+
+	// verify: 10 monitors and at most 11 tombstones, each with nodes (m, c) and (c)
+	assertEquals(10, evictor.getTrackedMonitorsCount());
+	assertTrue(evictor.getTombstonesCount() <= 11);
+	assertTrue(getNode(map, _, _).size() <= 21);
+	assertTrue(((DefaultNodeStore) nodeStore).getRootNode().size() <= 22);
+	int holdersCount = 0;
+	for (BoundObject collection : collections) {
+	    holdersCount += ((ArrayBasedBinding) bindingStore.getBinding(collection)).getHoldersCount();
+	}
+	assertTrue(holdersCount <= 42);
+    }
+
+    private static DefaultParametricMonitor createParametricMonitor(RecordingSafeMapIterator fsm) {
+	return (DefaultParametricMonitor) ParametricMonitorFactory.createParametricMonitor(new FSMSpec(fsm.fsm));
+    }
+
+}
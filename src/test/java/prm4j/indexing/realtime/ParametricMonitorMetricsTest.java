@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.realtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import prm4j.api.fsm.FSMSpec;
+import prm4j.indexing.DefaultParametricMonitor;
+import prm4j.indexing.binding.ArrayBasedBindingFactory;
+import prm4j.indexing.binding.DefaultBindingStore;
+import prm4j.indexing.model.ParametricPropertyProcessor;
+import prm4j.indexing.monitor.ParametricMonitorMetrics;
+import prm4j.indexing.monitor.StatefulMonitor;
+import prm4j.indexing.node.DefaultNodeStore;
+import prm4j.indexing.node.NodeManager;
+import prm4j.indexing.realtime.DefaultParametricMonitor_a_ab_Test.FSM_a_ab;
+import prm4j.spec.finite.FiniteParametricProperty;
+import prm4j.spec.finite.FiniteSpec;
+
+public class ParametricMonitorMetricsTest extends AbstractParametricMonitorTest {
+
+    FSM_a_ab fsm;
+    DefaultParametricMonitor otherPm;
+
+    @Before
+    public void init() {
+	fsm = new FSM_a_ab();
+	createDefaultParametricMonitor(new FSMSpec(fsm.fsm));
+	otherPm = createOtherParametricMonitor(new FSMSpec(fsm.fsm));
+    }
+
+    private static DefaultParametricMonitor createOtherParametricMonitor(FiniteSpec finiteSpec) {
+	ParametricPropertyProcessor processor = new ParametricPropertyProcessor(new FiniteParametricProperty(finiteSpec));
+	NodeManager nodeManager = new NodeManager();
+	return new DefaultParametricMonitor(new DefaultBindingStore(new ArrayBasedBindingFactory(),
+		finiteSpec.getFullParameterSet(), 1), new DefaultNodeStore(processor.getParameterTree(), nodeManager),
+		new StatefulMonitor(finiteSpec.getInitialState()), processor.getEventContext(), nodeManager, true);
+    }
+
+    private ParametricMonitorMetrics getMetrics() {
+	return ((DefaultParametricMonitor) pm).getMetrics();
+    }
+
+    @Test
+    public void processEvent_countersOfMonitorAreUpdated() throws Exception {
+	// exercise
+	pm.processEvent(fsm.e1.createEvent("a"));
+	pm.processEvent(fsm.e2.createEvent("a", "b"));
+
+	// verify
+	ParametricMonitorMetrics metrics = getMetrics();
+	assertEquals(2L, metrics.getEventsCount());
+	assertEquals(2L, metrics.getCreatedBindingsCount());
+	assertEquals(1L, metrics.getCreatedMonitorsCount()); // a
+	assertEquals(1L, metrics.getDerivedMonitorsCount()); // ab
+	assertEquals(2L, metrics.getUpdatedMonitorsCount());
+	assertEquals(1L, metrics.getMatchesCount());
+    }
+
+    @Test
+    public void processEvent_countersOfOtherMonitorAreNotUpdated() throws Exception {
+	// exercise
+	pm.processEvent(fsm.e1.createEvent("a"));
+	pm.processEvent(fsm.e2.createEvent("a", "b"));
+
+	// verify
+	ParametricMonitorMetrics metrics = otherPm.getMetrics();
+	assertEquals(0L, metrics.getEventsCount());
+	assertEquals(0L, metrics.getCreatedBindingsCount());
+	assertEquals(0L, metrics.getCreatedMonitorsCount());
+	assertEquals(0L, metrics.getUpdatedMonitorsCount());
+	assertEquals(0L, metrics.getMatchesCount());
+    }
+
+    @Test
+    public void reset_doesNotResetCountersOfOtherMonitor() throws Exception {
+	pm.processEvent(fsm.e1.createEvent("a"));
+	otherPm.processEvent(fsm.e1.createEvent("a"));
+
+	// exercise
+	otherPm.reset();
+
+	// verify
+	assertEquals(1L, getMetrics().getEventsCount());
+	assertEquals(1L, getMetrics().getCreatedMonitorsCount());
+	assertEquals(0L, otherPm.getMetrics().getEventsCount());
+    }
+
+    @Test
+    public void registerMBean_countersAreReadableViaJmx() throws Exception {
+	pm.processEvent(fsm.e1.createEvent("a"));
+	pm.processEvent(fsm.e2.createEvent("a", "b"));
+
+	// exercise
+	ObjectName objectName = getMetrics().registerMBean("ParametricMonitorMetricsTest");
+	try {
+	    // verify
+	    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+	    assertEquals(2L, server.getAttribute(objectName, "EventsCount"));
+	    assertEquals(1L, server.getAttribute(objectName, "MatchesCount"));
+	} finally {
+	    getMetrics().unregisterMBean();
+	}
+    }
+
+    @Test
+    public void shutdown_mBeanIsUnregistered() throws Exception {
+	ObjectName objectName = getMetrics().registerMBean("ParametricMonitorMetricsTest");
+
+	// exercise
+	pm.shutdown();
+
+	// verify
+	assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(objectName));
+	// the metrics can be registered again
+	getMetrics().registerMBean("ParametricMonitorMetricsTest");
+	getMetrics().unregisterMBean();
+    }
+
+}
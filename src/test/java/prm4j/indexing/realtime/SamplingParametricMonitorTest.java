@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.realtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import prm4j.api.Alphabet;
+import prm4j.api.Event;
+import prm4j.api.MatchHandler1;
+import prm4j.api.Parameter;
+import prm4j.api.ParametricMonitor;
+import prm4j.api.ParametricMonitorFactory;
+import prm4j.api.Symbol1;
+import prm4j.api.Symbol2;
+import prm4j.api.fsm.FSM;
+import prm4j.api.fsm.FSMSpec;
+import prm4j.api.fsm.FSMState;
+import prm4j.indexing.SamplingParametricMonitor;
+
+public class SamplingParametricMonitorTest extends AbstractParametricMonitorTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void create_parameterIsNoPartitionParameter_isRejected() throws Exception {
+	RecordingSafeMapIterator fsm = new RecordingSafeMapIterator();
+	ParametricMonitorFactory.createSamplingParametricMonitor(new FSMSpec(fsm.fsm), fsm.i, 4);
+    }
+
+    @Test
+    public void create_partitionParameterWithLowestIndexIsSelected() throws Exception {
+	RecordingSafeMapIterator fsm = new RecordingSafeMapIterator();
+	SamplingParametricMonitor samplingPm = ParametricMonitorFactory.createSamplingParametricMonitor(new FSMSpec(
+		fsm.fsm), null, 4);
+	assertSame(fsm.m, samplingPm.getSamplingParameter());
+    }
+
+    @Test
+    public void isSampled_fractionOfObjectsIsSampledConsistently() throws Exception {
+	RecordingSafeMapIterator fsm = new RecordingSafeMapIterator();
+	SamplingParametricMonitor samplingPm = ParametricMonitorFactory.createSamplingParametricMonitor(new FSMSpec(
+		fsm.fsm), null, 8);
+	int sampled = 0;
+	for (int i = 0; i < 8000; i++) {
+	    final Object object = new BoundObject();
+	    if (samplingPm.isSampled(object)) {
+		assertTrue(samplingPm.isSampled(object));
+		sampled++;
+	    }
+	}
+	// verify
+	assertTrue("" + sampled, sampled > 800 && sampled < 1200);
+    }
+
+    @Test
+    public void isSampled_valueTypedSamplingParameter_equalValuesAreSampledAlike() throws Exception {
+	RecordingSafeMapIterator fsm = new RecordingSafeMapIterator();
+	fsm.m.setValueTyped(true);
+	SamplingParametricMonitor samplingPm = ParametricMonitorFactory.createSamplingParametricMonitor(new FSMSpec(
+		fsm.fsm), null, 2);
+	int sampled = 0;
+	for (int i = 0; i < 1000; i++) {
+	    final boolean valueSampled = samplingPm.isSampled(new String("map" + i));
+	    // an equal, but not identical value
+	    assertEquals(valueSampled, samplingPm.isSampled(new String("map" + i)));
+	    if (valueSampled) {
+		sampled++;
+	    }
+	}
+	// verify
+	assertTrue("" + sampled, sampled > 400 && sampled < 600);
+    }
+
+    @Test
+    public void processEvent_SafeMapIterator_matchesOfSampledMapsAreReported() throws Exception {
+	final RecordingSafeMapIterator unsampled = new RecordingSafeMapIterator();
+	final RecordingSafeMapIterator sampled = new RecordingSafeMapIterator();
+	final ParametricMonitor pm = ParametricMonitorFactory.createParametricMonitor(new FSMSpec(unsampled.fsm));
+	final SamplingParametricMonitor samplingPm = ParametricMonitorFactory.createSamplingParametricMonitor(
+		new FSMSpec(sampled.fsm), null, 4);
+
+	// each map owns two collections, each collection owns three iterators
+	final Random random = new Random(42L);
+	final Object[][] families = new Object[240][];
+	// half of the maps are sampled, so that matches are expected independent of the identity hash codes
+	final List<Object> maps = new ArrayList<Object>();
+	int sampledMaps = 0;
+	while (maps.size() < 40) {
+	    final Object map = new BoundObject();
+	    final boolean mapSampled = samplingPm.isSampled(map);
+	    if (mapSampled && sampledMaps < 20) {
+		sampledMaps++;
+		maps.add(map);
+	    } else if (!mapSampled && maps.size() - sampledMaps < 20) {
+		maps.add(map);
+	    }
+	}
+	for (int m = 0; m < 40; m++) {
+	    final Object map = maps.get(m);
+	    for (int c = 0; c < 2; c++) {
+		final Object collection = new BoundObject();
+		for (int i = 0; i < 3; i++) {
+		    families[m * 6 + c * 3 + i] = new Object[] { map, collection, new BoundObject() };
+		}
+	    }
+	}
+	// each collection and iterator is created once and only used afterwards, so that most iterators match
+	for (int f = 0; f < families.length; f++) {
+	    final Object[] family = families[f];
+	    for (int symbol = f % 3 == 0 ? 0 : 1; symbol < 2; symbol++) {
+		pm.processEvent(unsampled.createEvent(symbol, family[0], family[1], family[2]));
+		samplingPm.processEvent(sampled.createEvent(symbol, family[0], family[1], family[2]));
+	    }
+	}
+	final Event[] batch = new Event[10];
+	for (int i = 0; i < 2000; i++) {
+	    for (int j = 0; j < batch.length; j++) {
+		final Object[] family = families[random.nextInt(families.length)];
+		final int symbol = 2 + random.nextInt(2);
+		pm.processEvent(unsampled.createEvent(symbol, family[0], family[1], family[2]));
+		batch[j] = sampled.createEvent(symbol, family[0], family[1], family[2]);
+	    }
+	    samplingPm.processEvents(batch, 0, batch.length);
+	}
+
+	// verify
+	final List<Object> expectedMatches = new ArrayList<Object>();
+	for (Object map : unsampled.matchedMaps) {
+	    if (samplingPm.isSampled(map)) {
+		expectedMatches.add(map);
+	    }
+	}
+	assertTrue(expectedMatches.size() > 0);
+	assertTrue(expectedMatches.size() < unsampled.matchedMaps.size());
+	assertEquals(expectedMatches, sampled.matchedMaps);
+	assertTrue(samplingPm.getDiscardedEventsCount() > 0L);
+    }
+
+    /**
+     * SafeMapIterator recording the map of each match.
+     */
+    static class RecordingSafeMapIterator {
+
+	final List<Object> matchedMaps = new ArrayList<Object>();
+
+	final Alphabet alphabet = new Alphabet();
+
+	final Parameter<Object> m = alphabet.createParameter("m", Object.class);
+	final Parameter<Object> c = alphabet.createParameter("c", Object.class);
+	final Parameter<Object> i = alphabet.createParameter("i", Object.class);
+
+	final Symbol2<Object, Object> createColl = alphabet.createSymbol2("createColl", m, c);
+	final Symbol2<Object, Object> createIter = alphabet.createSymbol2("createIter", c, i);
+	final Symbol1<Object> updateMap = alphabet.createSymbol1("updateMap", m);
+	final Symbol1<Object> useIter = alphabet.createSymbol1("useIter", i);
+
+	final FSM fsm = new FSM(alphabet);
+
+	final FSMState initial = fsm.createInitialState();
+	final FSMState s1 = fsm.createState();
+	final FSMState s2 = fsm.createState();
+	final FSMState s3 = fsm.createState();
+	final FSMState error = fsm.createAcceptingState(new MatchHandler1<Object>(m) {
+	    @Override
+	    public void handleMatch(Object map, Object auxiliaryData) {
+		matchedMaps.add(map);
+	    }
+	});
+
+	RecordingSafeMapIterator() {
+	    initial.addTransition(createColl, s1);
+	    initial.addTransition(updateMap, initial);
+	    initial.addTransition(createIter, initial);
+	    initial.addTransition(useIter, initial);
+	    s1.addTransition(updateMap, s1);
+	    s1.addTransition(createIter, s2);
+	    s2.addTransition(useIter, s2);
+	    s2.addTransition(updateMap, s3);
+	    s3.addTransition(updateMap, s3);
+	    s3.addTransition(useIter, error);
+	}
+
+	Event createEvent(int symbol, Object map, Object collection, Object iterator) {
+	    switch (symbol) {
+	    case 0:
+		return createColl.createEvent(map, collection);
+	    case 1:
+		return createIter.createEvent(collection, iterator);
+	    case 2:
+		return updateMap.createEvent(map);
+	    default:
+		return useIter.createEvent(iterator);
+	    }
+	}
+
+    }
+
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.realtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import prm4j.api.Alphabet;
+import prm4j.api.Event;
+import prm4j.api.EventCondition;
+import prm4j.api.MatchHandler0;
+import prm4j.api.Parameter;
+import prm4j.api.ParametricMonitor;
+import prm4j.api.ParametricMonitorFactory;
+import prm4j.api.Symbol1;
+import prm4j.api.Symbol2;
+import prm4j.api.fsm.FSM;
+import prm4j.api.fsm.FSMSpec;
+import prm4j.api.fsm.FSMState;
+import prm4j.indexing.ShardedParametricMonitor;
+import prm4j.indexing.concurrent.OverflowPolicy;
+
+public class ShardedParametricMonitorTest extends AbstractParametricMonitorTest {
+
+    private ShardedParametricMonitor shardedPm;
+
+    @After
+    public void shutdown() throws InterruptedException {
+	if (shardedPm != null) {
+	    shardedPm.shutdown();
+	}
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void create_propertyWithoutPartitionParameter_isRejected() throws Exception {
+	FSM_a_ab_a_b fsm = new FSM_a_ab_a_b();
+	new ShardedParametricMonitor(new FSMSpec(fsm.fsm), 2, 16, OverflowPolicy.BLOCK);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void create_parameterIsNoPartitionParameter_isRejected() throws Exception {
+	CountingSafeMapIterator fsm = new CountingSafeMapIterator();
+	new ShardedParametricMonitor(new FSMSpec(fsm.fsm), fsm.i, 2, 16, OverflowPolicy.BLOCK);
+    }
+
+    @Test
+    public void create_partitionParameterWithLowestIndexIsSelected() throws Exception {
+	CountingSafeMapIterator fsm = new CountingSafeMapIterator();
+	shardedPm = new ShardedParametricMonitor(new FSMSpec(fsm.fsm), 2, 16, OverflowPolicy.BLOCK);
+	assertSame(fsm.m, shardedPm.getPartitionParameter());
+    }
+
+    @Test
+    public void processEvent_SafeMapIterator_sameMatchesAsUnshardedMonitor() throws Exception {
+	final CountingSafeMapIterator unsharded = new CountingSafeMapIterator();
+	final CountingSafeMapIterator sharded = new CountingSafeMapIterator();
+	final ParametricMonitor pm = ParametricMonitorFactory.createParametricMonitor(new FSMSpec(unsharded.fsm));
+	shardedPm = ParametricMonitorFactory.createShardedParametricMonitor(new FSMSpec(sharded.fsm), 4, 64,
+		OverflowPolicy.BLOCK);
+
+	// each map owns two collections, each collection owns three iterators
+	final Random random = new Random(42L);
+	final Object[][] families = new Object[240][];
+	for (int m = 0; m < 40; m++) {
+	    final Object map = new BoundObject();
+	    for (int c = 0; c < 2; c++) {
+		final Object collection = new BoundObject();
+		for (int i = 0; i < 3; i++) {
+		    families[m * 6 + c * 3 + i] = new Object[] { map, collection, new BoundObject() };
+		}
+	    }
+	}
+	for (int i = 0; i < 20000; i++) {
+	    final Object[] family = families[random.nextInt(families.length)];
+	    final int symbol = random.nextInt(4);
+	    pm.processEvent(unsharded.createEvent(symbol, family[0], family[1], family[2]));
+	    shardedPm.processEvent(sharded.createEvent(symbol, family[0], family[1], family[2]));
+	}
+	shardedPm.flush();
+
+	// verify
+	assertTrue(unsharded.matches.get() > 0);
+	assertEquals(unsharded.matches.get(), sharded.matches.get());
+    }
+
+    @Test
+    public void processEvent_singleShard_sameMatchesAsUnshardedMonitorForArbitraryTraces() throws Exception {
+	final CountingSafeMapIterator unsharded = new CountingSafeMapIterator();
+	final CountingSafeMapIterator sharded = new CountingSafeMapIterator();
+	final ParametricMonitor pm = ParametricMonitorFactory.createParametricMonitor(new FSMSpec(unsharded.fsm));
+	shardedPm = ParametricMonitorFactory.createShardedParametricMonitor(new FSMSpec(sharded.fsm), 1, 64,
+		OverflowPolicy.BLOCK);
+
+	final Random random = new Random(42L);
+	final List<Object> objects = new ArrayList<Object>();
+	for (int i = 0; i < 30; i++) {
+	    objects.add(new BoundObject());
+	}
+	for (int i = 0; i < 20000; i++) {
+	    final Object o1 = objects.get(random.nextInt(10));
+	    final Object o2 = objects.get(10 + random.nextInt(10));
+	    final Object o3 = objects.get(20 + random.nextInt(10));
+	    final int symbol = random.nextInt(4);
+	    pm.processEvent(unsharded.createEvent(symbol, o1, o2, o3));
+	    shardedPm.processEvent(sharded.createEvent(symbol, o1, o2, o3));
+	}
+	shardedPm.flush();
+
+	// verify
+	assertEquals(unsharded.matches.get(), sharded.matches.get());
+    }
+
+    @Test
+    public void processEvent_valueTypedPartitionParameter_equalValuesAreMonitoredByTheSameShard() throws Exception {
+	final CountingSafeMapIterator sharded = new CountingSafeMapIterator();
+	sharded.m.setValueTyped(true);
+	shardedPm = ParametricMonitorFactory.createShardedParametricMonitor(new FSMSpec(sharded.fsm), 16, 64,
+		OverflowPolicy.BLOCK);
+	final List<Object> iterators = new ArrayList<Object>();
+
+	// exercise
+	for (int i = 0; i < 20; i++) {
+	    final Object collection = new BoundObject();
+	    final Object iterator = new BoundObject();
+	    iterators.add(iterator);
+	    shardedPm.processEvent(sharded.createEvent(0, new String("map" + i), collection, null));
+	    shardedPm.processEvent(sharded.createEvent(1, null, collection, iterator));
+	    // an equal, but not identical map
+	    shardedPm.processEvent(sharded.createEvent(2, new String("map" + i), null, null));
+	}
+	for (Object iterator : iterators) {
+	    shardedPm.processEvent(sharded.createEvent(3, null, null, iterator));
+	}
+	shardedPm.flush();
+
+	// verify
+	assertEquals(20, sharded.matches.get());
+    }
+
+    @Test
+    public void processEvent_broadcastEventWithEventCondition_evaluatedAtMostOncePerShard() throws Exception {
+	final CountingSafeMapIterator unsharded = new CountingSafeMapIterator();
+	final CountingSafeMapIterator sharded = new CountingSafeMapIterator();
+	final ParametricMonitor pm = ParametricMonitorFactory.createParametricMonitor(new FSMSpec(unsharded.fsm));
+	final int shardCount = 4;
+	shardedPm = ParametricMonitorFactory.createShardedParametricMonitor(new FSMSpec(sharded.fsm), shardCount, 64,
+		OverflowPolicy.BLOCK);
+
+	// each map owns two collections, each collection owns three iterators
+	final Random random = new Random(42L);
+	final Object[][] families = new Object[60][];
+	for (int m = 0; m < 10; m++) {
+	    final Object map = new BoundObject();
+	    for (int c = 0; c < 2; c++) {
+		final Object collection = new BoundObject();
+		for (int i = 0; i < 3; i++) {
+		    families[m * 6 + c * 3 + i] = new Object[] { map, collection, new BoundObject() };
+		}
+	    }
+	}
+	final List<AtomicInteger> evaluations = new ArrayList<AtomicInteger>();
+	for (int i = 0; i < 20000; i++) {
+	    final Object[] family = families[random.nextInt(families.length)];
+	    final int symbol = random.nextInt(4);
+	    if (symbol == 3) {
+		// useIter does not bind the map, so the same event is processed by all shards concurrently
+		final boolean satisfied = random.nextBoolean();
+		final AtomicInteger shardedEvaluations = new AtomicInteger();
+		evaluations.add(shardedEvaluations);
+		pm.processEvent(unsharded.useIter.createConditionalEvent(family[2],
+			createEventCondition(satisfied, new AtomicInteger())));
+		shardedPm.processEvent(sharded.useIter.createConditionalEvent(family[2],
+			createEventCondition(satisfied, shardedEvaluations)));
+	    } else {
+		pm.processEvent(unsharded.createEvent(symbol, family[0], family[1], family[2]));
+		shardedPm.processEvent(sharded.createEvent(symbol, family[0], family[1], family[2]));
+	    }
+	}
+	shardedPm.flush();
+
+	// verify
+	assertTrue(unsharded.matches.get() > 0);
+	assertEquals(unsharded.matches.get(), sharded.matches.get());
+	for (AtomicInteger shardedEvaluations : evaluations) {
+	    assertTrue(shardedEvaluations.get() <= shardCount);
+	}
+    }
+
+    private static EventCondition createEventCondition(final boolean satisfied, final AtomicInteger evaluations) {
+	return new EventCondition() {
+	    @Override
+	    public boolean eval() {
+		evaluations.incrementAndGet();
+		return satisfied;
+	    }
+	};
+    }
+
+    /**
+     * SafeMapIterator with a thread-safe match handler.
+     */
+    @SuppressWarnings("rawtypes")
+    static class CountingSafeMapIterator {
+
+	final AtomicInteger matches = new AtomicInteger();
+
+	final Alphabet alphabet = new Alphabet();
+
+	final Parameter<Object> m = alphabet.createParameter("m", Object.class);
+	final Parameter<Object> c = alphabet.createParameter("c", Object.class);
+	final Parameter<Object> i = alphabet.createParameter("i", Object.class);
+
+	final Symbol2<Object, Object> createColl = alphabet.createSymbol2("createColl", m, c);
+	final Symbol2<Object, Object> createIter = alphabet.createSymbol2("createIter", c, i);
+	final Symbol1<Object> updateMap = alphabet.createSymbol1("updateMap", m);
+	final Symbol1<Object> useIter = alphabet.createSymbol1("useIter", i);
+
+	final FSM fsm = new FSM(alphabet);
+
+	final FSMState initial = fsm.createInitialState();
+	final FSMState s1 = fsm.createState();
+	final FSMState s2 = fsm.createState();
+	final FSMState s3 = fsm.createState();
+	final FSMState error = fsm.createAcceptingState(new MatchHandler0() {
+	    @Override
+	    public void handleMatch(Object auxiliaryData) {
+		matches.incrementAndGet();
+	    }
+	});
+
+	CountingSafeMapIterator() {
+	    initial.addTransition(createColl, s1);
+	    initial.addTransition(updateMap, initial);
+	    initial.addTransition(createIter, initial);
+	    initial.addTransition(useIter, initial);
+	    s1.addTransition(updateMap, s1);
+	    s1.addTransition(createIter, s2);
+	    s2.addTransition(useIter, s2);
+	    s2.addTransition(updateMap, s3);
+	    s3.addTransition(updateMap, s3);
+	    s3.addTransition(useIter, error);
+	}
+
+	Event createEvent(int symbol, Object map, Object collection, Object iterator) {
+	    switch (symbol) {
+	    case 0:
+		return createColl.createEvent(map, collection);
+	    case 1:
+		return createIter.createEvent(collection, iterator);
+	    case 2:
+		return updateMap.createEvent(map);
+	    default:
+		return useIter.createEvent(iterator);
+	    }
+	}
+
+    }
+
+}
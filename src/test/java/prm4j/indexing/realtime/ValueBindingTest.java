@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2012, 2013 Mateusz Parzonka
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ * Mateusz Parzonka - initial API and implementation
+ */
+package prm4j.indexing.realtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import prm4j.api.Alphabet;
+import prm4j.api.MatchHandler1;
+import prm4j.api.Parameter;
+import prm4j.api.ParametricMonitor;
+import prm4j.api.ParametricMonitorFactory;
+import prm4j.api.Symbol1;
+import prm4j.api.fsm.FSM;
+import prm4j.api.fsm.FSMSpec;
+import prm4j.api.fsm.FSMState;
+import prm4j.indexing.binding.Binding;
+import prm4j.indexing.binding.DefaultBindingStore;
+import prm4j.indexing.binding.LinkedListBindingFactory;
+
+public class ValueBindingTest extends AbstractParametricMonitorTest {
+
+    @Test
+    public void getBindings_equalValues_shareBinding() throws Exception {
+	final UseAfterClose fsm = new UseAfterClose(0L);
+	final DefaultBindingStore bs = createBindingStore(fsm);
+
+	// exercise
+	final Binding binding = bs.getBindings(new Object[] { new String("key") })[0];
+
+	// verify
+	assertSame(binding, bs.getBindings(new Object[] { new String("key") })[0]);
+	assertSame(binding, bs.getValueBinding(fsm.key, "key"));
+	assertEquals(1, bs.size());
+    }
+
+    @Test
+    public void expireValueBinding_bindingIsReleased() throws Exception {
+	final UseAfterClose fsm = new UseAfterClose(0L);
+	final DefaultBindingStore bs = createBindingStore(fsm);
+	final Binding binding = bs.getBindings(new Object[] { "key" })[0];
+
+	// exercise
+	assertTrue(bs.expireValueBinding(fsm.key, new String("key")));
+
+	// verify
+	assertNull(binding.get());
+	assertNull(bs.getValueBinding(fsm.key, "key"));
+	assertEquals(0, bs.size());
+	assertEquals(1L, bs.getCollectedBindingsCount());
+	assertFalse(bs.expireValueBinding(fsm.key, "key"));
+    }
+
+    @Test
+    public void getBindings_timeToLiveElapsed_unusedBindingExpires() throws Exception {
+	final UseAfterClose fsm = new UseAfterClose(10L);
+	final DefaultBindingStore bs = createBindingStore(fsm);
+	final Binding unused = bs.getBindings(new Object[] { "unused" })[0];
+
+	// exercise
+	for (int i = 0; i < 20; i++) {
+	    bs.getBindings(new Object[] { "used" });
+	}
+
+	// verify
+	assertNull(unused.get());
+	assertNull(bs.getValueBinding(fsm.key, "unused"));
+	assertEquals("used", bs.getValueBinding(fsm.key, "used").get());
+	assertEquals(1, bs.size());
+    }
+
+    @Test
+    public void processEvent_equalValues_areTheSameInstance() throws Exception {
+	final UseAfterClose fsm = new UseAfterClose(0L);
+	final ParametricMonitor pm = ParametricMonitorFactory.createParametricMonitor(new FSMSpec(fsm.fsm));
+
+	// exercise
+	pm.processEvent(fsm.open.createEvent(new String("a")));
+	pm.processEvent(fsm.open.createEvent(new String("b")));
+	pm.processEvent(fsm.close.createEvent(new String("a")));
+	pm.processEvent(fsm.use.createEvent(new String("b")));
+	pm.processEvent(fsm.use.createEvent(new String("a")));
+
+	// verify
+	assertEquals(1, fsm.matchedKeys.size());
+	assertEquals("a", fsm.matchedKeys.get(0));
+    }
+
+    private static DefaultBindingStore createBindingStore(UseAfterClose fsm) {
+	return new DefaultBindingStore(new LinkedListBindingFactory(), new FSMSpec(fsm.fsm).getFullParameterSet(), 1);
+    }
+
+    /**
+     * Matches the use of a resource identified by a string key after it was closed.
+     */
+    static class UseAfterClose {
+
+	final List<String> matchedKeys = new ArrayList<String>();
+
+	final Alphabet alphabet = new Alphabet();
+
+	final Parameter<String> key;
+
+	final Symbol1<String> open;
+	final Symbol1<String> close;
+	final Symbol1<String> use;
+
+	final FSM fsm = new FSM(alphabet);
+
+	UseAfterClose(long timeToLive) {
+	    key = alphabet.createValueParameter("key", String.class, timeToLive);
+	    open = alphabet.createSymbol1("open", key);
+	    close = alphabet.createSymbol1("close", key);
+	    use = alphabet.createSymbol1("use", key);
+	    final FSMState initial = fsm.createInitialState();
+	    final FSMState opened = fsm.createState();
+	    final FSMState closed = fsm.createState();
+	    final FSMState error = fsm.createAcceptingState(new MatchHandler1<String>(key) {
+		@Override
+		public void handleMatch(String key, Object auxiliaryData) {
+		    matchedKeys.add(key);
+		}
+	    });
+	    initial.addTransition(open, opened);
+	    opened.addTransition(use, opened);
+	    opened.addTransition(close, closed);
+	    closed.addTransition(use, error);
+	}
+
+    }
+
+}